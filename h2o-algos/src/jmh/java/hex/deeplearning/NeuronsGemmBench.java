@@ -0,0 +1,92 @@
+package hex.deeplearning;
+
+import hex.pca.JMHConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the forward propagation of a mini-batch through a dense layer done as one matrix-vector product per
+ * mini-batch row with the blocked matrix-matrix product (with double and with float32 activations).
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Timeout(time = JMHConfiguration.TIMEOUT_MINUTES, timeUnit = TimeUnit.MINUTES)
+public class NeuronsGemmBench {
+
+  @Param({"1", "8", "32"})
+  private int _miniBatchSize;
+
+  @Param({"1024"})
+  private int _units;
+
+  private Storage.DenseRowMatrix _w;
+  private Storage.DenseVector _b;
+  private Storage.DenseVector[] _x;
+  private Storage.DenseVector[] _res;
+  private float[][] _xf;
+  private double[][] _resRaw;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(NeuronsGemmBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random r = new Random(0x6E33);
+    float[] w = new float[_units * _units];
+    for (int i = 0; i < w.length; i++)
+      w[i] = (float) r.nextGaussian();
+    _w = new Storage.DenseRowMatrix(w, _units, _units);
+    _b = new Storage.DenseVector(_units);
+    _x = new Storage.DenseVector[_miniBatchSize];
+    _res = new Storage.DenseVector[_miniBatchSize];
+    for (int mb = 0; mb < _miniBatchSize; mb++) {
+      _x[mb] = new Storage.DenseVector(_units);
+      for (int i = 0; i < _units; i++)
+        _x[mb].set(i, r.nextGaussian());
+      _res[mb] = new Storage.DenseVector(_units);
+    }
+    _xf = new float[_miniBatchSize][_units];
+    _resRaw = new double[_miniBatchSize][];
+    for (int mb = 0; mb < _miniBatchSize; mb++) {
+      for (int i = 0; i < _units; i++)
+        _xf[mb][i] = (float) _x[mb].get(i);
+      _resRaw[mb] = _res[mb].raw();
+    }
+  }
+
+  @Benchmark
+  public Storage.DenseVector[] gemvPerRow() {
+    for (int mb = 0; mb < _miniBatchSize; mb++)
+      Neurons.gemv(_res[mb], _w, _x[mb], _b, null);
+    return _res;
+  }
+
+  @Benchmark
+  public Storage.DenseVector[] gemm() {
+    Neurons.gemm(_res, _w, _x, _b, null, _miniBatchSize);
+    return _res;
+  }
+
+  @Benchmark
+  public double[][] gemmFloat32() {
+    Neurons.gemm_blocked(_resRaw, _w.raw(), _xf, _b.raw(), null, _miniBatchSize);
+    return _resRaw;
+  }
+
+}
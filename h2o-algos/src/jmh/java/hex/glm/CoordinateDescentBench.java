@@ -0,0 +1,191 @@
+package hex.glm;
+
+import hex.pca.JMHConfiguration;
+import water.DKV;
+import water.H2O;
+import water.Key;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Compares the sequential coordinate descent sweep over the gram (as done by COORDINATE_DESCENT solver for
+ * elastic net) with the blocked sweep which updates the gradients in parallel. The sweeps run on an H2O fork-join
+ * worker (as they do inside of GLM), the gradient updates are not forked from any other thread.
+ * The glmFit* benchmarks train an elastic net model with the COORDINATE_DESCENT solver end to end.
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Timeout(time = JMHConfiguration.TIMEOUT_MINUTES, timeUnit = TimeUnit.MINUTES)
+public class CoordinateDescentBench {
+
+  private static final int SWEEPS = 10;
+
+  @Param({"1000", "5000"})
+  private int _nums;
+
+  private double[][] _xx;
+  private double[] _grads;
+  private double[] _diagInv;
+  private double _l1pen;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(CoordinateDescentBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    water.util.Log.setLogLevel("ERRR");
+    stall_till_cloudsize(1);
+
+    // gram of standardized, correlated predictors: low-rank part + diagonal
+    final int rank = 50;
+    Random r = new Random(0xC0D);
+    double[][] z = new double[rank][_nums];
+    for (double[] zi : z)
+      for (int j = 0; j < _nums; j++)
+        zi[j] = r.nextGaussian();
+    _xx = new double[_nums][_nums];
+    for (int i = 0; i < _nums; i++) {
+      for (int j = 0; j <= i; j++) {
+        double v = 0;
+        for (int k = 0; k < rank; k++)
+          v += z[k][i] * z[k][j];
+        _xx[i][j] = _xx[j][i] = v / rank * 0.5;
+      }
+      _xx[i][i] += 0.5;
+    }
+    _grads = new double[_nums];
+    for (int i = 0; i < _nums; i++)
+      _grads[i] = 0.3 * r.nextGaussian();
+    _l1pen = 0.05;
+    final double l2pen = 0.05;
+    _diagInv = new double[_nums];
+    for (int i = 0; i < _nums; i++)
+      _diagInv[i] = 1.0 / (_xx[i][i] + l2pen);
+  }
+
+  @Benchmark
+  public double[] sequential() {
+    final double[] grads = _grads.clone();
+    final double[] beta = new double[_nums];
+    runOnWorker(new Runnable() {
+      @Override public void run() {
+        for (int i = 0; i < SWEEPS; i++)
+          GLM.codNumericSweep(_xx, grads, beta, null, null, _diagInv, _l1pen, 0, 0, _nums);
+      }
+    });
+    return beta;
+  }
+
+  @Benchmark
+  public double[] blocked() {
+    final double[] grads = _grads.clone();
+    final double[] beta = new double[_nums];
+    runOnWorker(new Runnable() {
+      @Override public void run() {
+        for (int i = 0; i < SWEEPS; i++)
+          GLM.codNumericSweepBlocked(_xx, grads, beta, null, null, _diagInv, _l1pen, 0, 0, _nums, GLM.COD_BLOCK_SIZE);
+      }
+    });
+    return beta;
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-Dsys.ai.h2o.glm.cod.parallelMin=2147483647") // never use the blocked sweep
+  public GLMModel glmFitSequential(GLMFitState state) {
+    return state.fit();
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-Dsys.ai.h2o.glm.cod.parallelMin=1")
+  public GLMModel glmFitBlocked(GLMFitState state) {
+    return state.fit();
+  }
+
+  private static void runOnWorker(final Runnable r) {
+    H2O.submitTask(new H2O.H2OCountedCompleter() {
+      @Override
+      public void compute2() {
+        r.run();
+        tryComplete();
+      }
+    }).join();
+  }
+
+  @State(Scope.Thread)
+  public static class GLMFitState {
+
+    @Param({"5000"})
+    private int _rows;
+
+    @Param({"1500"})
+    private int _cols;
+
+    private Frame _train;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      water.util.Log.setLogLevel("ERRR");
+      stall_till_cloudsize(1);
+
+      Random r = new Random(0xC0D);
+      double[][] data = new double[_cols + 1][_rows];
+      for (int i = 0; i < _rows; i++) {
+        double y = 0;
+        for (int j = 0; j < _cols; j++) {
+          data[j][i] = r.nextGaussian();
+          if (j < 20)
+            y += (j + 1) * 0.1 * data[j][i];
+        }
+        data[_cols][i] = y + r.nextGaussian();
+      }
+      Vec[] vecs = new Vec[_cols + 1];
+      String[] names = new String[_cols + 1];
+      for (int j = 0; j <= _cols; j++) {
+        vecs[j] = Vec.makeVec(data[j], Vec.newKey());
+        names[j] = j < _cols ? "C" + (j + 1) : "y";
+      }
+      _train = new Frame(Key.<Frame>make(), names, vecs);
+      DKV.put(_train);
+    }
+
+    GLMModel fit() {
+      GLMModel.GLMParameters parms = new GLMModel.GLMParameters(GLMModel.GLMParameters.Family.gaussian);
+      parms._train = _train._key;
+      parms._response_column = "y";
+      parms._solver = GLMModel.GLMParameters.Solver.COORDINATE_DESCENT;
+      parms._alpha = new double[]{0.5};
+      parms._lambda = new double[]{1e-3};
+      GLMModel model = new GLM(parms).trainModel().get();
+      model.remove();
+      return model;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      if (_train != null) {
+        _train.remove();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package hex.gram;
+
+import hex.DataInfo;
+import hex.pca.JMHConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.fvec.Frame;
+import water.util.ArrayUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Compares row-by-row accumulation of a Gram matrix (as done by GLMIterationTask for small models)
+ * with the blocked accumulation (rank-k updates).
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Timeout(time = JMHConfiguration.TIMEOUT_MINUTES, timeUnit = TimeUnit.MINUTES)
+public class GramAccumulationBench {
+
+  @Param({"100", "500", "2000"})
+  private int _nums;
+
+  @Param({"1000"})
+  private int _rows;
+
+  private DataInfo.Row[] _data;
+  private double[] _weights;
+  private Frame _fr;
+  private DataInfo _dinfo;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(GramAccumulationBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    water.util.Log.setLogLevel("ERRR");
+    stall_till_cloudsize(1);
+
+    // rows are only "attached" to the DataInfo, the actual data are generated below
+    _fr = ArrayUtils.frame(new String[]{"x", "y"}, new double[]{0, 1}, new double[]{1, 0});
+    _dinfo = new DataInfo(_fr, null, 1, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+            false, false, false, false, false, false);
+
+    Random r = new Random(0xBEEF);
+    _data = new DataInfo.Row[_rows];
+    _weights = new double[_rows];
+    for (int i = 0; i < _rows; i++) {
+      double[] nums = new double[_nums];
+      for (int j = 0; j < nums.length; j++) {
+        nums[j] = r.nextGaussian();
+      }
+      _data[i] = _dinfo.newDenseRow(nums, i);
+      _weights[i] = r.nextDouble();
+    }
+  }
+
+  @Benchmark
+  public Gram rowByRow() {
+    Gram gram = new Gram(_nums, 0, _nums, 0, true);
+    for (int i = 0; i < _rows; i++) {
+      gram.addRow(_data[i], _weights[i]);
+    }
+    return gram;
+  }
+
+  @Benchmark
+  public Gram blocked() {
+    Gram gram = new Gram(_nums, 0, _nums, 0, true);
+    Gram.BlockAccumulator blocks = new Gram.BlockAccumulator(gram, Gram.BlockAccumulator.blockSize(_nums));
+    for (int i = 0; i < _rows; i++) {
+      blocks.addRow(_data[i], _weights[i]);
+    }
+    blocks.flush();
+    return gram;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (_dinfo != null) {
+      _dinfo.remove();
+    }
+    if (_fr != null) {
+      _fr.delete();
+    }
+  }
+
+}
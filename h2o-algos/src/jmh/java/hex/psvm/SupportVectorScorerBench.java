@@ -11,13 +11,19 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import water.AutoBuffer;
+import water.DKV;
+import water.Key;
 import water.fvec.C8DVolatileChunkHelper;
 import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
 
 import java.io.ByteArrayOutputStream;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
+import static water.TestUtil.stall_till_cloudsize;
+
 @Fork(1)
 @Threads(1)
 @State(Scope.Thread)
@@ -139,4 +145,70 @@ public class SupportVectorScorerBench {
     _scorer = null;
   }
 
+  /**
+   * Training on a synthetic dataset - covers ICF construction (distributed kernel-row computation)
+   * and the interior-point method (node-local Cholesky factorization of the reduced system).
+   */
+  @Benchmark
+  public PSVMModel training(TrainingState state) {
+    PSVMModel model = new PSVM(state._parms).trainModel().get();
+    model.remove();
+    return model;
+  }
+
+  @State(Scope.Thread)
+  public static class TrainingState {
+
+    @Param({"20000"})
+    private int _train_rows;
+
+    @Param({"0.05"})
+    private double _rank_ratio;
+
+    private Frame _train;
+    private PSVMModel.PSVMParameters _parms;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      water.util.Log.setLogLevel("ERRR");
+      stall_till_cloudsize(1);
+
+      final int nums = 20;
+      Random r = new Random(8008);
+      double[][] cols = new double[nums][_train_rows];
+      long[] response = new long[_train_rows];
+      for (int i = 0; i < _train_rows; i++) {
+        double sum = 0;
+        for (int j = 0; j < nums; j++) {
+          cols[j][i] = r.nextDouble();
+          sum += cols[j][i];
+        }
+        response[i] = sum + r.nextGaussian() > nums / 2.0 ? 1 : 0;
+      }
+      Vec[] vecs = new Vec[nums + 1];
+      String[] names = new String[nums + 1];
+      for (int j = 0; j < nums; j++) {
+        vecs[j] = Vec.makeVec(cols[j], Vec.newKey());
+        names[j] = "C" + (j + 1);
+      }
+      vecs[nums] = Vec.makeVec(response, new String[]{"neg", "pos"}, Vec.newKey());
+      names[nums] = "response";
+      _train = new Frame(Key.<Frame>make(), names, vecs);
+      DKV.put(_train);
+
+      _parms = new PSVMModel.PSVMParameters();
+      _parms._train = _train._key;
+      _parms._response_column = "response";
+      _parms._gamma = 0.1;
+      _parms._rank_ratio = _rank_ratio;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      if (_train != null) {
+        _train.remove();
+      }
+    }
+  }
+
 }
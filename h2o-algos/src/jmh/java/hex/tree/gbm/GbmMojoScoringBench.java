@@ -1,6 +1,8 @@
 package hex.tree.gbm;
 
+import hex.genmodel.algos.tree.FlatTree;
 import hex.genmodel.algos.tree.SharedTreeMojoModel;
+import org.apache.commons.io.IOUtils;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -12,6 +14,10 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * GBM MOJO micro-benchmark
+ *
+ * Compares the compressed (byte-stream) tree representation with the flattened representation ({@link FlatTree}).
+ * Besides scoring the actual MOJO, it also scores a large ensemble of 1000 trees (made of repeated trees of the MOJO)
+ * to show the effect on models where the trees don't fit in the CPU caches.
  */
 @Fork(1)
 @Threads(1)
@@ -25,8 +31,16 @@ public class GbmMojoScoringBench {
   @Param({"1000", "100000"})
   private int rows;
 
+  @Param({"true", "false"})
+  private boolean flatTrees;
+
+  @Param({"1000"})
+  private int ntrees;
+
   private SharedTreeMojoModel _mojo;
   private double[][] _data;
+  private byte[][] _trees;
+  private FlatTree[] _flatTrees;
 
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
@@ -38,8 +52,15 @@ public class GbmMojoScoringBench {
 
   @Setup(Level.Invocation)
   public void setup() throws IOException {
+    System.setProperty(FlatTree.FLAT_TREES_PROPERTY, String.valueOf(flatTrees));
     _mojo = (SharedTreeMojoModel) ClasspathReaderBackend.loadMojo("prostate");
     _data = ProstateData.ROWS;
+    _trees = new byte[ntrees][];
+    for (int i = 0; i < ntrees; i++) {
+      String treeFile = String.format("prostate/trees/t00_%03d.bin", i % _mojo.getNTreeGroups());
+      _trees[i] = IOUtils.toByteArray(GbmMojoScoringBench.class.getResource(treeFile));
+    }
+    _flatTrees = flatTrees ? FlatTree.flatten(_trees) : null;
   }
 
   @Benchmark
@@ -54,10 +75,27 @@ public class GbmMojoScoringBench {
     return sum;
   }
 
+  @Benchmark
+  public double measureTreeEnsembleScore() {
+    double sum = 0;
+    for (int i = 0; i < rows; i++) {
+      double[] row = _data[i % _data.length];
+      for (int t = 0; t < _trees.length; t++) {
+        sum += _flatTrees != null ?
+                _flatTrees[t].score(row, null) :
+                SharedTreeMojoModel.scoreTree(_trees[t], row, false, null);
+      }
+    }
+    return sum;
+  }
+
   @TearDown(Level.Invocation)
   public void tearDown() {
+    System.clearProperty(FlatTree.FLAT_TREES_PROPERTY);
     _mojo = null;
     _data = null;
+    _trees = null;
+    _flatTrees = null;
   }
 
 
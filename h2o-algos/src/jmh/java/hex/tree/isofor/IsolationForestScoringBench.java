@@ -0,0 +1,96 @@
+package hex.tree.isofor;
+
+import hex.pca.JMHConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.DKV;
+import water.Key;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Compares anomaly scoring of an Isolation Forest model using the block-wise, tree-major batch scorer of SharedTree
+ * models (scoreBatch) with the per-row scoring of all trees (scoreBaseline). The baseline runs in a JVM with the batch
+ * scorer disabled.
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Timeout(time = JMHConfiguration.TIMEOUT_MINUTES, timeUnit = TimeUnit.MINUTES)
+public class IsolationForestScoringBench {
+
+  private static final int NCOLS = 20;
+
+  @Param({"100000", "1000000"})
+  private int _rows;
+
+  @Param({"50", "200"})
+  private int _ntrees;
+
+  private Frame _frame;
+  private IsolationForestModel _model;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(IsolationForestScoringBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    water.util.Log.setLogLevel("ERRR");
+    stall_till_cloudsize(1);
+
+    Random r = new Random(0xF4A0D);
+    Vec.VectorGroup vg = Vec.VectorGroup.VG_LEN1;
+    String[] names = new String[NCOLS];
+    Vec[] vecs = new Vec[NCOLS];
+    for (int j = 0; j < NCOLS; j++) {
+      double[] x = new double[_rows];
+      for (int i = 0; i < _rows; i++)
+        x[i] = i % 1000 == 0 ? 6 + r.nextDouble() : r.nextGaussian(); // 0.1% anomalies
+      names[j] = "x" + j;
+      vecs[j] = Vec.makeVec(x, vg.addVec());
+    }
+    _frame = new Frame(Key.<Frame>make("if_scoring_bench"), names, vecs);
+    DKV.put(_frame);
+
+    IsolationForestModel.IsolationForestParameters p = new IsolationForestModel.IsolationForestParameters();
+    p._train = _frame._key;
+    p._seed = 0xDECAF;
+    p._ntrees = _ntrees;
+    _model = new IsolationForest(p).trainModel().get();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (_model != null) _model.delete();
+    if (_frame != null) _frame.delete();
+  }
+
+  @Benchmark
+  public void scoreBatch() {
+    _model.score(_frame).delete();
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = "-Dsys.ai.h2o.sharedtree.batchScoring=false")
+  public void scoreBaseline() {
+    _model.score(_frame).delete();
+  }
+
+}
@@ -44,7 +44,7 @@ public abstract class FrameTask2<T extends FrameTask2<T>> extends MRTask<T> {
    */
   public void chunkDone(){}
 
-  private transient Job _job;
+  protected transient Job _job;
   @Override
   public void setupLocal(){if(_jobKey != null)_job = _jobKey.get();}
 
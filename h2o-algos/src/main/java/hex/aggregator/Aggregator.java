@@ -1,6 +1,7 @@
 package hex.aggregator;
 
 import hex.*;
+import hex.util.HNSWIndex;
 import hex.util.LinearAlgebraUtils;
 import water.*;
 import water.exceptions.H2OModelBuilderIllegalArgumentException;
@@ -91,6 +92,12 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
     private static boolean isMissing(double x) {
       return Double.isNaN(x);
     }
+
+    private static float[] toFloat(double[] d) {
+      float[] f = new float[d.length];
+      for (int i = 0; i < f.length; i++) f[i] = (float) d[i];
+      return f;
+    }
   }
 
   // Number of columns in training set (p)
@@ -166,7 +173,7 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
           Vec[] vecs = Arrays.copyOf(orig.vecs(), orig.vecs().length + 1);
           assignment = vecs[vecs.length - 1] = orig.anyVec().makeZero();
           Log.info("Aggregating with radius " + String.format("%5f", radius) + ":");
-          aggTask = new AggregateTask(di._key, radius, _job._key, upperLimit, radius == 0 ? null : terminateKey).doAll(vecs);
+          aggTask = new AggregateTask(di._key, radius, _job._key, upperLimit, radius == 0 ? null : terminateKey, _parms._approximate_exemplar_search).doAll(vecs);
 
           if (radius == 0) {
             Log.info(" Returning original dataset.");
@@ -177,7 +184,7 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
 
           // stuck in range [0,256] with too many exemplars? - just do it
           if (aggTask.isTerminated() && Math.abs(hi-lo) < 1e-3 * Math.abs(lo+hi)) {
-            aggTask = new AggregateTask(di._key, radius, _job._key, (int)orig.numRows(), terminateKey).doAll(vecs);
+            aggTask = new AggregateTask(di._key, radius, _job._key, (int)orig.numRows(), terminateKey, _parms._approximate_exemplar_search).doAll(vecs);
             Log.info(" Running again without early cutout.");
             numExemplars = aggTask._exemplars.length;
             break;
@@ -251,6 +258,7 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
     final Key _dataInfoKey;
     final Key _jobKey;
     final int _maxExemplars;
+    final boolean _approximate; // look up the closest exemplar in an HNSW index instead of a linear scan
 
     // OUTPUT
     Exemplar[] _exemplars;
@@ -311,8 +319,9 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
 
     GIDMapping _mapping;
 
-    public AggregateTask(Key<DataInfo> dataInfoKey, double radius, Key<Job> jobKey, int maxExemplars, Key terminateKey) {
+    public AggregateTask(Key<DataInfo> dataInfoKey, double radius, Key<Job> jobKey, int maxExemplars, Key terminateKey, boolean approximate) {
       _delta = radius*radius;
+      _approximate = approximate;
       _dataInfoKey = dataInfoKey;
       _jobKey = jobKey;
       _maxExemplars = maxExemplars;
@@ -341,6 +350,8 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
       assert(di!=null);
       DataInfo.Row row = di.newDenseRow(); //shared _dataInfo - faster, no writes
       final int nCols = row.nNums;
+      // categoricals have to match exactly, the index is only used when there are none (always the case for Eigen encoding)
+      HNSWIndex hnsw = _approximate && di._cats == 0 && nCols > 0 ? new HNSWIndex(HNSWIndex.Metric.SquaredEuclidean, nCols) : null;
       for (int r=0; r<chks[0]._len; ++r) {
         if (r%100 == 0 && isTerminated())
           return;
@@ -351,6 +362,7 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
         if (r==0) {
           Exemplar ex = new Exemplar(data, cats, rowIndex);
           es = Exemplar.addExemplar(es,ex);
+          if (hnsw != null) hnsw.add(Exemplar.toFloat(data));
           assignmentChk.set(r, ex.gid);
         } else {
           /* find closest exemplar to this case */
@@ -358,23 +370,30 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
           int closestExemplarIndex = 0;
           int index = 0;
           long gid=-1;
-          for(Exemplar e: es) {
-            if( null==e ) break;
-            // all categoricals must match: only non-trivial (empty) for categorical_handling == Enum
-            if (!Arrays.equals(cats, e.cats)) {
+          if (hnsw != null) {
+            /* ids in the index are positions in es, the index returns (approximately) the nearest one */
+            closestExemplarIndex = hnsw.search(Exemplar.toFloat(data), 1)[0];
+            distanceToNearestExemplar = es[closestExemplarIndex].squaredEuclideanDistance(data, Double.MAX_VALUE);
+            gid = es[closestExemplarIndex].gid;
+          } else {
+            for (Exemplar e : es) {
+              if (null == e) break;
+              // all categoricals must match: only non-trivial (empty) for categorical_handling == Enum
+              if (!Arrays.equals(cats, e.cats)) {
+                index++;
+                continue;
+              }
+              double distToExemplar = e.squaredEuclideanDistance(data, distanceToNearestExemplar);
+              if (distToExemplar < distanceToNearestExemplar) {
+                distanceToNearestExemplar = distToExemplar;
+                closestExemplarIndex = index;
+                gid = e.gid;
+              }
+              /* do not need to look further even if some other exemplar is closer */
+              if (distanceToNearestExemplar < _delta)
+                break;
               index++;
-              continue;
             }
-            double distToExemplar = e.squaredEuclideanDistance(data,distanceToNearestExemplar);
-            if( distToExemplar < distanceToNearestExemplar ) {
-              distanceToNearestExemplar = distToExemplar;
-              closestExemplarIndex = index;
-              gid=e.gid;
-            }
-            /* do not need to look further even if some other exemplar is closer */
-            if (distanceToNearestExemplar < _delta)
-              break;
-            index++;
           }
           /* found a close exemplar, so add to list */
           if (distanceToNearestExemplar < _delta) {
@@ -385,6 +404,7 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
             Exemplar ex = new Exemplar(data, cats, rowIndex);
             assert(Arrays.equals(cats, ex.cats));
             es = Exemplar.addExemplar(es,ex);
+            if (hnsw != null) hnsw.add(Exemplar.toFloat(data));
             if (es.length > 2*_maxExemplars) { //es array grows by 2x - have to be conservative here
               terminate();
             }
@@ -428,22 +448,33 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
       long remoteCounts = 0;
       for (Exemplar e : mrt._exemplars) remoteCounts += e._cnt;
 
+      HNSWIndex hnsw = null;
+      if (_approximate && _exemplars.length > 0 && _exemplars[0].cats.length == 0 && _exemplars[0].data.length > 0) {
+        hnsw = new HNSWIndex(HNSWIndex.Metric.SquaredEuclidean, _exemplars[0].data.length);
+        for (Exemplar le : _exemplars) hnsw.add(Exemplar.toFloat(le.data));
+      }
+
       // remote tasks exemplars
       for(int r=0;r<mrt._exemplars.length;++r) {
         double distanceToNearestExemplar = Double.MAX_VALUE;
         int closestExemplarIndex = 0;
         int index=0;
-        for(Exemplar le: _exemplars) {
-          if( null==le ) break; // tapped out
-          double distToExemplar = le.squaredEuclideanDistance(mrt._exemplars[r].data,distanceToNearestExemplar);
-          if( distToExemplar < distanceToNearestExemplar ) {
-            distanceToNearestExemplar = distToExemplar;
-            closestExemplarIndex=index;
+        if (hnsw != null) {
+          closestExemplarIndex = hnsw.search(Exemplar.toFloat(mrt._exemplars[r].data), 1)[0];
+          distanceToNearestExemplar = _exemplars[closestExemplarIndex].squaredEuclideanDistance(mrt._exemplars[r].data, Double.MAX_VALUE);
+        } else {
+          for (Exemplar le : _exemplars) {
+            if (null == le) break; // tapped out
+            double distToExemplar = le.squaredEuclideanDistance(mrt._exemplars[r].data, distanceToNearestExemplar);
+            if (distToExemplar < distanceToNearestExemplar) {
+              distanceToNearestExemplar = distToExemplar;
+              closestExemplarIndex = index;
+            }
+            /* do not need to look further even if some other exemplar is closer */
+            if (distanceToNearestExemplar < _delta)
+              break;
+            index++;
           }
-           /* do not need to look further even if some other exemplar is closer */
-          if (distanceToNearestExemplar < _delta)
-            break;
-          index++;
         }
         if (distanceToNearestExemplar < _delta) {
           // add remote exemplar counts/indices to one of my exemplars that are close enough
@@ -453,6 +484,7 @@ public class Aggregator extends ModelBuilder<AggregatorModel,AggregatorModel.Agg
           _mapping.set(exemplars[r].gid, _exemplars[closestExemplarIndex].gid);
         } else {
           _exemplars = Exemplar.addExemplar(_exemplars, IcedUtils.deepCopy(mrt._exemplars[r]));
+          if (hnsw != null) hnsw.add(Exemplar.toFloat(mrt._exemplars[r].data));
         }
       }
       mrt._exemplars = null;
@@ -38,6 +38,7 @@ public class AggregatorModel extends Model<AggregatorModel,AggregatorModel.Aggre
     public boolean _use_all_factor_levels = false;   // When expanding categoricals, should first level be kept or dropped?
     public boolean _save_mapping_frame = false;
     public int _num_iteration_without_new_exemplar = 500;
+    public boolean _approximate_exemplar_search = false; // use an HNSW index instead of scanning all exemplars
   }
 
   public static class AggregatorOutput extends Model.Output {
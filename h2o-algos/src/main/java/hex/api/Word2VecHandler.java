@@ -17,7 +17,7 @@ public class Word2VecHandler extends Handler {
     if (model == null)
       throw new IllegalArgumentException("missing source model " + args.model);
 
-    Map<String, Float> synonyms = model.findSynonyms(args.word, args.count);
+    Map<String, Float> synonyms = model.findSynonyms(args.word, args.count, args.approximate);
 
     List<Map.Entry<String, Float>> result = new ArrayList<>(synonyms.entrySet());
     Collections.sort(result, new Comparator<Map.Entry<String, Float>>() {
@@ -7,6 +7,7 @@ import hex.DataInfo.TransformType;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import water.*;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
@@ -25,6 +26,7 @@ import java.util.Collection;
 public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,CoxPHModel.CoxPHOutput> {
 
   private static final int MAX_TIME_BINS = 100000;
+  private static final int MAX_SORTED_TIME_BINS = 10000000; // no per-time x predictors state with sorted risk sets
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[] { ModelCategory.CoxPH }; }
   @Override public BuilderVisibility builderVisibility() { return BuilderVisibility.Stable; }
@@ -61,7 +63,7 @@ public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,Co
         else
           if (expensive) {
             try {
-              CollectTimes.collect(_parms.stopVec(), _parms._single_node_mode);
+              CollectTimes.collect(_parms.stopVec(), maxTimeBins(), _parms._single_node_mode);
             } catch (CollectTimesException e) {
               error("stop_column", e.getMessage());
             }
@@ -76,6 +78,9 @@ public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,Co
           error("start_column", "start times must be strictly less than stop times");
       }
 
+      if (_parms._sort_risk_sets && _parms._start_column != null)
+        error("sort_risk_sets", "sorted risk sets are not supported for data with a start column");
+
       if (_parms.isStratified()) {
         for (String col : _parms._stratify_by) {
           Vec v = _parms.train().vec(col);
@@ -102,6 +107,10 @@ public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,Co
       error("max_iterations", "max_iterations must be a positive integer");
   }
 
+  private int maxTimeBins() {
+    return _parms._sort_risk_sets ? MAX_SORTED_TIME_BINS : MAX_TIME_BINS;
+  }
+
   static class DiscretizeTimeTask extends MRTask<DiscretizeTimeTask> {
     final double[] _time;
     final boolean _has_start_column;
@@ -258,6 +267,12 @@ public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,Co
       Frame discretizedFr;
       if (_parms.isStratified()) {
         StrataTask.setupStrataMapping(f, _parms._stratify_by, outStrataMap);
+        if ((long) time.length * outStrataMap.size() > Integer.MAX_VALUE) {
+          // (stratum, time) pairs are encoded in a single int
+          error("stratify_by", "too many combinations of strata (" + outStrataMap.size() + ") and distinct stop times (" +
+                  time.length + "), use fewer strata or round the stop times");
+          throw H2OModelBuilderIllegalArgumentException.makeFromBuilder(CoxPH.this);
+        }
         discretizedFr = Scope.track(
                 StrataTask.stratifyTime(f, time, _parms._stratify_by, outStrataMap, startVec, stopVec, _parms._single_node_mode)
         );
@@ -503,12 +518,17 @@ public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,Co
       try {
         init(true);
 
-        final double[] time = CollectTimes.collect(_parms.stopVec(), _parms._single_node_mode);
+        final double[] time = CollectTimes.collect(_parms.stopVec(), maxTimeBins(), _parms._single_node_mode);
 
         _job.update(0, "Initializing model training");
 
         IcedHashMap<AstGroup.G, IcedInt> strataMap = new IcedHashMap<>();
         Frame f = reorderTrainFrameColumns(strataMap, time);
+        if (_parms._sort_risk_sets) {
+          Timer sortTimer = new Timer();
+          f = Scope.track(SortedRiskSets.sortByStopTime(f, _parms._stop_column));
+          Log.info("CoxPH: sorted training frame by stop time, time=" + sortTimer.toString());
+        }
 
         int nResponses = (_parms.startVec() == null ? 2 : 3) + (_parms.isStratified() ? 1 : 0);
         final DataInfo dinfo = new DataInfo(f, null, nResponses, _parms._use_all_factor_levels, TransformType.DEMEAN, TransformType.NONE, true, false, false, false, false, false, _parms.interactionSpec())
@@ -539,21 +559,34 @@ public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,Co
         final ComputationState cs = new ComputationState(n_coef);
         Timer iterTimer = null;
         CoxPHTask coxMR = null;
+        final SortedRiskSets riskSets = _parms._sort_risk_sets ?
+                new SortedRiskSets(dinfo, time, (long) response().min() /* min event */, n_offsets,
+                        dinfo._adaptedFrame.vec(_parms._strata_column), has_weights_column, _parms._ties, _parms._single_node_mode) :
+                null;
         _job.update(1, "Running iteration 0");
         for (int i = 0; i <= model._parms._max_iterations; ++i) {
           iterTimer = new Timer();
           model._output._iter = i;
 
-          Timer aggregTimer = new Timer();
-          coxMR = new CoxPHTask(dinfo, newCoef, time, (long) response().min() /* min event */,
-                  n_offsets, has_start_column, dinfo._adaptedFrame.vec(_parms._strata_column), has_weights_column,
-                  _parms._ties).doAll(dinfo._adaptedFrame, _parms._single_node_mode);
-          Log.info("CoxPHTask: iter=" + i + ", time=" + aggregTimer.toString());
-          _job.update(1);
-
-          Timer loglikTimer = new Timer();
-          final double newLoglik = calcLoglik(dinfo, cs, _parms, coxMR)._logLik;
-          Log.info("LogLik: iter=" + i + ", time=" + loglikTimer.toString() + ", logLig=" + newLoglik);
+          final double newLoglik;
+          if (riskSets != null) {
+            Timer scanTimer = new Timer();
+            coxMR = riskSets.calcLoglik(newCoef, cs, i == 0);
+            newLoglik = cs._logLik;
+            _job.update(1);
+            Log.info("SortedRiskSets: iter=" + i + ", time=" + scanTimer.toString() + ", logLik=" + newLoglik);
+          } else {
+            Timer aggregTimer = new Timer();
+            coxMR = new CoxPHTask(dinfo, newCoef, time, (long) response().min() /* min event */,
+                    n_offsets, has_start_column, dinfo._adaptedFrame.vec(_parms._strata_column), has_weights_column,
+                    _parms._ties).doAll(dinfo._adaptedFrame, _parms._single_node_mode);
+            Log.info("CoxPHTask: iter=" + i + ", time=" + aggregTimer.toString());
+            _job.update(1);
+
+            Timer loglikTimer = new Timer();
+            newLoglik = calcLoglik(dinfo, cs, _parms, coxMR)._logLik;
+            Log.info("LogLik: iter=" + i + ", time=" + loglikTimer.toString() + ", logLig=" + newLoglik);
+          }
           model._output._scoring_history = sc.addIterationScore(i, newLoglik).to2dTable(i);
 
           if (newLoglik > logLik) {
@@ -593,6 +626,9 @@ public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,Co
             Log.info("CoxPH Iteration: iter=" + i + ", " + iterTimer.toString());
         }
 
+        if (_parms._calc_cumhaz && riskSets != null) {
+          coxMR = riskSets.collectCumhazStats();
+        }
         if (_parms._calc_cumhaz && coxMR != null) {
           calcCumhaz_0(model, coxMR);
         }
@@ -803,11 +839,11 @@ public class CoxPH extends ModelBuilder<CoxPHModel,CoxPHModel.CoxPHParameters,Co
   }
 
   private static class CollectTimes extends VecUtils.CollectDoubleDomain {
-    private CollectTimes() {
-      super(new double[0], MAX_TIME_BINS);
+    private CollectTimes(int maxTimeBins) {
+      super(new double[0], maxTimeBins);
     }
-    static double[] collect(Vec timeVec, boolean runLocal) {
-      return new CollectTimes().doAll(timeVec, runLocal).domain();
+    static double[] collect(Vec timeVec, int maxTimeBins, boolean runLocal) {
+      return new CollectTimes(maxTimeBins).doAll(timeVec, runLocal).domain();
     }
     @Override
     protected void onMaxDomainExceeded(int maxDomainSize, int currentSize) {
@@ -53,6 +53,8 @@ public class CoxPHModel extends Model<CoxPHModel,CoxPHParameters,CoxPHOutput> {
 
     public boolean _single_node_mode = false;
 
+    public boolean _sort_risk_sets = false; // sort-based risk sets, see SortedRiskSets
+
     String[] responseCols() {
       String[] cols = _start_column != null ? new String[]{_start_column} : new String[0];
       if (isStratified())
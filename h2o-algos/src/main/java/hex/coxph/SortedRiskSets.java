@@ -0,0 +1,683 @@
+package hex.coxph;
+
+import hex.DataInfo;
+import water.*;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.RebalanceDataSet;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+
+import static hex.coxph.CoxPH.ComputationState;
+import static hex.coxph.CoxPH.CoxPHTask;
+
+/**
+ * Sort-based alternative to {@link CoxPHTask} for data with many distinct event times.
+ *
+ * The training frame is radix-sorted by the discretized stop time in descending order (the discretized time already
+ * encodes the stratum), the risk set of a time is then the prefix of its stratum that ends with the last row of
+ * the time. Every Newton step makes two passes over the sorted frame:
+ * <ol>
+ *   <li>{@link ChunkTailsTask} computes for each chunk the sums of risk and x * risk of its last stratum,</li>
+ *   <li>{@link RiskSetScanTask} walks the rows of each chunk keeping running sums of risk, x * risk and x * x' * risk
+ *   seeded by the sums of the preceding chunks (prefix sums of the tails) and evaluates the log-likelihood,
+ *   gradient and hessian terms of every group of tied times that starts in the chunk.</li>
+ * </ol>
+ * The memory needed is proportional to the number of chunks (times predictors) instead of the number of distinct times
+ * times predictors. Only the model statistics (counts and the baseline hazard) are kept per time.
+ * Start times (counting process data) are not supported.
+ */
+class SortedRiskSets {
+
+  private final DataInfo _dinfo;
+  private final double[] _time;
+  private final long _min_event;
+  private final int _n_offsets;
+  private final Vec _strataVec;
+  private final int _num_strata;
+  private final boolean _has_weights_column;
+  private final CoxPHModel.CoxPHParameters.CoxPHTies _ties;
+  private final boolean _runLocal;
+
+  private double[] _lastBeta;
+
+  SortedRiskSets(DataInfo dinfo, double[] time, long min_event, int n_offsets, Vec strataVec,
+                 boolean has_weights_column, CoxPHModel.CoxPHParameters.CoxPHTies ties, boolean runLocal) {
+    _dinfo = dinfo;
+    _time = time;
+    _min_event = min_event;
+    _n_offsets = n_offsets;
+    _strataVec = strataVec;
+    _num_strata = strataVec != null ? 1 + (int) strataVec.max() : 1;
+    _has_weights_column = has_weights_column;
+    _ties = ties;
+    _runLocal = runLocal;
+  }
+
+  /**
+   * Sorts the (discretized) training frame for the scan: descending by stop time, the rows of a stratum are contiguous.
+   * The result is a copy of the frame with (at least) as many chunks as the input frame - the layout of the sorted
+   * frame is given by the radix sort and can be much coarser, that would limit the parallelism of the scan.
+   * The caller is responsible for removing the result.
+   */
+  static Frame sortByStopTime(Frame f, String stopColumn) {
+    Frame sorted = f.sort(new int[]{f.find(stopColumn)}, new int[]{-1});
+    final int nChunks = f.anyVec().nChunks();
+    if (sorted.anyVec().nChunks() >= nChunks)
+      return sorted;
+    Key<Frame> key = Key.make();
+    H2O.submitTask(new RebalanceDataSet(sorted, key, nChunks)).join();
+    sorted.remove();
+    return DKV.getGet(key);
+  }
+
+  /**
+   * Calculates log-likelihood, gradient and hessian for the given coefficients.
+   *
+   * @param collectCounts whether to also collect the per-time counts needed by the model output
+   * @return statistics in the layout of {@link CoxPHTask} when collectCounts is set, null otherwise
+   */
+  CoxPHTask calcLoglik(double[] beta, ComputationState cs, boolean collectCounts) {
+    RiskSetScanTask scan = scan(beta, collectCounts ? RiskSetScanTask.STATS_COUNTS : RiskSetScanTask.STATS_NONE);
+    final int n_coef = cs._n_coef;
+    cs.reset();
+    cs._logLik = scan._logLik;
+    System.arraycopy(scan._gradient, 0, cs._gradient, 0, n_coef);
+    for (int j = 0; j < n_coef; j++)
+      for (int k = j; k < n_coef; k++) {
+        cs._hessian[j][k] = scan._hessian[j * n_coef + k];
+        cs._hessian[k][j] = cs._hessian[j][k];
+      }
+    _lastBeta = beta.clone();
+    return collectCounts ? toCoxPHTask(scan, beta) : null;
+  }
+
+  /**
+   * Collects statistics needed for the baseline hazard (including the per-time sums of x * risk)
+   * with the coefficients of the last call of {@link #calcLoglik}.
+   */
+  CoxPHTask collectCumhazStats() {
+    assert _lastBeta != null : "calcLoglik needs to be called first";
+    return toCoxPHTask(scan(_lastBeta, RiskSetScanTask.STATS_CUMHAZ), _lastBeta);
+  }
+
+  private RiskSetScanTask scan(double[] beta, int stats) {
+    final Frame fr = _dinfo._adaptedFrame;
+    final int nChunks = fr.anyVec().nChunks();
+    final int nTime = _time.length;
+    final ChunkTailsTask tails = new ChunkTailsTask(this, beta, nChunks).doAll(fr, _runLocal);
+    final double[][] carry = new double[nChunks][];
+    final int[] prevKey = new int[nChunks];
+    Arrays.fill(prevKey, -1);
+    int prev = -1;
+    for (int c = 0; c < nChunks; c++) {
+      if (tails._firstKey[c] < 0)
+        continue; // no usable rows
+      if (prev >= 0) {
+        prevKey[c] = tails._lastKey[prev];
+        if (continuesStratum(tails._firstKey, tails._lastKey, prev, c, nTime))
+          carry[c] = singleStratum(tails._firstKey, tails._lastKey, prev, nTime) && carry[prev] != null ?
+                  ArrayUtils.add(tails._tail[prev].clone(), carry[prev]) : tails._tail[prev].clone();
+      }
+      prev = c;
+    }
+    final RiskSetScanTask scan = new RiskSetScanTask(this, beta, nChunks, carry, prevKey, stats)
+            .doAll(fr, _runLocal);
+    // the running sums of x * x' * risk in the scan start at zero, apply what was carried over from preceding chunks
+    final int n_coef = beta.length;
+    double[] carryXX = null;
+    prev = -1;
+    for (int c = 0; c < nChunks; c++) {
+      if (tails._firstKey[c] < 0)
+        continue;
+      if (prev >= 0 && continuesStratum(tails._firstKey, tails._lastKey, prev, c, nTime)) {
+        carryXX = singleStratum(tails._firstKey, tails._lastKey, prev, nTime) && carryXX != null ?
+                ArrayUtils.add(carryXX, scan._tailXX[prev]) : scan._tailXX[prev].clone();
+      } else
+        carryXX = null;
+      if (carryXX != null && scan._carryWeight[c] != 0) {
+        final double w = scan._carryWeight[c];
+        for (int j = 0; j < n_coef; j++)
+          for (int k = j; k < n_coef; k++)
+            scan._hessian[j * n_coef + k] -= w * carryXX[j * n_coef + k];
+      }
+      prev = c;
+    }
+    for (int i = 0; i < n_coef; i++)
+      scan._gradient[i] += scan._sumXEvents[i];
+    return scan;
+  }
+
+  private static boolean continuesStratum(int[] firstKey, int[] lastKey, int prev, int c, int nTime) {
+    return lastKey[prev] / nTime == firstKey[c] / nTime;
+  }
+
+  private static boolean singleStratum(int[] firstKey, int[] lastKey, int c, int nTime) {
+    return firstKey[c] / nTime == lastKey[c] / nTime;
+  }
+
+  private CoxPHTask toCoxPHTask(RiskSetScanTask scan, double[] beta) {
+    CoxPHTask coxMR = new CoxPHTask(_dinfo, beta, _time, _min_event, _n_offsets, false, _strataVec,
+            _has_weights_column, _ties);
+    final int n_time = _time.length * _num_strata;
+    coxMR.n = scan._n;
+    coxMR.sumWeights = scan._sumWeights;
+    coxMR.sumWeightedCatX = scan._sumWeightedCatX;
+    coxMR.sumWeightedNumX = scan._sumWeightedNumX;
+    coxMR.sizeRiskSet = MemoryManager.malloc8d(n_time);
+    coxMR.sizeCensored = MemoryManager.malloc8d(n_time);
+    coxMR.sizeEvents = MemoryManager.malloc8d(n_time);
+    coxMR.countEvents = MemoryManager.malloc8(n_time);
+    coxMR.sumRiskEvents = MemoryManager.malloc8d(n_time);
+    coxMR.rcumsumRisk = MemoryManager.malloc8d(n_time);
+    final boolean hasX = scan._recX != null;
+    if (hasX) {
+      // only times with observations are filled in (and ever read)
+      coxMR.rcumsumXRisk = new double[n_time][];
+      coxMR.sumXRiskEvents = new double[n_time][];
+    }
+    final int n_coef = beta.length;
+    for (int i = 0; i < scan._recKey.length; i++) {
+      final int t = scan._recKey[i];
+      final int off = i * RiskSetScanTask.REC_SIZE;
+      coxMR.sizeRiskSet[t] = scan._recStats[off];
+      coxMR.sizeEvents[t] = scan._recStats[off + 1];
+      coxMR.sizeCensored[t] = scan._recStats[off + 2];
+      coxMR.sumRiskEvents[t] = scan._recStats[off + 3];
+      coxMR.rcumsumRisk[t] = scan._recStats[off + 4];
+      coxMR.countEvents[t] = scan._recCount[i];
+      if (hasX) {
+        coxMR.rcumsumXRisk[t] = Arrays.copyOfRange(scan._recX[i], 0, n_coef);
+        coxMR.sumXRiskEvents[t] = Arrays.copyOfRange(scan._recX[i], n_coef, 2 * n_coef);
+      }
+    }
+    return coxMR;
+  }
+
+  /**
+   * Common row handling of the sorted scans.
+   */
+  static abstract class SortedRiskSetTask<T extends SortedRiskSetTask<T>> extends MRTask<T> {
+    private final Key<DataInfo> _dinfoKey;
+    final double[] _beta;
+    final int      _n_time;
+    final int      _n_chunks;
+    final int      _n_offsets;
+    final long     _min_event;
+    final boolean  _has_weights_column;
+    final boolean  _has_strata_column;
+
+    transient DataInfo _dinfo;
+
+    SortedRiskSetTask(SortedRiskSets rs, double[] beta, int nChunks) {
+      _dinfoKey = rs._dinfo._key;
+      _beta = beta;
+      _n_time = rs._time.length;
+      _n_chunks = nChunks;
+      _n_offsets = rs._n_offsets;
+      _min_event = rs._min_event;
+      _has_weights_column = rs._has_weights_column;
+      _has_strata_column = rs._strataVec != null;
+    }
+
+    @Override
+    protected void setupLocal() {
+      _dinfo = DKV.get(_dinfoKey).get();
+    }
+
+    /**
+     * Reads a row of the sorted frame into the given observation.
+     *
+     * @return false if the row doesn't participate in the model
+     */
+    final boolean extract(Chunk[] cs, int r, Obs o) {
+      o.row = _dinfo.extractDenseRow(cs, r, o.row);
+      if (o.row.isBad() || o.row.weight == 0)
+        return false;
+      final double[] response = o.row.response;
+      final double weight = _has_weights_column ? response[0] : 1.0;
+      if (weight <= 0)
+        throw new IllegalArgumentException("weights must be positive values");
+      int respIdx = response.length - 1;
+      final long event = (long) (response[respIdx--] - _min_event);
+      final int t2 = (int) response[respIdx--];
+      final double strata = _has_strata_column ? response[respIdx--] : 0;
+      assert respIdx == -1 : "expected to use all response data";
+      if (Double.isNaN(strata))
+        return false;
+
+      final DataInfo.Row row = o.row;
+      final int numStart = _dinfo.numStart();
+      final double[] nums = row.numVals;
+      double logRisk = 0;
+      for (int j = 0; j < row.nBins; ++j)
+        logRisk += _beta[row.binIds[j]];
+      for (int j = 0; j < nums.length - _n_offsets; ++j)
+        logRisk += nums[j] * _beta[numStart + j];
+      for (int j = nums.length - _n_offsets; j < nums.length; ++j)
+        logRisk += nums[j];
+      o.weight = weight;
+      o.event = event > 0;
+      o.key = t2;
+      o.strata = (int) strata;
+      o.risk = weight * Math.exp(logRisk);
+      o.logRisk = weight * logRisk;
+      return true;
+    }
+
+    final int strataOf(int key) {
+      return key / _n_time;
+    }
+
+    /** acc[off + j] += x_j * mult */
+    final void addX(double[] acc, int off, DataInfo.Row row, double mult) {
+      final int ncats = row.nBins;
+      final double[] nums = row.numVals;
+      final int numStart = _dinfo.numStart();
+      for (int j = 0; j < ncats; ++j)
+        acc[off + row.binIds[j]] += mult;
+      for (int j = 0; j < nums.length - _n_offsets; ++j)
+        acc[off + numStart + j] += nums[j] * mult;
+    }
+
+    /** Upper triangle of acc[j * n_coef + k] += x_j * x_k * mult */
+    final void addXX(double[] acc, DataInfo.Row row, double mult) {
+      final int n_coef = _beta.length;
+      final int ncats = row.nBins;
+      final int[] cats = row.binIds;
+      final double[] nums = row.numVals;
+      final int ntotal = ncats + (nums.length - _n_offsets);
+      final int numStartIter = _dinfo.numStart() - ncats;
+      for (int jit = 0; jit < ntotal; ++jit) {
+        final boolean jIsCat = jit < ncats;
+        final int j          = jIsCat ? cats[jit] : numStartIter + jit;
+        final double x1mult  = (jIsCat ? 1.0 : nums[jit - ncats]) * mult;
+        final int rowOff     = j * n_coef;
+        for (int kit = jit; kit < ntotal; ++kit) {
+          final boolean kIsCat = kit < ncats;
+          final int k          = kIsCat ? cats[kit] : numStartIter + kit;
+          final double x2      = kIsCat ? 1.0 : nums[kit - ncats];
+          acc[rowOff + k] += x1mult * x2;
+        }
+      }
+    }
+
+    static Chunk[] nextChunks(Chunk[] cs) {
+      Chunk[] next = new Chunk[cs.length];
+      for (int i = 0; i < cs.length; i++) {
+        next[i] = cs[i].nextChunk();
+        if (next[i] == null)
+          return null;
+      }
+      return next;
+    }
+
+    static final class Obs {
+      DataInfo.Row row;
+      double weight;
+      boolean event;
+      int key;
+      int strata;
+      double risk;
+      double logRisk;
+    }
+  }
+
+  /**
+   * For each chunk: first and last time key and the sums of risk and x * risk over the rows of the last stratum.
+   */
+  static class ChunkTailsTask extends SortedRiskSetTask<ChunkTailsTask> {
+    // OUT
+    int[] _firstKey;
+    int[] _lastKey;
+    double[][] _tail;
+
+    ChunkTailsTask(SortedRiskSets rs, double[] beta, int nChunks) {
+      super(rs, beta, nChunks);
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      final int cidx = cs[0].cidx();
+      _firstKey = MemoryManager.malloc4(_n_chunks);
+      _lastKey = MemoryManager.malloc4(_n_chunks);
+      Arrays.fill(_firstKey, -1);
+      Arrays.fill(_lastKey, -1);
+      _tail = new double[_n_chunks][];
+      final double[] sums = MemoryManager.malloc8d(1 + _beta.length);
+      final Obs o = new Obs();
+      o.row = _dinfo.newDenseRow();
+      int strata = -1;
+      for (int r = 0; r < cs[0]._len; r++) {
+        if (!extract(cs, r, o))
+          continue;
+        if (_firstKey[cidx] < 0)
+          _firstKey[cidx] = o.key;
+        _lastKey[cidx] = o.key;
+        if (strataOf(o.key) != strata) {
+          Arrays.fill(sums, 0);
+          strata = strataOf(o.key);
+        }
+        sums[0] += o.risk;
+        addX(sums, 1, o.row, o.risk);
+      }
+      if (_firstKey[cidx] >= 0)
+        _tail[cidx] = sums;
+    }
+
+    @Override
+    public void reduce(ChunkTailsTask that) {
+      for (int c = 0; c < _n_chunks; c++)
+        if (that._tail[c] != null) {
+          _firstKey[c] = that._firstKey[c];
+          _lastKey[c] = that._lastKey[c];
+          _tail[c] = that._tail[c];
+        }
+    }
+  }
+
+  /**
+   * Evaluates the partial log-likelihood (and its derivatives) for every group of tied times owned by a chunk -
+   * the group that starts in the chunk, rows of the group that spill into the following chunks are read from there.
+   */
+  static class RiskSetScanTask extends SortedRiskSetTask<RiskSetScanTask> {
+    static final int STATS_NONE = 0;
+    static final int STATS_COUNTS = 1;
+    static final int STATS_CUMHAZ = 2;
+
+    // per-time record: size of the risk set at the time, size of events, size of censored, sum of risk of events,
+    // sum of risk of the risk set
+    static final int REC_SIZE = 5;
+
+    private double[][] _carry;
+    private int[] _prevKey;
+    private final int _num_strata;
+    private final boolean _isBreslow;
+    private final int _stats;
+
+    // OUT
+    double _logLik;
+    double[] _gradient;
+    double[] _hessian; // upper triangle, n_coef x n_coef
+    double[] _sumXEvents;
+    double[] _carryWeight; // per chunk: coefficient of the carried over x * x' * risk in the hessian
+    double[][] _tailXX; // per chunk: sums of x * x' * risk of the last stratum
+
+    long _n;
+    double[] _sumWeights;
+    double[][] _sumWeightedCatX;
+    double[][] _sumWeightedNumX;
+    int[] _recKey;
+    double[] _recStats;
+    long[] _recCount;
+    double[][] _recX;
+
+    RiskSetScanTask(SortedRiskSets rs, double[] beta, int nChunks, double[][] carry, int[] prevKey, int stats) {
+      super(rs, beta, nChunks);
+      _carry = carry;
+      _prevKey = prevKey;
+      _num_strata = rs._num_strata;
+      _isBreslow = CoxPHModel.CoxPHParameters.CoxPHTies.breslow.equals(rs._ties);
+      _stats = stats;
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      final int cidx = cs[0].cidx();
+      final int n_coef = _beta.length;
+      _gradient = MemoryManager.malloc8d(n_coef);
+      _hessian = MemoryManager.malloc8d(n_coef * n_coef);
+      _sumXEvents = MemoryManager.malloc8d(n_coef);
+      _carryWeight = MemoryManager.malloc8d(_n_chunks);
+      _tailXX = new double[_n_chunks][];
+      if (_stats != STATS_NONE) {
+        _sumWeights = MemoryManager.malloc8d(_num_strata);
+        _sumWeightedCatX = MemoryManager.malloc8d(_num_strata, _dinfo.numCats());
+        _sumWeightedNumX = MemoryManager.malloc8d(_num_strata, _dinfo.numNums());
+      }
+      final Records records = _stats != STATS_NONE ? new Records(_stats == STATS_CUMHAZ ? 2 * n_coef : 0) : null;
+
+      // running sums over the rows of the current stratum (x * x' * risk without the part carried over)
+      double sumRisk = _carry[cidx] != null ? _carry[cidx][0] : 0;
+      final double[] sumXRisk = _carry[cidx] != null ?
+              Arrays.copyOfRange(_carry[cidx], 1, 1 + n_coef) : MemoryManager.malloc8d(n_coef);
+      final double[] sumXXRisk = MemoryManager.malloc8d(n_coef * n_coef);
+      int strata = -1;
+      boolean carried = true;
+
+      final Group g = new Group(n_coef, !_isBreslow);
+      boolean open = false;
+      int prevKey = _prevKey[cidx];
+      final Obs o = new Obs();
+      o.row = _dinfo.newDenseRow();
+      for (int r = 0; r < cs[0]._len; r++) {
+        if (!extract(cs, r, o))
+          continue;
+        addRowStats(o);
+        if (strata < 0)
+          strata = strataOf(o.key); // carried over sums belong to the stratum of the first row
+        if (o.key != prevKey) {
+          if (open)
+            finishGroup(g, sumRisk, sumXRisk, sumXXRisk, carried, cidx, records);
+          if (strataOf(o.key) != strata) {
+            sumRisk = 0;
+            Arrays.fill(sumXRisk, 0);
+            Arrays.fill(sumXXRisk, 0);
+            carried = false;
+            strata = strataOf(o.key);
+          }
+          g.reset(o.key);
+          open = true;
+          prevKey = o.key;
+        }
+        sumRisk += o.risk;
+        addX(sumXRisk, 0, o.row, o.risk);
+        addXX(sumXXRisk, o.row, o.risk);
+        if (open)
+          g.add(o);
+      }
+      if (strata >= 0)
+        _tailXX[cidx] = open ? sumXXRisk.clone() : sumXXRisk;
+      if (open) {
+        // the last group can continue in the following chunks
+        Chunk[] next = cs;
+        scan: while ((next = nextChunks(next)) != null) {
+          for (int r = 0; r < next[0]._len; r++) {
+            if (!extract(next, r, o))
+              continue;
+            if (o.key != g._key)
+              break scan;
+            sumRisk += o.risk;
+            addX(sumXRisk, 0, o.row, o.risk);
+            addXX(sumXXRisk, o.row, o.risk);
+            g.add(o);
+          }
+        }
+        finishGroup(g, sumRisk, sumXRisk, sumXXRisk, carried, cidx, records);
+      }
+      if (records != null)
+        records.close();
+    }
+
+    private void addRowStats(Obs o) {
+      if (o.event)
+        addX(_sumXEvents, 0, o.row, o.weight);
+      if (_stats == STATS_NONE)
+        return;
+      _n++;
+      final DataInfo.Row row = o.row;
+      _sumWeights[o.strata] += o.weight;
+      for (int j = 0; j < row.nBins; ++j)
+        _sumWeightedCatX[o.strata][row.binIds[j]] += o.weight;
+      for (int j = 0; j < row.numVals.length; ++j)
+        _sumWeightedNumX[o.strata][j] += o.weight * row.numVals[j];
+    }
+
+    private void finishGroup(Group g, double sumRisk, double[] sumXRisk, double[] sumXXRisk, boolean carried,
+                             int cidx, Records records) {
+      final int n_coef = _beta.length;
+      if (g._sizeEvents > 0) {
+        // Breslow is the special case of a single term
+        final long countTerms = _isBreslow ? 1 : g._countEvents;
+        final double avgSize = g._sizeEvents / countTerms;
+        double a0 = 0, a1 = 0, b0 = 0, b1 = 0, b2 = 0;
+        _logLik += g._sumLogRiskEvents;
+        for (long e = 0; e < countTerms; ++e) {
+          final double frac = ((double) e) / ((double) countTerms);
+          final double term = sumRisk - frac * g._sumRiskEvents;
+          final double termSq = term * term;
+          _logLik -= avgSize * Math.log(term);
+          a0 += avgSize / term;
+          a1 += avgSize * frac / term;
+          b0 += avgSize / termSq;
+          b1 += avgSize * frac / termSq;
+          b2 += avgSize * frac * frac / termSq;
+        }
+        final double[] xRiskEvents = g._sumXRiskEvents;
+        final double[] xxRiskEvents = g._sumXXRiskEvents;
+        for (int j = 0; j < n_coef; ++j) {
+          final double s1j = sumXRisk[j];
+          final double e1j = xRiskEvents[j];
+          _gradient[j] -= a0 * s1j - a1 * e1j;
+          for (int k = j; k < n_coef; ++k) {
+            final int jk = j * n_coef + k;
+            final double s1k = sumXRisk[k];
+            final double e1k = xRiskEvents[k];
+            double h = b0 * s1j * s1k - b1 * (s1j * e1k + e1j * s1k) + b2 * e1j * e1k - a0 * sumXXRisk[jk];
+            if (xxRiskEvents != null)
+              h += a1 * xxRiskEvents[jk];
+            _hessian[jk] += h;
+          }
+        }
+        if (carried)
+          _carryWeight[cidx] += a0;
+      }
+      if (records != null)
+        records.add(g, sumRisk, sumXRisk);
+    }
+
+    @Override
+    protected void closeLocal() {
+      // to avoid sending them back over the wire
+      _carry = null;
+      _prevKey = null;
+    }
+
+    @Override
+    public void reduce(RiskSetScanTask that) {
+      _logLik += that._logLik;
+      ArrayUtils.add(_gradient, that._gradient);
+      ArrayUtils.add(_hessian, that._hessian);
+      ArrayUtils.add(_sumXEvents, that._sumXEvents);
+      ArrayUtils.add(_carryWeight, that._carryWeight);
+      for (int c = 0; c < _n_chunks; c++)
+        if (that._tailXX[c] != null)
+          _tailXX[c] = that._tailXX[c];
+      if (_stats != STATS_NONE) {
+        _n += that._n;
+        ArrayUtils.add(_sumWeights, that._sumWeights);
+        ArrayUtils.add(_sumWeightedCatX, that._sumWeightedCatX);
+        ArrayUtils.add(_sumWeightedNumX, that._sumWeightedNumX);
+        _recKey = ArrayUtils.append(_recKey, that._recKey);
+        _recStats = ArrayUtils.append(_recStats, that._recStats);
+        _recCount = ArrayUtils.append(_recCount, that._recCount);
+        if (_stats == STATS_CUMHAZ)
+          _recX = ArrayUtils.append(_recX, that._recX);
+      }
+    }
+
+    /** Sums over the rows of one group of tied times. */
+    private final class Group {
+      int _key;
+      double _sizeEvents;
+      double _sizeCensored;
+      long _countEvents;
+      double _sumRiskEvents;
+      double _sumLogRiskEvents;
+      final double[] _sumXRiskEvents;
+      final double[] _sumXXRiskEvents; // Efron only
+
+      Group(int n_coef, boolean withXX) {
+        _sumXRiskEvents = MemoryManager.malloc8d(n_coef);
+        _sumXXRiskEvents = withXX ? MemoryManager.malloc8d(n_coef * n_coef) : null;
+      }
+
+      void reset(int key) {
+        _key = key;
+        _sizeEvents = 0;
+        _sizeCensored = 0;
+        _countEvents = 0;
+        _sumRiskEvents = 0;
+        _sumLogRiskEvents = 0;
+        Arrays.fill(_sumXRiskEvents, 0);
+        if (_sumXXRiskEvents != null)
+          Arrays.fill(_sumXXRiskEvents, 0);
+      }
+
+      void add(Obs o) {
+        if (o.event) {
+          _countEvents++;
+          _sizeEvents += o.weight;
+          _sumLogRiskEvents += o.logRisk;
+          _sumRiskEvents += o.risk;
+          addX(_sumXRiskEvents, 0, o.row, o.risk);
+          if (_sumXXRiskEvents != null)
+            addXX(_sumXXRiskEvents, o.row, o.risk);
+        } else
+          _sizeCensored += o.weight;
+      }
+    }
+
+    /** Growable per-time records of the statistics needed by the model output. */
+    private final class Records {
+      final int _xLen;
+      int _size;
+      int[] _key = new int[16];
+      double[] _stats = new double[16 * REC_SIZE];
+      long[] _count = new long[16];
+      double[][] _x;
+
+      Records(int xLen) {
+        _xLen = xLen;
+        _x = xLen > 0 ? new double[16][] : null;
+      }
+
+      void add(Group g, double sumRisk, double[] sumXRisk) {
+        if (_size == _key.length) {
+          _key = Arrays.copyOf(_key, 2 * _size);
+          _stats = Arrays.copyOf(_stats, 2 * _size * REC_SIZE);
+          _count = Arrays.copyOf(_count, 2 * _size);
+          if (_x != null)
+            _x = Arrays.copyOf(_x, 2 * _size);
+        }
+        _key[_size] = g._key;
+        final int off = _size * REC_SIZE;
+        _stats[off] = g._sizeEvents + g._sizeCensored;
+        _stats[off + 1] = g._sizeEvents;
+        _stats[off + 2] = g._sizeCensored;
+        _stats[off + 3] = g._sumRiskEvents;
+        _stats[off + 4] = sumRisk;
+        _count[_size] = g._countEvents;
+        if (_x != null) {
+          final int n_coef = sumXRisk.length;
+          double[] x = new double[_xLen];
+          System.arraycopy(sumXRisk, 0, x, 0, n_coef);
+          System.arraycopy(g._sumXRiskEvents, 0, x, n_coef, n_coef);
+          _x[_size] = x;
+        }
+        _size++;
+      }
+
+      void close() {
+        _recKey = Arrays.copyOf(_key, _size);
+        _recStats = Arrays.copyOf(_stats, _size * REC_SIZE);
+        _recCount = Arrays.copyOf(_count, _size);
+        if (_x != null)
+          _recX = Arrays.copyOf(_x, _size);
+      }
+    }
+  }
+
+}
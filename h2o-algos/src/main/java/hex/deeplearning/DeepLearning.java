@@ -485,6 +485,7 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
         }
         if (model != null) {
           model.deleteElasticAverageModels();
+          model.deleteParameterServerShards();
           model.unlock(_job);
           if (model.actual_best_model_key != null) {
             assert (model.actual_best_model_key != model._key);
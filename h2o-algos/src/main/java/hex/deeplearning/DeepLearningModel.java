@@ -937,6 +937,7 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
     if (actual_best_model_key!=null) DKV.remove(actual_best_model_key);
     DKV.remove(model_info().data_info()._key, fs);
     deleteElasticAverageModels();
+    deleteParameterServerShards();
     return super.remove_impl(fs, cascade);
   }
 
@@ -949,6 +950,11 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
     }
   }
 
+  void deleteParameterServerShards() {
+    if (model_info().get_params()._parameter_server)
+      ParameterServer.remove(model_info());
+  }
+
   private String getHeader() {
     assert get_params()._autoencoder;
     StringBuilder sb = new StringBuilder();
@@ -1694,10 +1700,26 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
     public double _elastic_averaging_moving_rate = 0.9;
     public double _elastic_averaging_regularization = 1e-3;
 
+    /**
+     * Asynchronous parameter server: instead of averaging the per-node models after every iteration, nodes push
+     * their weight deltas to (and pull weights from) sharded DKV keys on their own cadence.
+     */
+    public boolean _parameter_server = false;
+
+    /**
+     * Max. number of pushes from other nodes a node's copy of a parameter server shard may miss before it is refreshed
+     */
+    public int _parameter_server_staleness = 4;
+
     // stochastic gradient descent: mini-batch size = 1
     // batch gradient descent: mini-batch size = # training rows
     public int _mini_batch_size = 1;
 
+    /**
+     * Use single precision (float32) activations in the mini-batch forward/backward propagation kernels
+     */
+    public boolean _float32_activations = false;
+
     public enum MissingValuesHandling {
       MeanImputation, Skip
     }
@@ -1739,6 +1761,10 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
       for (int h : _hidden) if (h <= 0) dl.error("_hidden", "Hidden layer size must be positive.");
       if (_mini_batch_size < 1)
         dl.error("_mini_batch_size", "Mini-batch size must be >= 1");
+      if (_mini_batch_size > 1 && _autoencoder && _sparsity_beta > 0)
+        dl.error("_mini_batch_size", "Sparsity constraint is not yet implemented for mini-batch size > 1.");
+      if (_float32_activations && _mini_batch_size == 1)
+        dl.warn("_float32_activations", "Single precision activations are only used for mini-batch size > 1.");
       if (!_diagnostics)
         dl.warn("_diagnostics", "Deprecated option: Diagnostics are always enabled.");
 
@@ -1933,6 +1959,16 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
       if (_max_w2 <= 0) {
         dl.error("_max_w2", "Cannot use max_w2 <= 0.");
       }
+      if (_parameter_server) {
+        if (_elastic_averaging)
+          dl.error("_parameter_server", "Cannot use the parameter server together with elastic averaging.");
+        if (_reproducible)
+          dl.error("_parameter_server", "Cannot use the parameter server in reproducible mode.");
+        if (_parameter_server_staleness < 0)
+          dl.error("_parameter_server_staleness", "Parameter server staleness must be >= 0.");
+      } else {
+        dl.hide("_parameter_server_staleness", "Parameter server is required for this parameter.");
+      }
       if (expensive) {
         if (!classification && _balance_classes) {
           dl.error("_balance_classes", "balance_classes requires classification.");
@@ -2005,7 +2041,10 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
               "_elastic_averaging",
               "_elastic_averaging_moving_rate",
               "_elastic_averaging_regularization",
+              "_parameter_server",
+              "_parameter_server_staleness",
               "_mini_batch_size",
+              "_float32_activations",
               "_pretrained_autoencoder"
       };
 
@@ -2173,10 +2212,6 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
             Log.info("_categorical_encoding: Automatically enabling OneHotInternal categorical encoding.");
           toParms._categorical_encoding = CategoricalEncodingScheme.OneHotInternal;
          }
-        if (fromParms._mini_batch_size > 1) {
-          Log.warn("_mini_batch_size", "Only mini-batch size = 1 is supported right now.");
-          toParms._mini_batch_size = 1;
-        }
         if (fromParms._adaptive_rate) {
           if (!fromParms._quiet_mode)
             Log.info("_adaptive_rate: Using automatic learning rate. Ignoring the following input parameters: "
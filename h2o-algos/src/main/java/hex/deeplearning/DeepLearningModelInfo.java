@@ -107,6 +107,7 @@ final public class DeepLearningModelInfo extends Iced<DeepLearningModelInfo> {
 
   public DeepLearningParameters parameters;
   Key<Model> _model_id;
+  long[] ps_versions; //versions of the parameter server shards this model is in sync with (if any)
   public final DeepLearningParameters get_params() { return parameters; }
   public final void set_params(DeepLearningParameters p, Key<Model> model_id ) {
     parameters = (DeepLearningParameters) p.clone();
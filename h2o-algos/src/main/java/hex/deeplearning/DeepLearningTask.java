@@ -20,6 +20,7 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
   private DeepLearningModelInfo _sharedmodel; //input/output
   transient Neurons[] _neurons;
   transient Random _dropout_rng;
+  transient ParameterServer.Client _ps; //per-node connection to the parameter server (if enabled)
   int _chunk_node_count = 1;
 
   /**
@@ -49,6 +50,8 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     _sharedmodel = inputModel;
 //    if (model_info().get_params()._elastic_averaging)
 //      DKV.put(_sharedmodel.elasticAverageModelInfoKey(), _sharedmodel);
+    if (model_info().get_params()._parameter_server && cmp == null) //DeepLearningTask2 already published the model
+      ParameterServer.publish(_sharedmodel);
     _useFraction=fraction;
     _shuffle = model_info().get_params()._shuffle_training_data;
   }
@@ -81,6 +84,8 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
       _sharedmodel = null;
     }
     _localmodel.set_processed_local(0);
+    if (_localmodel.get_params()._parameter_server)
+      _ps = new ParameterServer.Client(_localmodel, _localmodel.ps_versions);
   }
 
   // Create local workspace (neurons) and link them to shared weights
@@ -105,7 +110,7 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
       seed = _dropout_rng.nextLong(); // non-reproducible case - make a fast & good random number
     }
     _localmodel.checkMissingCats(r.binIds);
-    ((Neurons.Input) _neurons[0]).setInput(seed, r.isSparse() ? r.numIds : null, r.numVals, r.nBins, r.binIds, mb);
+    ((Neurons.Input) _neurons[0]).setInput(seed, r.isSparse() ? r.numIds : null, r.nNums, r.numVals, r.nBins, r.binIds, mb);
   }
 
   /**
@@ -158,13 +163,16 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
    */
   @Override protected void chunkDone(long n) {
     if (_training) _localmodel.add_processed_local(n);
+    if (_ps != null) _ps.maybeSync(_localmodel);
   }
 
   /**
    * After all maps are done on a node, this is called to store the per-node model into DKV (for elastic averaging)
-   * Otherwise, do nothing.
+   * or to push the remaining changes to the parameter server. Otherwise, do nothing.
    */
   @Override protected void closeLocal() {
+    if (_ps != null && _localmodel.get_processed_local() > 0)
+      _ps.sync(_localmodel);
     if (_localmodel.get_params()._elastic_averaging) {
       // store local model, as it will be reduced in the following, and hence averaged with other models
       DKV.put(_localmodel.localModelInfoKey(H2O.SELF), _localmodel, _fs);
@@ -174,6 +182,7 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
 
   /**
    * Average the per-node models (for elastic averaging, already wrote them to DKV in postLocal())
+   * With the parameter server, the weights are already combined there, only the sample counts are added up.
    * This is a no-op between F/J worker threads (operate on the same weights/biases)
    * @param other
    */
@@ -186,6 +195,9 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
       if (_localmodel.get_processed_local() == 0) {
         _localmodel = other._localmodel;
         _chunk_node_count = other._chunk_node_count;
+      } else if (_localmodel.get_params()._parameter_server) {
+        _localmodel.add_processed_local(other._localmodel.get_processed_local());
+        _chunk_node_count += other._chunk_node_count;
       } else {
         _localmodel.add(other._localmodel);
         _chunk_node_count += other._chunk_node_count;
@@ -219,8 +231,10 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     if (!_run_local) {
       _localmodel.add_processed_global(_localmodel.get_processed_local()); //move local sample counts to global ones
       _localmodel.set_processed_local(0l);
+      if (dlp._parameter_server)
+        ParameterServer.pullAll(_localmodel);
       // model averaging
-      if (_chunk_node_count > 1)
+      else if (_chunk_node_count > 1)
         _localmodel.div(_chunk_node_count);
       if (_localmodel.get_params()._elastic_averaging)
         _sharedmodel = DeepLearningModelInfo.timeAverage(_localmodel);
@@ -21,6 +21,8 @@ public class DeepLearningTask2 extends MRTask<DeepLearningTask2> {
     _jobKey = jobKey;
     _fr = train;
     _sharedmodel = model_info;
+    if (model_info.get_params()._parameter_server)
+      ParameterServer.publish(_sharedmodel);
     _sync_fraction = sync_fraction;
     _iteration = iteration;
   }
@@ -62,7 +64,10 @@ public class DeepLearningTask2 extends MRTask<DeepLearningTask2> {
     if (_res == null) _res = drt._res;
     else {
       _res._chunk_node_count += drt._res._chunk_node_count;
-      _res.model_info().add(drt._res.model_info()); //add models, but don't average yet
+      if (_res.model_info().get_params()._parameter_server) //weights are combined by the parameter server
+        _res.model_info().add_processed_local(drt._res.model_info().get_processed_local());
+      else
+        _res.model_info().add(drt._res.model_info()); //add models, but don't average yet
     }
     assert(_res.model_info().get_params()._replicate_training_data);
   }
@@ -76,8 +81,13 @@ public class DeepLearningTask2 extends MRTask<DeepLearningTask2> {
   protected void postGlobal() {
     assert(_res.model_info().get_params()._replicate_training_data);
     super.postGlobal();
-    // model averaging (DeepLearningTask only computed the per-node models, each on all the data)
-    _res.model_info().div(_res._chunk_node_count);
+    if (_res.model_info().get_params()._parameter_server) {
+      // the per-node models were pushed to the parameter server, fetch its state
+      ParameterServer.pullAll(_res.model_info());
+    } else {
+      // model averaging (DeepLearningTask only computed the per-node models, each on all the data)
+      _res.model_info().div(_res._chunk_node_count);
+    }
     _res.model_info().add_processed_global(_res.model_info().get_processed_local()); //switch from local counters to global counters
     _res.model_info().set_processed_local(0l);
     DeepLearningModelInfo nodeAverageModel = _res.model_info();
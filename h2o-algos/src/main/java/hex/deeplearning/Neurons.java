@@ -58,6 +58,13 @@ public abstract class Neurons {
   public transient Storage.DenseVector[] _origa;
   public transient Storage.DenseVector[] _a;
   public transient Storage.DenseVector[] _e;
+  private transient double[] _grad;   // scratch space for the mini-batch gradient of one row of weights
+  private transient double[] _active; // scratch space for fast_mode: which incoming activations are non-zero in the mini-batch
+  private transient float[][] _af;    // float32 copy of the activations of the current mini-batch (only with float32_activations)
+  private transient boolean _sparseInput;    // whether the current mini-batch is propagated with the sparse input-layer kernels
+  private transient double[] _sparseGrad;    // scratch space for bpropSparseInput(), only the touched columns are non-zero
+  private transient double[] _sparseActive;
+  private transient double[] _sparseX;       // scratch space for gemm_sparse_input(), gathered non-zero inputs of a row
 
   /**
    * References for feed-forward connectivity
@@ -188,6 +195,58 @@ public abstract class Neurons {
    */
   protected abstract void bprop(int n);
 
+  /**
+   * Linear part of the forward propagation: _a[mb] = _w * _previous._a[mb] + _b for the first n rows of the mini-batch
+   * For the first hidden layer, sparse input rows are multiplied with the non-zero input units only (see gemm_sparse_input()).
+   * With float32_activations, mini-batches are multiplied in single precision (see float32Activations())
+   * @param row_bits Bit mask for which rows to use (dropout)
+   * @param n Actual mini-batch size
+   */
+  final void fpropGemm(byte[] row_bits, int n) {
+    _sparseInput = _previous instanceof Input && ((Input) _previous).isSparse(n);
+    if (_sparseInput) {
+      final Input in = (Input) _previous;
+      final double[][] res = new double[n][];
+      final double[][] x = new double[n][];
+      for (int mb = 0; mb < n; mb++) {
+        res[mb] = _a[mb].raw();
+        x[mb] = in._a[mb].raw();
+      }
+      final int cols = x[0].length;
+      if (_sparseX == null || _sparseX.length < cols) {
+        _sparseX = new double[cols];
+      }
+      gemm_sparse_input(res, _w.raw(), x, in._nzIds, in._nnz, _b.raw(), row_bits, n, _sparseX);
+    } else if (n > 1 && params._float32_activations) {
+      final double[][] res = new double[n][];
+      for (int mb = 0; mb < n; mb++)
+        res[mb] = _a[mb].raw();
+      gemm_blocked(res, _w.raw(), _previous.float32Activations(n), _b.raw(), row_bits, n);
+    } else {
+      gemm(_a, _w, _previous._a, _b, row_bits, n);
+    }
+  }
+
+  /**
+   * Single precision copy of the activations of the first n rows of the mini-batch. It is made once per mini-batch by
+   * the next layer's forward propagation, and used by its forward and backward propagation, which halves the memory
+   * traffic of the mini-batch kernels for the activations (the weights are stored in single precision already).
+   * @param n Actual mini-batch size
+   * @return float32 activations
+   */
+  final float[][] float32Activations(int n) {
+    final int len = _a[0].size();
+    if (_af == null) _af = new float[_a.length][];
+    for (int mb = 0; mb < n; mb++) {
+      if (_af[mb] == null) _af[mb] = new float[len];
+      final double[] a = _a[mb].raw();
+      final float[] af = _af[mb];
+      for (int i = 0; i < len; i++)
+        af[i] = (float) a[i];
+    }
+    return _af;
+  }
+
   /**
    * Back-propagate gradient in output layer
    */
@@ -238,6 +297,14 @@ public abstract class Neurons {
     final boolean fast_mode = params._fast_mode;
     final int cols = _previous._a[0].size();
     assert(partial_grad.length == n);
+    if (_k == 0 && _sparseInput && fast_mode) {
+      bpropSparseInput(row, partial_grad, rate, momentum, n);
+      return;
+    }
+    if (_k == 0 && n > 1) {
+      bpropMiniBatch(row, partial_grad, rate, momentum, n);
+      return;
+    }
 
     double avg_grad2 = 0;
 
@@ -268,29 +335,8 @@ public abstract class Neurons {
         if (DeepLearningModelInfo.gradientCheck != null)
           DeepLearningModelInfo.gradientCheck.apply(_index, row, col, grad);
 
-        if (have_ada) {
-          final double grad2 = grad*grad;
-          avg_grad2 += grad2;
-          float brate = computeAdaDeltaRateForWeight(grad, w, _ada_dx_g, rho, eps);
-          _w.raw()[w] -= brate * grad;
-        } else {
-          if (!nesterov) {
-            final double delta = -rate * grad;
-            _w.raw()[w] += delta;
-            if( have_momenta ) {
-              _w.raw()[w] += momentum * _wm.raw()[w];
-              _wm.raw()[w] = (float)delta;
-            }
-          } else {
-            double tmp = -grad;
-            if( have_momenta ) {
-              _wm.raw()[w] *= momentum;
-              _wm.raw()[w] += tmp;
-              tmp = _wm.raw()[w];
-            }
-            _w.raw()[w] += rate * tmp;
-          }
-        }
+        if (have_ada) avg_grad2 += grad*grad;
+        update_weight(w, grad, rate, momentum, have_ada, have_momenta, nesterov, rho, eps);
       }
     }
     if (max_w2 != Float.POSITIVE_INFINITY)
@@ -302,6 +348,198 @@ public abstract class Neurons {
     }
   }
 
+  /**
+   * Mini-batch version of bprop() for a row of a (non-Maxout) weight matrix: the gradients dE/dw of all n examples
+   * are accumulated first (the partial gradients are already normalized by n), then every weight and the bias are
+   * updated once per mini-batch. The errors are propagated to the previous layer with the weights of the forward pass.
+   * All loops run over contiguous memory (one row of the weight matrix, one row of the mini-batch at a time).
+   * @param row row index (update weights feeding to this neuron)
+   * @param partial_grad partial derivative dE/dnet = dE/dy * dy/net
+   * @param rate learning rate
+   * @param momentum momentum factor (needed only if ADADELTA isn't used)
+   * @param n Actual mini-batch size
+   */
+  private void bpropMiniBatch(final int row, final double[/*actual mini-batch size*/] partial_grad, final float rate, final float momentum, int n) {
+    final float rho = (float)params._rho;
+    final float eps = (float)params._epsilon;
+    final float l1 = (float)params._l1;
+    final float l2 = (float)params._l2;
+    final float max_w2 = params._max_w2;
+    final boolean have_momenta = _minfo.has_momenta();
+    final boolean have_ada = _minfo.adaDelta();
+    final boolean nesterov = params._nesterov_accelerated_gradient;
+    final boolean fast_mode = params._fast_mode;
+    final int cols = _previous._a[0].size();
+    final float[] w = _w.raw();
+    final int idx = row * cols;
+
+    double bias_grad = 0;
+    boolean zero = true;
+    for (int mb = 0; mb < n; mb++) {
+      bias_grad += partial_grad[mb];
+      zero &= partial_grad[mb] == 0;
+    }
+    if (_shortcut && zero) return;
+
+    if (_grad == null || _grad.length < cols) _grad = new double[cols];
+    final double[] grad = _grad;
+    Arrays.fill(grad, 0, cols, 0);
+    if (fast_mode && (_active == null || _active.length < cols)) _active = new double[cols];
+    final double[] active = fast_mode ? _active : null;
+    if (active != null) Arrays.fill(active, 0, cols, 0);
+    final float[][] prev_af = params._float32_activations ? _previous._af : null; //filled by fpropGemm()
+    for (int mb = 0; mb < n; mb++) {
+      final double g = partial_grad[mb];
+      if (prev_af != null) {
+        final float[] prev_a = prev_af[mb];
+        if (active != null)
+          for (int col = 0; col < cols; col++)
+            active[col] += Math.abs(prev_a[col]);
+        if (g == 0) continue;
+        for (int col = 0; col < cols; col++)
+          grad[col] += g * prev_a[col];
+      } else {
+        final double[] prev_a = _previous._a[mb].raw();
+        if (active != null)
+          for (int col = 0; col < cols; col++)
+            active[col] += Math.abs(prev_a[col]);
+        if (g == 0) continue;
+        for (int col = 0; col < cols; col++)
+          grad[col] += g * prev_a[col];
+      }
+      if (_previous._e != null && _previous._e[mb] != null) {
+        final double[] prev_e = _previous._e[mb].raw();
+        for (int col = 0; col < cols; col++)
+          prev_e[col] += g * w[idx + col]; // propagate the error dE/dnet to the previous layer, via connecting weights
+      }
+    }
+
+    double avg_grad2 = 0;
+    for (int col = 0; col < cols; col++) {
+      if (active != null && active[col] == 0) continue;
+      final int wi = idx + col;
+      final double weight = w[wi];
+      double gr = grad[col] + Math.signum(weight) * l1 + weight * l2;
+      if (_wEA != null)
+        gr += params._elastic_averaging_regularization * (weight - _wEA.raw()[wi]);
+      if (DeepLearningModelInfo.gradientCheck != null)
+        DeepLearningModelInfo.gradientCheck.apply(_index, row, col, gr);
+      if (have_ada) avg_grad2 += gr*gr;
+      update_weight(wi, gr, rate, momentum, have_ada, have_momenta, nesterov, rho, eps);
+    }
+    if (max_w2 != Float.POSITIVE_INFINITY)
+      rescale_weights(_w, row, max_w2, 0);
+    if (have_ada) avg_grad2 /= cols;
+    update_bias(_b, _bEA, _bm, row, new double[]{bias_grad}, avg_grad2, rate, momentum, 0);
+  }
+
+  /**
+   * Version of bpropMiniBatch() for the first hidden layer, if the input rows of the mini-batch are sparse (see
+   * Input.isSparse()): the gradient is only accumulated and applied for the columns of the weight row which belong to
+   * a non-zero input unit of at least one row of the mini-batch, so the cost is proportional to the number of non-zeros
+   * instead of the number of input units. This is the same update as done by bpropMiniBatch() in fast_mode (where the
+   * weights of inactive input units are skipped as well).
+   * @param row row index (update weights feeding to this neuron)
+   * @param partial_grad partial derivative dE/dnet = dE/dy * dy/net
+   * @param rate learning rate
+   * @param momentum momentum factor (needed only if ADADELTA isn't used)
+   * @param n Actual mini-batch size
+   */
+  private void bpropSparseInput(final int row, final double[/*actual mini-batch size*/] partial_grad, final float rate, final float momentum, int n) {
+    assert(_previous instanceof Input && _previous._e == null);
+    final float rho = (float)params._rho;
+    final float eps = (float)params._epsilon;
+    final float l1 = (float)params._l1;
+    final float l2 = (float)params._l2;
+    final float max_w2 = params._max_w2;
+    final boolean have_momenta = _minfo.has_momenta();
+    final boolean have_ada = _minfo.adaDelta();
+    final boolean nesterov = params._nesterov_accelerated_gradient;
+    final Input in = (Input) _previous;
+    final int cols = in._a[0].size();
+    final float[] w = _w.raw();
+    final int idx = row * cols;
+
+    double bias_grad = 0;
+    boolean zero = true;
+    for (int mb = 0; mb < n; mb++) {
+      bias_grad += partial_grad[mb];
+      zero &= partial_grad[mb] == 0;
+    }
+    if (_shortcut && zero) return;
+
+    if (_sparseGrad == null || _sparseGrad.length < cols) {
+      _sparseGrad = new double[cols];
+      _sparseActive = new double[cols];
+    }
+    final double[] grad = _sparseGrad;
+    final double[] active = _sparseActive;
+    for (int mb = 0; mb < n; mb++) {
+      final double g = partial_grad[mb];
+      final double[] prev_a = in._a[mb].raw();
+      final int[] ids = in._nzIds[mb];
+      final int nnz = in._nnz[mb];
+      for (int k = 0; k < nnz; k++)
+        active[ids[k]] += Math.abs(prev_a[ids[k]]);
+      if (g == 0) continue;
+      for (int k = 0; k < nnz; k++)
+        grad[ids[k]] += g * prev_a[ids[k]];
+    }
+
+    double avg_grad2 = 0;
+    for (int mb = 0; mb < n; mb++) {
+      final int[] ids = in._nzIds[mb];
+      final int nnz = in._nnz[mb];
+      for (int k = 0; k < nnz; k++) {
+        final int col = ids[k];
+        if (active[col] == 0) continue; // zero input (e.g., input dropout), or already updated for an earlier row
+        active[col] = 0;
+        final int wi = idx + col;
+        final double weight = w[wi];
+        double gr = grad[col] + Math.signum(weight) * l1 + weight * l2;
+        grad[col] = 0; // leave the scratch space all zero for the next call
+        if (_wEA != null)
+          gr += params._elastic_averaging_regularization * (weight - _wEA.raw()[wi]);
+        if (DeepLearningModelInfo.gradientCheck != null)
+          DeepLearningModelInfo.gradientCheck.apply(_index, row, col, gr);
+        if (have_ada) avg_grad2 += gr*gr;
+        update_weight(wi, gr, rate, momentum, have_ada, have_momenta, nesterov, rho, eps);
+      }
+    }
+    if (max_w2 != Float.POSITIVE_INFINITY)
+      rescale_weights(_w, row, max_w2, 0);
+    if (have_ada) avg_grad2 /= cols;
+    update_bias(_b, _bEA, _bm, row, new double[]{bias_grad}, avg_grad2, rate, momentum, 0);
+  }
+
+  /**
+   * Apply the gradient of one weight (ADADELTA, or learning rate with (Nesterov) momentum)
+   */
+  private void update_weight(final int w, final double grad, final float rate, final float momentum, final boolean have_ada,
+                             final boolean have_momenta, final boolean nesterov, final float rho, final float eps) {
+    if (have_ada) {
+      float brate = computeAdaDeltaRateForWeight(grad, w, _ada_dx_g, rho, eps);
+      _w.raw()[w] -= brate * grad;
+    } else {
+      if (!nesterov) {
+        final double delta = -rate * grad;
+        _w.raw()[w] += delta;
+        if( have_momenta ) {
+          _w.raw()[w] += momentum * _wm.raw()[w];
+          _wm.raw()[w] = (float)delta;
+        }
+      } else {
+        double tmp = -grad;
+        if( have_momenta ) {
+          _wm.raw()[w] *= momentum;
+          _wm.raw()[w] += tmp;
+          tmp = _wm.raw()[w];
+        }
+        _w.raw()[w] += rate * tmp;
+      }
+    }
+  }
+
   private void rescale_weights(final Storage.DenseRowMatrix w, final int row, final float max_w2, int mb) {
     final int cols = _previous._a[0].size();
     int start;
@@ -485,6 +723,19 @@ public abstract class Neurons {
 
     private DataInfo _dinfo; //training data
 
+    /**
+     * Maximum fraction of non-zero input units (over the mini-batch) for which the first hidden layer uses the sparse
+     * input-layer kernels (gemm_sparse_input() and bpropSparseInput()) instead of the dense ones
+     */
+    static final double SPARSE_INPUT_MAX_DENSITY = 0.1;
+
+    /**
+     * Non-zero pattern of the rows of the mini-batch (compressed sparse rows): the first _nnz[mb] entries of _nzIds[mb]
+     * are the input units set by setInput(), or _nnz[mb] == -1 if the row was filled densely (hash trick)
+     */
+    int[][] _nzIds;
+    int[] _nnz;
+
     Input(DeepLearningParameters params, int units, final DataInfo d) {
       super(units);
       _dinfo = d;
@@ -539,17 +790,36 @@ public abstract class Neurons {
       setInput(seed, null, nums, ncats, cats, mb);
     }
 
+    /**
+     * Same as below, for a dense numIds array (all entries are used)
+     */
+    public void setInput(long seed, final int[] numIds, final double[] nums, final int numcat, final int[] cats, int mb) {
+      setInput(seed, numIds, numIds == null ? nums.length : numIds.length, nums, numcat, cats, mb);
+    }
+
     /**
      * The second method used to set input layer values. This one is used directly by FrameTask.processRow() and by the method above.
      * @param seed For seeding the RNG inside (for input dropout)
+     * @param numIds Input unit indices of the numerical values (sparse rows), or null (dense rows)
+     * @param numnz Number of valid entries in numIds and nums (sparse rows only)
      * @param nums Array containing numerical values, can be NaN
      * @param numcat Number of horizontalized categorical non-zero values (i.e., those not being the first factor of a class)
      * @param cats Array of indices, the first numcat values are the input layer unit (==column) indices for the non-zero categorical values
      *             (This allows this array to be re-usable by the caller, without re-allocating each time)
      * @param mb Mini-Batch index (which point inside this mini-batch)
      */
-    public void setInput(long seed, final int[] numIds, final double[] nums, final int numcat, final int[] cats, int mb) {
-      Arrays.fill(_a[mb].raw(), 0f);
+    public void setInput(long seed, final int[] numIds, final int numnz, final double[] nums, final int numcat, final int[] cats, int mb) {
+      if (_nnz == null) {
+        _nzIds = new int[_a.length][];
+        _nnz = new int[_a.length];
+      }
+      // reset the previous row, only the non-zeros if it was sparse
+      if (_nnz[mb] < 0)
+        Arrays.fill(_a[mb].raw(), 0f);
+      else
+        for (int i = 0; i < _nnz[mb]; ++i)
+          _a[mb].set(_nzIds[mb][i], 0f);
+      _nnz[mb] = -1;
 
       // random projection from fullN down to max_categorical_features
       if (params._max_categorical_features < _dinfo.fullN() - _dinfo._nums) {
@@ -599,20 +869,31 @@ public abstract class Neurons {
 //        }
       } else {
         assert(_a[mb].size() == _dinfo.fullN());
+        final int nnz = numcat + (numIds != null ? numnz : nums.length);
+        if (_nzIds[mb] == null || _nzIds[mb].length < nnz)
+          _nzIds[mb] = new int[nnz];
+        final int[] ids = _nzIds[mb];
+        int k = 0;
         for (int i = 0; i < numcat; ++i) {
           if(cats[i] >= 0) {
             _a[mb].set(cats[i], 1f); // one-hot encode categoricals
+            ids[k++] = cats[i];
           }
         }
         if (numIds != null) {
           //sparse
-          for (int i = 0; i < numIds.length; ++i)
+          for (int i = 0; i < numnz; ++i) {
             _a[mb].set(numIds[i], Double.isNaN(nums[i]) ? 0f /*Always do MeanImputation during scoring*/ : nums[i]);
+            ids[k++] = numIds[i];
+          }
         } else {
           //dense
-          for (int i = 0; i < nums.length; ++i)
+          for (int i = 0; i < nums.length; ++i) {
             _a[mb].set(_dinfo.numStart() + i, Double.isNaN(nums[i]) ? 0f /*Always do MeanImputation during scoring*/ : nums[i]);
+            ids[k++] = _dinfo.numStart() + i;
+          }
         }
+        _nnz[mb] = k;
       }
 
       // Input Dropout
@@ -625,6 +906,21 @@ public abstract class Neurons {
       _dropout.randomlySparsifyActivation(_a[mb], seed);
     }
 
+    /**
+     * Whether the first n rows of the mini-batch are sparse enough for the sparse input-layer kernels
+     * @param n Actual mini-batch size
+     * @return true if all rows were recorded by setInput() and at most SPARSE_INPUT_MAX_DENSITY of the inputs are set
+     */
+    final boolean isSparse(int n) {
+      if (_nnz == null) return false;
+      long nnz = 0;
+      for (int mb = 0; mb < n; ++mb) {
+        if (_nnz[mb] < 0) return false;
+        nnz += _nnz[mb];
+      }
+      return nnz <= SPARSE_INPUT_MAX_DENSITY * _a[0].size() * n;
+    }
+
   }
 
   /**
@@ -633,9 +929,7 @@ public abstract class Neurons {
   public static class Tanh extends Neurons {
     public Tanh(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropGemm(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb)
         for( int row = 0; row < rows; row++ )
@@ -758,9 +1052,7 @@ public abstract class Neurons {
   public static class Rectifier extends Neurons {
     public Rectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropGemm(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb) {
         for( int row = 0; row < rows; row++ ) {
@@ -808,8 +1100,7 @@ public abstract class Neurons {
   public static class ExpRectifier extends Neurons {
     public ExpRectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropGemm(_dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for( int row = 0; row < rows; row++ ) {
         for (int mb=0;mb<n;++mb) {
@@ -871,8 +1162,7 @@ public abstract class Neurons {
   public static class Softmax extends Output {
     public Softmax(int units) { super(units); }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, null);
+      fpropGemm(null, n);
       for (int mb=0;mb<n;++mb) {
         final double max = ArrayUtils.maxValue(_a[mb].raw());
         double scaling = 0;
@@ -928,8 +1218,7 @@ public abstract class Neurons {
       super(1);
     }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropGemm(_dropout != null ? _dropout.bits() : null, n);
     }
 
     /**
@@ -1021,4 +1310,180 @@ public abstract class Neurons {
   static void gemv_naive(final Storage.DenseVector res, final Storage.DenseRowMatrix a, final Storage.DenseVector x, final Storage.DenseVector y, byte[] row_bits) {
     gemv_naive(res.raw(), a.raw(), x.raw(), y.raw(), row_bits);
   }
+
+  /**
+   * Number of mini-batch inputs (doubles) kept in cache while streaming over the rows of the weight matrix in gemm()
+   */
+  static final int GEMM_CACHE_DOUBLES = 1 << 15;
+
+  /**
+   * Mini-batch Mat-Mat Plus Add (with optional row dropout): res[mb] = a*x[mb]+y for mb = 0..n-1
+   * Optimization: Every weight is loaded once for 4 rows of the mini-batch (instead of once per row), and the columns
+   * are processed in blocks such that the slices of all n input vectors stay in cache.
+   * @param res n vectors of length rows (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols
+   * @param x n vectors of length cols
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n actual mini-batch size
+   */
+  static void gemm_blocked(final double[][] res, final float[] a, final double[][] x, final double[] y, final byte[] row_bits, final int n) {
+    final int cols = x[0].length;
+    final int rows = y.length;
+    for (int mb = 0; mb < n; mb++) {
+      assert(res[mb].length == rows && x[mb].length == cols);
+      Arrays.fill(res[mb], 0);
+    }
+    final int block = Math.max(64, GEMM_CACHE_DOUBLES / n);
+    for (int c0 = 0; c0 < cols; c0 += block) {
+      final int c1 = Math.min(cols, c0 + block);
+      int idx = 0;
+      for (int row = 0; row < rows; row++, idx += cols) {
+        if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) continue;
+        int mb = 0;
+        for (; mb + 3 < n; mb += 4) {
+          final double[] x0 = x[mb], x1 = x[mb + 1], x2 = x[mb + 2], x3 = x[mb + 3];
+          double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0;
+          for (int col = c0; col < c1; col++) {
+            final double w = a[idx + col];
+            psum0 += w * x0[col];
+            psum1 += w * x1[col];
+            psum2 += w * x2[col];
+            psum3 += w * x3[col];
+          }
+          res[mb    ][row] += psum0;
+          res[mb + 1][row] += psum1;
+          res[mb + 2][row] += psum2;
+          res[mb + 3][row] += psum3;
+        }
+        for (; mb < n; mb++) {
+          final double[] x0 = x[mb];
+          double psum0 = 0;
+          for (int col = c0; col < c1; col++)
+            psum0 += a[idx + col] * x0[col];
+          res[mb][row] += psum0;
+        }
+      }
+    }
+    for (int row = 0; row < rows; row++) {
+      if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) continue;
+      for (int mb = 0; mb < n; mb++)
+        res[mb][row] += y[row];
+    }
+  }
+
+  /**
+   * Single precision version of gemm_blocked(): the inputs are float32, and the partial sums of each column block
+   * are accumulated in float32 before they are added to the (double) result
+   * @param res n vectors of length rows (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols
+   * @param x n vectors of length cols
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n actual mini-batch size
+   */
+  static void gemm_blocked(final double[][] res, final float[] a, final float[][] x, final double[] y, final byte[] row_bits, final int n) {
+    final int cols = x[0].length;
+    final int rows = y.length;
+    for (int mb = 0; mb < n; mb++) {
+      assert(res[mb].length == rows && x[mb].length == cols);
+      Arrays.fill(res[mb], 0);
+    }
+    final int block = Math.max(64, 2 * GEMM_CACHE_DOUBLES / n);
+    for (int c0 = 0; c0 < cols; c0 += block) {
+      final int c1 = Math.min(cols, c0 + block);
+      int idx = 0;
+      for (int row = 0; row < rows; row++, idx += cols) {
+        if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) continue;
+        int mb = 0;
+        for (; mb + 3 < n; mb += 4) {
+          final float[] x0 = x[mb], x1 = x[mb + 1], x2 = x[mb + 2], x3 = x[mb + 3];
+          float psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0;
+          for (int col = c0; col < c1; col++) {
+            final float w = a[idx + col];
+            psum0 += w * x0[col];
+            psum1 += w * x1[col];
+            psum2 += w * x2[col];
+            psum3 += w * x3[col];
+          }
+          res[mb    ][row] += psum0;
+          res[mb + 1][row] += psum1;
+          res[mb + 2][row] += psum2;
+          res[mb + 3][row] += psum3;
+        }
+        for (; mb < n; mb++) {
+          final float[] x0 = x[mb];
+          float psum0 = 0;
+          for (int col = c0; col < c1; col++)
+            psum0 += a[idx + col] * x0[col];
+          res[mb][row] += psum0;
+        }
+      }
+    }
+    for (int row = 0; row < rows; row++) {
+      if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) continue;
+      for (int mb = 0; mb < n; mb++)
+        res[mb][row] += y[row];
+    }
+  }
+
+  /**
+   * Helper to do a generic mini-batch gemm: res[mb] = a*x[mb] + y for the first n rows of the mini-batch
+   * @param res Dense results
+   * @param a DenseMatrix
+   * @param x DenseVectors
+   * @param y Dense vector to add to result
+   * @param row_bits Bit mask for which rows to use
+   * @param n actual mini-batch size
+   */
+  static void gemm(final Storage.DenseVector[] res, final Storage.DenseRowMatrix a, final Storage.DenseVector[] x, final Storage.DenseVector y, byte[] row_bits, int n) {
+    if (n == 1) {
+      gemv(res[0], a, x[0], y, row_bits);
+      return;
+    }
+    final double[][] r = new double[n][];
+    final double[][] xx = new double[n][];
+    for (int mb = 0; mb < n; mb++) {
+      r[mb] = res[mb].raw();
+      xx[mb] = x[mb].raw();
+    }
+    gemm_blocked(r, a.raw(), xx, y.raw(), row_bits, n);
+  }
+
+  /**
+   * Mini-batch Mat-Mat Plus Add for sparse inputs (with optional row dropout): res[mb] = a*x[mb]+y for mb = 0..n-1
+   * Only the columns listed in ids[mb] (the non-zero entries of x[mb]) are read, so the cost is proportional to the
+   * number of non-zeros of the mini-batch instead of its number of columns.
+   * @param res n vectors of length rows (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols
+   * @param x n vectors of length cols, all entries not listed in ids must be zero
+   * @param ids for every row of the mini-batch, the column indices of the (potentially) non-zero entries of x
+   * @param nnz for every row of the mini-batch, the number of valid entries in ids
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n actual mini-batch size
+   * @param xv scratch space, at least as long as the largest number of non-zeros of a row
+   */
+  static void gemm_sparse_input(final double[][] res, final float[] a, final double[][] x, final int[][] ids, final int[] nnz,
+                                final double[] y, final byte[] row_bits, final int n, final double[] xv) {
+    final int cols = x[0].length;
+    final int rows = y.length;
+    for (int mb = 0; mb < n; mb++) {
+      final double[] r = res[mb];
+      final int[] id = ids[mb];
+      final int nz = nnz[mb];
+      // gather the non-zero inputs once, they are reused for every row of the weight matrix
+      for (int k = 0; k < nz; k++)
+        xv[k] = x[mb][id[k]];
+      int idx = 0;
+      for (int row = 0; row < rows; row++, idx += cols) {
+        r[row] = 0;
+        if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) continue;
+        double psum = 0;
+        for (int k = 0; k < nz; k++)
+          psum += a[idx + id[k]] * xv[k];
+        r[row] = psum + y[row];
+      }
+    }
+  }
 }
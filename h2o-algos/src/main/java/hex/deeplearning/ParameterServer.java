@@ -0,0 +1,294 @@
+package hex.deeplearning;
+
+import water.*;
+import water.util.Log;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous parameter server for Deep Learning.
+ *
+ * The weights and biases of the model are split into shards (blocks of rows of each layer's weight matrix, together
+ * with the matching biases), and every shard is stored under its own DKV key, homed round-robin across the cloud.
+ * Instead of averaging the per-node models at the end of every map/reduce iteration, each node pushes the changes
+ * (deltas) of its local Hogwild! model to the shards every <code>dl.ps.syncSamples</code> local training samples,
+ * while the other worker threads of the node keep training.
+ *
+ * Every shard carries a version number (number of pushes applied to it). A push made on top of a view of the shard
+ * which missed <code>gap</code> pushes from other nodes is applied with the scale <code>1/(1+gap)</code>
+ * (staleness-aware asynchronous SGD). Once a node missed more than <code>parameter_server_staleness</code> pushes of
+ * a shard, the atomic update sends the current shard values back with the acknowledgement (push and pull in one round
+ * trip), and the node folds them into its local model.
+ */
+public class ParameterServer {
+
+  /**
+   * Number of local training samples a node processes between two synchronizations with the parameter server
+   */
+  static final long SYNC_SAMPLES = Long.parseLong(H2O.getSysProperty("dl.ps.syncSamples", "10000"));
+
+  /**
+   * Upper limit on the number of weights stored in one shard
+   */
+  static final int SHARD_SIZE = 1 << 18;
+
+  /**
+   * One block of rows [row0, row1) of the weights (and biases) of one layer
+   */
+  static final class Shard extends Iced<Shard> {
+    final int _layer;
+    final int _row0;
+    final int _row1;
+    float[] _w;
+    double[] _b;
+    long _version;
+
+    Shard(int layer, int row0, int row1) {
+      _layer = layer;
+      _row0 = row0;
+      _row1 = row1;
+    }
+  }
+
+  /**
+   * Split the weights of the model into shards, the layout only depends on the network topology.
+   * @param minfo model
+   * @return shards (without values)
+   */
+  static Shard[] layout(DeepLearningModelInfo minfo) {
+    final int nlayers = minfo.get_params()._hidden.length + 1;
+    int n = 0;
+    for (int l = 0; l < nlayers; ++l)
+      n += numShards(minfo.get_weights(l));
+    Shard[] shards = new Shard[n];
+    int s = 0;
+    for (int l = 0; l < nlayers; ++l) {
+      Storage.DenseRowMatrix w = minfo.get_weights(l);
+      final int rowsPerShard = rowsPerShard(w);
+      for (int r = 0; r < w.rows(); r += rowsPerShard)
+        shards[s++] = new Shard(l, r, Math.min(w.rows(), r + rowsPerShard));
+    }
+    assert s == n;
+    return shards;
+  }
+
+  private static int rowsPerShard(Storage.DenseRowMatrix w) {
+    return Math.max(1, SHARD_SIZE / Math.max(1, w.cols()));
+  }
+
+  private static int numShards(Storage.DenseRowMatrix w) {
+    final int rowsPerShard = rowsPerShard(w);
+    return (w.rows() + rowsPerShard - 1) / rowsPerShard;
+  }
+
+  static Key shardKey(DeepLearningModelInfo minfo, int s) {
+    return Key.make(minfo._model_id + ".ps" + s, (byte) 1 /*replica factor*/, (byte) 31 /*hidden user-key*/, true,
+            H2O.CLOUD._memary[s % H2O.CLOUD.size()]);
+  }
+
+  /**
+   * Make sure the parameter server holds the weights of the given model.
+   * Only the first call (or the first call after a checkpoint restart) stores the shards, later calls only
+   * return the shard versions the model is in sync with.
+   * @param minfo model (driver copy)
+   * @return shard versions
+   */
+  static long[] publish(DeepLearningModelInfo minfo) {
+    Shard[] shards = layout(minfo);
+    if (minfo.ps_versions != null && minfo.ps_versions.length == shards.length && DKV.get(shardKey(minfo, 0)) != null)
+      return minfo.ps_versions;
+    Futures fs = new Futures();
+    for (int s = 0; s < shards.length; ++s) {
+      Shard shard = shards[s];
+      Storage.DenseRowMatrix w = minfo.get_weights(shard._layer);
+      shard._w = Arrays.copyOfRange(w.raw(), shard._row0 * w.cols(), shard._row1 * w.cols());
+      shard._b = Arrays.copyOfRange(minfo.get_biases(shard._layer).raw(), shard._row0, shard._row1);
+      DKV.put(shardKey(minfo, s), shard, fs);
+    }
+    fs.blockForPending();
+    if (!minfo.get_params()._quiet_mode)
+      Log.info("Stored " + minfo.size() + " weights/biases in " + shards.length + " parameter server shard(s).");
+    return minfo.ps_versions = new long[shards.length];
+  }
+
+  /**
+   * Overwrite the weights and biases of the given model with the current state of the parameter server.
+   * @param minfo model
+   */
+  static void pullAll(DeepLearningModelInfo minfo) {
+    Shard[] shards = layout(minfo);
+    long[] versions = new long[shards.length];
+    for (int s = 0; s < shards.length; ++s) {
+      Shard shard = DKV.getGet(shardKey(minfo, s));
+      Storage.DenseRowMatrix w = minfo.get_weights(shard._layer);
+      System.arraycopy(shard._w, 0, w.raw(), shard._row0 * w.cols(), shard._w.length);
+      System.arraycopy(shard._b, 0, minfo.get_biases(shard._layer).raw(), shard._row0, shard._b.length);
+      versions[s] = shard._version;
+    }
+    minfo.ps_versions = versions;
+  }
+
+  static void remove(DeepLearningModelInfo minfo) {
+    if (minfo.ps_versions == null) return;
+    Futures fs = new Futures();
+    for (int s = 0; s < minfo.ps_versions.length; ++s)
+      DKV.remove(shardKey(minfo, s), fs);
+    fs.blockForPending();
+  }
+
+  /**
+   * Atomic update of one shard: add the (staleness-scaled) delta and send the shard values back if the
+   * pushing node's view of the shard is too stale.
+   */
+  static final class PushTask extends TAtomic<Shard> {
+    float[] _dw;
+    double[] _db;
+    final long _seen;
+    final int _staleness;
+    // results
+    long _version;
+    float[] _w;
+    double[] _b;
+
+    PushTask(float[] dw, double[] db, long seen, int staleness) {
+      _dw = dw;
+      _db = db;
+      _seen = seen;
+      _staleness = staleness;
+    }
+
+    @Override
+    protected Shard atomic(Shard old) {
+      assert old != null : "Parameter server shard " + _key + " is missing.";
+      final long gap = Math.max(0, old._version - _seen);
+      final float scale = 1f / (1 + gap);
+      // old is a shallow copy of the stored shard, never modify its arrays in place
+      float[] w = old._w.clone();
+      for (int i = 0; i < w.length; ++i)
+        w[i] += scale * _dw[i];
+      double[] b = old._b.clone();
+      for (int i = 0; i < b.length; ++i)
+        b[i] += scale * _db[i];
+      old._w = w;
+      old._b = b;
+      _version = ++old._version;
+      if (gap > _staleness) {
+        _w = w;
+        _b = b;
+      } else {
+        _w = null;
+        _b = null;
+      }
+      return old;
+    }
+
+    @Override
+    public void onSuccess(Shard old) {
+      _dw = null; //avoid serialization overhead on the way back
+      _db = null;
+    }
+  }
+
+  /**
+   * Per-node view of the parameter server, shared by all worker threads training the node's local model
+   */
+  static final class Client {
+    private final Shard[] _shards;
+    private final Key[] _keys;
+    private final float[][] _snapW; // state of the weights of each shard as of the last push/pull
+    private final double[][] _snapB;
+    private final long[] _seen;     // number of pushes the local view of each shard reflects
+    private final int _staleness;
+    private final AtomicBoolean _syncing = new AtomicBoolean();
+    private volatile long _nextSync;
+
+    @SuppressWarnings("unchecked")
+    Client(DeepLearningModelInfo minfo, long[] versions) {
+      _shards = layout(minfo);
+      assert versions != null && versions.length == _shards.length;
+      _keys = new Key[_shards.length];
+      _snapW = new float[_shards.length][];
+      _snapB = new double[_shards.length][];
+      for (int s = 0; s < _shards.length; ++s) {
+        Shard shard = _shards[s];
+        Storage.DenseRowMatrix w = minfo.get_weights(shard._layer);
+        _keys[s] = shardKey(minfo, s);
+        _snapW[s] = Arrays.copyOfRange(w.raw(), shard._row0 * w.cols(), shard._row1 * w.cols());
+        _snapB[s] = Arrays.copyOfRange(minfo.get_biases(shard._layer).raw(), shard._row0, shard._row1);
+      }
+      _seen = versions.clone();
+      _staleness = minfo.get_params()._parameter_server_staleness;
+      _nextSync = SYNC_SAMPLES;
+    }
+
+    /**
+     * Synchronize with the parameter server if this node processed enough samples since the last synchronization.
+     * Only one worker thread synchronizes at a time, the others keep on training.
+     */
+    void maybeSync(DeepLearningModelInfo minfo) {
+      if (minfo.get_processed_local() < _nextSync || !_syncing.compareAndSet(false, true)) return;
+      try {
+        _nextSync = minfo.get_processed_local() + SYNC_SAMPLES;
+        sync(minfo);
+      } finally {
+        _syncing.set(false);
+      }
+    }
+
+    /**
+     * Push the local changes of all shards (in parallel), and fold in the shard values sent back for stale shards.
+     * Updates made concurrently by other worker threads are preserved: the local model is only shifted by the
+     * difference between the server state and the local view.
+     */
+    @SuppressWarnings("unchecked")
+    void sync(DeepLearningModelInfo minfo) {
+      RPC<Atomic<TAtomic<Shard>>>[] rpcs = new RPC[_shards.length];
+      PushTask[] tasks = new PushTask[_shards.length];
+      for (int s = 0; s < _shards.length; ++s) {
+        Shard shard = _shards[s];
+        final float[] w = minfo.get_weights(shard._layer).raw();
+        final double[] b = minfo.get_biases(shard._layer).raw();
+        final int off = shard._row0 * minfo.get_weights(shard._layer).cols();
+        final float[] sw = _snapW[s];
+        final double[] sb = _snapB[s];
+        float[] dw = new float[sw.length];
+        for (int i = 0; i < dw.length; ++i) {
+          float v = w[off + i];
+          dw[i] = v - sw[i];
+          sw[i] = v;
+        }
+        double[] db = new double[sb.length];
+        for (int i = 0; i < db.length; ++i) {
+          double v = b[shard._row0 + i];
+          db[i] = v - sb[i];
+          sb[i] = v;
+        }
+        tasks[s] = new PushTask(dw, db, _seen[s], _staleness);
+        rpcs[s] = tasks[s].fork(_keys[s]);
+      }
+      for (int s = 0; s < _shards.length; ++s) {
+        PushTask t = rpcs[s] == null ? tasks[s] : (PushTask) rpcs[s].get();
+        if (t._w == null) {
+          _seen[s]++;
+          continue;
+        }
+        Shard shard = _shards[s];
+        final float[] w = minfo.get_weights(shard._layer).raw();
+        final double[] b = minfo.get_biases(shard._layer).raw();
+        final int off = shard._row0 * minfo.get_weights(shard._layer).cols();
+        final float[] sw = _snapW[s];
+        final double[] sb = _snapB[s];
+        for (int i = 0; i < sw.length; ++i) {
+          w[off + i] += t._w[i] - sw[i];
+          sw[i] = t._w[i];
+        }
+        for (int i = 0; i < sb.length; ++i) {
+          b[shard._row0 + i] += t._b[i] - sb[i];
+          sb[i] = t._b[i];
+        }
+        _seen[s] = t._version;
+      }
+    }
+  }
+}
@@ -7,6 +7,7 @@ import hex.glm.GLM.GLMGradientSolver;
 import hex.glm.GLMModel.GLMParameters;
 import hex.glm.GLMModel.GLMParameters.Family;
 import hex.gram.Gram;
+import hex.gram.SparseGram;
 import hex.optimization.ADMM;
 import hex.optimization.OptimizationUtils.GradientInfo;
 import hex.optimization.OptimizationUtils.GradientSolver;
@@ -243,6 +244,8 @@ public final class ComputationState {
   public double l1pen() {return _alpha*_lambda;}
   public double l2pen() {return (1-_alpha)*_lambda;}
 
+  static final boolean STRONG_RULES = H2O.getSysBoolProperty("glm.strongRules", true);
+  boolean _strongRules = STRONG_RULES; // screen out predictors by the sequential strong rules, set by GLM
 
   /**
    * Apply strong rules to filter out expected inactive (with zero coefficient) predictors.
@@ -259,19 +262,28 @@ public final class ComputationState {
     int P = _dinfo.fullN();
     _activeBC = _bc;
     _activeData = _activeData != null?_activeData:_dinfo;
-    _allIn = _allIn || _parms._alpha[0]*lambdaNew == 0 || _activeBC.hasBounds();
+    _allIn = _allIn || !_strongRules || _parms._alpha[0]*lambdaNew == 0 || _activeBC.hasBounds();
     if (!_allIn) {
       int newlySelected = 0;
       final double rhs = Math.max(0,_alpha * (2 * lambdaNew - lambdaOld));
       int [] newCols = MemoryManager.malloc4(P);
       int j = 0;
       int[] oldActiveCols = _activeData._activeCols == null ? new int[]{P} : _activeData.activeCols();
+      // sequential strong rules: previously active columns with zero coefficient have to pass the rule again,
+      // they are cheap to bring back if they fail the KKT check as their gram stays cached (see computeGram)
+      final boolean fullBeta = _beta != null && _beta.length == P + 1;
+      int [] keptCols = MemoryManager.malloc4(oldActiveCols.length);
+      int kept = 0;
       for (int i = 0; i < P; ++i) {
-        if(j < oldActiveCols.length && oldActiveCols[j] == i)
-          j++;
+        boolean wasActive = j < oldActiveCols.length && oldActiveCols[j] == i;
+        if (wasActive) j++;
+        if (wasActive && (!fullBeta || _beta[i] != 0))
+          keptCols[kept++] = i;
         else if (_ginfo._gradient[i] > rhs || -_ginfo._gradient[i] > rhs)
           newCols[newlySelected++] = i;
       }
+      keptCols[kept++] = P;
+      oldActiveCols = Arrays.copyOf(keptCols, kept);
       if(_parms._max_active_predictors != -1 && (oldActiveCols.length + newlySelected -1) > _parms._max_active_predictors){
         Integer [] bigInts = ArrayUtils.toIntegers(newCols, 0, newlySelected);
         Arrays.sort(bigInts, new Comparator<Integer>() {
@@ -678,6 +690,7 @@ public final class ComputationState {
    */
   public static final class GramXY {
     public final Gram gram;
+    public final SparseGram sparseGram; // set instead of gram if the gram was accumulated as sparse
     final double[] beta;
     final int[] activeCols;
     int [] newCols;
@@ -689,7 +702,16 @@ public final class ComputationState {
 
 
     public GramXY(Gram gram, double[] xy, double [] grads, double[] beta, int[] activeCols, int [] newActiveCols, double yy, double likelihood) {
+      this(gram, null, xy, grads, beta, activeCols, newActiveCols, yy, likelihood);
+    }
+
+    public GramXY(SparseGram gram, double[] xy, double[] beta, int[] activeCols, double yy, double likelihood) {
+      this(null, gram, xy, null, beta, activeCols, null, yy, likelihood);
+    }
+
+    private GramXY(Gram gram, SparseGram sparseGram, double[] xy, double [] grads, double[] beta, int[] activeCols, int [] newActiveCols, double yy, double likelihood) {
       this.gram = gram;
+      this.sparseGram = sparseGram;
       this.xy = xy;
       this.grads = grads;
       this.beta = beta == null ? null : beta.clone();
@@ -730,6 +752,27 @@ public final class ComputationState {
         xrow[j] = xrowOld[j-l];
       return xrow;
     }
+    /**
+     * Gram of a subset of the cached columns (columns of the cache screened out by the strong rules are left out).
+     */
+    GramXY subset(int [] cols, double [] beta) {
+      int [] ids = new int[cols.length];
+      for (int i = 0; i < cols.length; ++i) {
+        ids[i] = Arrays.binarySearch(activeCols, cols[i]);
+        assert ids[i] >= 0 : "column " + cols[i] + " is not cached";
+      }
+      double [][] xx = gram.getXX();
+      double [][] xxSub = new double[ids.length][ids.length];
+      double [] xySub = new double[ids.length];
+      for (int i = 0; i < ids.length; ++i) {
+        double [] row = xx[ids[i]];
+        for (int j = 0; j < ids.length; ++j)
+          xxSub[i][j] = row[ids[j]];
+        xySub[i] = xy[ids[i]];
+      }
+      return new GramXY(new Gram(xxSub), xySub, null, beta, cols, null, yy, likelihood);
+    }
+
     public static GramXY addCols(double[] beta, final int[] newActiveCols, final int[] newColsIds, final GramXY oldGram, final double[][] xxUpdate, final double[] xyUpdate) {
       // update the expanded matrix cache
       final double[][] xxCacheNew = new double[newActiveCols.length][];
@@ -759,6 +802,8 @@ public final class ComputationState {
   protected GramXY computeNewGram(DataInfo activeData, double [] beta, GLMParameters.Solver s){
     double obj_reg = _parms._obj_reg;
     if(_glmw == null) _glmw = new GLMModel.GLMWeightsFun(_parms);
+    if (useSparseGram(activeData, s))
+      return computeNewSparseGram(activeData, beta);
     GLMTask.GLMIterationTask gt = new GLMTask.GLMIterationTask(_job._key, activeData, _glmw, beta,
             _activeClass).doAll(activeData._adaptedFrame);
     gt._gram.mul(obj_reg);
@@ -783,9 +828,49 @@ public final class ComputationState {
     return res;
   }
 
+  // not final so that tests can compare the sparse gram solution against the dense solver
+  static boolean SPARSE_GRAM = H2O.getSysBoolProperty("glm.sparseGram", true);
+
+  /**
+   * Sparse gram is only used by IRLSM solved directly by Cholesky decomposition (no L1 penalty, no bounds,
+   * no collinear columns removal and no p-values), and only if the gram is expected to be large and sparse.
+   */
+  boolean useSparseGram(DataInfo activeData, GLMParameters.Solver s) {
+    return SPARSE_GRAM && s == GLMParameters.Solver.IRLSM && _parms._family != Family.multinomial && _parms._family != Family.ordinal &&
+            !_parms._glmType.equals(GLMParameters.GLMType.gam) && !_parms._remove_collinear_columns &&
+            !_parms._compute_p_values && l1pen() == 0 && !activeBC().hasBounds() && activeBC()._betaGiven == null &&
+            Gram.useSparse(activeData);
+  }
+
+  private GramXY computeNewSparseGram(DataInfo activeData, double [] beta) {
+    double obj_reg = _parms._obj_reg;
+    GLMTask.GLMIterationTask gt = new GLMTask.GLMIterationTask(_job._key, activeData, _glmw, beta, _activeClass)
+            .setSparseGram().doAll(activeData._adaptedFrame);
+    gt._sparseGram.mul(obj_reg);
+    ArrayUtils.mult(gt._xy,obj_reg);
+    int [] zeros = gt._sparseGram.findZeroCols();
+    if(zeros.length > 0) {
+      gt._sparseGram.dropCols(zeros);
+      removeCols(zeros);
+      return new GramXY(gt._sparseGram,ArrayUtils.removeIds(gt._xy, zeros),gt._beta == null?null:ArrayUtils.removeIds(gt._beta, zeros),activeData().activeCols(),gt._yy,gt._likelihood);
+    }
+    return new GramXY(gt._sparseGram,gt._xy,beta,activeData.activeCols(),gt._yy,gt._likelihood);
+  }
+
   GramXY _currGram;
   GLMModel.GLMWeightsFun _glmw;
 
+  // scatter values of the sorted columns cols into (sorted) superset of columns allCols, missing columns are zeros
+  private static double [] scatter(double [] vals, int [] cols, int [] allCols) {
+    if (vals == null || cols.length == allCols.length) return vals;
+    double [] res = new double[allCols.length];
+    for (int i = 0, j = 0; i < cols.length; ++i) {
+      while (allCols[j] != cols[i]) ++j;
+      res[j] = vals[i];
+    }
+    return res;
+  }
+
 
   // get cached gram or incrementally update or compute new one
   public GramXY computeGram(double [] beta, GLMParameters.Solver s){
@@ -808,29 +893,33 @@ public final class ComputationState {
       return (!weighted || Arrays.equals(_currGram.beta, beta)) ? _currGram : (_currGram = computeNewGram(activeData,
               beta, s));
     if(_glmw == null) _glmw = new GLMModel.GLMWeightsFun(_parms);
-    // check if we need full or just incremental update
-    if(_currGram != null){
-      int [] newCols = ArrayUtils.sorted_set_diff(activeCols,_currGram.activeCols);
-      int [] newColsIds = newCols.clone();
-      int jj = 0;
-      boolean matches = true;
-      int k = 0;
-      for (int i = 0; i < activeCols.length; ++i) {
-        if (jj < newCols.length && activeCols[i] == newCols[jj]) {
-          newColsIds[jj++] = i;
-          matches = matches && (beta == null || beta[i] == 0);
-        } else {
-          matches = matches && (beta == null || beta[i] == _currGram.beta[k++]);
-        }
-      }
-      if(!weighted || matches) {
-        GLMTask.GLMIncrementalGramTask gt = new GLMTask.GLMIncrementalGramTask(newColsIds, activeData, _glmw, beta).doAll(activeData._adaptedFrame); // dense
+    // the cache keeps the union of the current and previously active columns, only the gram of the columns which are
+    // not cached yet is computed (incrementally), the rest is extracted from the cache
+    int [] cachedCols = _currGram.activeCols;
+    int [] newCols = ArrayUtils.sorted_set_diff(activeCols,cachedCols);
+    int [] cols = newCols.length == 0 ? cachedCols : ArrayUtils.sortedMerge(cachedCols, newCols);
+    double [] betaCols = scatter(beta, activeCols, cols);
+    // weighted gram can only be reused if the weights did not change, inactive columns must have zero coefficients
+    if(!weighted || Arrays.equals(betaCols, scatter(_currGram.beta, cachedCols, cols))) {
+      _currGram.grads = null; // cached gradients are not kept up to date while subsets of the cache are being solved
+      if (newCols.length > 0) {
+        int [] newColsIds = new int[newCols.length];
+        for (int i = 0; i < newCols.length; ++i)
+          newColsIds[i] = Arrays.binarySearch(cols, newCols[i]);
+        DataInfo cacheData = cols.length == activeCols.length ? activeData : _dinfo.filterExpandedColumns(cols);
+        GLMTask.GLMIncrementalGramTask gt = new GLMTask.GLMIncrementalGramTask(newColsIds, cacheData, _glmw, betaCols).doAll(cacheData._adaptedFrame); // dense
         for (double[] d : gt._gram)
           ArrayUtils.mult(d, obj_reg);
         ArrayUtils.mult(gt._xy, obj_reg);
         // glue the update and old gram together
-        return _currGram = GramXY.addCols(beta, activeCols, newColsIds, _currGram, gt._gram, gt._xy);
+        _currGram = GramXY.addCols(betaCols, cols, newColsIds, _currGram, gt._gram, gt._xy);
       }
+      if (cols.length == activeCols.length)
+        return _currGram;
+      GramXY res = _currGram.subset(activeCols, beta);
+      if (cols.length > 2*activeCols.length) // do not let the cache grow much bigger than the active set
+        _currGram = res;
+      return res;
     }
     return _currGram = computeNewGram(activeData,beta,s);
   }
@@ -10,6 +10,7 @@ import hex.glm.GLMTask.*;
 import hex.gram.Gram;
 import hex.gram.Gram.Cholesky;
 import hex.gram.Gram.NonSPDMatrixException;
+import hex.gram.SparseGram;
 import hex.optimization.ADMM;
 import hex.optimization.ADMM.L1Solver;
 import hex.optimization.ADMM.ProximalSolver;
@@ -24,6 +25,7 @@ import hex.util.LinearAlgebraUtils;
 import hex.util.LinearAlgebraUtils.BMulTask;
 import hex.util.LinearAlgebraUtils.FindMaxIndex;
 import jsr166y.CountedCompleter;
+import jsr166y.RecursiveAction;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import water.*;
@@ -55,6 +57,12 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
   static NumberFormat lambdaFormatter = new DecimalFormat(".##E0");
   static NumberFormat devFormatter = new DecimalFormat(".##");
 
+  // minimum number of numeric predictors for the coordinate descent over the gram to run in blocks of columns, updating
+  // the gradients in parallel
+  static final int PARALLEL_COD_MIN = Integer.parseInt(H2O.getSysProperty("glm.cod.parallelMin", "1024"));
+  static final int COD_BLOCK_SIZE = 64;
+  private static final int COD_MIN_TASK_SIZE = 10000;
+
   public static final int SCORING_INTERVAL_MSEC = 15000; // scoreAndUpdateModel every minute unless score every iteration is set
   public int[] _randC;  // contains categorical column levels for random columns for HGLM
   public String _generatedWeights = null;
@@ -543,12 +551,15 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
           _parms._max_iterations = _parms._lambda_search ? _parms._nlambdas * 100 * numclasses : numclasses * Math.max(20, _dinfo.fullN() >> 2);
           if(_parms._alpha[0] > 0)
             _parms._max_iterations *= 10;
-        } else
+        } else if (_parms._solver == Solver.SGD) // every iteration is an epoch
+          _parms._max_iterations = _parms._lambda_search ? 5 * _parms._nlambdas : 10;
+        else
           _parms._max_iterations = _parms._lambda_search ? 10 * _parms._nlambdas : 50;
       }
       if (_valid != null)
         _validDinfo = _dinfo.validDinfo(_valid);
       _state = new ComputationState(_job, _parms, _dinfo, null, nclasses(), _penaltyMatrix, _gamColIndices);
+      _state._strongRules = _strongRules;
       // skipping extra rows? (outside of weights == 0)GLMT
       boolean skippingRows = (_parms.missingValuesHandling() == GLMParameters.MissingValuesHandling.Skip && _train.hasNAs());
       if (hasWeightCol() || skippingRows) { // need to re-compute means and sd
@@ -828,6 +839,8 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     return Math.max(ArrayUtils.maxValue(grad), -ArrayUtils.minValue(grad)) / Math.max(1e-2, _parms._alpha[0]);
   }
   private transient ComputationState _state;
+  // package-private, lambda search without strong rules keeps all columns active (e.g. to compare the solution paths)
+  boolean _strongRules = ComputationState.STRONG_RULES;
 
   /**
    * Main loop of the glm algo.
@@ -913,6 +926,31 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       return xy;
     }
 
+    /**
+     * Solves the (L2 regularized) normal equations directly using sparse Cholesky decomposition of the gram,
+     * see {@link ComputationState#useSparseGram}.
+     */
+    private double[] sparseGram_solve(SparseGram gram, double [] xy) {
+      gram = gram.deep_clone();
+      if(_state.l2pen() > 0)
+        gram.addDiag(_state.l2pen());
+      if(!_parms._intercept)
+        gram.dropIntercept();
+      SparseGram.SparseCholesky chol = gram.cholesky();
+      int cnt = 0;
+      while (!chol.isSPD() && cnt++ < 5) {
+        Log.warn(LogMsg("Got NonSPD sparse gram, adding 1e-5 to the diagonal"));
+        gram.addDiag(1e-5, !_parms._intercept);
+        chol = gram.cholesky();
+      }
+      if (!chol.isSPD())
+        throw new NonSPDMatrixException();
+      double [] res = Arrays.copyOf(xy, gram.fullN());
+      chol.solve(res);
+      Log.debug(LogMsg("Sparse gram " + gram + " decomposed with " + chol.nonZeros() + " non-zeros"));
+      return _parms._intercept?res:Arrays.copyOf(res, xy.length);
+    }
+
     private void fitCOD_multinomial(Solver s) {
       double[] beta = _state.betaMultinomial();
       LineSearchSolver ls;
@@ -1373,9 +1411,10 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       ComputationState.GramXY gramXY = _state.computeGram(_state.beta(),s);
       Log.info(LogMsg("Gram computed in " + (System.currentTimeMillis()-t0) + "ms"));
       double [] beta = _parms._solver == Solver.COORDINATE_DESCENT?COD_solve(gramXY,_state._alpha,_state.lambda())
+              :gramXY.sparseGram != null?sparseGram_solve(gramXY.sparseGram,gramXY.xy)
               :ADMM_solve(gramXY.gram,gramXY.xy);
       // compute mse
-      double [] x = ArrayUtils.mmul(gramXY.gram.getXX(),beta);
+      double [] x = gramXY.sparseGram != null?gramXY.sparseGram.mmul(beta):ArrayUtils.mmul(gramXY.gram.getXX(),beta);
       for(int i = 0; i < x.length; ++i)
         x[i] = (x[i] - 2*gramXY.xy[i]);
       double l = .5*(ArrayUtils.innerProduct(x,beta)/_parms._obj_reg + gramXY.yy );
@@ -1402,7 +1441,9 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
               System.out.println("DONE after " + (iterCnt-1) + " iterations (1)");
               return;
             }
-            betaCnd = s == Solver.COORDINATE_DESCENT?COD_solve(gram,_state._alpha,_state.lambda()):ADMM_solve(gram.gram,gram.xy);
+            betaCnd = s == Solver.COORDINATE_DESCENT?COD_solve(gram,_state._alpha,_state.lambda())
+                    :gram.sparseGram != null?sparseGram_solve(gram.sparseGram,gram.xy)
+                    :ADMM_solve(gram.gram,gram.xy);
           }
           firstIter = false;
           long t3 = System.currentTimeMillis();
@@ -1660,6 +1701,32 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       for (Vec v : newVecs) v.remove();
       _state.updateState(beta,objold);
     }
+    /**
+     * Mini-batch stochastic gradient descent, every iteration is a single pass over the data. Chunks run SGD locally
+     * and their coefficients are averaged at the end of each pass. The learning rate decays as 1/(1+epoch), starting
+     * from the second epoch the chunks return the average of their iterates.
+     */
+    private void fitSGD() {
+      final DataInfo activeData = _state.activeData();
+      final double rate0 = Double.parseDouble(H2O.getSysProperty("glm.sgd.learningRate", "2"));
+      final double rowReg = _parms._obj_reg*_nobs;
+      double [] beta = _state.beta();
+      BetaConstraint bc = _state.activeBC();
+      int epoch = 0;
+      if (!_parms._lambda_search && _state._iter == 0)
+        updateProgress(false);
+      while (true) {
+        GLMSGDTask sgd = new GLMSGDTask(_job._key, activeData, _parms, beta, rate0/(1 + epoch), rowReg, _state.l1pen(),
+                _state.l2pen(), bc._betaLB, bc._betaUB, epoch > 0, _parms._seed + _state._iter).doAll(activeData._adaptedFrame);
+        beta = sgd._beta;
+        ++epoch;
+        if (!progress(beta, sgd._likelihood))
+          break;
+      }
+      // the likelihood reported by the epochs is only an estimate, evaluate the final coefficients exactly
+      _state.updateState(beta, _state.gslvr().getGradient(beta));
+    }
+
     private void fitModel() {
       Solver solver = (_parms._solver == Solver.AUTO) ? defaultSolver() : _parms._solver;
       if (_parms._HGLM) {
@@ -1688,6 +1755,9 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
           case COORDINATE_DESCENT_NAIVE:
             fitCOD();
             break;
+          case SGD:
+            fitSGD();
+            break;
           default:
             throw H2O.unimpl();
         }
@@ -2370,6 +2440,95 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     return res;
   }
 
+  private static double applyBounds(double d, double [] lb, double [] ub, int i) {
+    if(lb != null && d < lb[i])
+      return lb[i];
+    if(ub != null && d > ub[i])
+      return ub[i];
+    return d;
+  }
+
+  /**
+   * One sweep of coordinate descent over the numeric columns from..to-1 of the gram.
+   * @return max (weighted) squared change of the coefficients
+   */
+  static double codNumericSweep(double [][] xx, double [] grads, double [] beta, double [] lb, double [] ub,
+                                double [] diagInv, double l1pen, double updateEpsilon, int from, int to) {
+    double maxDiff = 0;
+    for (int i = from; i < to; ++i) {
+      double b = applyBounds(ADMM.shrinkage(grads[i], l1pen) * diagInv[i], lb, ub, i);
+      double bd = beta[i] - b;
+      double diff = bd * bd * xx[i][i];
+      if (diff > maxDiff) maxDiff = diff;
+      if(diff > updateEpsilon) {
+        doUpdateCD(grads, xx[i], bd, i, i + 1);
+        beta[i] = b;
+      }
+    }
+    return maxDiff;
+  }
+
+  /**
+   * Same sweep as {@link #codNumericSweep} (gives the same coefficients), done in blocks of columns. Within a block
+   * the coordinates are updated one by one and only the gradients of the block's columns are kept up to date. The
+   * change of the block's coefficients is applied to the rest of the gradients at the end of the block, this
+   * rank-blockSize update is done in parallel.
+   */
+  static double codNumericSweepBlocked(final double [][] xx, final double [] grads, double [] beta, double [] lb,
+                                       double [] ub, double [] diagInv, double l1pen, double updateEpsilon,
+                                       int from, int to, int blockSize) {
+    double maxDiff = 0;
+    final double [] delta = MemoryManager.malloc8d(blockSize);
+    for (int b0 = from; b0 < to; b0 += blockSize) {
+      final int b1 = Math.min(to, b0 + blockSize);
+      boolean changed = false;
+      for (int i = b0; i < b1; ++i) {
+        double b = applyBounds(ADMM.shrinkage(grads[i], l1pen) * diagInv[i], lb, ub, i);
+        double bd = beta[i] - b;
+        double diff = bd * bd * xx[i][i];
+        if (diff > maxDiff) maxDiff = diff;
+        if(diff > updateEpsilon) {
+          final double [] x = xx[i];
+          for (int k = b0; k < b1; ++k)
+            if (k != i) grads[k] += bd * x[k];
+          delta[i - b0] = bd;
+          beta[i] = b;
+          changed = true;
+        }
+      }
+      if (changed) {
+        updateGradsCD(xx, grads, delta, b0, b1);
+        Arrays.fill(delta, 0);
+      }
+    }
+    return maxDiff;
+  }
+
+  // grads[k] += sum_i delta[i-b0]*xx[i][k] for all k outside of b0..b1-1
+  private static void updateGradsCD(final double [][] xx, final double [] grads, final double [] delta, final int b0, final int b1) {
+    final int N = grads.length;
+    RecursiveAction [] tasks = new RecursiveAction[(int) Math.max(1, Math.min(H2O.NUMCPUS, (long) (b1 - b0) * N / COD_MIN_TASK_SIZE))];
+    final int kpt = (N + tasks.length - 1) / tasks.length;
+    for (int t = 0; t < tasks.length; ++t) {
+      final int k0 = t * kpt;
+      final int k1 = Math.min(N, k0 + kpt);
+      tasks[t] = new RecursiveAction() {
+        @Override protected void compute() {
+          for (int i = b0; i < b1; ++i) {
+            final double d = delta[i - b0];
+            if (d == 0) continue;
+            final double [] x = xx[i];
+            for (int k = k0, kmax = Math.min(k1, b0); k < kmax; ++k)
+              grads[k] += d * x[k];
+            for (int k = Math.max(k0, b1); k < k1; ++k)
+              grads[k] += d * x[k];
+          }
+        }
+      };
+    }
+    Gram.invokeAll(tasks);
+  }
+
   private static double [] doUpdateCD(double [] grads, double [] ary, double diff , int variable_min, int variable_max) {
     for (int i = 0; i < variable_min; i++)
       grads[i] += diff * ary[i];
@@ -2452,16 +2611,10 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
           }
         }
       }
-      for (int i = numStart; i < P; ++i) {
-        double b = bc.applyBounds(ADMM.shrinkage(grads[i], l1pen) * diagInv[i],i);
-        double bd = beta[i] - b;
-        double diff = bd * bd * xx[i][i];
-        if (diff > maxDiff) maxDiff = diff;
-        if(diff > updateEpsilon) {
-          doUpdateCD(grads, xx[i], bd, i, i + 1);
-          beta[i] = b;
-        }
-      }
+      double numDiff = P - numStart >= PARALLEL_COD_MIN ?
+              codNumericSweepBlocked(xx, grads, beta, bc._betaLB, bc._betaUB, diagInv, l1pen, updateEpsilon, numStart, P, COD_BLOCK_SIZE) :
+              codNumericSweep(xx, grads, beta, bc._betaLB, bc._betaUB, diagInv, l1pen, updateEpsilon, numStart, P);
+      if (numDiff > maxDiff) maxDiff = numDiff;
       // intercept
       if(_parms._intercept) {
         double b = bc.applyBounds(grads[P] * wsumInv,P);
@@ -9,6 +9,8 @@ import hex.glm.GLMModel.GLMParameters.Link;
 import hex.glm.GLMModel.GLMWeights;
 import hex.glm.GLMModel.GLMWeightsFun;
 import hex.gram.Gram;
+import hex.gram.SparseGram;
+import hex.optimization.ADMM;
 import water.*;
 import water.H2O.H2OCountedCompleter;
 import water.fvec.C0DChunk;
@@ -18,6 +20,7 @@ import water.util.ArrayUtils;
 import water.util.FrameUtils;
 import water.util.MathUtils;
 import water.util.MathUtils.BasicStats;
+import water.util.RandomUtils;
 import java.util.Arrays;
 
 import static hex.glm.GLMTask.DataAddW2AugXZ.getCorrectChunk;
@@ -31,6 +34,7 @@ import static hex.glm.GLMUtils.updateGradGamMultinomial;
  * GLMGradientTask   - computes gradient at given Beta, used by L-BFGS, for KKT condition check
  * GLMLineSearchTask - computes residual deviance(s) at given beta(s), used by line search (both L-BFGS and IRLSM)
  * GLMIterationTask  - used by IRLSM to compute Gram matrix and response t(X) W X, t(X)Wz
+ * GLMSGDTask        - one epoch of mini-batch stochastic gradient descent, used by the SGD solver
  *
  * @author tomasnykodym
  */
@@ -1494,10 +1498,14 @@ public abstract class GLMTask  {
    * @author tomasnykodym
    */
   public static class GLMIterationTask extends FrameTask2<GLMIterationTask> {
+    // minimum number of dense numeric columns for the gram to be accumulated in blocks of rows
+    static final int BLOCKED_GRAM_MIN_NUMS = Integer.parseInt(H2O.getSysProperty("glm.blockedGram.minNums", "64"));
     final GLMWeightsFun _glmf;
     double [][]_beta_multinomial;
     double []_beta;
     protected Gram  _gram; // wx%*%x
+    SparseGram _sparseGram; // wx%*%x, used instead of _gram if the gram is expected to be large and sparse
+    boolean _useSparseGram;
     double [] _xy; // wx^t%*%z,
     double _yy;
     final double [] _ymu;
@@ -1527,12 +1535,29 @@ public abstract class GLMTask  {
 
     @Override public boolean handlesSparseData(){return true;}
 
+    /**
+     * Accumulate the gram as a {@link SparseGram}.
+     */
+    public GLMIterationTask setSparseGram() {
+      _useSparseGram = true;
+      if (_dinfo._normSub != null) // sparse rows would need a dense correction for centering
+        _sparse = false;
+      return this;
+    }
+
     transient private double _sparseOffset;
+    transient private Gram.BlockAccumulator _gramBlocks;
 
     @Override
     public void chunkInit() {
       // initialize
-      _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
+      if (_useSparseGram) {
+        _sparseGram = new SparseGram(_dinfo);
+        _gram = null;
+      } else
+        _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
+      _gramBlocks = !_useSparseGram && !_sparse && _dinfo.numNums() >= BLOCKED_GRAM_MIN_NUMS ?
+              new Gram.BlockAccumulator(_gram, Gram.BlockAccumulator.blockSize(_dinfo.numNums())) : null;
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
         _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
@@ -1589,16 +1614,30 @@ public abstract class GLMTask  {
       }
       if(_dinfo._intercept)
         _xy[_xy.length-1] += wz;
-      _gram.addRow(r,w);
+      if(_sparseGram != null)
+        _sparseGram.addRow(r,w);
+      else if(_gramBlocks != null)
+        _gramBlocks.addRow(r,w);
+      else
+        _gram.addRow(r,w);
     }
 
     @Override
-    public void chunkDone(){adjustForSparseStandardizedZeros();}
+    public void chunkDone(){
+      if(_gramBlocks != null) {
+        _gramBlocks.flush();
+        _gramBlocks = null;
+      }
+      adjustForSparseStandardizedZeros();
+    }
 
     @Override
     public void reduce(GLMIterationTask git){
       ArrayUtils.add(_xy, git._xy);
-      _gram.add(git._gram);
+      if(_sparseGram != null)
+        _sparseGram.add(git._sparseGram);
+      else
+        _gram.add(git._gram);
       _nobs += git._nobs;
       wsum += git.wsum;
       wsumu += git.wsumu;
@@ -1635,7 +1674,155 @@ public abstract class GLMTask  {
     }
 
     public boolean hasNaNsOrInf() {
-      return ArrayUtils.hasNaNsOrInfs(_xy) || _gram.hasNaNsOrInfs();
+      return ArrayUtils.hasNaNsOrInfs(_xy) || (_sparseGram != null ? _sparseGram.hasNaNsOrInfs() : _gram.hasNaNsOrInfs());
+    }
+  }
+
+  /**
+   * One epoch of mini-batch stochastic gradient descent.
+   *
+   * Every chunk starts from the same coefficients and visits its rows in random order. After each mini-batch the
+   * coefficients make a gradient step on the likelihood followed by the proximal step of the elastic net penalty
+   * (soft-thresholding for l1, shrinkage for l2) and a projection onto the beta constraints. The step size is
+   * normalized by the trace of the mini-batch hessian, so that the same learning rate works across families and
+   * scales of the data. The chunk-local coefficients are averaged (weighted by the number of rows) at the end of the
+   * epoch.
+   */
+  public static class GLMSGDTask extends FrameTask2<GLMSGDTask> {
+    static final int BATCH_SIZE = Integer.parseInt(H2O.getSysProperty("glm.sgd.batchSize", "128"));
+    static final int MIN_BATCHES_PER_CHUNK = 16;
+    final GLMWeightsFun _glmf;
+    final double [] _beta0;
+    final double _rate; // learning rate of this epoch
+    final double _rowReg; // weight of a single row in the objective (obj_reg * nobs)
+    final double _l1pen;
+    final double _l2pen;
+    final double [] _betaLB;
+    final double [] _betaUB;
+    final boolean _averageIterates;
+    final long _seed;
+    // results
+    double [] _beta;
+    double _likelihood; // progressive likelihood, every row is evaluated before the coefficients are updated with it
+    long _nobs;
+
+    public GLMSGDTask(Key jobKey, DataInfo dinfo, GLMParameters parms, double [] beta, double rate, double rowReg,
+                      double l1pen, double l2pen, double [] betaLB, double [] betaUB, boolean averageIterates, long seed) {
+      super(null, dinfo, jobKey);
+      _glmf = new GLMWeightsFun(parms);
+      _beta0 = beta;
+      _rate = rate;
+      _rowReg = rowReg;
+      _l1pen = l1pen;
+      _l2pen = l2pen;
+      _betaLB = betaLB;
+      _betaUB = betaUB;
+      _averageIterates = averageIterates;
+      _seed = seed;
+    }
+
+    @Override public boolean handlesSparseData(){return true;}
+
+    @Override protected void processRow(Row r) { throw H2O.fail(); } // rows are processed in map
+
+    @Override public void map(Chunk [] chks) {
+      if(_job != null && _job.stop_requested()) throw new Job.JobCancelledException();
+      // private copy, computeWeights keeps state for tweedie
+      GLMWeightsFun glmf = new GLMWeightsFun(_glmf._family, _glmf._link, _glmf._var_power, _glmf._link_power, _glmf._theta);
+      GLMWeights w = new GLMWeights();
+      final int len = chks[0]._len;
+      final int batchSize = Math.max(1, Math.min(BATCH_SIZE, len / MIN_BATCHES_PER_CHUNK));
+      int [] order = new int[len];
+      for (int i = 0; i < len; ++i) order[i] = i;
+      ArrayUtils.shuffleArray(order, RandomUtils.getRNG(_seed + chks[0].start()));
+      Row [] rows = _sparse ? _dinfo.extractSparseRows(chks) : null;
+      Row denseRow = _sparse ? null : _dinfo.newDenseRow();
+      double [] beta = _beta0.clone();
+      double [] grad = MemoryManager.malloc8d(beta.length);
+      double [] iterSum = _averageIterates ? MemoryManager.malloc8d(beta.length) : null;
+      int nsteps = 0;
+      double sparseOffset = _sparse ? GLM.sparseOffset(beta, _dinfo) : 0;
+      int n = 0;
+      double gsum = 0, trace = 0;
+      final boolean tweedie = glmf._family.equals(Family.tweedie);
+      for (int i = 0; i < len; ++i) {
+        Row r;
+        if (_sparse) {
+          r = rows[order[i]];
+        } else {
+          _dinfo.extractDenseRow(chks, order[i], denseRow);
+          r = denseRow;
+        }
+        if (r.isBad() || r.weight == 0) continue;
+        double eta = r.innerProduct(beta) + sparseOffset;
+        glmf.computeWeights(r.response(0), eta, r.offset, r.weight, w);
+        _likelihood += w.l;
+        ++_nobs;
+        // derivative of the likelihood wrt eta, for tweedie w.z already includes w
+        double g = w.w*eta - (tweedie ? w.z : w.w*w.z);
+        double xx = 1 + r.nBins;
+        for (int k = 0; k < r.nBins; ++k)
+          grad[r.binIds[k]] += g;
+        for (int k = 0; k < r.nNums; ++k) {
+          int id = r.numIds == null ? k + _dinfo.numStart() : r.numIds[k];
+          double v = r.numVals[k];
+          grad[id] += g*v;
+          xx += v*v;
+        }
+        gsum += g;
+        trace += Math.abs(w.w)*xx;
+        if (++n == batchSize) {
+          step(beta, grad, gsum, n, trace);
+          if (_sparse) sparseOffset = GLM.sparseOffset(beta, _dinfo);
+          if (iterSum != null) ArrayUtils.add(iterSum, beta);
+          ++nsteps;
+          n = 0;
+          gsum = trace = 0;
+        }
+      }
+      if (n > 0) {
+        step(beta, grad, gsum, n, trace);
+        if (iterSum != null) ArrayUtils.add(iterSum, beta);
+        ++nsteps;
+      }
+      if (iterSum != null && nsteps > 0)
+        beta = ArrayUtils.mult(iterSum, 1.0/nsteps);
+      _beta = ArrayUtils.mult(beta, _nobs);
+    }
+
+    private void step(double [] beta, double [] grad, double gsum, int n, double trace) {
+      if (_sparse && _dinfo._normSub != null) { // sparse rows are not centered
+        int ns = _dinfo.numStart();
+        for (int i = 0; i < _dinfo._nums; ++i)
+          grad[ns + i] -= gsum*_dinfo._normSub[i]*_dinfo._normMul[i];
+      }
+      int icpt = beta.length - 1;
+      grad[icpt] = _dinfo._intercept ? gsum : 0;
+      if (trace <= 0) trace = n;
+      // step on the objective, likelihood of the n rows stands for the whole dataset
+      double t = _rate*n/(_rowReg*trace);
+      double gscale = _rate/trace;
+      for (int i = 0; i < beta.length; ++i) {
+        double b = beta[i] - gscale*grad[i];
+        if (i != icpt) // proximal step, intercept is not penalized
+          b = ADMM.shrinkage(b, t*_l1pen)/(1 + t*_l2pen);
+        if (_betaLB != null) b = Math.max(b, _betaLB[i]);
+        if (_betaUB != null) b = Math.min(b, _betaUB[i]);
+        beta[i] = b;
+        grad[i] = 0;
+      }
+    }
+
+    @Override public void reduce(GLMSGDTask t) {
+      if (_beta == null) _beta = t._beta;
+      else if (t._beta != null) ArrayUtils.add(_beta, t._beta);
+      _likelihood += t._likelihood;
+      _nobs += t._nobs;
+    }
+
+    @Override public void postGlobal() {
+      if (_beta == null || _nobs == 0) _beta = _beta0.clone();
+      else ArrayUtils.mult(_beta, 1.0/_nobs);
     }
   }
   
@@ -129,6 +129,21 @@ public class GLRM extends ModelBuilder<GLRMModel, GLRMModel.GLRMParameters, GLRM
     _ncolY = _train == null? -1 : LinearAlgebraUtils.numColsExp(_train, true);
 
     initLoss();
+    if (_parms._solver == GLRMParameters.Solver.ALS) {
+      if (_lossFunc != null)
+        for (GlrmLoss lossi : _lossFunc)
+          if (lossi != Quadratic) {
+            error("_solver", "ALS requires the Quadratic loss for all columns (categorical columns are not " +
+                    "supported)");
+            break;
+          }
+      if (_parms._gamma_x != 0 && _parms._regularization_x != GlrmRegularizer.None &&
+              _parms._regularization_x != GlrmRegularizer.Quadratic)
+        error("_solver", "ALS requires regularization_x to be None or Quadratic");
+      if (_parms._gamma_y != 0 && _parms._regularization_y != GlrmRegularizer.None &&
+              _parms._regularization_y != GlrmRegularizer.Quadratic)
+        error("_solver", "ALS requires regularization_y to be None or Quadratic");
+    }
 
     if (_parms._gamma_x < 0) error("_gamma_x", "gamma must be a non-negative number");
     if (_parms._gamma_y < 0) error("_gamma_y", "gamma_y must be a non-negative number");
@@ -559,6 +574,10 @@ public class GLRM extends ModelBuilder<GLRMModel, GLRMModel.GLRMParameters, GLRM
       if (model._output._iterations >= _parms._max_iterations) return true;
       if (model._output._updates >= _parms._max_updates) return true;
 
+      // ALS decreases the objective in every iteration, stop once the decrease is negligible
+      if (_parms._solver == GLRMParameters.Solver.ALS)
+        return model._output._iterations > 0 && model._output._avg_change_obj < TOLERANCE;
+
       // Stopped for falling below minimum step size
       if (step <= _parms._min_step_size) return true;
 
@@ -681,6 +700,47 @@ public class GLRM extends ModelBuilder<GLRMModel, GLRMModel.GLRMParameters, GLRM
       }
     }
 
+    // Alternating least squares for quadratic loss and regularizers. Every iteration makes one pass over the data:
+    // the rows of X are solved in closed form chunk by chunk and immediately folded into the normal equations of Y,
+    // which are then solved locally. X is only written to the frame once, after the last iteration.
+    private Archetypes solveALS(GLRMModel model, DataInfo dinfo, DataInfo tinfo, Archetypes yt, int[] numLevels,
+                                int weightId, boolean hasNAs, long nobs) {
+      double[][] ycur = yt.getY(true);
+      double[][] yprev = null;
+      while (!isDone(model, 0, _parms._init_step_size)) {
+        _job.update(1, "Iteration " + String.valueOf(model._output._iterations+1) +
+                " of alternating least squares");
+        UpdateXALS xtsk = new UpdateXALS(_parms, ycur, _ncolA, _ncolX, model._output._normSub,
+                model._output._normMul, weightId, hasNAs, false).doAll(dinfo._adaptedFrame);
+        model._output._updates++;
+
+        double[][] ynew = xtsk.solveY();
+        double yreg = 0;
+        for (double[] yj : ynew)
+          yreg += _parms._regularization_y.regularize(yj);
+        model._output._updates++;
+
+        double obj_new = xtsk.loss(ynew) + _parms._gamma_x * xtsk._xreg + _parms._gamma_y * yreg;
+        model._output._avg_change_obj = (model._output._objective - obj_new) / nobs;
+        model._output._iterations++;
+        model._output._objective = obj_new;
+        yprev = ycur;
+        ycur = ynew;
+        model._output._archetypes_raw = new Archetypes(ycur, true, tinfo._catOffsets, numLevels);
+
+        // Add to scoring history
+        model._output._training_time_ms.add(System.currentTimeMillis());
+        model._output._history_step_size.add(0.0);
+        model._output._history_objective.add(model._output._objective);
+        model.update(_job); // Update model in K/V store
+      }
+      // Save the X of the last iteration (solved from the previous Y) into the frame
+      if (yprev != null)
+        new UpdateXALS(_parms, yprev, _ncolA, _ncolX, model._output._normSub, model._output._normMul, weightId,
+                hasNAs, true).doAll(dinfo._adaptedFrame);
+      return model._output._archetypes_raw;
+    }
+
     private transient Frame _rebalancedTrain;
     @SuppressWarnings("ConstantConditions")  // Method too complex for IntelliJ
     @Override
@@ -701,6 +761,8 @@ public class GLRM extends ModelBuilder<GLRMModel, GLRMModel.GLRMParameters, GLRM
       try {
         init(true);   // Initialize + Validate parameters
         if (error_count() > 0) throw new IllegalArgumentException("Found validation errors: " + validationErrors());
+        final boolean als = _parms._solver == GLRMParameters.Solver.ALS;
+        if (als) _wideDataset = false;  // ALS only keeps k x k systems per column, no need to transpose A
 
         // The model to be built
         model = new GLRMModel(dest(), _parms, new GLRMModel.GLRMOutput(GLRM.this));
@@ -788,7 +850,7 @@ public class GLRM extends ModelBuilder<GLRMModel, GLRMModel.GLRMParameters, GLRM
         double yreg = _parms._regularization_y.regularize(yt._archetypes);
         // Set X to closed-form solution of ALS equation if possible for better accuracy.  No need to set to
         // work with wideDataset.  Dealing with small matrices anymore.  Optimize to use H2O Chol maybe.
-        if (!(_parms._init == GlrmInitialization.User && _parms._user_x != null) && hasClosedForm(na_cnt))
+        if (!(_parms._init == GlrmInitialization.User && _parms._user_x != null) && hasClosedForm(na_cnt) && !als)
           initialXClosedForm(dinfo, yt, model._output._normSub, model._output._normMul);
 
         if (_wideDataset) { // 1. create fr as transpose(A). 2. make T(X) as double[][] array 3. build frame for x
@@ -846,91 +908,96 @@ public class GLRM extends ModelBuilder<GLRMModel, GLRMModel.GLRMParameters, GLRM
         double step = _parms._init_step_size;   // Initial step size
         int steps_in_row = 0;                   // Keep track of number of steps taken that decrease objective
 
-        while (!isDone(model, steps_in_row, step)) {
-          // One unit of work
-          _job.update(1, "Iteration " + String.valueOf(model._output._iterations+1) +
-                  " of alternating minimization");
-          UpdateX xtsk = null;
-          UpdateYeX yextsk = null;
-          double alpha = step/_ncolA;
-
-          // TODO: Should step be divided by number of original or expanded (with 0/1 categorical) cols?
-          // 1) Update X matrix given fixed Y.  Wide dataset, update Y.
-          if (_wideDataset) {
-            yextsk = new UpdateYeX(_parms, yt, alpha, _ncolA, _ncolX, tinfo._cats, model._output._normSub,
-            model._output._normMul, model._output._lossFunc, xwF);
-            double[][] yttmp = yextsk.doAll(frTA)._ytnew;
-            ytnew = new Archetypes(yttmp, true, tinfo._catOffsets, numLevels, ytnew._weights);
-          } else {
-            // find out how much time it takes to update x, for wide dataset, it is updating Y
-            xtsk = new UpdateX(_parms, yt, alpha, _ncolA, _ncolX, tinfo._cats,
-                    model._output._normSub, model._output._normMul, model._output._lossFunc, weightId);
-            xtsk.doAll(dinfo._adaptedFrame);
-          }
-          model._output._updates++;
-
-          // 2) Update Y matrix given fixed X, for wide dataset, update X then.
-          if (model._output._updates < _parms._max_updates) {
+        if (als) {
+          yt = solveALS(model, dinfo, tinfo, yt, numLevels, weightId, na_cnt > 0, nobs);
+          step = 0;
+        } else {
+          while (!isDone(model, steps_in_row, step)) {
+            // One unit of work
+            _job.update(1, "Iteration " + String.valueOf(model._output._iterations+1) +
+                    " of alternating minimization");
+            UpdateX xtsk = null;
+            UpdateYeX yextsk = null;
+            double alpha = step/_ncolA;
+
+            // TODO: Should step be divided by number of original or expanded (with 0/1 categorical) cols?
+            // 1) Update X matrix given fixed Y.  Wide dataset, update Y.
             if (_wideDataset) {
-              UpdateXeY xeytsk = new UpdateXeY(_parms, ytnew, alpha, colCount, _ncolX, tinfo._cats,
-                      model._output._normSub, model._output._normMul, model._output._lossFunc, frTA);
-              xeytsk.doAll(xwF);
-              yreg = xeytsk._yreg;
+              yextsk = new UpdateYeX(_parms, yt, alpha, _ncolA, _ncolX, tinfo._cats, model._output._normSub,
+              model._output._normMul, model._output._lossFunc, xwF);
+              double[][] yttmp = yextsk.doAll(frTA)._ytnew;
+              ytnew = new Archetypes(yttmp, true, tinfo._catOffsets, numLevels, ytnew._weights);
             } else {
-              // If max_updates is odd, we will terminate after the X update, for wide dataset, it updates Y
-              UpdateY ytsk = new UpdateY(_parms, yt, alpha, _ncolA, _ncolX, tinfo._cats,
+              // find out how much time it takes to update x, for wide dataset, it is updating Y
+              xtsk = new UpdateX(_parms, yt, alpha, _ncolA, _ncolX, tinfo._cats,
                       model._output._normSub, model._output._normMul, model._output._lossFunc, weightId);
-              double[][] yttmp = ytsk.doAll(dinfo._adaptedFrame)._ytnew;
-              ytnew = new Archetypes(yttmp, true, tinfo._catOffsets, numLevels);
-              yreg = ytsk._yreg;
+              xtsk.doAll(dinfo._adaptedFrame);
             }
             model._output._updates++;
-          }
-          double obj_new = 0;
-          if (_wideDataset) {
-              objtskw = new ObjCalcW(_parms, ytnew, colCount, _ncolX, tinfo._cats, model._output._normSub,
-                      model._output._normMul, model._output._lossFunc, regX, xwF, _parms._k);
-              objtskw.doAll(frTA);
-              obj_new = objtskw._loss + _parms._gamma_x * yextsk._xreg + _parms._gamma_y * yreg;
-          } else {
-            // 3) Compute average change in objective function
-            objtsk = new ObjCalc(_parms, ytnew, _ncolA, _ncolX, tinfo._cats, model._output._normSub,
-                    model._output._normMul, model._output._lossFunc, weightId);
-            objtsk.doAll(dinfo._adaptedFrame);
-            obj_new = objtsk._loss + _parms._gamma_x * xtsk._xreg + _parms._gamma_y * yreg;
-          }
-          model._output._avg_change_obj = (model._output._objective - obj_new) / nobs;
-          model._output._iterations++;
-
-          // step = 1.0 / model._output._iterations;   // Step size \alpha_k = 1/iters
-          if (model._output._avg_change_obj > 0) {   // Objective decreased this iteration
-            yt = ytnew;
-            model._output._archetypes_raw = ytnew;  // Need full archetypes object for scoring
-            model._output._objective = obj_new;
-            step *= 1.05;
-            steps_in_row = Math.max(1, steps_in_row+1);
-
-            if (_wideDataset) { // update X matrix right now to avoid potential multi-thread collision.
-              new updateXVecs(0, _ncolX).doAll(xwF);
+
+            // 2) Update Y matrix given fixed X, for wide dataset, update X then.
+            if (model._output._updates < _parms._max_updates) {
+              if (_wideDataset) {
+                UpdateXeY xeytsk = new UpdateXeY(_parms, ytnew, alpha, colCount, _ncolX, tinfo._cats,
+                        model._output._normSub, model._output._normMul, model._output._lossFunc, frTA);
+                xeytsk.doAll(xwF);
+                yreg = xeytsk._yreg;
+              } else {
+                // If max_updates is odd, we will terminate after the X update, for wide dataset, it updates Y
+                UpdateY ytsk = new UpdateY(_parms, yt, alpha, _ncolA, _ncolX, tinfo._cats,
+                        model._output._normSub, model._output._normMul, model._output._lossFunc, weightId);
+                double[][] yttmp = ytsk.doAll(dinfo._adaptedFrame)._ytnew;
+                ytnew = new Archetypes(yttmp, true, tinfo._catOffsets, numLevels);
+                yreg = ytsk._yreg;
+              }
+              model._output._updates++;
+            }
+            double obj_new = 0;
+            if (_wideDataset) {
+                objtskw = new ObjCalcW(_parms, ytnew, colCount, _ncolX, tinfo._cats, model._output._normSub,
+                        model._output._normMul, model._output._lossFunc, regX, xwF, _parms._k);
+                objtskw.doAll(frTA);
+                obj_new = objtskw._loss + _parms._gamma_x * yextsk._xreg + _parms._gamma_y * yreg;
             } else {
-              new updateXVecs(_ncolA, _ncolX).doAll(dinfo._adaptedFrame);
+              // 3) Compute average change in objective function
+              objtsk = new ObjCalc(_parms, ytnew, _ncolA, _ncolX, tinfo._cats, model._output._normSub,
+                      model._output._normMul, model._output._lossFunc, weightId);
+              objtsk.doAll(dinfo._adaptedFrame);
+              obj_new = objtsk._loss + _parms._gamma_x * xtsk._xreg + _parms._gamma_y * yreg;
             }
-          } else {    // If objective increased, re-run with smaller step size
-            step /= Math.max(1.5, -steps_in_row);
-            steps_in_row = Math.min(0, steps_in_row-1);
-            if (_parms._verbose) {
-              Log.info("Iteration " + model._output._iterations + ": Objective increased to " + obj_new
-                      + "; reducing step size to " + step);
-              _job.update(0,"Iteration " + model._output._iterations + ": Objective increased to " +
-                      obj_new + "; reducing step size to " + step);
+            model._output._avg_change_obj = (model._output._objective - obj_new) / nobs;
+            model._output._iterations++;
+
+            // step = 1.0 / model._output._iterations;   // Step size \alpha_k = 1/iters
+            if (model._output._avg_change_obj > 0) {   // Objective decreased this iteration
+              yt = ytnew;
+              model._output._archetypes_raw = ytnew;  // Need full archetypes object for scoring
+              model._output._objective = obj_new;
+              step *= 1.05;
+              steps_in_row = Math.max(1, steps_in_row+1);
+
+              if (_wideDataset) { // update X matrix right now to avoid potential multi-thread collision.
+                new updateXVecs(0, _ncolX).doAll(xwF);
+              } else {
+                new updateXVecs(_ncolA, _ncolX).doAll(dinfo._adaptedFrame);
+              }
+            } else {    // If objective increased, re-run with smaller step size
+              step /= Math.max(1.5, -steps_in_row);
+              steps_in_row = Math.min(0, steps_in_row-1);
+              if (_parms._verbose) {
+                Log.info("Iteration " + model._output._iterations + ": Objective increased to " + obj_new
+                        + "; reducing step size to " + step);
+                _job.update(0,"Iteration " + model._output._iterations + ": Objective increased to " +
+                        obj_new + "; reducing step size to " + step);
+              }
             }
-          }
 
-          // Add to scoring history
-          model._output._training_time_ms.add(System.currentTimeMillis());
-          model._output._history_step_size.add(step);
-          model._output._history_objective.add(model._output._objective);
-          model.update(_job); // Update model in K/V store
+            // Add to scoring history
+            model._output._training_time_ms.add(System.currentTimeMillis());
+            model._output._history_step_size.add(step);
+            model._output._history_objective.add(model._output._objective);
+            model.update(_job); // Update model in K/V store
+          }
         }
 
         model._output._representation_name = StringUtils.isNullOrEmpty(_parms._representation_name) ?
@@ -2115,6 +2182,226 @@ public class GLRM extends ModelBuilder<GLRMModel, GLRMModel.GLRMParameters, GLRM
   }
 
 
+  //--------------------------------------------------------------------------------------------------------------------
+  // Alternating least squares step (quadratic loss and regularization, numeric columns only)
+  //--------------------------------------------------------------------------------------------------------------------
+
+  // Solves every row of X in closed form given Y: x_i = (Y_i Y_i' + gamma_x I)^(-1) Y_i a_i' where Y_i are the columns
+  // of Y observed in row i. The rows of X are accumulated into the normal equations of the following Y update
+  // (X'X over the observed rows of each column and X'A) in the same pass, X is only written to the frame if requested.
+  private static class UpdateXALS extends MRTask<UpdateXALS> {
+    // Input
+    GLRMParameters _parms;
+    final double[][] _yt;     // Y' (features x k)
+    final int _ncolA;         // Number of cols in training frame
+    final int _ncolX;         // Number of cols in X (k)
+    final double[] _normSub;  // For standardizing training data
+    final double[] _normMul;
+    final int _weightId;
+    final boolean _hasNAs;    // Keep X'X for each column separately (missing values)
+    final boolean _writeX;    // Save X (and its working copy) in the frame
+
+    // Output
+    double[][] _xtx;          // X'X (k x k), or X'X over the observed rows of each column (_hasNAs)
+    double[][][] _xtxByCol;
+    double[][] _xta;          // (X'A)' (features x k)
+    double _asum;             // Sum of squares of the (transformed) training data
+    double _xreg;             // Regularization evaluated on new X
+
+    UpdateXALS(GLRMParameters parms, double[][] yt, int ncolA, int ncolX, double[] normSub, double[] normMul,
+               int weightId, boolean hasNAs, boolean writeX) {
+      assert yt != null && yt.length == ncolA && yt[0].length == ncolX;
+      _parms = parms;
+      _yt = yt;
+      _ncolA = ncolA;
+      _ncolX = ncolX;
+      _normSub = normSub;
+      _normMul = normMul;
+      _weightId = weightId;
+      _hasNAs = hasNAs;
+      _writeX = writeX;
+    }
+
+    private double gammaX() {
+      return _parms._regularization_x == GlrmRegularizer.Quadratic ? _parms._gamma_x : 0;
+    }
+
+    private double gammaY() {
+      return _parms._regularization_y == GlrmRegularizer.Quadratic ? _parms._gamma_y : 0;
+    }
+
+    @Override public void map(Chunk[] cs) {
+      assert (_ncolA + 2*_ncolX) == cs.length;
+      final int k = _ncolX;
+      Chunk chkweight = _weightId >= 0 ? cs[_weightId] : new C0DChunk(1, cs[0]._len);
+      _xta = new double[_ncolA][k];
+      if (_hasNAs) _xtxByCol = new double[_ncolA][k][k];
+      else _xtx = new double[k][k];
+
+      // YY' + gamma_x I is shared by all complete rows with unit weight
+      double[][] yy = new double[k][k];
+      for (double[] yj : _yt)
+        for (int p = 0; p < k; p++)
+          for (int q = 0; q <= p; q++)
+            yy[p][q] += yj[p] * yj[q];
+      for (int p = 0; p < k; p++) yy[p][p] += gammaX();
+      final double[][] yyChol = cholesky(yy);
+
+      double[] a = new double[_ncolA];
+      double[] x = new double[k];
+      double[][] m = new double[k][k];
+      for (int row = 0; row < cs[0]._len; row++) {
+        double cweight = chkweight.atd(row);
+        assert !Double.isNaN(cweight) : "User-specified weight cannot be NaN";
+        boolean complete = true;
+        for (int j = 0; j < _ncolA; j++) {
+          double aj = cs[j].atd(row);
+          a[j] = Double.isNaN(aj) ? Double.NaN : (aj - _normSub[j]) * _normMul[j];
+          complete &= !Double.isNaN(aj);
+        }
+
+        // 1) Solve for row x_i of X
+        Arrays.fill(x, 0);
+        for (int j = 0; j < _ncolA; j++) {
+          if (Double.isNaN(a[j])) continue;
+          for (int p = 0; p < k; p++)
+            x[p] += a[j] * _yt[j][p];
+        }
+        if (complete && cweight == 1) {
+          cholSolve(yyChol, x);
+        } else if (cweight == 0) {
+          Arrays.fill(x, 0);
+        } else {
+          for (double[] mp : m) Arrays.fill(mp, 0);
+          for (int j = 0; j < _ncolA; j++) {
+            if (Double.isNaN(a[j])) continue;
+            for (int p = 0; p < k; p++)
+              for (int q = 0; q <= p; q++)
+                m[p][q] += _yt[j][p] * _yt[j][q];
+          }
+          for (int p = 0; p < k; p++) m[p][p] += gammaX() / cweight;
+          cholSolve(cholesky(m), x);
+        }
+        _xreg += _parms._regularization_x.regularize(x);
+        if (_writeX) {
+          for (int p = 0; p < k; p++) {
+            cs[_ncolA + p].set(row, x[p]);
+            cs[_ncolA + k + p].set(row, x[p]);
+          }
+        }
+
+        // 2) Accumulate the normal equations of Y
+        for (int j = 0; j < _ncolA; j++) {
+          if (Double.isNaN(a[j])) continue;
+          _asum += cweight * a[j] * a[j];
+          for (int p = 0; p < k; p++)
+            _xta[j][p] += cweight * a[j] * x[p];
+          if (_hasNAs) {
+            double[][] g = _xtxByCol[j];
+            for (int p = 0; p < k; p++)
+              for (int q = 0; q <= p; q++)
+                g[p][q] += cweight * x[p] * x[q];
+          }
+        }
+        if (!_hasNAs) {
+          for (int p = 0; p < k; p++)
+            for (int q = 0; q <= p; q++)
+              _xtx[p][q] += cweight * x[p] * x[q];
+        }
+      }
+    }
+
+    @Override public void reduce(UpdateXALS other) {
+      if (other._xta == null) return;
+      if (_xta == null) {
+        _xta = other._xta;
+        _xtx = other._xtx;
+        _xtxByCol = other._xtxByCol;
+      } else {
+        ArrayUtils.add(_xta, other._xta);
+        if (_hasNAs) ArrayUtils.add(_xtxByCol, other._xtxByCol);
+        else ArrayUtils.add(_xtx, other._xtx);
+      }
+      _asum += other._asum;
+      _xreg += other._xreg;
+    }
+
+    // Solve (X'X + gamma_y I) y_j = X'a_j for every column j of Y
+    double[][] solveY() {
+      double[][] ynew = new double[_ncolA][];
+      double[][] chol = _hasNAs ? null : cholesky(addDiag(_xtx, gammaY()));
+      for (int j = 0; j < _ncolA; j++) {
+        ynew[j] = _xta[j].clone();
+        cholSolve(_hasNAs ? cholesky(addDiag(_xtxByCol[j], gammaY())) : chol, ynew[j]);
+      }
+      return ynew;
+    }
+
+    // Quadratic loss of A - XY with X of this pass: sum(A^2) - 2 tr(Y X'A) + sum_j y_j'(X'X)_j y_j
+    double loss(double[][] yt) {
+      double loss = _asum;
+      for (int j = 0; j < _ncolA; j++) {
+        double[][] g = _hasNAs ? _xtxByCol[j] : _xtx;
+        double[] y = yt[j];
+        for (int p = 0; p < _ncolX; p++) {
+          loss -= 2 * y[p] * _xta[j][p];
+          loss += g[p][p] * y[p] * y[p];
+          for (int q = 0; q < p; q++)
+            loss += 2 * g[p][q] * y[p] * y[q];
+        }
+      }
+      return Math.max(0, loss);
+    }
+
+    private static double[][] addDiag(double[][] lower, double d) {
+      double[][] res = ArrayUtils.deepClone(lower);
+      for (int p = 0; p < res.length; p++) res[p][p] += d;
+      return res;
+    }
+
+    // Cholesky factor L of a symmetric positive semi-definite matrix (only the lower triangle is read). A small ridge
+    // is added when the matrix is singular, e.g. rank deficient X or Y without regularization.
+    static double[][] cholesky(double[][] lower) {
+      final int n = lower.length;
+      double trace = 0;
+      for (int p = 0; p < n; p++) trace += lower[p][p];
+      double ridge = 0;
+      double[][] l = new double[n][n];
+      for (int attempt = 0; attempt < 10; attempt++) {
+        boolean spd = true;
+        for (int p = 0; p < n && spd; p++) {
+          for (int q = 0; q <= p; q++) {
+            double sum = lower[p][q] + (p == q ? ridge : 0);
+            for (int r = 0; r < q; r++) sum -= l[p][r] * l[q][r];
+            if (p == q) {
+              if (sum <= 0) { spd = false; break; }
+              l[p][p] = Math.sqrt(sum);
+            } else
+              l[p][q] = sum / l[q][q];
+          }
+        }
+        if (spd) return l;
+        ridge = ridge == 0 ? Math.max(trace / n, 1) * 1e-10 : ridge * 100;
+      }
+      throw new Gram.NonSPDMatrixException();
+    }
+
+    // Solves LL'x = b in place
+    static void cholSolve(double[][] l, double[] b) {
+      final int n = b.length;
+      for (int p = 0; p < n; p++) {
+        double sum = b[p];
+        for (int q = 0; q < p; q++) sum -= l[p][q] * b[q];
+        b[p] = sum / l[p][p];
+      }
+      for (int p = n - 1; p >= 0; p--) {
+        double sum = b[p];
+        for (int q = p + 1; q < n; q++) sum -= l[q][p] * b[q];
+        b[p] = sum / l[p][p];
+      }
+    }
+  }
+
 		/*
 		  Calculate the sum over the loss function in the optimization objective for wideDatasets.  Basically, we
 		  are looking at T(A) = XY.  In this case, Y is equivalent to T(X) and X is equivalent to T(Y) and we are
@@ -61,6 +61,12 @@ public class GLRMModel extends Model<GLRMModel, GLRMModel.GLRMParameters, GLRMMo
     @Override public String javaName() { return GLRMModel.class.getName(); }
     @Override public long progressUnits() { return 2 + _max_iterations; }
 
+    // Method for the alternating minimization of X and Y
+    public enum Solver {
+      ProximalGradient,   // One proximal gradient step on X and on Y per iteration, any loss and regularizer
+      ALS                 // Closed-form row-wise X and Y updates, only for quadratic loss and regularizers
+    }
+
     // Data transformation (demean to compare with PCA)
     public DataInfo.TransformType _transform = DataInfo.TransformType.NONE;
     public int _k = 1;                       // Rank of resulting XY matrix
@@ -88,6 +94,7 @@ public class GLRMModel extends Model<GLRMModel, GLRMModel.GLRMParameters, GLRMMo
     public int _max_updates = 2*_max_iterations;  // Max number of updates (X or Y)
     public double _init_step_size = 1.0;          // Initial step size (decrease until we hit min_step_size)
     public double _min_step_size = 1e-4;          // Min step size
+    public Solver _solver = Solver.ProximalGradient;  // Alternating minimization method
 
     public String _representation_name;
     public boolean _recover_svd = false;          // Recover singular values and eigenvectors of XY at the end?
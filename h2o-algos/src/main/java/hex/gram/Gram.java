@@ -4,6 +4,7 @@ package hex.gram;
 import hex.DataInfo;
 import hex.FrameTask2;
 import jsr166y.ForkJoinTask;
+import jsr166y.ForkJoinWorkerThread;
 import jsr166y.RecursiveAction;
 import water.*;
 import water.fvec.Chunk;
@@ -21,6 +22,12 @@ public final class Gram extends Iced<Gram> {
   final int _denseN;
   int _fullN;
   final static int MIN_TSKSZ=10000;
+  // dense part of the gram at least this large is decomposed using the blocked (right-looking) algorithm
+  final static int BLOCKED_CHOLESKY_MIN=512;
+  final static int CHOLESKY_BLOCK_SIZE=64;
+  // triangular solves with at least this many dense rows are parallelized
+  final static int PARALLEL_SOLVE_MIN=2048;
+  final static int SOLVE_BLOCK_SIZE=256;
 
   private static class XXCache {
     public final boolean lowerDiag;
@@ -158,6 +165,34 @@ public final class Gram extends Iced<Gram> {
     return nzs/(xx.length*xx.length);
   }
 
+  /**
+   * Upper bound of {@link #sparseness()} of the gram of the given data, computed without accumulating the gram.
+   * Levels of two different categoricals can only co-occur in as many pairs as there are rows, numerics (and the
+   * intercept) are assumed to be dense.
+   */
+  public static double estimatedSparseness(DataInfo dinfo) {
+    final double N = dinfo.fullN() + 1;
+    final double nrows = dinfo._adaptedFrame.numRows();
+    final int denseN = dinfo.numNums() + 1;
+    double nzs = denseN * (2 * N - denseN);
+    for (int a = 0; a < dinfo._cats; ++a) {
+      double la = dinfo._catOffsets[a + 1] - dinfo._catOffsets[a];
+      nzs += la;
+      for (int b = 0; b < a; ++b)
+        nzs += 2 * Math.min(la * (dinfo._catOffsets[b + 1] - dinfo._catOffsets[b]), nrows);
+    }
+    return Math.min(1, nzs / (N * N));
+  }
+
+  /**
+   * Decides whether the gram of the given data should be accumulated as a {@link SparseGram}, that is if it is large
+   * and expected to be mostly zeros.
+   */
+  public static boolean useSparse(DataInfo dinfo) {
+    return dinfo.fullN() + 1 >= SparseGram.MIN_COLS && dinfo._cats > 1 &&
+            estimatedSparseness(dinfo) <= SparseGram.MAX_DENSITY;
+  }
+
   public double diagSum(){
     double res = 0;
     if(_diag != null){
@@ -307,24 +342,12 @@ public final class Gram extends Iced<Gram> {
       ForkJoinTask.invokeAll(ras);
     }
     // drop the ignored cols
-    if(dropped_cols.isEmpty()) return new Cholesky(R,new double[0], true);
-    double [][] Rnew = new double[R.length-dropped_cols.size()][];
-    for(int i = 0; i < Rnew.length; ++i)
-      Rnew[i] = new double[i+1];
-    int j = 0;
-    for(int i = 0; i < R.length; ++i) {
-      if(Z[i][i] == 0) continue;
-      int k = 0;
-      for(int l = 0; l <= i; ++l) {
-        if(k < dropped_cols.size() && l == (dropped_cols.get(k)+1)) {
-          ++k;
-          continue;
-        }
-        Rnew[j][l - k] = R[i][l];
-      }
-      ++j;
-    }
-    return new Cholesky(Rnew,new double[0], true);
+    Cholesky chol = new Cholesky(R,new double[0], true);
+    if(dropped_cols.isEmpty()) return chol;
+    int [] cols = new int[dropped_cols.size()];
+    for(int i = 0; i < cols.length; ++i)
+      cols[i] = dropped_cols.get(i);
+    return chol.dropCols(cols);
   }
 
 
@@ -448,10 +471,136 @@ public final class Gram extends Iced<Gram> {
       }
       return new InPlaceCholesky(xx, isspd);
     }
+
+    /**
+     * Right-looking blocked Cholesky decomposition, suitable for large (thousands of columns) matrices.
+     *
+     * For each block column we factor the diagonal block, then solve the panel below it and apply the rank-k update
+     * to the trailing lower triangle. The panel solve and the trailing update are split into row ranges and run
+     * as fork-join tasks. Compared to {@link #decompose_2} the inner loops only touch the current block column
+     * (block-size long dot products) which keeps the working set in cache.
+     *
+     * Only the lower triangle of xx is used, xx is overwritten with L.
+     */
+    public static InPlaceCholesky decomposeBlocked(final double xx[][], final int blockSize) {
+      boolean isspd = true;
+      final int N = xx.length;
+      for (int kb = 0; kb < N; kb += blockSize) {
+        final int fkb = kb;
+        final int ke = Math.min(kb + blockSize, N);
+        // factor the diagonal block (it already includes the updates from all previous block columns)
+        for (int i = kb; i < ke; i++) {
+          double rowi[] = xx[i];
+          for (int k = kb; k < i; k++) {
+            double rowk[] = xx[k];
+            double s = rowi[k];
+            for (int jj = kb; jj < k; jj++) s -= rowi[jj]*rowk[jj];
+            rowi[k] = s / rowk[k];
+          }
+          double d = rowi[i];
+          for (int jj = kb; jj < i; jj++) d -= rowi[jj]*rowi[jj];
+          isspd = isspd && (d > 0.0);
+          rowi[i] = Math.sqrt(Math.max(0.0, d));
+        }
+        if (ke == N) break;
+        // solve the panel below the diagonal block
+        RecursiveAction[] panel = new RecursiveAction[numBlockTasks(N - ke, (long) (N - ke) * (ke - kb) * (ke - kb) / 2)];
+        final int rpt = (N - ke + panel.length - 1) / panel.length;
+        for (int t = 0; t < panel.length; t++) {
+          final int i0 = ke + t * rpt;
+          final int i1 = Math.min(N, i0 + rpt);
+          panel[t] = new RecursiveAction() {
+            @Override protected void compute() {
+              for (int i = i0; i < i1; i++) {
+                double rowi[] = xx[i];
+                for (int k = fkb; k < ke; k++) {
+                  double rowk[] = xx[k];
+                  double s = rowi[k];
+                  for (int jj = fkb; jj < k; jj++) s -= rowi[jj]*rowk[jj];
+                  rowi[k] = s / rowk[k];
+                }
+              }
+            }
+          };
+        }
+        invokeAll(panel);
+        // rank-k update of the trailing lower triangle, the panel is packed into a contiguous array first
+        final int M = N - ke;
+        final int nb = ke - kb;
+        final double[] panelPacked = MemoryManager.malloc8d(M * nb);
+        for (int i = 0; i < M; i++)
+          System.arraycopy(xx[ke + i], kb, panelPacked, i * nb, nb);
+        rankKUpdate(xx, ke, panelPacked, nb);
+      }
+      return new InPlaceCholesky(xx, isspd);
+    }
+
+    /**
+     * Computes xx[r0:,r0:] -= P*P' (lower triangle only), where P is a packed (row-major) panel of nb columns.
+     * Rows are split so that every task gets the same area of the triangle.
+     */
+    static void rankKUpdate(final double xx[][], final int r0, final double[] panel, final int nb) {
+      final int N = xx.length;
+      final int M = N - r0;
+      RecursiveAction[] trailing = new RecursiveAction[numBlockTasks(M, (long) M * M * nb / 2)];
+      final int T = trailing.length;
+      for (int t = 0; t < T; t++) {
+        final int i0 = r0 + (int) (M * Math.sqrt((double) t / T));
+        final int i1 = t == T - 1 ? N : r0 + (int) (M * Math.sqrt((double) (t + 1) / T));
+        trailing[t] = new RecursiveAction() {
+          @Override protected void compute() {
+            for (int i = i0; i < i1; i++) {
+              final double rowi[] = xx[i];
+              final int pi = (i - r0) * nb;
+              int j = r0;
+              for (; j + 3 <= i; j += 4) { // 4 dot products at once, sharing the loads of row i
+                final int pj = (j - r0) * nb;
+                double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                for (int k = 0; k < nb; k++) {
+                  final double a = panel[pi + k];
+                  s0 += a * panel[pj + k];
+                  s1 += a * panel[pj + nb + k];
+                  s2 += a * panel[pj + 2 * nb + k];
+                  s3 += a * panel[pj + 3 * nb + k];
+                }
+                rowi[j] -= s0;
+                rowi[j + 1] -= s1;
+                rowi[j + 2] -= s2;
+                rowi[j + 3] -= s3;
+              }
+              for (; j <= i; j++) {
+                final int pj = (j - r0) * nb;
+                double s = 0;
+                for (int k = 0; k < nb; k++) s += panel[pi + k] * panel[pj + k];
+                rowi[j] -= s;
+              }
+            }
+          }
+        };
+      }
+      invokeAll(trailing);
+    }
+
+    private static int numBlockTasks(int rows, long work) {
+      return (int) Math.max(1, Math.min(Math.min(rows, H2O.NUMCPUS), work / MIN_TSKSZ));
+    }
+
     public double[][] getL() { return _xx; }
     public boolean isSPD() { return _isSPD; }
   }
 
+  /**
+   * Runs the tasks in parallel when called from a fork-join worker, sequentially otherwise (forking is only possible
+   * from a worker thread, e.g. the gram can also be decomposed from a user thread).
+   */
+  public static void invokeAll(RecursiveAction[] tasks) {
+    if (tasks.length > 1 && Thread.currentThread() instanceof ForkJoinWorkerThread)
+      ForkJoinTask.invokeAll(tasks);
+    else
+      for (RecursiveAction t : tasks)
+        t.invoke();
+  }
+
   public Cholesky cholesky(Cholesky chol) {
     return cholesky(chol,true,"");
   }
@@ -538,8 +687,13 @@ public final class Gram extends Iced<Gram> {
     double[][] arr = new double[denseN][];
     for( int i = 0; i < arr.length; ++i )
       arr[i] = Arrays.copyOfRange(fchol._xx[i], sparseN, sparseN + denseN);
-    int p = Runtime.getRuntime().availableProcessors();
-    InPlaceCholesky d = InPlaceCholesky.decompose_2(arr, 10, p);
+    InPlaceCholesky d;
+    if (denseN >= BLOCKED_CHOLESKY_MIN) {
+      d = InPlaceCholesky.decomposeBlocked(arr, CHOLESKY_BLOCK_SIZE);
+    } else {
+      int p = Runtime.getRuntime().availableProcessors();
+      d = InPlaceCholesky.decompose_2(arr, 10, p);
+    }
     fchol.setSPD(d.isSPD());
     arr = d.getL();
     for( int i = 0; i < arr.length; ++i ) {
@@ -613,8 +767,8 @@ public final class Gram extends Iced<Gram> {
   }
 
   public static final class Cholesky {
-    public final double[][] _xx;
-    protected final double[] _diag;
+    public double[][] _xx;
+    protected double[] _diag;
     private boolean _isSPD;
     private boolean _icptFirst;
 
@@ -640,7 +794,7 @@ public final class Gram extends Iced<Gram> {
           @Override
           protected void compute() {
             ys[fi][fi] = 1;
-            solve(ys[fi]);
+            solve(ys[fi], false);
           }
         };
       }
@@ -664,7 +818,7 @@ public final class Gram extends Iced<Gram> {
           protected void compute() {
             double [] tmp = new double[res.length];
             tmp[fi] = 1;
-            solve(tmp);
+            solve(tmp, false);
             res[fi] = tmp[fi];
           }
         };
@@ -697,6 +851,10 @@ public final class Gram extends Iced<Gram> {
      * @param y
      */
     public final void   solve(double[] y) {
+      solve(y, true);
+    }
+
+    private void solve(double[] y, boolean parallel) {
       if( !isSPD() ) throw new NonSPDMatrixException();
       if(_icptFirst) {
         double icpt = y[y.length-1];
@@ -709,18 +867,22 @@ public final class Gram extends Iced<Gram> {
         y[k] /= _diag[k];
       // rest
       final int n = _xx.length == 0?0:_xx[_xx.length-1].length;
-      // Solve L*Y = B;
-      for( int k = _diag.length; k < n; ++k ) {
-        double d = 0;
-        for( int i = 0; i < k; i++ )
-          d += y[i] * _xx[k - _diag.length][i];
-        y[k] = (y[k]-d)/_xx[k - _diag.length][k];
-      }
-      // Solve L'*X = Y;
-      for( int k = n - 1; k >= _diag.length; --k ) {
-        y[k] /= _xx[k - _diag.length][k];
-        for( int i = 0; i < k; ++i )
-          y[i] -= y[k] * _xx[k - _diag.length][i];
+      if( parallel && _xx.length >= PARALLEL_SOLVE_MIN ) {
+        solveBlocked(y, n);
+      } else {
+        // Solve L*Y = B;
+        for (int k = _diag.length; k < n; ++k) {
+          double d = 0;
+          for (int i = 0; i < k; i++)
+            d += y[i] * _xx[k - _diag.length][i];
+          y[k] = (y[k] - d) / _xx[k - _diag.length][k];
+        }
+        // Solve L'*X = Y;
+        for (int k = n - 1; k >= _diag.length; --k) {
+          y[k] /= _xx[k - _diag.length][k];
+          for (int i = 0; i < k; ++i)
+            y[i] -= y[k] * _xx[k - _diag.length][i];
+        }
       }
       // diagonal
       for( int k = _diag.length - 1; k >= 0; --k )
@@ -732,6 +894,252 @@ public final class Gram extends Iced<Gram> {
         y[y.length-1] = icpt;
       }
     }
+    /**
+     * Blocked forward and back substitution of the dense part of the factor.
+     *
+     * Diagonal blocks are solved sequentially, the updates of the remaining rows (forward substitution) or of the
+     * remaining unknowns (back substitution) by the solved block are split into ranges and run in parallel.
+     */
+    private void solveBlocked(final double[] y, final int n) {
+      final int diagN = _diag.length;
+      // Solve L*Y = B, the diagonal part is already solved
+      updateRows(y, 0, diagN, diagN, n);
+      for (int k0 = diagN; k0 < n; k0 += SOLVE_BLOCK_SIZE) {
+        final int k1 = Math.min(k0 + SOLVE_BLOCK_SIZE, n);
+        for (int k = k0; k < k1; ++k) {
+          final double[] rowk = _xx[k - diagN];
+          double d = y[k];
+          for (int i = k0; i < k; ++i)
+            d -= y[i] * rowk[i];
+          y[k] = d / rowk[k];
+        }
+        updateRows(y, k0, k1, k1, n);
+      }
+      // Solve L'*X = Y
+      for (int k1 = n; k1 > diagN; k1 -= SOLVE_BLOCK_SIZE) {
+        final int k0 = Math.max(diagN, k1 - SOLVE_BLOCK_SIZE);
+        for (int k = k1 - 1; k >= k0; --k) {
+          final double[] rowk = _xx[k - diagN];
+          final double yk = (y[k] /= rowk[k]);
+          for (int i = k0; i < k; ++i)
+            y[i] -= yk * rowk[i];
+        }
+        updateCols(y, k0, k1);
+      }
+    }
+
+    // y[i] -= L[i,c0:c1] * y[c0:c1] for i in [r0,r1)
+    private void updateRows(final double[] y, final int c0, final int c1, final int r0, final int r1) {
+      if (c0 == c1 || r0 == r1) return;
+      final int diagN = _diag.length;
+      int ntasks = solveTasks(r1 - r0, (long) (r1 - r0) * (c1 - c0));
+      final int rpt = (r1 - r0 + ntasks - 1) / ntasks;
+      RecursiveAction[] ras = new RecursiveAction[ntasks];
+      for (int t = 0; t < ntasks; ++t) {
+        final int i0 = r0 + t * rpt;
+        final int i1 = Math.min(r1, i0 + rpt);
+        ras[t] = new RecursiveAction() {
+          @Override
+          protected void compute() {
+            for (int i = i0; i < i1; ++i) {
+              final double[] rowi = _xx[i - diagN];
+              double d = 0;
+              for (int j = c0; j < c1; ++j)
+                d += rowi[j] * y[j];
+              y[i] -= d;
+            }
+          }
+        };
+      }
+      invokeAll(ras);
+    }
+
+    // y[i] -= L[k0:k1,i]' * y[k0:k1] for i in [0,k0)
+    private void updateCols(final double[] y, final int k0, final int k1) {
+      if (k0 == 0) return;
+      final int diagN = _diag.length;
+      int ntasks = solveTasks(k0, (long) k0 * (k1 - k0));
+      final int ipt = (k0 + ntasks - 1) / ntasks;
+      RecursiveAction[] ras = new RecursiveAction[ntasks];
+      for (int t = 0; t < ntasks; ++t) {
+        final int i0 = t * ipt;
+        final int i1 = Math.min(k0, i0 + ipt);
+        ras[t] = new RecursiveAction() {
+          @Override
+          protected void compute() {
+            for (int k = k0; k < k1; ++k) {
+              final double[] rowk = _xx[k - diagN];
+              final double yk = y[k];
+              for (int i = i0; i < i1; ++i)
+                y[i] -= yk * rowk[i];
+            }
+          }
+        };
+      }
+      invokeAll(ras);
+    }
+
+    private static int solveTasks(int n, long work) {
+      return (int) Math.max(1, Math.min(Math.min(n, H2O.NUMCPUS), work / MIN_TSKSZ));
+    }
+
+    /**
+     * Rank-one update of the factor, after the update this is a decomposition of A + x*x'.
+     *
+     * The vector x is given in the same order as the right-hand side of {@link #solve(double[])}. The content of x
+     * is not modified. A factor with a diagonal part is re-factorized (as a dense one, x*x' fills the diagonal block).
+     */
+    public void update(double[] x) {
+      if (_diag.length != 0) refactor(x, false);
+      else rankOneUpdate(_xx, 0, denseVec(x), false);
+    }
+
+    /**
+     * Rank-one downdate of the factor, after the downdate this is a decomposition of A - x*x'.
+     *
+     * Throws NonSPDMatrixException if A - x*x' is not positive definite, the factor is left in an undefined
+     * state in that case.
+     */
+    public void downdate(double[] x) {
+      if (_diag.length != 0) refactor(x, true);
+      else rankOneUpdate(_xx, 0, denseVec(x), true);
+    }
+
+    private double[] denseVec(double[] x) {
+      x = x.clone();
+      if (_icptFirst) {
+        double icpt = x[x.length-1];
+        System.arraycopy(x, 0, x, 1, x.length-1);
+        x[0] = icpt;
+      }
+      return x;
+    }
+
+    /**
+     * Gram matrix A = L*L' decomposed by this factor, in the layout of the factor (diagonal part first).
+     */
+    private Gram toGram() {
+      assert !_icptFirst;
+      final int diagN = _diag.length;
+      final Gram g = new Gram(diagN + _xx.length, diagN, _xx.length, 0, false);
+      for (int i = 0; i < diagN; ++i)
+        g._diag[i] = _diag[i] * _diag[i];
+      for (int i = 0; i < _xx.length; ++i) {
+        final double[] li = _xx[i];
+        final double[] ai = g._xx[i];
+        for (int k = 0; k < diagN; ++k)
+          ai[k] = li[k] * _diag[k];
+        for (int j = 0; j <= i; ++j) {
+          final double[] lj = _xx[j];
+          double s = 0;
+          for (int k = 0; k <= diagN + j; ++k)
+            s += li[k] * lj[k];
+          ai[diagN + j] = s;
+        }
+      }
+      return g;
+    }
+
+    // replaces this factor by the (dense) factor of A + x*x' (A - x*x' for downdate) computed from scratch
+    private void refactor(double[] x, boolean downdate) {
+      final Gram a = toGram();
+      final int diagN = a._diagN;
+      final Gram g = new Gram(a._fullN, 0, a._fullN, 0, false);
+      for (int i = 0; i < diagN; ++i)
+        g._xx[i][i] = a._diag[i];
+      for (int i = 0; i < a._xx.length; ++i)
+        System.arraycopy(a._xx[i], 0, g._xx[diagN + i], 0, diagN + i + 1);
+      for (int i = 0; i < g._xx.length; ++i) {
+        final double[] gi = g._xx[i];
+        for (int j = 0; j <= i; ++j)
+          gi[j] += downdate ? -x[i] * x[j] : x[i] * x[j];
+      }
+      final Cholesky chol = g.cholesky(null);
+      if (downdate && !chol.isSPD()) throw new NonSPDMatrixException();
+      _xx = chol._xx;
+      _diag = chol._diag;
+      _isSPD = chol._isSPD;
+    }
+
+    /**
+     * Removes the given columns (and rows) from the decomposed matrix. The factor of the remaining matrix is
+     * obtained from the current one by rank-one updates of the trailing submatrices, no re-factorization is needed
+     * unless the factor has a diagonal part.
+     *
+     * @param cols sorted indices of the columns to remove (in the same order as the right-hand side of solve)
+     * @return Cholesky decomposition of the matrix without the given columns
+     */
+    public Cholesky dropCols(int[] cols) {
+      if (_diag.length != 0) {
+        final Gram g = toGram();
+        g.dropCols(cols);
+        return g.cholesky(null);
+      }
+      final double[][] L = _xx;
+      final int n = L.length;
+      final boolean[] dropped = new boolean[n];
+      for (int c : cols)
+        dropped[_icptFirst ? c + 1 : c] = true;
+      // position of each row/column in the reduced factor (for dropped ones: position of the next kept one)
+      final int[] newIdx = new int[n];
+      int m = 0;
+      int firstDropped = n;
+      for (int i = 0; i < n; ++i) {
+        newIdx[i] = m;
+        if (dropped[i]) firstDropped = Math.min(firstDropped, i);
+        else m++;
+      }
+      // single copy pass: the kept rows without the dropped columns, rows above the first dropped column are
+      // not touched by the updates below and can be shared
+      final double[][] Lnew = new double[m][];
+      System.arraycopy(L, 0, Lnew, 0, firstDropped);
+      for (int i = firstDropped; i < n; ++i) {
+        if (dropped[i]) continue;
+        final double[] row = L[i];
+        final double[] rowNew = MemoryManager.malloc8d(newIdx[i] + 1);
+        for (int k = 0; k <= i; ++k)
+          if (!dropped[k]) rowNew[newIdx[k]] = row[k];
+        Lnew[newIdx[i]] = rowNew;
+      }
+      // A without the dropped rows/columns = Lnew*Lnew' + sum of x*x' over the dropped columns x of the kept rows
+      final double[] x = MemoryManager.malloc8d(m);
+      for (int j = firstDropped; j < n; ++j) {
+        if (!dropped[j]) continue;
+        final int off = newIdx[j];
+        for (int i = j + 1; i < n; ++i)
+          if (!dropped[i]) x[newIdx[i] - off] = L[i][j];
+        rankOneUpdate(Lnew, off, x, false);
+      }
+      Cholesky res = new Cholesky(Lnew, _diag, _icptFirst);
+      res.setSPD(_isSPD);
+      return res;
+    }
+
+    /**
+     * Givens-style rank-one update (or downdate) of the lower triangular L[off:,off:], x is indexed from off
+     * and gets overwritten.
+     */
+    private static void rankOneUpdate(double[][] L, int off, double[] x, boolean downdate) {
+      final int n = L.length;
+      for (int k = off; k < n; ++k) {
+        final double xk = x[k - off];
+        if (xk == 0) continue; // nothing to rotate
+        final double lkk = L[k][k];
+        final double r2 = downdate ? lkk * lkk - xk * xk : lkk * lkk + xk * xk;
+        if (!(lkk > 0) || !(r2 > 0)) throw new NonSPDMatrixException();
+        final double r = Math.sqrt(r2);
+        final double c = r / lkk;
+        final double s = xk / lkk;
+        L[k][k] = r;
+        for (int i = k + 1; i < n; ++i) {
+          final double[] rowi = L[i];
+          final double lik = downdate ? (rowi[k] - s * x[i - off]) / c : (rowi[k] + s * x[i - off]) / c;
+          x[i - off] = c * x[i - off] - s * lik;
+          rowi[k] = lik;
+        }
+      }
+    }
+
     public final boolean isSPD() {return _isSPD;}
     public final void setSPD(boolean b) {_isSPD = b;}
   }
@@ -798,6 +1206,11 @@ public final class Gram extends Iced<Gram> {
       for(int j = 0; j < row.nBins; ++j)
         mrow[row.binIds[j]] += d;
     }
+    addRowDenseCats(row, w, interceptRow, denseColStart);
+  }
+
+  // intercept X intercept, intercept X cats and cats X cats part of a dense row
+  private void addRowDenseCats(DataInfo.Row row, double w, double [] interceptRow, int denseColStart) {
     if(_hasIntercept){
       // intercept*intercept
       interceptRow[_denseN+denseColStart] += w;
@@ -816,6 +1229,129 @@ public final class Gram extends Iced<Gram> {
     if(hasDiag)
       _diag[row.binIds[0]] += w;
   }
+
+  /**
+   * Adds dense rows to a Gram matrix in blocks.
+   *
+   * For models with many numeric predictors the cost of {@link #addRowDense(DataInfo.Row, double)} is dominated
+   * by the numeric X numeric part of the (row-by-row) outer product which is memory-bound (the whole lower triangle
+   * is read and written for every row). BlockAccumulator buffers the numeric values of a block of rows in a column-major
+   * tile and updates the numeric part of the Gram matrix using a single rank-k update per block (cache-tiled,
+   * SYRK-style). The remaining parts (intercept and categoricals) are still added row by row.
+   *
+   * The result is equal to adding the rows one by one (up to floating point rounding). Sparse rows are added directly.
+   * {@link #flush()} needs to be called after the last row was added.
+   */
+  public static final class BlockAccumulator {
+    private static final int COL_TILE = 64; // number of columns of the tile processed together (fits in L2 cache)
+
+    private final Gram _gram;
+    private final double [][] _x; // [dense column][row in the block]
+    private final double [] _w;   // row weights
+    private final double [] _wx;  // w * x for the currently processed column
+    private final int _blockSize;
+    private int _n;               // number of buffered rows
+
+    public BlockAccumulator(Gram gram, int blockSize) {
+      _gram = gram;
+      _blockSize = blockSize;
+      _x = new double[gram._denseN][];
+      for (int i = 0; i < _x.length; ++i)
+        _x[i] = MemoryManager.malloc8d(blockSize);
+      _w = MemoryManager.malloc8d(blockSize);
+      _wx = MemoryManager.malloc8d(blockSize);
+    }
+
+    /**
+     * Suggested size of a block for a given number of dense columns, keeps the tile within few MBs.
+     */
+    public static int blockSize(int denseN) {
+      return Math.max(16, Math.min(256, (1 << 17) / Math.max(denseN, 1)));
+    }
+
+    public void addRow(DataInfo.Row row, double w) {
+      if (row.numIds != null) { // sparse
+        _gram.addRowSparse(row, w);
+        return;
+      }
+      final Gram g = _gram;
+      final int intercept = g._hasIntercept?1:0;
+      final int denseRowStart = g._fullN - g._denseN - g._diagN - intercept;
+      final int denseColStart = g._fullN - g._denseN - intercept;
+      final double [] interceptRow = g._hasIntercept?g._xx[g._denseN + denseRowStart]:null;
+      final int n = _n;
+      for (int i = 0; i < g._denseN; ++i) {
+        final double v = row.numVals[i];
+        _x[i][n] = v;
+        // nums * cats
+        if (v != 0 && row.nBins > 0) {
+          final double [] mrow = g._xx[i+denseRowStart];
+          final double d = w * v;
+          for (int j = 0; j < row.nBins; ++j)
+            mrow[row.binIds[j]] += d;
+        }
+      }
+      _w[n] = w;
+      g.addRowDenseCats(row, w, interceptRow, denseColStart);
+      if (++_n == _blockSize)
+        flush();
+    }
+
+    /**
+     * Adds the buffered rows to the numeric X numeric (and intercept X numeric) part of the Gram matrix.
+     */
+    public void flush() {
+      final int n = _n;
+      if (n == 0) return;
+      final Gram g = _gram;
+      final int intercept = g._hasIntercept?1:0;
+      final int denseRowStart = g._fullN - g._denseN - g._diagN - intercept;
+      final int denseColStart = g._fullN - g._denseN - intercept;
+      final double [] interceptRow = g._hasIntercept?g._xx[g._denseN + denseRowStart]:null;
+      final int d = _x.length;
+      final double [] wx = _wx;
+      for (int jb = 0; jb < d; jb += COL_TILE) {
+        final int jEnd = Math.min(jb + COL_TILE, d);
+        for (int i = jb; i < d; ++i) {
+          final double [] xi = _x[i];
+          for (int r = 0; r < n; ++r)
+            wx[r] = _w[r] * xi[r];
+          final double [] mrow = g._xx[i+denseRowStart];
+          final int jMax = Math.min(jEnd, i + 1);
+          int j = jb;
+          for (; j + 3 < jMax; j += 4) { // 4 dot products at once, re-uses the loaded w*x values
+            final double [] x0 = _x[j], x1 = _x[j+1], x2 = _x[j+2], x3 = _x[j+3];
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            for (int r = 0; r < n; ++r) {
+              final double v = wx[r];
+              s0 += v * x0[r];
+              s1 += v * x1[r];
+              s2 += v * x2[r];
+              s3 += v * x3[r];
+            }
+            mrow[j+denseColStart] += s0;
+            mrow[j+1+denseColStart] += s1;
+            mrow[j+2+denseColStart] += s2;
+            mrow[j+3+denseColStart] += s3;
+          }
+          for (; j < jMax; ++j) {
+            final double [] xj = _x[j];
+            double s = 0;
+            for (int r = 0; r < n; ++r)
+              s += wx[r] * xj[r];
+            mrow[j+denseColStart] += s;
+          }
+          if (interceptRow != null && jb == 0) { // intercept*x[i]
+            double s = 0;
+            for (int r = 0; r < n; ++r)
+              s += wx[r];
+            interceptRow[i+denseColStart] += s;
+          }
+        }
+      }
+      _n = 0;
+    }
+  }
   public void mul(double x){
     if(_diag != null)for(int i = 0; i < _diag.length; ++i)
       _diag[i] *= x;
@@ -0,0 +1,610 @@
+package hex.gram;
+
+import hex.DataInfo;
+import hex.gram.Gram.NonSPDMatrixException;
+import water.Iced;
+import water.MemoryManager;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Sparse symmetric Gram matrix.
+ *
+ * Dense {@link Gram} keeps only the block of the first (largest) categorical column on the diagonal, every other
+ * column gets a dense row. With several high-cardinality categoricals most of the dense rows are empty - two levels of
+ * different categoricals only produce a non-zero if they co-occur in the data. SparseGram only stores the non-zero
+ * elements of the lower triangle (in an open-addressing hash map during accumulation), its size is bounded by the number of
+ * distinct co-occurring pairs of columns, not by the square of the number of columns.
+ *
+ * Column order is the same as in Gram: categoricals first, numerics next, intercept (if any) last.
+ *
+ * The matrix is decomposed using {@link SparseCholesky}.
+ */
+public final class SparseGram extends Iced<SparseGram> {
+  // SparseGram is used if the dense Gram would have at least this many columns...
+  static final int MIN_COLS = 1000;
+  // ... and the expected ratio of non-zeros is below this threshold (see Gram#estimatedSparseness)
+  static final double MAX_DENSITY = 0.05;
+
+  private static final double LOAD_FACTOR = 0.5;
+  // minimum degree ordering stops once the minimal degree reaches this fraction of the remaining nodes
+  private static final double DENSE_SWITCH = 0.2;
+
+  int _fullN;
+  final int _denseN;
+  boolean _hasIntercept;
+  double[] _diag;
+  // off-diagonal elements of the lower triangle, key = i*_fullN + j + 1 (i > j), 0 marks an empty slot
+  long[] _keys;
+  double[] _vals;
+  int _size;
+
+  public SparseGram(int N, int dense, boolean hasIntercept) {
+    _hasIntercept = hasIntercept;
+    _fullN = N + (hasIntercept ? 1 : 0);
+    _denseN = dense;
+    _diag = MemoryManager.malloc8d(_fullN);
+    _keys = MemoryManager.malloc8(1024);
+    _vals = MemoryManager.malloc8d(1024);
+  }
+
+  public SparseGram(DataInfo dinfo) {
+    this(dinfo.fullN(), dinfo.numNums(), true);
+  }
+
+  public final int fullN() { return _fullN; }
+
+  /**
+   * Number of stored off-diagonal non-zeros (of the lower triangle).
+   */
+  public final int nonZeros() { return _size; }
+
+  public double get(int i, int j) {
+    if (i == j) return _diag[i];
+    if (i < j) { int k = i; i = j; j = k; }
+    int slot = find(key(i, j));
+    return _keys[slot] == 0 ? 0 : _vals[slot];
+  }
+
+  private long key(int i, int j) {
+    return (long) i * _fullN + j + 1;
+  }
+
+  private int find(long key) {
+    final int mask = _keys.length - 1;
+    int slot = (int) (mix(key) & mask);
+    while (_keys[slot] != 0 && _keys[slot] != key)
+      slot = (slot + 1) & mask;
+    return slot;
+  }
+
+  private static long mix(long key) {
+    key *= 0x9E3779B97F4A7C15L;
+    return key ^ (key >>> 32);
+  }
+
+  private void add(long key, double d) {
+    int slot = find(key);
+    if (_keys[slot] == 0) {
+      if (_size + 1 > _keys.length * LOAD_FACTOR) {
+        rehash(_keys.length << 1);
+        slot = find(key);
+      }
+      _keys[slot] = key;
+      ++_size;
+    }
+    _vals[slot] += d;
+  }
+
+  /**
+   * Adds d to element (i,j), i > j.
+   */
+  void addOffDiag(int i, int j, double d) {
+    add(i > j ? key(i, j) : key(j, i), d);
+  }
+
+  private void rehash(int capacity) {
+    long[] keys = _keys;
+    double[] vals = _vals;
+    _keys = MemoryManager.malloc8(capacity);
+    _vals = MemoryManager.malloc8d(capacity);
+    for (int i = 0; i < keys.length; ++i) {
+      if (keys[i] == 0) continue;
+      int slot = find(keys[i]);
+      _keys[slot] = keys[i];
+      _vals[slot] = vals[i];
+    }
+  }
+
+  public final void addRow(DataInfo.Row r, double w) {
+    final int intercept = _hasIntercept ? 1 : 0;
+    final int numStart = _fullN - _denseN - intercept;
+    final int icpt = _fullN - 1;
+    // cats
+    for (int i = 0; i < r.nBins; ++i) {
+      final int ci = r.binIds[i];
+      _diag[ci] += w;
+      for (int j = 0; j < i; ++j)
+        addOffDiag(ci, r.binIds[j], w);
+      if (_hasIntercept)
+        addOffDiag(icpt, ci, w);
+    }
+    // nums
+    for (int i = 0; i < r.nNums; ++i) {
+      final int ni = r.numIds == null ? numStart + i : r.numIds[i];
+      final double d = w * r.numVals[i];
+      if (d == 0) continue;
+      _diag[ni] += d * r.numVals[i];
+      for (int j = 0; j < i; ++j) {
+        final double v = r.numVals[j];
+        if (v != 0)
+          addOffDiag(ni, r.numIds == null ? numStart + j : r.numIds[j], d * v);
+      }
+      for (int j = 0; j < r.nBins; ++j)
+        addOffDiag(ni, r.binIds[j], d);
+      if (_hasIntercept)
+        addOffDiag(icpt, ni, d);
+    }
+    if (_hasIntercept)
+      _diag[icpt] += w;
+  }
+
+  public void add(SparseGram grm) {
+    for (int i = 0; i < _diag.length; ++i)
+      _diag[i] += grm._diag[i];
+    for (int i = 0; i < grm._keys.length; ++i)
+      if (grm._keys[i] != 0)
+        add(grm._keys[i], grm._vals[i]);
+  }
+
+  public void mul(double d) {
+    for (int i = 0; i < _diag.length; ++i)
+      _diag[i] *= d;
+    for (int i = 0; i < _vals.length; ++i)
+      _vals[i] *= d;
+  }
+
+  public SparseGram deep_clone() {
+    SparseGram res = clone();
+    res._diag = _diag.clone();
+    res._keys = _keys.clone();
+    res._vals = _vals.clone();
+    return res;
+  }
+
+  /**
+   * @return this * x
+   */
+  public double[] mmul(double[] x) {
+    double[] res = MemoryManager.malloc8d(_fullN);
+    for (int i = 0; i < _fullN; ++i)
+      res[i] = _diag[i] * x[i];
+    for (int s = 0; s < _keys.length; ++s) {
+      if (_keys[s] == 0) continue;
+      final int i = (int) ((_keys[s] - 1) / _fullN);
+      final int j = (int) ((_keys[s] - 1) % _fullN);
+      res[i] += _vals[s] * x[j];
+      res[j] += _vals[s] * x[i];
+    }
+    return res;
+  }
+
+  public void addDiag(double d) { addDiag(d, false); }
+
+  public void addDiag(double d, boolean add2Intercept) {
+    final int n = _hasIntercept && !add2Intercept ? _fullN - 1 : _fullN;
+    for (int i = 0; i < n; ++i)
+      _diag[i] += d;
+  }
+
+  public int[] findZeroCols() {
+    int[] zeros = new int[16];
+    int n = 0;
+    for (int i = 0; i < _diag.length; ++i) {
+      if (_diag[i] != 0) continue;
+      if (n == zeros.length) zeros = Arrays.copyOf(zeros, n * 2);
+      zeros[n++] = i;
+    }
+    return Arrays.copyOf(zeros, n);
+  }
+
+  /**
+   * Removes the given (sorted) columns from the matrix.
+   */
+  public void dropCols(int[] cols) {
+    if (cols.length == 0) return;
+    final int oldN = _fullN;
+    final int[] newIds = new int[oldN];
+    for (int i = 0, k = 0; i < oldN; ++i)
+      newIds[i] = (k < cols.length && cols[k] == i) ? (-1 - k++) : i - k;
+    final int newN = oldN - cols.length;
+    double[] diag = MemoryManager.malloc8d(newN);
+    for (int i = 0; i < oldN; ++i)
+      if (newIds[i] >= 0) diag[newIds[i]] = _diag[i];
+    long[] keys = _keys;
+    double[] vals = _vals;
+    _fullN = newN;
+    _diag = diag;
+    _keys = MemoryManager.malloc8(keys.length);
+    _vals = MemoryManager.malloc8d(keys.length);
+    _size = 0;
+    for (int s = 0; s < keys.length; ++s) {
+      if (keys[s] == 0) continue;
+      final int i = newIds[(int) ((keys[s] - 1) / oldN)];
+      final int j = newIds[(int) ((keys[s] - 1) % oldN)];
+      if (i >= 0 && j >= 0)
+        add(key(i, j), vals[s]);
+    }
+  }
+
+  public void dropIntercept() {
+    if (!_hasIntercept) throw new IllegalArgumentException("Has no intercept");
+    dropCols(new int[]{_fullN - 1});
+    _hasIntercept = false;
+  }
+
+  public final boolean hasNaNsOrInfs() {
+    for (double d : _diag)
+      if (Double.isInfinite(d) || Double.isNaN(d)) return true;
+    for (int i = 0; i < _keys.length; ++i)
+      if (_keys[i] != 0 && (Double.isInfinite(_vals[i]) || Double.isNaN(_vals[i]))) return true;
+    return false;
+  }
+
+  public double sparseness() {
+    return (_fullN + 2.0 * _size) / ((double) _fullN * _fullN);
+  }
+
+  public SparseCholesky cholesky() {
+    return SparseCholesky.decompose(this);
+  }
+
+  public String toString() {
+    return "SparseGram(" + _fullN + ", nnz = " + (_fullN + 2L * _size) + ")";
+  }
+
+  /**
+   * Sparse Cholesky decomposition A = P'LL'P.
+   *
+   * The permutation P is a fill-reducing (minimum degree) ordering computed on the elimination graph of A.
+   * Columns which are connected to most other columns (numerics, intercept) are taken out of the graph and ordered last,
+   * they would end up there anyway and keeping them in makes every elimination step expensive. The ordering also
+   * yields the symbolic structure of L (the neighbours of a node at the time of its elimination), the numerical
+   * factorization is a left-looking column algorithm over this structure.
+   */
+  public static final class SparseCholesky {
+    final int _n;
+    final int _ndense;   // size of the dense trailing block
+    final int[] _perm;   // new index -> original column
+    final int[] _colPtr; // L in compressed column format, diagonal is the first element of each column
+    final int[] _rowIdx;
+    final double[] _vals;
+    private boolean _isSPD = true;
+
+    private SparseCholesky(int[] perm, int ndense, int[] colPtr, int[] rowIdx) {
+      _n = perm.length;
+      _ndense = ndense;
+      _perm = perm;
+      _colPtr = colPtr;
+      _rowIdx = rowIdx;
+      _vals = MemoryManager.malloc8d(rowIdx.length);
+    }
+
+    public boolean isSPD() { return _isSPD; }
+
+    /**
+     * Number of non-zeros of the factor L (including fill-in).
+     */
+    public int nonZeros() { return _rowIdx.length; }
+
+    static SparseCholesky decompose(SparseGram g) {
+      final int n = g._fullN;
+      // symmetric adjacency structure of A (without diagonal)
+      int[] deg = new int[n];
+      for (int s = 0; s < g._keys.length; ++s) {
+        if (g._keys[s] == 0) continue;
+        deg[(int) ((g._keys[s] - 1) / n)]++;
+        deg[(int) ((g._keys[s] - 1) % n)]++;
+      }
+      int[][] adj = new int[n][];
+      for (int i = 0; i < n; ++i)
+        adj[i] = new int[deg[i]];
+      int[] cnt = new int[n];
+      for (int s = 0; s < g._keys.length; ++s) {
+        if (g._keys[s] == 0) continue;
+        int i = (int) ((g._keys[s] - 1) / n);
+        int j = (int) ((g._keys[s] - 1) % n);
+        adj[i][cnt[i]++] = j;
+        adj[j][cnt[j]++] = i;
+      }
+      SparseCholesky chol = symbolic(adj, n);
+      chol.numeric(g);
+      return chol;
+    }
+
+    /**
+     * Minimum degree ordering and structure of L.
+     */
+    private static SparseCholesky symbolic(int[][] adj, final int n) {
+      final int denseDeg = Math.max(16, (int) (10 * Math.sqrt(n)));
+      boolean[] dense = new boolean[n];
+      int ndense = 0;
+      for (int i = 0; i < n; ++i)
+        if (adj[i].length > denseDeg) { dense[i] = true; ++ndense; }
+      // elimination graph over the sparse nodes, adjacency kept in open-addressing int sets,
+      // eliminated nodes are removed lazily (dead counts the eliminated nodes still in the set)
+      IntSet[] graph = new IntSet[n];
+      int[] dead = new int[n];
+      int[] degree = new int[n];
+      PriorityQueue<Long> queue = new PriorityQueue<>();
+      for (int i = 0; i < n; ++i) {
+        if (dense[i]) continue;
+        graph[i] = new IntSet(adj[i].length);
+        for (int j : adj[i])
+          if (!dense[j]) graph[i].add(j);
+        degree[i] = graph[i].size();
+        queue.add(((long) degree[i] << 32) | i);
+        adj[i] = null;
+      }
+      boolean[] eliminated = new boolean[n];
+      int[] perm = new int[n];
+      int[][] pattern = new int[n][]; // neighbours (original ids) at the time of elimination
+      int k = 0;
+      while (!queue.isEmpty()) {
+        long top = queue.poll();
+        int v = (int) top;
+        if (eliminated[v] || degree[v] != (int) (top >>> 32)) continue; // stale entry
+        final int remaining = n - ndense - k;
+        if (remaining > 1 && degree[v] >= DENSE_SWITCH * (remaining - 1)) {
+          // the rest of the graph is (nearly) dense, it is ordered last and factored as a dense block
+          for (int i = 0; i < n; ++i)
+            if (!eliminated[i] && !dense[i]) { dense[i] = true; ++ndense; }
+          break;
+        }
+        eliminated[v] = true;
+        perm[k++] = v;
+        int[] nbrs = graph[v].toArray(eliminated);
+        graph[v] = null;
+        pattern[v] = nbrs;
+        for (int u : nbrs) {
+          IntSet gu = graph[u];
+          for (int w : nbrs)
+            if (w != u) gu.add(w);
+          if (++dead[u] > (gu.size() >> 1)) {
+            gu.purge(eliminated);
+            dead[u] = 0;
+          }
+          degree[u] = gu.size() - dead[u];
+          queue.add(((long) degree[u] << 32) | u);
+        }
+      }
+      // nodes left in the graph first, the nodes which were dense from the beginning last
+      final int ntail = n - k;
+      for (int i = 0; i < n; ++i)
+        if (dense[i] && graph[i] != null) perm[k++] = i;
+      final int nAlwaysDense = n - k;
+      for (int i = 0; i < n; ++i)
+        if (dense[i] && graph[i] == null && !eliminated[i]) perm[k++] = i;
+      assert k == n;
+      int[] iperm = new int[n];
+      for (int i = 0; i < n; ++i)
+        iperm[perm[i]] = i;
+      // structure of L in the new ordering: the nodes which were dense from the beginning are (structurally)
+      // in every column, the trailing block is stored as dense
+      final int denseStart = n - ntail;
+      final int alwaysDenseStart = n - nAlwaysDense;
+      int[] colPtr = new int[n + 1];
+      for (int c = 0; c < n; ++c) {
+        int len = c >= denseStart ? n - c : 1 + pattern[perm[c]].length + nAlwaysDense;
+        colPtr[c + 1] = colPtr[c] + len;
+      }
+      int[] rowIdx = new int[colPtr[n]];
+      for (int c = 0; c < n; ++c) {
+        int p = colPtr[c];
+        rowIdx[p++] = c;
+        if (c >= denseStart) {
+          for (int r = c + 1; r < n; ++r)
+            rowIdx[p++] = r;
+        } else {
+          int start = p;
+          for (int u : pattern[perm[c]])
+            rowIdx[p++] = iperm[u];
+          Arrays.sort(rowIdx, start, p);
+          for (int r = alwaysDenseStart; r < n; ++r)
+            rowIdx[p++] = r;
+          pattern[perm[c]] = null;
+        }
+      }
+      return new SparseCholesky(perm, ntail, colPtr, rowIdx);
+    }
+
+    /**
+     * Numerical factorization. Sparse columns are factored by a left-looking algorithm: for every column j, the columns
+     * k < j with L[j,k] != 0 are kept in a linked list (link/head), next[k] points to the next row of column k to be
+     * processed. Once all sparse columns are done, the dense tail (the trailing ndense x ndense block) is updated by
+     * the sparse columns and decomposed by the dense blocked Cholesky.
+     */
+    private void numeric(SparseGram g) {
+      final int n = _n;
+      final int ds = n - _ndense;
+      final int[] iperm = new int[n];
+      for (int i = 0; i < n; ++i)
+        iperm[_perm[i]] = i;
+      // lower triangle of the permuted A, scattered directly into the value array of L
+      final int[] colPtr = _colPtr, rowIdx = _rowIdx;
+      final double[] L = _vals;
+      for (int c = 0; c < n; ++c)
+        L[colPtr[c]] = g._diag[_perm[c]];
+      for (int s = 0; s < g._keys.length; ++s) {
+        if (g._keys[s] == 0) continue;
+        int i = iperm[(int) ((g._keys[s] - 1) / g._fullN)];
+        int j = iperm[(int) ((g._keys[s] - 1) % g._fullN)];
+        if (i < j) { int t = i; i = j; j = t; }
+        int p = Arrays.binarySearch(rowIdx, colPtr[j], colPtr[j + 1], i);
+        assert p >= 0;
+        L[p] = g._vals[s];
+      }
+      final double[] x = MemoryManager.malloc8d(n);
+      final int[] next = new int[n];
+      final int[] head = new int[n];
+      final int[] link = new int[n];
+      Arrays.fill(head, -1);
+      for (int j = 0; j < ds; ++j) {
+        final int p0 = colPtr[j], p1 = colPtr[j + 1];
+        for (int p = p0; p < p1; ++p)
+          x[rowIdx[p]] = L[p];
+        int k = head[j];
+        while (k >= 0) {
+          final int kNext = link[k];
+          final int pk = next[k];
+          final double ljk = L[pk];
+          final int pk1 = colPtr[k + 1];
+          for (int p = pk; p < pk1; ++p)
+            x[rowIdx[p]] -= L[p] * ljk;
+          if (pk + 1 < pk1 && rowIdx[pk + 1] < ds) { // move column k to the list of its next (sparse) row
+            next[k] = pk + 1;
+            int r = rowIdx[pk + 1];
+            link[k] = head[r];
+            head[r] = k;
+          }
+          k = kNext;
+        }
+        final double d = x[j];
+        if (!(d > 0)) _isSPD = false;
+        final double ljj = Math.sqrt(Math.max(0.0, d));
+        L[p0] = ljj;
+        x[j] = 0;
+        for (int p = p0 + 1; p < p1; ++p) {
+          L[p] = x[rowIdx[p]] / ljj;
+          x[rowIdx[p]] = 0;
+        }
+        if (p0 + 1 < p1 && rowIdx[p0 + 1] < ds) {
+          next[j] = p0 + 1;
+          int r = rowIdx[p0 + 1];
+          link[j] = head[r];
+          head[r] = j;
+        }
+      }
+      if (_ndense == 0) return;
+      // dense tail: T = A22 - L21*L21', the rows of L21 are at the end of the sparse columns
+      final int m = _ndense;
+      final double[][] T = new double[m][];
+      for (int i = 0; i < m; ++i)
+        T[i] = MemoryManager.malloc8d(i + 1);
+      for (int c = ds; c < n; ++c)
+        for (int p = colPtr[c]; p < colPtr[c + 1]; ++p)
+          T[rowIdx[p] - ds][c - ds] = L[p];
+      for (int k = 0; k < ds; ++k) {
+        final int pk1 = colPtr[k + 1];
+        int pk0 = pk1;
+        while (pk0 > colPtr[k] + 1 && rowIdx[pk0 - 1] >= ds) --pk0;
+        for (int p = pk0; p < pk1; ++p) {
+          final double[] Ti = T[rowIdx[p] - ds];
+          final double lik = L[p];
+          for (int q = pk0; q <= p; ++q)
+            Ti[rowIdx[q] - ds] -= lik * L[q];
+        }
+      }
+      final int nb = Gram.CHOLESKY_BLOCK_SIZE;
+      Gram.InPlaceCholesky tchol = Gram.InPlaceCholesky.decomposeBlocked(T, nb);
+      _isSPD = _isSPD && tchol.isSPD();
+      for (int c = ds; c < n; ++c)
+        for (int p = colPtr[c]; p < colPtr[c + 1]; ++p)
+          L[p] = T[rowIdx[p] - ds][c - ds];
+    }
+
+    /**
+     * Find solution to A*x = y. Result is stored in the y input vector.
+     */
+    public void solve(double[] y) {
+      if (!_isSPD) throw new NonSPDMatrixException();
+      final int n = _n;
+      final int[] colPtr = _colPtr, rowIdx = _rowIdx;
+      final double[] L = _vals;
+      double[] x = MemoryManager.malloc8d(n);
+      for (int i = 0; i < n; ++i)
+        x[i] = y[_perm[i]];
+      // Solve L*Y = B
+      for (int j = 0; j < n; ++j) {
+        final double xj = (x[j] /= L[colPtr[j]]);
+        for (int p = colPtr[j] + 1; p < colPtr[j + 1]; ++p)
+          x[rowIdx[p]] -= L[p] * xj;
+      }
+      // Solve L'*X = Y
+      for (int j = n - 1; j >= 0; --j) {
+        double d = x[j];
+        for (int p = colPtr[j] + 1; p < colPtr[j + 1]; ++p)
+          d -= L[p] * x[rowIdx[p]];
+        x[j] = d / L[colPtr[j]];
+      }
+      for (int i = 0; i < n; ++i)
+        y[_perm[i]] = x[i];
+    }
+  }
+
+  /**
+   * Minimal open-addressing set of non-negative ints, used for the elimination graph.
+   */
+  private static final class IntSet {
+    private int[] _keys;
+    private int _size;
+
+    IntSet(int expected) {
+      int cap = 4;
+      while (cap < expected * 2) cap <<= 1;
+      _keys = new int[cap];
+      Arrays.fill(_keys, -1);
+    }
+
+    int size() { return _size; }
+
+    void add(int v) {
+      if (_size + 1 > (_keys.length >> 1)) grow(_keys.length << 1);
+      final int mask = _keys.length - 1;
+      int slot = (v * 0x9E3779B9) & mask;
+      while (_keys[slot] != -1) {
+        if (_keys[slot] == v) return;
+        slot = (slot + 1) & mask;
+      }
+      _keys[slot] = v;
+      ++_size;
+    }
+
+    private void grow(int cap) {
+      int[] keys = _keys;
+      _keys = new int[cap];
+      Arrays.fill(_keys, -1);
+      _size = 0;
+      for (int k : keys)
+        if (k != -1) add(k);
+    }
+
+    /**
+     * Removes all eliminated nodes.
+     */
+    void purge(boolean[] eliminated) {
+      int live = 0;
+      for (int k : _keys)
+        if (k != -1 && !eliminated[k]) ++live;
+      if (live == _size) return;
+      int[] keys = _keys;
+      int cap = 4;
+      while (cap < live * 2) cap <<= 1;
+      _keys = new int[cap];
+      Arrays.fill(_keys, -1);
+      _size = 0;
+      for (int k : keys)
+        if (k != -1 && !eliminated[k]) add(k);
+    }
+
+    int[] toArray(boolean[] eliminated) {
+      int[] res = new int[_size];
+      int n = 0;
+      for (int k : _keys)
+        if (k != -1 && !eliminated[k]) res[n++] = k;
+      return Arrays.copyOf(res, n);
+    }
+  }
+
+}
@@ -27,6 +27,12 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   @Override public ToEigenVec getToEigenVec() { return LinearAlgebraUtils.toEigen; }
   // Convergence tolerance
   final static private double TOLERANCE = 1e-4;
+  // Relative slack of the bound checks of the Hamerly method (protects the exact Lloyd result against rounding errors)
+  final static private double BOUND_SLACK = 1e-10;
+  // Number of oversampling rounds of the k-means|| initialization
+  final static private int INIT_ROUNDS = 5;
+  // Max number of weighted Lloyd iterations over the k-means|| candidates
+  final static private int RECLUSTER_ITERATIONS = 10;
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[]{ ModelCategory.Clustering }; }
 
@@ -34,6 +40,14 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   @Override public boolean haveMojo() { return true; }
 
   public enum Initialization { Random, PlusPlus, Furthest, User }
+  /**
+   * Lloyd: full distance computation from every row to every center in every iteration<br>
+   * Hamerly: exact Lloyd iterations, using a per-row lower bound on the distance to the second closest center together
+   * with the movement of the centers (triangle inequality) to skip the distances to most centers<br>
+   * MiniBatch: centers are updated from small random samples of the rows (Sculley, Web-Scale K-Means Clustering), one
+   * full Lloyd pass at the end computes the cluster assignment and statistics
+   */
+  public enum Method { Lloyd, Hamerly, MiniBatch }
   /** Start the KMeans training Job on an F/J thread. */
   @Override protected KMeansDriver trainModelImpl() { return new KMeansDriver();  }
 
@@ -103,6 +117,16 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         error("_cluster_size_constraints", "\"The number of cluster size constraints is not equal to k = \" + _parms._k");
       }
     }
+    if (_parms._kmeans_method != Method.Lloyd && _parms._cluster_size_constraints != null)
+      error("_kmeans_method", "Only the Lloyd method is supported with cluster_size_constraints.");
+    if (_parms._kmeans_method == Method.MiniBatch) {
+      if (_parms._estimate_k)
+        error("_kmeans_method", "The MiniBatch method cannot be used if estimate_k is enabled.");
+      if (_parms._mini_batch_size <= 0)
+        error("_mini_batch_size", "mini_batch_size must be > 0.");
+    } else {
+      hide("_mini_batch_size", "Only used by the MiniBatch method.");
+    }
     if(_parms._fold_assignment == Model.Parameters.FoldAssignmentScheme.Stratified){
       error("fold_assignment", "K-means is an unsupervised algorithm; the stratified fold assignment cannot be used because of the missing response column.");
     }
@@ -150,30 +174,48 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           // Initialize first cluster center to random row
           randomRow(vecs, rand, centers[0], means, mults, modes);
 
-          model._output._iterations = 0;
-          while (model._output._iterations < 5) {
-            // Sum squares distances to cluster center
-            SumSqr sqr = new SumSqr(centers, means, mults, modes, _isCats).doAll(vecs);
-
-            // Sample with probability inverse to square distance
-            Sampler sampler = new Sampler(centers, means, mults, modes, _isCats, sqr._sqr, k * 3, _parms.getOrMakeRealSeed(), hasWeightCol()).doAll(vecs);
-            centers = ArrayUtils.append(centers, sampler._sampled);
-
-            // Fill in sample centers into the model
-            model._output._centers_raw = destandardize(centers, _isCats, means, mults);
-            model._output._tot_withinss = sqr._sqr / _train.numRows();
-
-            model._output._iterations++;     // One iteration done
-
-            model.update(_job); // Make early version of model visible, but don't update progress using update(1)
-            if (stop_requested()) {
-              if (timeout())
-                warn("_max_runtime_secs reached.", "KMeans exited before finishing all iterations.");
-              break; // Stopped/cancelled
+          if (k > 1) {
+            // k-means||: every row keeps the square distance to (and the index of) its closest candidate center, so that
+            // each round only measures the distances to the candidates sampled in the previous round
+            Vec[] vecsInit = Arrays.copyOf(vecs, vecs.length + 2);
+            vecsInit[vecs.length] = vecs[0].makeCon(Double.MAX_VALUE);
+            vecsInit[vecs.length + 1] = vecs[0].makeCon(0);
+            try {
+              SumSqr sqr = new SumSqr(centers, 0, means, mults, modes, _isCats, hasWeightCol()).doAll(vecsInit);
+              model._output._iterations = 0;
+              while (model._output._iterations < INIT_ROUNDS && sqr._sqr > 0) {
+                // Sample with probability proportional to square distance (no distance computations in this pass)
+                Sampler sampler = new Sampler(means, mults, modes, sqr._sqr, k * 3,
+                        _parms.getOrMakeRealSeed() + model._output._iterations * vecs[0].length(), hasWeightCol()).doAll(vecsInit);
+                if (sampler._sampled.length > 0) {
+                  int offset = centers.length;
+                  centers = ArrayUtils.append(centers, sampler._sampled);
+                  // Sum squares distances to cluster centers, only the new candidates need to be checked
+                  sqr = new SumSqr(sampler._sampled, offset, means, mults, modes, _isCats, hasWeightCol()).doAll(vecsInit);
+                }
+
+                // Fill in sample centers into the model
+                model._output._centers_raw = destandardize(centers, _isCats, means, mults);
+                model._output._tot_withinss = sqr._sqr / _train.numRows();
+
+                model._output._iterations++;     // One iteration done
+
+                model.update(_job); // Make early version of model visible, but don't update progress using update(1)
+                if (stop_requested()) {
+                  if (timeout())
+                    warn("_max_runtime_secs reached.", "KMeans exited before finishing all iterations.");
+                  break; // Stopped/cancelled
+                }
+              }
+              // Recluster the candidates (weighted by the number of rows closest to them) down to k cluster centers
+              centers = recluster(centers, sqr._counts, rand, k, _parms._init, _isCats);
+            } finally {
+              Futures fs = new Futures();
+              vecsInit[vecs.length].remove(fs);
+              vecsInit[vecs.length + 1].remove(fs);
+              fs.blockForPending();
             }
           }
-          // Recluster down to k cluster centers
-          centers = recluster(centers, rand, k, _parms._init, _isCats);
           model._output._iterations = 0; // Reset iteration count
         }
       }
@@ -288,8 +330,11 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         model._output._normMul = mults;
         model._output._mode = impute_cat;
         // Initialize cluster centers and standardize if requested
+        long initStart = System.currentTimeMillis();
         double[][] centers = initial_centers(model,vecs,means,mults,impute_cat, startK);
         if( centers==null ) return; // Stopped/cancelled during center-finding
+        model._output._init_time_ms = System.currentTimeMillis() - initStart;
+        Log.info("KMeans: initialized " + centers.length + " cluster centers in " + PrettyPrint.msecs(model._output._init_time_ms, true));
         boolean work_unit_iter = !_parms._estimate_k;
         boolean constrained = _parms._cluster_size_constraints != null;
         
@@ -302,10 +347,17 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           Log.info("Cutoff for relative improvement in within_cluster_sum_of_squares: " + rel_improvement_cutoff);
 
         Vec[] vecs2;
+        Vec[] vecsBounded = null; // data (+ weight column) + lower bound + assignment, for the Hamerly method
+        double[][] boundCenters = null; // centers the bounds were computed for
         long csum = 0;
         if(!constrained) {
           vecs2 = Arrays.copyOf(vecs, vecs.length+1);
           vecs2[vecs2.length-1] = vecs2[0].makeCon(-1);
+          if (_parms._kmeans_method == Method.Hamerly) {
+            vecsBounded = Arrays.copyOf(vecs, vecs.length+2);
+            vecsBounded[vecs.length] = vecs[0].makeCon(0);
+            vecsBounded[vecs.length+1] = vecs2[vecs2.length-1];
+          }
         } else {
           int newVecLength = vecs.length + 2 * centers.length + 3; // data (+ weight column) + distances + edge indices + result distance + old assignment + new assignment
           vecs2 = Arrays.copyOf(vecs, newVecLength);
@@ -327,12 +379,20 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             Log.info("Running Constrained K-means iteration for " + k + " centroids.");
           }
           model._output._iterations = 0;  // Loop ends only when iterations > max_iterations with strict inequality
+          if (_parms._kmeans_method == Method.MiniBatch) {
+            Log.info("Running mini-batch iterations with " + _parms._mini_batch_size + " rows per mini-batch.");
+            centers = miniBatchCenters(model, centers, vecs, means, mults, impute_cat);
+          }
           double[][] lo=null, hi=null;
           boolean stop = false;
           do {
             assert(centers.length == k);
             IterationTask task;
-            if(!constrained) {
+            if(vecsBounded != null) {
+              //Lloyds algorithm, with Hamerly's bounds
+              task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol(), boundCenters).doAll(vecsBounded); //1 PASS OVER THE DATA
+              boundCenters = ArrayUtils.deepClone(centers);
+            } else if(!constrained) {
               //Lloyds algorithm
               task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs2); //1 PASS OVER THE DATA
             }  else {
@@ -377,7 +437,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             }
 
             stop = (task._reassigned_count < Math.max(1,train().numRows()*TOLERANCE) ||
-                    model._output._iterations >= _parms._max_iterations || stop_requested());
+                    model._output._iterations >= _parms._max_iterations || stop_requested() ||
+                    _parms._kmeans_method == Method.MiniBatch); // a single full pass after the mini-batch iterations
             if (stop) {
               if (model._output._iterations < _parms._max_iterations)
                 Log.info("K-means converged after " + model._output._iterations + " iterations.");
@@ -413,6 +474,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             centers = splitLargestCluster(centers, lo, hi, means, mults, impute_cat, vecs2, k);
         } //k-finder
         vecs2[vecs2.length-1].remove();
+        if (vecsBounded != null) vecsBounded[vecs.length].remove();
         
         // Create metrics by scoring on training set otherwise scores are based on last Lloyd iteration
         // These lines cause the training metrics are recalculated on strange model values.
@@ -442,6 +504,41 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       }
     }
 
+    // Mini-batch K-Means: update the centers from random samples of (about) mini_batch_size rows, every center moves
+    // towards the mean of its sampled rows with a learning rate of (sampled rows)/(all rows assigned to it so far).
+    // Runs until max_iterations-1 mini-batches are done or the centers stop moving, and returns the new centers.
+    double[][] miniBatchCenters(KMeansModel model, double[][] centers, Vec[] vecs, double[] means, double[] mults, int[] modes) {
+      final int k = centers.length;
+      final double fraction = Math.min(1.0, (double) _parms._mini_batch_size / _train.numRows());
+      final long seed = _parms.getOrMakeRealSeed();
+      centers = ArrayUtils.deepClone(centers);
+      long[] counts = new long[k];
+      long[][][] cats = null;
+      while (model._output._iterations < _parms._max_iterations - 1) {
+        MiniBatchTask task = new MiniBatchTask(centers, means, mults, modes, _isCats, k, hasWeightCol(), fraction,
+                seed + model._output._iterations * _train.numRows()).doAll(vecs);
+        if (cats == null) cats = task._cats;
+        else ArrayUtils.add(cats, task._cats);
+        double maxShift = 0;
+        for (int clu = 0; clu < k; clu++) {
+          if (task._size[clu] == 0) continue;
+          final double[] old = centers[clu].clone();
+          counts[clu] += task._size[clu];
+          final double eta = (double) task._size[clu] / counts[clu];
+          for (int col = 0; col < old.length; col++)
+            centers[clu][col] = _isCats[col] != null ? ArrayUtils.maxIndex(cats[clu][col])
+                    : centers[clu][col] + eta * (task._cMeans[clu][col] - centers[clu][col]);
+          maxShift = Math.max(maxShift, hex.genmodel.GenModel.KMeans_distance(old, centers[clu], _isCats));
+        }
+        model._output._iterations++;
+        model._output._centers_raw = destandardize(centers, _isCats, means, mults);
+        model.update(_job); // Make early version of model visible
+        _job.update(1);
+        if ((ArrayUtils.sum(task._size) > 0 && maxShift < TOLERANCE * TOLERANCE) || stop_requested()) break;
+      }
+      return centers;
+    }
+
     double[][] splitLargestCluster(double[][] centers, double[][] lo, double[][] hi, double[] means, double[] mults, int[] impute_cat, Vec[] vecs2, int k) {
       double[][] newCenters = Arrays.copyOf(centers, centers.length + 1);
       for (int i = 0; i < centers.length; ++i)
@@ -595,49 +692,74 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   }
 
   // -------------------------------------------------------------------------
-  // Initial sum-of-square-distance to nearest cluster center
+  // Sum-of-square-distance to nearest candidate cluster center (k-means||).
+  // The last two columns hold the square distance to, and the index of, the
+  // closest candidate found so far; only the distances to the newly added
+  // candidates are computed.
   private static class SumSqr extends MRTask<SumSqr> {
     // IN
-    double[][] _centers;
+    double[][] _centers;     // Candidates added in the last round
+    final int _offset;       // Index of the first of them among all candidates
     double[] _means, _mults; // Standardization
     int[] _modes;   // Imputation of missing categoricals
     final String[][] _isCats;
+    final boolean _hasWeight;
 
     // OUT
     double _sqr;
+    double[] _counts; // Number of rows closest to each candidate
 
-    SumSqr( double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats ) {
+    SumSqr( double[][] centers, int offset, double[] means, double[] mults, int[] modes, String[][] isCats, boolean hasWeight ) {
       _centers = centers;
+      _offset = offset;
       _means = means;
       _mults = mults;
       _modes = modes;
       _isCats = isCats;
+      _hasWeight = hasWeight;
     }
 
     @Override public void map(Chunk[] cs) {
-      double[] values = new double[cs.length];
+      int N = cs.length - (_hasWeight?1:0) - 2;
+      Chunk dist = cs[cs.length-2];
+      Chunk cluster = cs[cs.length-1];
+      double[] values = new double[N];
+      _counts = new double[_offset + _centers.length];
       ClusterDist cd = new ClusterDist();
       for( int row = 0; row < cs[0]._len; row++ ) {
+        double weight = _hasWeight ? cs[N].atd(row) : 1;
+        if (weight == 0) continue; //skip holdout rows
         data(values, cs, row, _means, _mults, _modes);
-        _sqr += minSqr(_centers, values, _isCats, cd);
+        double sqr = dist.atd(row);
+        int clu = (int) cluster.at8(row);
+        closest(_centers, values, _isCats, cd);
+        if( cd._dist < sqr ) {
+          sqr = cd._dist;
+          clu = _offset + cd._cluster;
+          dist.set(row, sqr);
+          cluster.set(row, clu);
+        }
+        _sqr += weight * sqr;
+        _counts[clu] += weight;
       }
       _means = _mults = null;
       _modes = null;
       _centers = null;
     }
 
-    @Override public void reduce(SumSqr other) { _sqr += other._sqr; }
+    @Override public void reduce(SumSqr other) {
+      _sqr += other._sqr;
+      ArrayUtils.add(_counts, other._counts);
+    }
   }
 
   // -------------------------------------------------------------------------
   // Sample rows with increasing probability the farther they are from any
-  // cluster center.
+  // candidate cluster center (the square distances are cached by SumSqr).
   private static class Sampler extends MRTask<Sampler> {
     // IN
-    double[][] _centers;
     double[] _means, _mults; // Standardization
     int[] _modes;     // Imputation of missing categoricals
-    final String[][] _isCats;
     final double _sqr;           // Min-square-error
     final double _probability;   // Odds to select this point
     final long _seed;
@@ -646,12 +768,10 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     // OUT
     double[][] _sampled;   // New cluster centers
 
-    Sampler( double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, double sqr, double prob, long seed, boolean hasWeight ) {
-      _centers = centers;
+    Sampler( double[] means, double[] mults, int[] modes, double sqr, double prob, long seed, boolean hasWeight ) {
       _means = means;
       _mults = mults;
       _modes = modes;
-      _isCats = isCats;
       _sqr = sqr;
       _probability = prob;
       _seed = seed;
@@ -659,23 +779,24 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     }
 
     @Override public void map(Chunk[] cs) {
-      int N = cs.length - (_hasWeight?1:0);
+      int N = cs.length - (_hasWeight?1:0) - 2;
+      Chunk dist = cs[cs.length-2];
       double[] values = new double[N];
       ArrayList<double[]> list = new ArrayList<>();
       Random rand = RandomUtils.getRNG(0);
-      ClusterDist cd = new ClusterDist();
 
       for( int row = 0; row < cs[0]._len; row++ ) {
+        double weight = _hasWeight ? cs[N].atd(row) : 1;
+        if (weight == 0) continue; //skip holdout rows
         rand.setSeed(_seed + cs[0].start()+row);
-        data(values, cs, row, _means, _mults, _modes);
-        double sqr = minSqr(_centers, values, _isCats, cd);
-        if( _probability * sqr > rand.nextDouble() * _sqr )
+        if( _probability * weight * dist.atd(row) > rand.nextDouble() * _sqr ) {
+          data(values, cs, row, _means, _mults, _modes);
           list.add(values.clone());
+        }
       }
 
       _sampled = new double[list.size()][];
       list.toArray(_sampled);
-      _centers = null;
       _means = _mults = null;
       _modes = null;
     }
@@ -723,13 +844,55 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   //   Compute total sqr distance
 
   private static class LloydsIterationTask extends IterationTask {
-    
+    // Hamerly's bounds (only if the frame has a lower bound column in front of the assignment column)
+    final boolean _bounds;
+    double[] _shift;            // Distance each center moved since the bounds were computed, null to (re)initialize the bounds
+    double[] _halfSep;          // Half the distance from each center to its closest other center
+    double _maxShift, _maxShift2; // Largest and second largest center movement
+    int _maxShiftCluster;       // Center with the largest movement
+
     LloydsIterationTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight ) {
       super(centers, means, mults, modes, isCats, k, hasWeight);
+      _bounds = false;
+    }
+
+    /**
+     * Lloyd's pass using (and updating) Hamerly's bounds: the frame contains a column with a lower bound on the distance of
+     * each row to its second closest center, followed by the assignment column. The upper bound (distance to the assigned
+     * center) is computed exactly for every row, which keeps all statistics exact; the distances to the other centers are
+     * only computed if the lower bound (or half the distance between the assigned center and its closest other center)
+     * does not rule them out. The result is the same as for the plain Lloyd's pass.
+     * @param boundCenters centers the bounds in the frame were computed for (by the previous pass), or null
+     */
+    LloydsIterationTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight, double[][] boundCenters) {
+      super(centers, means, mults, modes, isCats, k, hasWeight);
+      _bounds = true;
+      if (boundCenters != null && boundCenters.length == centers.length) {
+        _shift = new double[k];
+        _maxShiftCluster = -1;
+        for (int clu = 0; clu < k; clu++) {
+          _shift[clu] = Math.sqrt(hex.genmodel.GenModel.KMeans_distance(boundCenters[clu], centers[clu], isCats));
+          if (_shift[clu] > _maxShift) {
+            _maxShift2 = _maxShift;
+            _maxShift = _shift[clu];
+            _maxShiftCluster = clu;
+          } else if (_shift[clu] > _maxShift2) {
+            _maxShift2 = _shift[clu];
+          }
+        }
+      }
+      _halfSep = new double[k];
+      Arrays.fill(_halfSep, Double.MAX_VALUE);
+      for (int a = 0; a < k; a++)
+        for (int b = a + 1; b < k; b++) {
+          double d = 0.5 * Math.sqrt(hex.genmodel.GenModel.KMeans_distance(centers[a], centers[b], isCats));
+          _halfSep[a] = Math.min(_halfSep[a], d);
+          _halfSep[b] = Math.min(_halfSep[b], d);
+        }
     }
 
     @Override public void map(Chunk[] cs) {
-      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/;
+      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/ - (_bounds ? 1 : 0) /*lower bound*/;
       assert _centers[0].length==N;
       _lo = new double[_k][N];
       for( int clu=0; clu< _k; clu++ )
@@ -748,6 +911,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       _worst_err = 0;
 
       Chunk assignment = cs[cs.length-1];
+      Chunk lower = _bounds ? cs[cs.length-2] : null;
       // Find closest cluster center for each row
       double[] values = new double[N]; // Temp data to hold row as doubles
       ClusterDist cd = new ClusterDist();
@@ -756,21 +920,20 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         if (weight == 0) continue; //skip holdout rows
         assert(weight == 1); //K-Means only works for weight 1 (or weight 0 for holdout)
         data(values, cs, row, _means, _mults, _modes); // Load row as doubles
-        closest(_centers, values, _isCats, cd); // Find closest cluster center
+        if (_bounds)
+          closestBounded(values, (int) assignment.at8(row), lower, row, cd);
+        else
+          closest(_centers, values, _isCats, cd); // Find closest cluster center
         if (cd._cluster != assignment.at8(row)) {
           _reassigned_count+=weight;
           assignment.set(row, cd._cluster);
         }
-        for( int clu=0; clu< _k; clu++ ) {
-          for( int col=0; col<N; col++ ) {
-            if (cd._cluster == clu) {
-              _lo[clu][col] = Math.min(values[col], _lo[clu][col]);
-              _hi[clu][col] = Math.max(values[col], _hi[clu][col]);
-            }
-          }
-        }
         int clu = cd._cluster;
         assert clu != -1;       // No broken rows
+        for( int col=0; col<N; col++ ) {
+          _lo[clu][col] = Math.min(values[col], _lo[clu][col]);
+          _hi[clu][col] = Math.max(values[col], _hi[clu][col]);
+        }
         _cSqr[clu] += cd._dist;
 
         // Add values and increment counter for chosen cluster
@@ -789,6 +952,44 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       _centers = null;
       _means = _mults = null;
       _modes = null;
+      _shift = _halfSep = null;
+    }
+
+    /**
+     * Nearest center of a row, using and updating its lower bound on the distance to the second closest center
+     * @param values row
+     * @param clu center the row was assigned to by the previous pass (if its bounds are valid)
+     * @param lower lower bound column
+     */
+    private void closestBounded(double[] values, int clu, Chunk lower, int row, ClusterDist cd) {
+      if (_shift != null && clu >= 0) {
+        final double dist = hex.genmodel.GenModel.KMeans_distance(_centers[clu], values, _isCats);
+        // distances to all other centers decreased by at most their movement
+        final double l = lower.atd(row) - (clu == _maxShiftCluster ? _maxShift2 : _maxShift);
+        // strict inequality (with some slack for rounding) - ties are resolved by the full search, as in closest()
+        if (Math.sqrt(dist) < (1 - BOUND_SLACK) * Math.max(l, _halfSep[clu])) {
+          lower.set(row, l);
+          cd._cluster = clu;
+          cd._dist = dist;
+          return;
+        }
+      }
+      // full search: nearest and second nearest center
+      int min = -1;
+      double minSqr = Double.MAX_VALUE, minSqr2 = Double.MAX_VALUE;
+      for( int cluster = 0; cluster < _k; cluster++ ) {
+        double sqr = hex.genmodel.GenModel.KMeans_distance(_centers[cluster], values, _isCats);
+        if( sqr < minSqr ) {
+          minSqr2 = minSqr;
+          min = cluster;
+          minSqr = sqr;
+        } else if( sqr < minSqr2 ) {
+          minSqr2 = sqr;
+        }
+      }
+      lower.set(row, Math.sqrt(minSqr2));
+      cd._cluster = min;
+      cd._dist = minSqr;
     }
 
     @Override public void reduce(IterationTask mr) {
@@ -815,6 +1016,79 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     }
   }
 
+  // ---------------------------------------
+  // A mini-batch pass:
+  //   Sample rows with probability fraction
+  //   Find nearest cluster center for every sampled row
+  //   Compute mean & rows (and cat histograms) of the sampled rows of each cluster
+
+  private static class MiniBatchTask extends IterationTask {
+    final double _fraction;
+    final long _seed;
+
+    MiniBatchTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight, double fraction, long seed) {
+      super(centers, means, mults, modes, isCats, k, hasWeight);
+      _fraction = fraction;
+      _seed = seed;
+    }
+
+    @Override public void map(Chunk[] cs) {
+      int N = cs.length - (_hasWeight ? 1:0);
+      assert _centers[0].length==N;
+      _cMeans = new double[_k][N];
+      _cSqr = new double[_k];
+      _size = new long[_k];
+      _cats = new long[_k][N][];
+      for( int clu=0; clu< _k; clu++ )
+        for( int col=0; col<N; col++ )
+          _cats[clu][col] = _isCats[col]==null ? null : new long[cs[col].vec().cardinality()];
+
+      Random rand = RandomUtils.getRNG(_seed + cs[0].start());
+      final double logq = Math.log1p(-_fraction);
+      double[] values = new double[N];
+      ClusterDist cd = new ClusterDist();
+      // the gaps between sampled rows are geometrically distributed - only the sampled rows are visited
+      for( int row = nextSample(rand, logq, -1, cs[0]._len); row < cs[0]._len; row = nextSample(rand, logq, row, cs[0]._len) ) {
+        double weight = _hasWeight ? cs[N].atd(row) : 1;
+        if (weight == 0) continue; //skip holdout rows
+        data(values, cs, row, _means, _mults, _modes);
+        closest(_centers, values, _isCats, cd);
+        int clu = cd._cluster;
+        _cSqr[clu] += cd._dist;
+        for( int col = 0; col < N; col++ )
+          if( _isCats[col] != null )
+            _cats[clu][col][(int)values[col]]++;
+          else
+            _cMeans[clu][col] += values[col];
+        _size[clu]++;
+      }
+      for( int clu = 0; clu < _k; clu++ )
+        if( _size[clu] != 0 ) ArrayUtils.div(_cMeans[clu], _size[clu]);
+      _centers = null;
+      _means = _mults = null;
+      _modes = null;
+    }
+
+    private static int nextSample(Random rand, double logq, int row, int len) {
+      final double gap = Math.floor(Math.log(1 - rand.nextDouble()) / logq);
+      return gap < len - row - 1 ? row + 1 + (int) gap : len;
+    }
+
+    @Override public void reduce(IterationTask mr) {
+      for( int clu = 0; clu < _k; clu++ ) {
+        long ra =    _size[clu];
+        long rb = mr._size[clu];
+        double[] ma =    _cMeans[clu];
+        double[] mb = mr._cMeans[clu];
+        for( int c = 0; c < ma.length; c++ ) // Recursive mean
+          if( ra+rb > 0 ) ma[c] = (ma[c] * ra + mb[c] * rb) / (ra + rb);
+      }
+      ArrayUtils.add(_cats, mr._cats);
+      ArrayUtils.add(_cSqr, mr._cSqr);
+      ArrayUtils.add(_size, mr._size);
+    }
+  }
+
   private static class CalculateDistancesTask extends MRTask<CalculateDistancesTask> {
     // IN
     double[][] _centers;
@@ -964,14 +1238,6 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   // A pair result: nearest cluster center and the square distance
   private static final class ClusterDist { int _cluster; double _dist;  }
 
-  private static double minSqr(double[][] centers, double[] point, String[][] isCats, ClusterDist cd) {
-    return closest(centers, point, isCats, cd, centers.length)._dist;
-  }
-
-  private static double minSqr(double[][] centers, double[] point, String[][] isCats, ClusterDist cd, int count) {
-    return closest(centers,point,isCats,cd,count)._dist;
-  }
-
   private static ClusterDist closest(double[][] centers, double[] point, String[][] isCats, ClusterDist cd) {
     return closest(centers, point, isCats, cd, centers.length);
   }
@@ -1001,47 +1267,98 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     return distances;
   }
 
-  // KMeans++ re-clustering
-  private static double[][] recluster(double[][] points, Random rand, int N, Initialization init, String[][] isCats) {
+  // Weighted KMeans++ (or furthest-first) re-clustering of the k-means|| candidates, followed by weighted Lloyd
+  // iterations over the candidates
+  private static double[][] recluster(double[][] points, double[] weights, Random rand, int N, Initialization init, String[][] isCats) {
     double[][] res = new double[N][];
     res[0] = points[0];
     int count = 1;
-    ClusterDist cd = new ClusterDist();
-    switch( init ) {
-      case Random:
-        break;
-      case PlusPlus: { // k-means++
-        while( count < res.length ) {
+    // Square distance of every point to the closest center chosen so far
+    double[] minSqr = new double[points.length];
+    for( int i = 0; i < points.length; i++ )
+      minSqr[i] = hex.genmodel.GenModel.KMeans_distance(res[0], points[i], isCats);
+    while( count < res.length ) {
+      int index = 0;
+      switch( init ) {
+        case PlusPlus: { // k-means++, the candidates are weighted by the number of rows they represent
           double sum = 0;
-          for (double[] point1 : points) sum += minSqr(res, point1, isCats, cd, count);
-
-          for (double[] point : points) {
-            if (minSqr(res, point, isCats, cd, count) >= rand.nextDouble() * sum) {
-              res[count++] = point;
-              break;
-            }
+          for( int i = 0; i < points.length; i++ ) sum += weights[i] * minSqr[i];
+          double r = rand.nextDouble() * sum;
+          for( int i = 0; i < points.length; i++ ) {
+            if( weights[i] * minSqr[i] == 0 ) continue;
+            index = i;
+            if( (r -= weights[i] * minSqr[i]) <= 0 ) break;
           }
+          break;
         }
-        break;
-      }
-      case Furthest: { // Takes cluster center further from any already chosen ones
-        while( count < res.length ) {
+        case Furthest: { // Takes cluster center further from any already chosen ones
           double max = 0;
-          int index = 0;
           for( int i = 0; i < points.length; i++ ) {
-            double sqr = minSqr(res, points[i], isCats, cd, count);
-            if( sqr > max ) {
-              max = sqr;
+            if( weights[i] > 0 && minSqr[i] > max ) {
+              max = minSqr[i];
               index = i;
             }
           }
-          res[count++] = points[index];
+          break;
+        }
+        default:  throw H2O.fail();
+      }
+      res[count++] = points[index];
+      for( int i = 0; i < points.length; i++ )
+        minSqr[i] = Math.min(minSqr[i], hex.genmodel.GenModel.KMeans_distance(points[index], points[i], isCats));
+    }
+    return lloyds(res, points, weights, isCats, RECLUSTER_ITERATIONS);
+  }
+
+  // Weighted Lloyd iterations over a small set of points (on the driver)
+  private static double[][] lloyds(double[][] centers, double[][] points, double[] weights, String[][] isCats, int maxIterations) {
+    final int K = centers.length;
+    final int N = centers[0].length;
+    int[] card = new int[N]; // Number of levels seen for each categorical column
+    for( double[] point : points )
+      for( int col = 0; col < N; col++ )
+        if( isCats[col] != null )
+          card[col] = Math.max(card[col], (int) point[col] + 1);
+    int[] assignment = new int[points.length];
+    Arrays.fill(assignment, -1);
+    ClusterDist cd = new ClusterDist();
+    for( int iter = 0; iter < maxIterations; iter++ ) {
+      boolean changed = false;
+      for( int i = 0; i < points.length; i++ ) {
+        int clu = closest(centers, points[i], isCats, cd)._cluster;
+        if( clu != assignment[i] ) {
+          assignment[i] = clu;
+          changed = true;
+        }
+      }
+      if( !changed ) break;
+      double[][] sums = new double[K][N];
+      double[][][] cats = new double[K][N][];
+      double[] size = new double[K];
+      for( int i = 0; i < points.length; i++ ) {
+        int clu = assignment[i];
+        size[clu] += weights[i];
+        for( int col = 0; col < N; col++ ) {
+          if( isCats[col] != null ) {
+            if( cats[clu][col] == null ) cats[clu][col] = new double[card[col]];
+            cats[clu][col][(int) points[i][col]] += weights[i];
+          } else
+            sums[clu][col] += weights[i] * points[i][col];
         }
-        break;
       }
-      default:  throw H2O.fail();
+      double[][] next = new double[K][];
+      for( int clu = 0; clu < K; clu++ ) {
+        if( size[clu] == 0 ) { // Keep the centers which do not represent any row
+          next[clu] = centers[clu];
+          continue;
+        }
+        next[clu] = new double[N];
+        for( int col = 0; col < N; col++ )
+          next[clu][col] = isCats[col] != null ? ArrayUtils.maxIndex(cats[clu][col]) : sums[clu][col] / size[clu];
+      }
+      centers = next;
     }
-    return res;
+    return centers;
   }
 
   private void randomRow(Vec[] vecs, Random rand, double[] center, double[] means, double[] mults, int[] modes) {
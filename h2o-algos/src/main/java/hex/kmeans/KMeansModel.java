@@ -40,6 +40,8 @@ public class KMeansModel extends ClusteringModel<KMeansModel,KMeansModel.KMeansP
                                               // Ex: k = 4, cluster = 3 -> [0, 0, 1, 0]
     public boolean _estimate_k = false;       // If enabled, iteratively find up to _k clusters
     public int[] _cluster_size_constraints = null;
+    public KMeans.Method _kmeans_method = KMeans.Method.Lloyd; // Plain Lloyds iterations, with Hamerly's bounds, or mini-batches
+    public int _mini_batch_size = 10000;      // Number of rows sampled per mini-batch (MiniBatch method only)
   }
 
   public static class KMeansOutput extends ClusteringModel.ClusteringOutput {
@@ -67,6 +69,9 @@ public class KMeansModel extends ClusteringModel<KMeansModel,KMeansModel.KMeansP
     public double[/*iterations*/] _reassigned_count = new double[]{Double.NaN};
     public int[/*iterations*/] _k = new int[]{0};
 
+    // Time spent initializing the cluster centers
+    public long _init_time_ms;
+
     public KMeansOutput( KMeans b ) { super(b); }
   }
 
@@ -20,6 +20,7 @@ import water.H2O;
 import water.HeartBeat;
 import water.Job;
 import water.fvec.Frame;
+import water.fvec.Vec;
 import water.rapids.Rapids;
 import water.util.PrettyPrint;
 import water.util.TwoDimTable;
@@ -114,8 +115,22 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
     _ncolExp = hex.util.LinearAlgebraUtils.numColsExp(_train,_parms._use_all_factor_levels);
     // if (_ncolExp < 2) error("_train", "_train must have more than one column when categoricals are expanded");
 
+    PCAModel checkpoint = null;
+    if (_parms.hasCheckpoint() && DKV.get(_parms._checkpoint) != null) {
+      if (!(_parms._checkpoint.get() instanceof PCAModel)) {
+        error("_checkpoint", "Checkpoint has to point to an existing PCA model.");
+        return;
+      }
+      checkpoint = (PCAModel) _parms._checkpoint.get();
+      if (_parms._k < 1) {
+        _parms._k = checkpoint._parms._k;
+      }
+      validateCheckpoint(checkpoint);
+    }
+
     // TODO: Initialize _parms._k = min(ncolExp(_train), nrow(_train)) if not set
-    int k_min = (int)Math.min(_ncolExp, _train.numRows());
+    long nrows = _train.numRows() + (checkpoint != null ? checkpoint._output._nobs : 0);
+    int k_min = (int)Math.min(_ncolExp, nrows);
     if (_parms._k < 1) {
       _parms._k = k_min;
       warn("_k", "_k is set to be "+k_min);
@@ -133,6 +148,36 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
     }
   }
 
+  /**
+   * Incremental PCA: the checkpoint model is updated with the rows of the training frame, the training frame has to
+   * be described the same way as the data the checkpoint model was built on.
+   */
+  private void validateCheckpoint(PCAModel checkpoint) {
+    PCAParameters cp = checkpoint._parms;
+    if (_parms._transform != DataInfo.TransformType.NONE && _parms._transform != DataInfo.TransformType.DEMEAN &&
+            _parms._transform != DataInfo.TransformType.STANDARDIZE) {
+      error("_transform", "Updating a PCA model from a checkpoint is only supported for transform NONE, DEMEAN " +
+              "and STANDARDIZE.");
+    }
+    if (_parms._transform != cp._transform) {
+      error("_transform", "transform has to match the checkpoint model (" + cp._transform + ").");
+    }
+    if (_parms._use_all_factor_levels != cp._use_all_factor_levels) {
+      error("_use_all_factor_levels", "use_all_factor_levels has to match the checkpoint model.");
+    }
+    if (_parms._k > cp._k) {
+      error("_k", "_k cannot be larger than the k of the checkpoint model (" + cp._k + ").");
+    }
+    if (_ncolExp != checkpoint._output._eigenvectors_raw.length) {
+      error("_train", "The expanded training frame has " + _ncolExp + " columns, the checkpoint model was built " +
+              "on " + checkpoint._output._eigenvectors_raw.length + ".");
+    }
+    if (_parms._pca_method != PCAParameters.Method.GramSVD) {
+      info("_pca_method", "The checkpoint model is updated from the Gram matrix of the new rows, pca_method " +
+              "is ignored.");
+    }
+  }
+
   class PCADriver extends Driver {
 
     protected void buildTables(PCAModel pca, String[] rowNames) {
@@ -220,6 +265,11 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
 
     protected void computeStatsFillModel(PCAModel pca, DataInfo dinfo, double[] sval,
                                          double[][] eigvec, Gram gram, long nobs) {
+      computeStatsFillModel(pca, dinfo, sval, eigvec, gram.diagSum(), nobs);
+    }
+
+    protected void computeStatsFillModel(PCAModel pca, DataInfo dinfo, double[] sval,
+                                         double[][] eigvec, double diagSum, long nobs) {
       // Save adapted frame info for scoring later
       pca._output._normSub = dinfo._normSub == null ? new double[dinfo._nums] : dinfo._normSub;
       if(dinfo._normMul == null) {
@@ -244,10 +294,113 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
       for(int i = 0; i < eigvec.length; i++) {
         System.arraycopy(eigvec[i], 0, pca._output._eigenvectors_raw[i], 0, _parms._k);
       }
-      pca._output._total_variance = dfcorr * gram.diagSum();  // Since gram = X'X/n, but variance requires n-1 in denominator
+      pca._output._total_variance = dfcorr * diagSum;  // Since gram = X'X/n, but variance requires n-1 in denominator
       buildTables(pca, dinfo.coefNames());
     }
   
+    /**
+     * Incremental PCA: merge the rows of the training frame into the principal components of the checkpoint model.
+     * The column means and standard deviations are pooled exactly, the old rows are represented by the k components
+     * of the checkpoint model (re-expressed in the pooled transformation), the new rows by their Gram matrix. The
+     * work is proportional to the number of new rows only.
+     */
+    private void updateCheckpointModel(PCAModel model, DataInfo dinfo) throws Exception {
+      final PCAModel checkpoint = (PCAModel) _parms._checkpoint.get();
+      final long nOld = checkpoint._output._nobs;
+      final int p = _ncolExp;
+      final int numStart = dinfo.numStart();
+      final int nnums = dinfo._nums;
+      final boolean center = _parms._transform != DataInfo.TransformType.NONE;
+      final boolean scale = _parms._transform == DataInfo.TransformType.STANDARDIZE;
+      final double[] subOld = checkpoint._output._normSub == null ? new double[nnums] : checkpoint._output._normSub;
+      final double[] mulOld = checkpoint._output._normMul;
+
+      // Pool the means and standard deviations of the numeric columns
+      _job.update(1, "Merging column statistics with the checkpoint model");
+      double[] sub = new double[nnums];
+      double[] mul = new double[nnums];
+      Arrays.fill(mul, 1.0);
+      for (int j = 0; j < nnums; j++) {
+        double mo = mulOld == null ? 1.0 : mulOld[j];
+        Vec v = dinfo._adaptedFrame.vec(dinfo._cats + j);
+        long nB = v.length() - v.naCnt();
+        if (nB == 0) {
+          sub[j] = center ? subOld[j] : 0;
+          mul[j] = scale ? mo : 1.0;
+          continue;
+        }
+        long n = nOld + nB;
+        if (center)
+          sub[j] = (nOld * subOld[j] + nB * v.mean()) / n;
+        if (scale) {
+          double delta = subOld[j] - v.mean();
+          double var = ((nOld - 1) / (mo * mo) + (nB - 1) * v.sigma() * v.sigma()
+                  + (double) nOld * nB / n * delta * delta) / (n - 1);
+          mul[j] = var > 0 ? 1.0 / Math.sqrt(var) : 1.0;
+        }
+      }
+      if (center) dinfo._normSub = sub;
+      if (scale) dinfo._normMul = mul;
+      DKV.put(dinfo._key, dinfo);
+
+      // NOTE: Gram computes A'A/n of the new rows, transformed with the pooled statistics
+      _job.update(1, "Begin distributed calculation of Gram matrix of the new rows");
+      GramTask gtsk = new GramTask(_job._key, dinfo).doAll(dinfo._adaptedFrame);
+      final long nB = gtsk._nobs;
+      final long n = nOld + nB;
+      if (nB == 0) {
+        error("_train", "All rows of _train contain missing values. Consider setting impute_missing = TRUE.");
+        throw new IllegalArgumentException("Found validation errors: " + validationErrors());
+      }
+      double[][] xx = gtsk._gram.getXX();
+
+      // An old row z is transformed to r*z + t with the pooled statistics (r = 1, t = 0 for categorical columns).
+      // The column sums of the old rows vanish for centered numeric columns, the old categorical level counts are
+      // not kept in the model and are estimated from the level frequencies of the new rows.
+      double[] r = new double[p];
+      double[] t = new double[p];
+      double[] sumOld = new double[p];
+      Arrays.fill(r, 1.0);
+      for (int j = 0; j < nnums; j++) {
+        double mo = mulOld == null ? 1.0 : mulOld[j];
+        r[numStart + j] = mul[j] / mo;
+        t[numStart + j] = (subOld[j] - sub[j]) * mul[j];
+      }
+      for (int c = 0; c < numStart; c++)
+        sumOld[c] = nOld * xx[c][c];
+
+      final double[][] eigvecOld = checkpoint._output._eigenvectors_raw;
+      final double[] stdOld = checkpoint._output._std_deviation;
+      double[][] gramMatrix = new double[p][p];
+      for (int a = 0; a < p; a++) {
+        for (int b = 0; b <= a; b++) {
+          double zz = 0;
+          for (int i = 0; i < stdOld.length; i++)
+            zz += eigvecOld[a][i] * eigvecOld[b][i] * stdOld[i] * stdOld[i];
+          double g = r[a] * r[b] * (nOld - 1) * zz + r[a] * sumOld[a] * t[b] + t[a] * sumOld[b] * r[b]
+                  + nOld * t[a] * t[b] + nB * xx[a][b];
+          gramMatrix[a][b] = gramMatrix[b][a] = g / n;
+        }
+      }
+      // The total variance is kept exactly, including the part outside of the checkpoint's components
+      double diagSum = (nOld - 1) * checkpoint._output._total_variance;
+      for (int a = 0; a < p; a++) {
+        if (scale && a >= numStart)
+          diagSum += (r[a] * r[a] - 1) * (nOld - 1);
+        diagSum += nOld * t[a] * t[a] + nB * xx[a][a];
+      }
+
+      _job.update(1, "Calculating SVD of the merged Gram matrix locally");
+      PCAInterface svd = PCAImplementationFactory.createSVDImplementation(gramMatrix, _parms._pca_implementation);
+      model._output._nobs = n;
+      computeStatsFillModel(model, dinfo, svd.getVariances(), svd.getPrincipalComponents(), diagSum / n, n);
+      model._output._training_time_ms.add(System.currentTimeMillis());
+      LinkedHashMap<String, ArrayList> scoreTable = new LinkedHashMap<>();
+      scoreTable.put("Timestamp", model._output._training_time_ms);
+      model._output._scoring_history = createScoringHistoryTableDR(scoreTable,
+              "Scoring History for incremental update", _job.start_time());
+    }
+
     // Main worker thread
     @Override
     public void computeImpl() {
@@ -303,7 +456,9 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
           dinfo._normSub = tinfo._normSub;
         }
 
-        if(_parms._pca_method == PCAParameters.Method.GramSVD) {
+        if (_parms.hasCheckpoint()) {
+          updateCheckpointModel(model, dinfo);
+        } else if(_parms._pca_method == PCAParameters.Method.GramSVD) {
           // Calculate and save Gram matrix of training data
           // NOTE: Gram computes A'A/n where n = nrow(A) = number of rows in training set (excluding rows with NAs)
           _job.update(1, "Begin distributed calculation of Gram matrix");
@@ -393,11 +548,11 @@ public class PCA extends ModelBuilder<PCAModel,PCAModel.PCAParameters,PCAModel.P
           // Recover PCA results from SVD model
           _job.update(1, "Computing stats from SVD");
 
-          if (_parms._pca_method == PCAParameters.Method.Randomized) {  // okay to use it here.
+          if (_parms._pca_method == PCAParameters.Method.Randomized && _wideDataset) {  // okay to use it here.
             GramTask gtsk = new GramTask(_job._key, dinfo).doAll(dinfo._adaptedFrame);
             gram = gtsk._gram;   // TODO: This ends up with all NaNs if training data has too many missing values*/
             computeStatsFillModel(model, svd, gram);
-          } else {
+          } else {  // the blocked randomized SVD computes the total variance in its passes over the data
             computeStatsFillModel(model, svd, null);
           }
           model._output._scoring_history = svd._output._scoring_history;
@@ -66,8 +66,8 @@ public class IncompleteCholeskyFactorization {
       workspace.add("diag1", diag1);
       workspace.add("diag2", diag2);
 
+      PivotSearchTask<?> fp = new FindPivot(frame, di).doAll(workspace);
       for (int i = 0; i < n; i++) {
-        FindPivot fp = new FindPivot(frame, di).doAll(workspace);
         if (fp._trace < threshold) {
           Log.info("ICF finished before full rank was reached in iteration " + i + 
                   ". Trace value = " + fp._trace + " (convergence threshold = " + threshold + ").");
@@ -80,7 +80,9 @@ public class IncompleteCholeskyFactorization {
 
         UpdatePivot up = new UpdatePivot(icf, pivot_selected, fp).doOnRemote();
 
-        new CalculateColumn(frame, di, kernel, icf, fp._pivot_sample, up._header_row).doAll(pivot_selected, diag2, newCol);
+        // calculates the new column and searches for the pivot of the next iteration in a single pass
+        fp = new CalculateColumn(frame, di, kernel, icf, fp._pivot_sample, up._header_row)
+                .doAll(pivot_selected, diag1, diag2, newCol);
       }
     } finally {
       workspace.delete();
@@ -89,30 +91,31 @@ public class IncompleteCholeskyFactorization {
   }
 
   /**
-   * Calculate a new column of the ICF matrix
+   * Calculate a new column of the ICF matrix and find the pivot for the next column
    */
-  private static class CalculateColumn extends MRTask<CalculateColumn> {
+  private static class CalculateColumn extends PivotSearchTask<CalculateColumn> {
     // IN
-    Frame _full_frame;
-    DataInfo _dinfo;
     Kernel _kernel;
     double[] _header_row;
-    DataInfo.Row _pivot_sample;
+    DataInfo.Row _current_pivot_sample;
     Frame _icf;
 
     private CalculateColumn(Frame frame, DataInfo dinfo, Kernel kernel, 
                             Frame icf,
                             DataInfo.Row pivotSample, double[] headerRow) {
-      _full_frame = frame;
-      _dinfo = dinfo;
+      super(frame, dinfo);
       _kernel = kernel;
       _icf = icf;
-      _pivot_sample = pivotSample;
+      _current_pivot_sample = pivotSample;
       _header_row = headerRow;
     }
 
     @Override
-    public void map(Chunk pivot_selected, Chunk diag2, Chunk newColChunk) {
+    public void map(Chunk[] cs) {
+      map(cs[0], cs[1], cs[2], cs[3]);
+    }
+
+    private void map(Chunk pivot_selected, Chunk diag1, Chunk diag2, Chunk newColChunk) {
       Chunk[] icf = getLocalChunks(_icf, pivot_selected.start());
       Chunk[] frameChunks = getLocalChunks(_full_frame, pivot_selected.start());
 
@@ -135,7 +138,7 @@ public class IncompleteCholeskyFactorization {
         if (pivotSelected[i])
           continue;
         _dinfo.extractDenseRow(frameChunks, i, row);
-        newColData[i] += _kernel.calcKernelWithLabel(row, _pivot_sample);
+        newColData[i] += _kernel.calcKernelWithLabel(row, _current_pivot_sample);
       }
       for (int i = 0; i < newColChunk._len; i++) {
         if (pivotSelected[i])
@@ -149,6 +152,8 @@ public class IncompleteCholeskyFactorization {
         newColChunk.set(i, v);
         diag2.set(i, diag2.atd(i) + (v * v));
       }
+
+      searchPivot(pivot_selected, diag1, diag2);
     }
   }
   
@@ -182,7 +187,20 @@ public class IncompleteCholeskyFactorization {
   /**
    * Find new pivot and calculate a trace of Q
    */
-  private static class FindPivot extends MRTask<FindPivot> {
+  private static class FindPivot extends PivotSearchTask<FindPivot> {
+
+    FindPivot(Frame frame, DataInfo dinfo) {
+      super(frame, dinfo);
+    }
+
+    @Override
+    public void map(Chunk pivot_selected, Chunk diag1, Chunk diag2) {
+      searchPivot(pivot_selected, diag1, diag2);
+    }
+
+  }
+
+  private static abstract class PivotSearchTask<T extends PivotSearchTask<T>> extends MRTask<T> {
     // IN
     Frame _full_frame;
     DataInfo _dinfo;
@@ -193,13 +211,12 @@ public class IncompleteCholeskyFactorization {
     DataInfo.Row _pivot_sample;
     double _trace;
 
-    FindPivot(Frame frame, DataInfo dinfo) {
+    PivotSearchTask(Frame frame, DataInfo dinfo) {
       _full_frame = frame;
       _dinfo = dinfo;
     }
 
-    @Override
-    public void map(Chunk pivot_selected, Chunk diag1, Chunk diag2) {
+    final void searchPivot(Chunk pivot_selected, Chunk diag1, Chunk diag2) {
       if (diag1._len == 0)
         return;
       int idx = -1;
@@ -222,7 +239,7 @@ public class IncompleteCholeskyFactorization {
     }
 
     @Override
-    public void reduce(FindPivot mrt) {
+    public void reduce(T mrt) {
       _trace += mrt._trace;
       if ((_index == -1) || ((mrt._index != -1) && (mrt._value > _value))) {
         _index = mrt._index;
@@ -254,7 +271,7 @@ public class IncompleteCholeskyFactorization {
     // OUT
     double[] _header_row;
 
-    UpdatePivot(Frame icf, Vec pivotSelected, FindPivot fp) {
+    UpdatePivot(Frame icf, Vec pivotSelected, PivotSearchTask<?> fp) {
       _icf = icf;
       _pivot_selected = pivotSelected;
       _index = fp._index;
@@ -15,8 +15,11 @@ limitations under the License.
 */
 package hex.psvm.psvm;
 
+import water.H2O;
 import water.Iced;
+import water.LocalMR;
 import water.MemoryManager;
+import water.MrFun;
 
 class LLMatrix extends Iced<LLMatrix> {
 
@@ -78,25 +81,77 @@ class LLMatrix extends Iced<LLMatrix> {
   }
 
   LLMatrix cf() {
+    return cf(H2O.NUMCPUS);
+  }
+
+  /**
+   * Cholesky factorization (right-looking). Once a column of L is known, the trailing columns
+   * are updated independently of each other - this update is spread across nthreads local threads.
+   */
+  LLMatrix cf(int nthreads) {
     final int dim = dim();
     LLMatrix m = new LLMatrix(dim);
+    for (int i = 0; i < dim; i++) {
+      System.arraycopy(_data[i], 0, m._data[i], 0, _data[i].length);
+    }
     for (int i = 0; i < dim; ++i) {
-      for (int j = i; j < dim; ++j) {
-        double sum = get(j, i);
-        for (int k = i-1; k >= 0; --k) {
-          sum -= m.get(i, k) * m.get(j, k);
+      final double[] col = m._data[i];
+      if (col[0] <= 0) {  // sum should be larger than 0
+        throw new IllegalStateException("Only symmetric positive definite matrix can perform Cholesky factorization.");
+      }
+      final double diag = Math.sqrt(col[0]);
+      col[0] = diag;
+      for (int r = 1; r < col.length; r++) {
+        col[r] /= diag;
+      }
+      final int trailing = dim - i - 1;
+      if (trailing == 0) {
+        break;
+      }
+      final int tasks = (nthreads > 1) && ((long) trailing * trailing >= PARALLEL_UPDATE_MIN_WORK) ?
+              Math.min(nthreads, trailing) : 1;
+      TrailingUpdate update = new TrailingUpdate(m._data, i, tasks);
+      if (tasks == 1) {
+        update.map(0);
+      } else {
+        H2O.submitTask(new LocalMR(update, tasks)).join();
+      }
+    }
+    return m;
+  }
+
+  // below this size of the trailing matrix the update is faster done on a single thread
+  private static final long PARALLEL_UPDATE_MIN_WORK = 128 * 128;
+
+  /**
+   * Subtracts L[, i] * L[, i]' from the trailing columns, thread `id` takes every `stride`-th column.
+   */
+  private static class TrailingUpdate extends MrFun<TrailingUpdate> {
+    private final transient double[][] _data;
+    private final int _i;
+    private final int _stride;
+
+    TrailingUpdate(double[][] data, int i, int stride) {
+      _data = data;
+      _i = i;
+      _stride = stride;
+    }
+
+    @Override
+    protected void map(int id) {
+      final double[] col = _data[_i];
+      for (int l = _i + 1 + id; l < _data.length; l += _stride) {
+        final int off = l - _i;
+        final double lli = col[off];
+        if (lli == 0) {
+          continue;
         }
-        if (i == j) {
-          if (sum <= 0) {  // sum should be larger than 0
-            throw new IllegalStateException("Only symmetric positive definite matrix can perform Cholesky factorization.");
-          }
-          m.set(i, i, Math.sqrt(sum));
-        } else {
-          m.set(j, i, sum / m.get(i, i));
+        final double[] target = _data[l];
+        for (int r = 0; r < target.length; r++) {
+          target[r] -= col[off + r] * lli;
         }
       }
     }
-    return m;
   }
 
 }
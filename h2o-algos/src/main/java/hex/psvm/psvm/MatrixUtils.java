@@ -1,6 +1,7 @@
 package hex.psvm.psvm;
 
 import water.MRTask;
+import water.MemoryManager;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
@@ -46,19 +47,27 @@ class MatrixUtils {
     @Override
     public void map(Chunk[] cs) {
       final int column = cs.length - 1;
-      final Chunk diagonal = cs[column];
+      final int len = cs[0]._len;
+      // fetch the chunks in bulk - the inner loops would otherwise go through atd() p^2/2 times per row
+      final double[] diagonal = cs[column].getDoubles(MemoryManager.malloc8d(len), 0, len);
+      final double[][] cols = new double[column][];
+      for (int i = 0; i < column; i++) {
+        cols[i] = cs[i].getDoubles(MemoryManager.malloc8d(len), 0, len);
+      }
       _result = new double[(column + 1) * column / 2];
-      double[] buff = new double[cs[0]._len];
+      double[] buff = new double[len];
       int offset = 0;
       for (int i = 0; i < column; i++) {
         offset += i;
-        for (int p = 0; p < buff.length; p++) {
-          buff[p] = cs[i].atd(p) * diagonal.atd(p);
+        final double[] col_i = cols[i];
+        for (int p = 0; p < len; p++) {
+          buff[p] = col_i[p] * diagonal[p];
         }
         for (int j = 0; j <= i; j++) {
+          final double[] col_j = cols[j];
           double sum = 0;
-          for (int p = 0; p < buff.length; p++) {
-            sum += buff[p] * cs[j].atd(p);
+          for (int p = 0; p < len; p++) {
+            sum += buff[p] * col_j[p];
           }
           _result[offset+j] = sum;
         }
@@ -24,6 +24,7 @@ public class AggregatorV99 extends ModelBuilderSchema<Aggregator,AggregatorV99,A
             "categorical_encoding",
             "save_mapping_frame",
             "num_iteration_without_new_exemplar",
+            "approximate_exemplar_search",
 //            "pca_method",
 //            "k",
 //            "max_iterations",
@@ -64,5 +65,8 @@ public class AggregatorV99 extends ModelBuilderSchema<Aggregator,AggregatorV99,A
 
     @API(help = "The number of iterations to run before aggregator exits if the number of exemplars collected didn't change", direction = API.Direction.INOUT, level= API.Level.expert)
     public int num_iteration_without_new_exemplar;
+
+    @API(help = "Whether to find the nearest exemplar using an approximate nearest neighbour index (HNSW) instead of scanning all exemplars", direction = API.Direction.INOUT, level= API.Level.expert)
+    public boolean approximate_exemplar_search;
   }
 }
@@ -28,7 +28,8 @@ public class CoxPHV3 extends ModelBuilderSchema<CoxPH,CoxPHV3,CoxPHV3.CoxPHParam
               "interactions_only",
               "use_all_factor_levels",
               "export_checkpoints_dir",
-              "single_node_mode"
+              "single_node_mode",
+              "sort_risk_sets"
     };
 
     @API(help="Start Time Column.", direction = API.Direction.INOUT,
@@ -69,5 +70,8 @@ public class CoxPHV3 extends ModelBuilderSchema<CoxPH,CoxPHV3,CoxPHV3.CoxPHParam
     @API(level = API.Level.expert, direction = API.Direction.INOUT, help = "Run on a single node to reduce the effect of network overhead (for smaller datasets)")
     public boolean single_node_mode;
 
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, help = "Compute the risk sets from the training frame sorted by stop time instead of per-time aggregates; memory scales with the number of rows instead of distinct times x predictors (for data with many distinct event times). Not supported with a start column.")
+    public boolean sort_risk_sets;
+
   }
 }
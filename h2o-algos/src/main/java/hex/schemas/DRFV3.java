@@ -57,7 +57,8 @@ public class DRFV3 extends SharedTreeV3<DRF, DRFV3, DRFV3.DRFParametersV3> {
                 "distribution",
                 "custom_metric_func",
                 "export_checkpoints_dir",
-                "check_constant_response"
+                "check_constant_response",
+                "external_memory"
         };
 
         // Input fields
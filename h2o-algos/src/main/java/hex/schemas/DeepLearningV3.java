@@ -97,10 +97,13 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         "reproducible",
         "export_weights_and_biases",
         "mini_batch_size",
+        "float32_activations",
         "categorical_encoding",
         "elastic_averaging",
         "elastic_averaging_moving_rate",
         "elastic_averaging_regularization",
+        "parameter_server",
+        "parameter_server_staleness",
         "export_checkpoints_dir"
     };
 
@@ -648,6 +651,11 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         help = "Mini-batch size (smaller leads to better fit, larger can speed up and generalize better).")
     public int mini_batch_size;
 
+    @API(level = API.Level.expert, direction=API.Direction.INOUT,
+        help = "Use single precision (float32) activations for mini-batch training (only if mini_batch_size > 1), " +
+            "which reduces the memory traffic at a small loss of precision.")
+    public boolean float32_activations;
+
     @API(level = API.Level.expert, direction=API.Direction.INOUT, gridable = true,
         help = "Elastic averaging between compute nodes can improve distributed model convergence. #Experimental")
     public boolean elastic_averaging;
@@ -660,6 +668,16 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         help = "Elastic averaging regularization strength (only if elastic averaging is enabled).")
     public double elastic_averaging_regularization;
 
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, gridable = true,
+        help = "Asynchronous parameter server: compute nodes push weight updates to and pull weights from sharded keys " +
+            "on their own cadence instead of averaging the models after every iteration. #Experimental")
+    public boolean parameter_server;
+
+    @API(level = API.Level.expert, direction = API.Direction.INOUT, gridable = true,
+        help = "Max. number of updates from other nodes a node may miss before it refreshes its weights (only if " +
+            "parameter server is enabled).")
+    public int parameter_server_staleness;
+
     @API(level = API.Level.expert, direction = API.Direction.INOUT,
         help = "Pretrained autoencoder model to initialize this model with.")
     public KeyV3.ModelKeyV3 pretrained_autoencoder;
@@ -67,7 +67,8 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "custom_distribution_func",      
       "export_checkpoints_dir",
       "monotone_constraints",
-      "check_constant_response"
+      "check_constant_response",
+      "external_memory"
 //      "use_new_histo_tsk",
 //      "col_block_sz",
 //      "min_threads",
@@ -37,6 +37,7 @@ public class GLRMV3 extends ModelBuilderSchema<GLRM, GLRMV3, GLRMV3.GLRMParamete
         "max_updates",
         "init_step_size",
         "min_step_size",
+        "solver",
         "seed",
         "init",
         "svd_method",
@@ -94,6 +95,13 @@ public class GLRMV3 extends ModelBuilderSchema<GLRM, GLRMV3, GLRMV3.GLRMParamete
     @API(help = "Minimum step size", gridable = true)
     public double min_step_size;
 
+    @API(help = "Method for the alternating minimization of X and Y: " +
+            "ProximalGradient - one proximal gradient step on X and on Y per iteration, any loss and regularizer; " +
+            "ALS - alternating least squares, X and Y are solved in closed form with one pass over the data per " +
+            "iteration, requires the Quadratic loss (numeric columns only) and None or Quadratic regularizers",
+            values = { "ProximalGradient", "ALS" }, gridable = true)
+    public GLRMParameters.Solver solver;
+
     @API(help = "RNG seed for initialization", gridable = true)
     public long seed;
 
@@ -29,7 +29,8 @@ public class IsolationForestV3 extends SharedTreeV3<IsolationForest, IsolationFo
                 "stopping_rounds",
                 "stopping_metric",
                 "stopping_tolerance",
-                "export_checkpoints_dir"
+                "export_checkpoints_dir",
+                "prebinned_nbins"
         };
 
         // Input fields
@@ -42,5 +43,8 @@ public class IsolationForestV3 extends SharedTreeV3<IsolationForest, IsolationFo
         @API(help = "Number of variables randomly sampled as candidates at each split. If set to -1, defaults (number of predictors)/3.", gridable = true)
         public int mtries;
 
+        @API(help = "Bin numeric columns once on this many global quantiles before the first tree and only split on these bins, instead of drawing new random split points in each node. Trees keep sampling columns as set by mtries and col_sample_rate_per_tree. Disabled if set to 0.", level = API.Level.expert, gridable = true)
+        public int prebinned_nbins;
+
     }
 }
@@ -18,6 +18,9 @@ public class KMeansModelV3 extends ModelSchemaV3<KMeansModel, KMeansModelV3, KMe
     @API(help="Cluster Centers[k][features] on Standardized Data")
     public TwoDimTableV3 centers_std;
 
+    @API(help="Time spent initializing the cluster centers (ms)")
+    public long init_time_ms;
+
     @Override public KMeansModelOutputV3 fillFromImpl(KMeansModel.KMeansOutput impl) {
       KMeansModelOutputV3 kmv3 = super.fillFromImpl(impl);
       kmv3.centers = new TwoDimTableV3().fillFromImpl(ClusteringUtils.createCenterTable(impl, false));
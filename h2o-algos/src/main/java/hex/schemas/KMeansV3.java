@@ -32,7 +32,9 @@ public class KMeansV3 extends ClusteringModelBuilderSchema<KMeans,KMeansV3,KMean
         "max_runtime_secs",
         "categorical_encoding",
         "export_checkpoints_dir", 
-        "cluster_size_constraints"
+        "cluster_size_constraints",
+        "kmeans_method",
+        "mini_batch_size"
     };
 
     // Input fields
@@ -58,5 +60,14 @@ public class KMeansV3 extends ClusteringModelBuilderSchema<KMeans,KMeansV3,KMean
 
     @API(help = "An array specifying the minimum number of points that should be in each cluster. The length of the constraints array has to be the same as the number of clusters.", level = API.Level.expert)
     public int[] cluster_size_constraints = null;
+
+    @API(help = "Method for the Lloyds iterations: Lloyd computes the distances from every row to every cluster center, " +
+            "Hamerly gives the same result but uses bounds (triangle inequality) to skip most distance computations, " +
+            "MiniBatch updates the cluster centers from random samples of mini_batch_size rows.",
+            values = { "Lloyd", "Hamerly", "MiniBatch" }, level = API.Level.secondary, gridable = true)
+    public KMeans.Method kmeans_method;
+
+    @API(help = "Number of rows sampled per iteration (MiniBatch method only).", level = API.Level.expert, gridable = true)
+    public int mini_batch_size;
   }
 }
@@ -72,6 +72,10 @@ public class SharedTreeV3<B extends SharedTree, S extends SharedTreeV3<B,S,P>, P
     @API(help="Run on one node only; no network overhead but fewer cpus used. Suitable for small datasets.", level = API.Level.expert, gridable = false)
     public boolean build_tree_one_node;
 
+    @API(help="Build the histograms in external memory mode: the predictors are streamed from the local disks in chunk order, " +
+            "only the working columns are kept in memory. Suitable for training frames larger than the memory of the cluster.", level = API.Level.expert, gridable = false)
+    public boolean external_memory;
+
     @API(help = "A list of row sample rates per class (relative fraction for each class, from 0.0 to 1.0), for each tree", level = API.Level.expert, gridable = true)
     public double[] sample_rate_per_class;
 
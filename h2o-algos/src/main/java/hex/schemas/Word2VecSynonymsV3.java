@@ -12,6 +12,8 @@ public class Word2VecSynonymsV3 extends SchemaV3<Iced, Word2VecSynonymsV3> {
   public String word;
   @API(help="Number of synonyms", required = true, direction = API.Direction.INPUT)
   public int count;
+  @API(help="Use an approximate nearest neighbour index instead of scanning the whole vocabulary", direction = API.Direction.INPUT)
+  public boolean approximate;
   @API(help="Synonymous words")
   public String[] synonyms;
   @API(help="Similarity scores")
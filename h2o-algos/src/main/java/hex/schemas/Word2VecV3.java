@@ -14,6 +14,7 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
             "min_word_freq",
             "word_model",
             "norm_model",
+            "negative_samples",
             "vec_size",
             "window_size",
             "sent_sample_rate",
@@ -34,9 +35,12 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
             "\t\twill be randomly down-sampled; useful range is (0, 1e-5)")
     public float sent_sample_rate;
 
-    @API(help="Use Hierarchical Softmax", values = {"HSM"})
+    @API(help="Use Hierarchical Softmax (HSM) or Negative Sampling (NegSampling)", values = {"HSM", "NegSampling"})
     public Word2Vec.NormModel norm_model;
 
+    @API(help="Number of noise words drawn for each target word when norm_model is NegSampling")
+    public int negative_samples;
+
     @API(help="Number of training iterations to run")
     public int epochs;
 
@@ -47,6 +47,7 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
   // Convergence tolerance
   private final double TOLERANCE = 1e-16;    // Cutoff for estimation error of right singular vector
   private final double EPS = 1e-16;         // cutoff if vector norm is too small
+  private final double EPS_RANK = 1e-12;    // cutoff of singular values of Y (relative to the largest) for numerical rank
 
   // Maximum number of columns when categoricals expanded
   private final int MAX_COLS_EXPANDED = 5000;
@@ -438,6 +439,90 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
       return qfrm;
     }
 
+    // Blocked randomized subspace iteration (Algorithm 4.4 from Halko et al, http://arxiv.org/pdf/0909.4061.pdf)
+    // Every iteration is a single pass over A which multiplies all the nv sketch vectors at once: Y = A\tilde{Q} is
+    // never stored, only A'Y and the R factor of Y = QR (TSQR) are collected. The p by nv matrix \tilde{Q} is
+    // orthonormalized on the driver, and the final SVD is derived from A'Y and R without another pass over A.
+    private Frame randSubIterBlocked(DataInfo dinfo, SVDModel model, String u_name) {
+      // 1) Initialize \tilde{Q} = orth(G) where G ~ N(0,1), stored as \tilde{Q}' (k by p)
+      _job.update(1, "Initializing random subspace of training data");
+      double[][] qt = orthonormalRows(ArrayUtils.gaussianArray(_parms._nv, _ncolExp, _parms._seed));
+
+      model._output._iterations = 0;
+      double average_SEE = Double.POSITIVE_INFINITY;
+      RandSubIterTask tsk;
+      double[][] qtY;   // \tilde{Q}' the last Y was computed from
+      while (true) {
+        _job.update(1, "Iteration " + String.valueOf(model._output._iterations+1) + " of randomized subspace iteration");
+
+        // 2) One pass: Y = A\tilde{Q}, A'Y and R from Y = QR; then \tilde{Q} = orth(A'Y)
+        tsk = new RandSubIterTask(_job._key, dinfo, qt, _ncolExp).doAll(dinfo._adaptedFrame);
+        qtY = qt;
+        qt = orthonormalRows(tsk._yta);
+        average_SEE = alignedSSE(qtY, qt) / (_parms._nv * (double) _ncolExp);
+        model._output._iterations++;
+
+        // store variables for scoring history
+        model._output._training_time_ms.add(System.currentTimeMillis());
+        model._output._history_average_SEE.add(average_SEE);
+        model.update(_job);
+
+        // Run at least 10 iterations before tolerance cutoff
+        if (!((model._output._iterations < 10 || average_SEE > TOLERANCE) && model._output._iterations < _parms._max_iterations))
+          break;
+        if (stop_requested()) {
+          if (timeout())
+            _job.warn("_train SVD: max_runtime_secs is reached.  Not all iterations are computed.");
+          break;
+        }
+      }
+      if (tsk._nobs == 0)
+        error("_train", "Every row in _train contains at least one missing value. Consider setting impute_missing = TRUE.");
+      if (error_count() > 0) throw new IllegalArgumentException("Found validation errors: " + validationErrors());
+      model._output._nobs = tsk._nobs;
+      model._output._total_variance = tsk._sumSqr / (tsk._nobs - 1);
+
+      // 3) If R = U_r S W_r' then Q = YR^{-1} = Y W_r S^{-1} U_r', and C = A'Q U_r = A'Y W_r S^{-1} has the same
+      // singular values and right singular vectors as B = Q'A
+      _job.update(1, "Calculating SVD of small matrix locally");
+      SingularValueDecomposition rsvd = new Matrix(tsk._r).svd();
+      double[] s = rsvd.getSingularValues();
+      double[][] w = rsvd.getV().getArray();
+      int rank = 1;
+      while (rank < _parms._nv && s[rank] > EPS_RANK * s[0]) rank++;
+      if (rank < _parms._nv) {  // dataset is rank deficient, reduce _nv to the numerical rank of Y
+        _matrixRankReached = true;
+        _job.warn("_train SVD: Dataset is rank deficient.  _parms._nv was " + _parms._nv + " and is now set to " + rank);
+        _parms._nv = rank;
+      }
+      double[][] c = MemoryManager.malloc8d(_ncolExp, rank);
+      for (int j = 0; j < rank; j++) {
+        final double sinv = s[j] > 0 ? 1 / s[j] : 0;
+        for (int l = 0; l < w.length; l++) {
+          final double wl = w[l][j] * sinv;
+          final double[] ytal = tsk._yta[l];
+          for (int i = 0; i < _ncolExp; i++)
+            c[i][j] += ytal[i] * wl;
+        }
+      }
+      SingularValueDecomposition csvd = new Matrix(c).svd();
+      model._output._d = Arrays.copyOf(csvd.getSingularValues(), rank);
+      model._output._v = csvd.getU().getMatrix(0, _ncolExp - 1, 0, rank - 1).getArray();
+
+      // 4) Calculate left singular vectors U = AVD^(-1) if requested
+      Frame u = null;
+      if (_parms._keep_u) {
+        _job.update(1, "Forming distributed orthonormal matrix U");
+        model._output._u_key = Key.make(u_name);
+        double[][] vt = ArrayUtils.transpose(model._output._v);
+        for (int k = 0; k < rank; k++)
+          ArrayUtils.div(vt[k], model._output._d[k]);
+        BMulTask btsk = new BMulTask(_job._key, dinfo, vt).doAll(rank, Vec.T_NUM, dinfo._adaptedFrame);
+        u = btsk.outputFrame(model._output._u_key, null, null);
+      }
+      return u;
+    }
+
     // Algorithm 5.1: Direct SVD from Halko et al (http://arxiv.org/pdf/0909.4061.pdf)
     private Frame directSVD(DataInfo dinfo, Frame qfrm, SVDModel model) {
       String u_name = (_parms._u_name == null || _parms._u_name.length() == 0) ? "SVDUMatrix_" + Key.rand() : _parms._u_name;
@@ -775,8 +860,12 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
           model._output._scoring_history = createScoringHistoryTableDR(scoreTable,
                   "Scoring History from Power SVD", _job.start_time());
         } else if(_parms._svd_method == SVDParameters.Method.Randomized) {
-          qfrm = randSubIter(dinfo, model);
-          u = directSVD(dinfo, qfrm, model, u_name);
+          if (_wideDataset) {
+            qfrm = randSubIter(dinfo, model);
+            u = directSVD(dinfo, qfrm, model, u_name);
+          } else {
+            u = randSubIterBlocked(dinfo, model, u_name);
+          }
           model._output._training_time_ms.add(System.currentTimeMillis());
           if (stop_requested() && model._output._history_average_SEE.size()==0) {
             model._output._history_average_SEE.add(Double.POSITIVE_INFINITY);
@@ -1005,4 +1094,105 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
       }
     }
   }
+
+  // Orthonormalize the rows of a k by p matrix (QR factorization of its transpose)
+  private static double[][] orthonormalRows(double[][] at) {
+    return ArrayUtils.transpose(new QRDecomposition(new Matrix(ArrayUtils.transpose(at))).getQ().getArray());
+  }
+
+  // Squared error between the rows of two k by p matrices, with the rows of b flipped to match the signs of a
+  private static double alignedSSE(double[][] a, double[][] b) {
+    double sse = 0;
+    for (int j = 0; j < a.length; j++) {
+      if (ArrayUtils.innerProduct(a[j], b[j]) < 0)
+        ArrayUtils.mult(b[j], -1);
+      for (int i = 0; i < a[j].length; i++)
+        sse += (a[j][i] - b[j][i]) * (a[j][i] - b[j][i]);
+    }
+    return sse;
+  }
+
+  // Compute Y = A\tilde{Q} row by row (without storing it), Y'A and the R factor of Y = QR by TSQR: the rows of Y
+  // are factorized in blocks within a chunk, and the R factors of two chunks are stacked and factorized again in reduce
+  private static class RandSubIterTask extends FrameTask<RandSubIterTask> {
+    private static final int TSQR_BLOCK = 1024;  // Number of rows of Y factorized at once
+    final double[][] _qt;   // \tilde{Q}' is k by p for convenient multiplication
+    final int _ncolExp;
+    // OUT
+    double[][] _yta;        // Y'A is k by p
+    double[][] _r;          // k by k
+    double _sumSqr;         // Sum of squares of A
+    long _nobs;
+
+    private transient double[][] _block;  // current R (first k rows) + rows of Y not factorized yet
+    private transient int _blockRows;
+
+    public RandSubIterTask(Key<Job> jobKey, DataInfo dinfo, double[][] qt, int ncolExp) {
+      super(jobKey, dinfo);
+      _qt = qt;
+      _ncolExp = ncolExp;
+    }
+
+    @Override protected boolean chunkInit() {
+      final int k = _qt.length;
+      _yta = MemoryManager.malloc8d(k, _ncolExp);
+      _block = MemoryManager.malloc8d(k + TSQR_BLOCK, k);
+      _blockRows = k;
+      return true;
+    }
+
+    @Override protected void processRow(long gid, DataInfo.Row r) {
+      final int k = _qt.length;
+      final int numStart = _dinfo.numStart();
+      final double[] y = _block[_blockRows++];
+      double sumSqr = r.nBins;
+      for (int j = 0; j < k; j++) {
+        final double yj = y[j] = r.innerProduct(_qt[j]);
+        final double[] ytaj = _yta[j];
+        for (int i = 0; i < r.nBins; i++)
+          ytaj[r.binIds[i]] += yj;
+        if (r.numIds == null) {
+          for (int i = 0; i < r.numVals.length; i++)
+            ytaj[numStart + i] += yj * r.numVals[i];
+        } else {
+          for (int i = 0; i < r.nNums; i++)
+            ytaj[r.numIds[i]] += yj * r.numVals[i];
+        }
+      }
+      final int nnums = r.numIds == null ? r.numVals.length : r.nNums;
+      for (int i = 0; i < nnums; i++)
+        sumSqr += r.numVals[i] * r.numVals[i];
+      _sumSqr += sumSqr;
+      ++_nobs;
+      if (_blockRows == _block.length)
+        compressBlock();
+    }
+
+    private void compressBlock() {
+      final int k = _qt.length;
+      double[][] r = qrR(_block, _blockRows, k);
+      for (int i = 0; i < k; i++)
+        System.arraycopy(r[i], 0, _block[i], 0, k);
+      _blockRows = k;
+    }
+
+    @Override protected void chunkDone(long n) {
+      if (_blockRows > _qt.length)
+        compressBlock();
+      _r = Arrays.copyOf(_block, _qt.length);
+      _block = null;
+    }
+
+    @Override public void reduce(RandSubIterTask other) {
+      ArrayUtils.add(_yta, other._yta);
+      _r = qrR(ArrayUtils.append(_r, other._r), 2 * _qt.length, _qt.length);
+      _sumSqr += other._sumSqr;
+      _nobs += other._nobs;
+    }
+
+    // R factor of the QR factorization of the first m rows of a
+    private static double[][] qrR(double[][] a, int m, int k) {
+      return new QRDecomposition(new Matrix(a, m, k)).getR().getArray();
+    }
+  }
 }
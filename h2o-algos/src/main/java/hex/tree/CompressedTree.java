@@ -2,6 +2,7 @@ package hex.tree;
 
 import java.util.Random;
 
+import hex.genmodel.algos.tree.FlatTree;
 import hex.genmodel.algos.tree.SharedTreeMojoModel;
 import hex.genmodel.algos.tree.SharedTreeSubgraph;
 import water.*;
@@ -28,9 +29,14 @@ public class CompressedTree extends Keyed<CompressedTree> {
 
   private static final String KEY_PREFIX = "tree_";
 
+  private static final boolean USE_FLAT_TREES = FlatTree.isEnabled();
+
   final byte [] _bits;
   final long _seed;
 
+  /** Node-local scoring representation of the tree, lazily built from {@link #_bits} on the first use */
+  private transient FlatTree _flat;
+
   public CompressedTree(byte[] bits, long seed, int tid, int cls) {
     super(makeTreeKey(tid, cls));
     _bits = bits;
@@ -38,7 +44,15 @@ public class CompressedTree extends Keyed<CompressedTree> {
   }
 
   public double score(final double row[], final String[][] domains) {
-    return SharedTreeMojoModel.scoreTree(_bits, row, false, domains);
+    final FlatTree flat = flatTree();
+    return flat != null ? flat.score(row, domains) : SharedTreeMojoModel.scoreTree(_bits, row, false, domains);
+  }
+
+  private FlatTree flatTree() {
+    if (_flat == null && USE_FLAT_TREES) {
+      _flat = FlatTree.flatten(_bits); // benign race - FlatTree is immutable
+    }
+    return _flat;
   }
 
   @Deprecated
@@ -282,9 +282,30 @@ public final class DHistogram extends Iced {
   public double bins(int b) { return w(b); }
 
   // Big allocation of arrays
-  public void init() { init(null);}
+  public void init() { init((double[]) null);}
   public void init(double [] vals) {
     assert _vals == null;
+    initSplitPts();
+    assert(_nbin>0);
+    _vals = vals == null?MemoryManager.malloc8d(valsLength()):vals;
+  }
+
+  /**
+   * Same as {@link #init()} but the histogram values are stored in a (zeroed) buffer taken from a pool
+   * of reusable buffers. The buffer is returned to the pool when the histogram is merged using {@link #addAndRelease(DHistogram, DHistogramBufferPool)}.
+   */
+  void init(DHistogramBufferPool pool) {
+    assert _vals == null;
+    initSplitPts();
+    assert(_nbin>0);
+    _vals = pool.acquire(valsLength());
+  }
+
+  private int valsLength() {
+    return _vals_dim*_nbin+_vals_dim;
+  }
+
+  private void initSplitPts() {
     if (_histoType==SharedTreeModel.SharedTreeParameters.HistogramType.Random) {
       // every node makes the same split points
       Random rng = RandomUtils.getRNG((Double.doubleToRawLongBits(((_step+0.324)*_min+8.3425)+89.342*_maxEx) + 0xDECAF*_nbin + 0xC0FFEE*_isInt + _seed));
@@ -336,8 +357,6 @@ public final class DHistogram extends Iced {
       }
     }
     //otherwise AUTO/UniformAdaptive
-    assert(_nbin>0);
-    _vals = vals == null?MemoryManager.malloc8d(_vals_dim*_nbin+_vals_dim):vals;
   }
 
   // Add one row to a bin found via simple linear interpolation.
@@ -373,6 +392,28 @@ public final class DHistogram extends Iced {
     if (_maxIn < dsh._maxIn) _maxIn = dsh._maxIn;
   }
 
+  /**
+   * Copy of this histogram without the values, to be initialized by {@link #init(DHistogramBufferPool)}.
+   */
+  DHistogram emptyCopy() {
+    DHistogram h = (DHistogram) clone();
+    h._vals = null;
+    return h;
+  }
+
+  /**
+   * Merges a thread-local histogram backed by a pooled buffer into this histogram. The values buffer of the merged
+   * histogram is either adopted by this histogram or returned back to the pool, the merged histogram can no longer be used.
+   */
+  void addAndRelease(DHistogram dsh, DHistogramBufferPool pool) {
+    if( dsh._vals == null ) return;
+    boolean adopt = _vals == null;
+    add(dsh);
+    if (!adopt)
+      pool.release(dsh._vals);
+    dsh._vals = null;
+  }
+
   // Inclusive min & max
   public double find_min  () { return _min2 ; }
   public double find_maxIn() { return _maxIn; }
@@ -458,13 +499,21 @@ public final class DHistogram extends Iced {
    * @param lo  lower bound on index into rows array to be processed by this call (inclusive)
    */
   void updateHisto(double[] ws, double resp[], double[] cs, double[] ys, int [] rows, int hi, int lo){
+    updateHisto(ws, resp, cs, ys, rows, hi, lo, 0);
+  }
+
+  /**
+   * Same as {@link #updateHisto(double[], double[], double[], double[], int[], int, int)} but the column data
+   * and the original response are only given for a block of rows, row k is stored at index k - off.
+   */
+  void updateHisto(double[] ws, double resp[], double[] cs, double[] ys, int [] rows, int hi, int lo, int off){
     // Gather all the data for this set of rows, for 1 column and 1 split/NID
     // Gather min/max, wY and sum-squares.
     for(int r = lo; r< hi; ++r) {
       int k = rows[r];
       double weight = ws[k];
       if (weight == 0) continue;
-      double col_data = cs[k];
+      double col_data = cs[k - off];
       if (col_data < _min2) _min2 = col_data;
       if (col_data > _maxIn) _maxIn = col_data;
       double y = ys[k];
@@ -479,7 +528,7 @@ public final class DHistogram extends Iced {
         _vals[_vals_dim * b + 3] += weight * (_pred1 - y) * (_pred1 - y);
         _vals[_vals_dim * b + 4] += weight * (_pred2 - y) * (_pred2 - y);
         if (_vals_dim == 6) {
-          _vals[_vals_dim * b + 5] += _dist.gammaDenom(weight, resp[k], y, Double.NaN);
+          _vals[_vals_dim * b + 5] += _dist.gammaDenom(weight, resp[k - off], y, Double.NaN);
         }
       }
     }
@@ -0,0 +1,56 @@
+package hex.tree;
+
+import water.MemoryManager;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Node-local pool of buffers used for storing the values of thread-local histograms.
+ *
+ * Every level of a tree is built by multiple workers, each of them needs its own private copy of the histograms
+ * of the columns it processes. These copies are short-lived (they are merged into the shared histograms at the end
+ * of the level) and allocating them over and over puts unnecessary pressure on the GC. The buffers are held by soft
+ * references, the pool never prevents the memory to be reclaimed when the node runs low on memory.
+ */
+final class DHistogramBufferPool {
+
+  static final DHistogramBufferPool INSTANCE = new DHistogramBufferPool();
+
+  private final ConcurrentHashMap<Integer, ConcurrentLinkedDeque<SoftReference<double[]>>> _buffers = new ConcurrentHashMap<>();
+
+  /**
+   * Returns a zeroed buffer of the given length.
+   */
+  double[] acquire(int len) {
+    ConcurrentLinkedDeque<SoftReference<double[]>> buffers = _buffers.get(len);
+    if (buffers != null) {
+      SoftReference<double[]> ref;
+      while ((ref = buffers.pollFirst()) != null) {
+        double[] buf = ref.get();
+        if (buf != null) {
+          Arrays.fill(buf, 0);
+          return buf;
+        }
+      }
+    }
+    return MemoryManager.malloc8d(len);
+  }
+
+  /**
+   * Returns a buffer back to the pool, the caller can no longer use the buffer.
+   */
+  void release(double[] buf) {
+    ConcurrentLinkedDeque<SoftReference<double[]>> buffers = _buffers.get(buf.length);
+    if (buffers == null) {
+      ConcurrentLinkedDeque<SoftReference<double[]>> newBuffers = new ConcurrentLinkedDeque<>();
+      buffers = _buffers.putIfAbsent(buf.length, newBuffers);
+      if (buffers == null)
+        buffers = newBuffers;
+    }
+    buffers.offerFirst(new SoftReference<>(buf));
+  }
+
+}
@@ -56,8 +56,23 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  *    exp(nthreads-pre-column) = max(1,H2O.NUMCPUS - num_cols)
  *
+ * Wide frames are split into groups of columns (at least COL_GROUPS_PER_CPU groups per cpu), the workers of a group
+ * claim chunks dynamically and process all the columns of the group for a given chunk at once. When there are fewer
+ * local chunks than workers (few columns on a machine with many cores), chunks are further split into row blocks.
+ * Private histogram copies are backed by buffers from a node-local {@link DHistogramBufferPool}.
+ *
+ * In external memory mode (training frames larger than the memory of the cluster) each level reads every local chunk
+ * of the predictors exactly once in each of the phases, in chunk order (all columns are processed in a single group).
+ * Only the working columns (and response and weights) are kept in memory, predictor chunks are written to the local
+ * disk (unless already there) and dropped from memory as soon as they are processed.
+ *
  */
 public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
+  // Target number of column groups per cpu, columns are grouped only if there are more columns than groups
+  private static final int COL_GROUPS_PER_CPU = Integer.parseInt(H2O.getSysProperty("sharedtree.colGroupsPerCpu", "4"));
+  // Minimum number of rows in a row block (chunks are split into row blocks if there are more workers than chunks)
+  private static final int MIN_ROWS_PER_BLOCK = Integer.parseInt(H2O.getSysProperty("sharedtree.minRowsPerBlock", "1024"));
+
   transient int []   _cids;
   transient Chunk[][] _chks;
   transient double [][] _ys;
@@ -68,6 +83,9 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   final int _numLeafs;
   final IcedBitSet _activeCols;
   final int _respIdx;
+  // External memory mode: predictor chunks are not held in memory for the whole level, they are (re)loaded in chunk order
+  // when needed and evicted right after use
+  boolean _externalMemory;
 
   public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdxs) {
     super(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs);
@@ -90,6 +108,11 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     _hcs = ArrayUtils.transpose(_hcs);
   }
 
+  public ScoreBuildHistogram2 setExternalMemory(boolean externalMemory) {
+    _externalMemory = externalMemory;
+    return this;
+  }
+
   @Override
   public ScoreBuildHistogram dfork2(byte[] types, Frame fr, boolean run_local) {
     _fr2 = fr;
@@ -229,119 +252,204 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
           if(_weightIdx != -1){
             _ws[id] = chks[_weightIdx].getDoubles(MemoryManager.malloc8d(len), 0, len);
           }
+          if (_externalMemory) { // predictor chunks will be re-loaded in phase 2
+            for (int c = 0; c < _ncols; c++) {
+              if (c == _respIdx || c == _weightIdx) continue;
+              chks[c] = null;
+              evictChunk(vecs[c], cidx);
+            }
+          }
         }
       }
     },new H2O.H2OCountedCompleter(this){
       public void onCompletion(CountedCompleter cc){
         final int ncols = _ncols;
         final int [] active_cols = _activeCols == null?null:new int[Math.max(1,_activeCols.cardinality())];
-        int nactive_cols = active_cols == null?ncols:active_cols.length;
-        final int numWrks = _hcs.length*nactive_cols < 16*1024?H2O.NUMCPUS:Math.min(H2O.NUMCPUS,Math.max(4*H2O.NUMCPUS/nactive_cols,1));
-        final int rem = H2O.NUMCPUS-numWrks*ncols;
-        ScoreBuildHistogram2.this.addToPendingCount(1+nactive_cols);
+        final int nactive_cols = active_cols == null?ncols:active_cols.length;
         if(active_cols != null) {
           int j = 0;
           for (int i = 0; i < ncols; ++i)
             if (_activeCols.contains(i))
               active_cols[j++] = i;
         }
-        // MRTask (over columns) launching MrTasks (over number of workers) for each column.
-        // We want FJ to start processing all the columns before parallelizing within column to reduce memory overhead.
-        // (running single column in n threads means n-copies of the histogram)
+        // Columns are processed in groups, a worker processes all columns of its group for a chunk before moving
+        // to the next chunk - the per-chunk row data (row ordering, weights, responses) stays in the cache.
+        // There are always enough groups to keep all the cpus busy.
+        final int groupSz = _externalMemory ? nactive_cols : Math.max(1, nactive_cols / (COL_GROUPS_PER_CPU * H2O.NUMCPUS));
+        final int ngroups = (nactive_cols + groupSz - 1) / groupSz;
+        final int numWrks = _hcs.length*nactive_cols < 16*1024?H2O.NUMCPUS:Math.min(H2O.NUMCPUS,Math.max(4*H2O.NUMCPUS/ngroups,1));
+        // If there are not enough local chunks for all the workers, chunks are further split into blocks of rows
+        final int nblocks = _cids.length == 0 || _externalMemory ? 1 : Math.max(1, Math.min((numWrks + _cids.length - 1) / _cids.length,
+                fLargestChunkSz / MIN_ROWS_PER_BLOCK));
+        // Number of workers (histogram copies) per group, there is no point having more workers than row blocks
+        final int numGroupWrks = Math.max(1, Math.min(numWrks, _cids.length * nblocks));
+        ScoreBuildHistogram2.this.addToPendingCount(1+ngroups);
+        // MRTask (over column groups) launching MrTasks (over number of workers) for each group.
+        // We want FJ to start processing all the groups before parallelizing within group to reduce memory overhead.
+        // (running single group in n threads means n-copies of the histograms)
         // This is how it works:
-        //    1) Outer MRTask walks down it's tree, forking tasks with exponentially decreasing number of columns until reaching its left most leaf for columns 0.
-        //       At this point, the local fjq for this thread has a task for processing half of columns at the bottom, followed by task for 1/4 of columns and so on.
+        //    1) Outer MRTask walks down it's tree, forking tasks with exponentially decreasing number of groups until reaching its left most leaf for group 0.
+        //       At this point, the local fjq for this thread has a task for processing half of groups at the bottom, followed by task for 1/4 of groups and so on.
         //       Other threads start stealing work from the bottom.
-        //    2) forks the leaf task and (because its polling from the top) executes the LocalMr for the column 0.
-        // This way we should have columns as equally distributed as possible without resorting to shared priority queue
+        //    2) forks the leaf task and (because its polling from the top) executes the LocalMr for the group 0.
+        // This way we should have groups as equally distributed as possible without resorting to shared priority queue
         new LocalMR(new MrFun() {
           @Override
-          protected void map(int c) {
-            c = active_cols == null?c:active_cols[c];
-            new LocalMR(new ComputeHistoThread(_hcs.length == 0?new DHistogram[0]:_hcs[c],c,fLargestChunkSz,new AtomicInteger()),numWrks + (c < rem?1:0),ScoreBuildHistogram2.this).fork();
+          protected void map(int g) {
+            int lo = g * groupSz;
+            int hi = Math.min(lo + groupSz, nactive_cols);
+            int [] cols = new int[hi - lo];
+            DHistogram [][] lh = new DHistogram[hi - lo][];
+            for (int i = lo; i < hi; i++) {
+              int c = active_cols == null ? i : active_cols[i];
+              cols[i - lo] = c;
+              lh[i - lo] = _hcs.length == 0 ? new DHistogram[0] : _hcs[c];
+            }
+            new LocalMR(new ComputeHistoThread(lh,cols,fLargestChunkSz,nblocks,new AtomicInteger(),false),numGroupWrks,ScoreBuildHistogram2.this).fork();
           }
-        },nactive_cols,ScoreBuildHistogram2.this).fork();
+        },ngroups,ScoreBuildHistogram2.this).fork();
       }
     }).fork();
   }
 
+  // Writes a chunk to the local disk (unless it is already persisted) and drops it from memory,
+  // the chunk will be re-loaded on the next access
+  private static void evictChunk(Vec v, int cidx) {
+    Value val = DKV.get(v.chunkKey(cidx));
+    if (val != null)
+      val.spillToDisk();
+  }
+
+  // index of the first of the (sorted) rows[lo, hi) that is not smaller than row
+  private static int firstRowAtOrAfter(int [] rows, int lo, int hi, int row) {
+    int i = Arrays.binarySearch(rows, lo, hi, row);
+    return i >= 0 ? i : -i - 1;
+  }
+
   private static void mergeHistos(DHistogram [] hcs, DHistogram [] hcs2){
     // Distributed histograms need a little work
     for( int i=0; i< hcs.length; i++ ) {
       DHistogram hs1 = hcs[i], hs2 = hcs2[i];
       if( hs1 == null ) hcs[i] = hs2;
       else if( hs2 != null )
-        hs1.add(hs2);
+        hs1.addAndRelease(hs2, DHistogramBufferPool.INSTANCE);
     }
   }
 
   private class ComputeHistoThread extends MrFun<ComputeHistoThread> {
     final int _maxChunkSz;
-    final int _col;
-    final DHistogram [] _lh;
+    final int _nblocks; // number of row blocks per chunk
+    final int [] _cols;
+    final DHistogram [][] _lh; // [column of the group][leaf]
+    final boolean _pooled; // private copies use buffers from the buffer pool
 
     AtomicInteger _cidx;
     private boolean _done;
 
-    public boolean isDone(){return _done || (_done = _cidx.get() >= _cids.length);}
+    public boolean isDone(){return _done || (_done = _cidx.get() >= _cids.length * _nblocks);}
 
-    ComputeHistoThread(DHistogram [] hcs, int col, int maxChunkSz,AtomicInteger cidx){
-      _lh = hcs; _col = col; _maxChunkSz = maxChunkSz;
+    ComputeHistoThread(DHistogram [][] hcs, int [] cols, int maxChunkSz, int nblocks, AtomicInteger cidx, boolean pooled){
+      _lh = hcs; _cols = cols; _maxChunkSz = maxChunkSz; _nblocks = nblocks;
       _cidx = cidx;
+      _pooled = pooled;
     }
 
     @Override
     public ComputeHistoThread makeCopy() {
-      return new ComputeHistoThread(ArrayUtils.deepClone(_lh),_col,_maxChunkSz,_cidx);
+      DHistogram [][] lh = new DHistogram[_lh.length][];
+      for (int j = 0; j < lh.length; j++) {
+        lh[j] = new DHistogram[_lh[j].length];
+        for (int n = 0; n < lh[j].length; n++)
+          if (_lh[j][n] != null)
+            lh[j][n] = _lh[j][n].emptyCopy(); // values are taken from the buffer pool on first use
+      }
+      return new ComputeHistoThread(lh,_cols,_maxChunkSz,_nblocks,_cidx,true);
     }
 
     @Override
     protected void map(int id){
       double [] cs = null;
       double [] resp = null;
-      for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
+      int [] bounds = null;
+      final int nwork = _cids.length * _nblocks;
+      for(int i = _cidx.getAndIncrement(); i < nwork; i = _cidx.getAndIncrement()) {
         if (cs == null) {
-          cs = MemoryManager.malloc8d(_maxChunkSz);
+          final int blockSz = (_maxChunkSz + _nblocks - 1) / _nblocks;
+          cs = MemoryManager.malloc8d(blockSz);
           if (_respIdx >= 0)
-          resp = MemoryManager.malloc8d(_maxChunkSz);
+          resp = MemoryManager.malloc8d(blockSz);
+          bounds = new int[2 * _numLeafs];
         }
-        computeChunk(i, cs, _ws[i], resp);
+        final int id = i / _nblocks;
+        computeChunk(id, i % _nblocks, cs, _ws[id], resp, bounds);
       }
     }
 
-    private void computeChunk(int id, double[] cs, double[] ws, double[] resp){
+    // Processes a block of consecutive rows of a chunk, only the rows of the block are decoded: row k of the chunk
+    // is stored at cs[k - from] (resp[k - from]). Weights and responses of the tree (ws, ys) were extracted in phase 1.
+    private void computeChunk(int id, int block, double[] cs, double[] ws, double[] resp, int[] bounds){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
       Chunk resChk = _chks[id][_workIdx];
       int len = resChk._len;
       double [] ys = ScoreBuildHistogram2.this._ys[id];
-      if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
-      final int hcslen = _lh.length;
-      boolean extracted = false;
-      for (int n = 0; n < hcslen; n++) {
-        int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
-        if (sCols == null || ArrayUtils.find(sCols, _col) >= 0) {
-          DHistogram h = _lh[n];
-          int hi = nh[n];
-          int lo = (n == 0 ? 0 : nh[n - 1]);
-          if (hi == lo || h == null) continue; // Ignore untracked columns in this split
-          if (h._vals == null) h.init();
-          if (! extracted) {
-            _chks[id][_col].getDoubles(cs, 0, len);
-            if (h._vals_dim == 6) {
-              _chks[id][_respIdx].getDoubles(resp, 0, len);
+      final int from = (int) ((long) len * block / _nblocks);
+      final int to = (int) ((long) len * (block + 1) / _nblocks);
+      // rows of a leaf are sorted, the rows of the block are a contiguous range of them
+      for (int n = 0; n < _numLeafs; n++) {
+        int lo = (n == 0 ? 0 : nh[n - 1]);
+        int hi = nh[n];
+        if (_nblocks > 1) {
+          lo = firstRowAtOrAfter(rs, lo, hi, from);
+          hi = firstRowAtOrAfter(rs, lo, hi, to);
+        }
+        bounds[2 * n] = lo;
+        bounds[2 * n + 1] = hi;
+      }
+      boolean respExtracted = false;
+      for (int j = 0; j < _cols.length; j++) {
+        final int col = _cols[j];
+        final DHistogram [] lh = _lh[j];
+        final int hcslen = lh.length;
+        boolean extracted = false;
+        boolean loaded = false;
+        for (int n = 0; n < hcslen; n++) {
+          int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
+          if (sCols == null || ArrayUtils.find(sCols, col) >= 0) {
+            DHistogram h = lh[n];
+            int lo = bounds[2 * n];
+            int hi = bounds[2 * n + 1];
+            if (hi == lo || h == null) continue; // Ignore untracked columns in this split
+            if (h._vals == null) {
+              if (_pooled) h.init(DHistogramBufferPool.INSTANCE);
+              else h.init();
+            }
+            if (! extracted) {
+              Chunk colChk = _chks[id][col];
+              if (colChk == null) { // external memory mode
+                colChk = _fr2.vec(col).chunkForChunkIdx(_cids[id]);
+                loaded = true;
+              }
+              colChk.getDoubles(cs, from, to);
+              if (h._vals_dim == 6 && ! respExtracted) {
+                _chks[id][_respIdx].getDoubles(resp, from, to);
+                respExtracted = true;
+              }
+              extracted = true;
             }
-            extracted = true;
+            h.updateHisto(ws, resp, cs, ys, rs, hi, lo, from);
           }
-          h.updateHisto(ws, resp, cs, ys, rs, hi, lo);
         }
+        if (loaded)
+          evictChunk(_fr2.vec(col), _cids[id]);
       }
     }
 
     @Override
     protected void reduce(ComputeHistoThread cc) {
       assert _lh != cc._lh;
-      mergeHistos(_lh, cc._lh);
+      for (int j = 0; j < _lh.length; j++)
+        mergeHistos(_lh[j], cc._lh[j]);
     }
   }
 
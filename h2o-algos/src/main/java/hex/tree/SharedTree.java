@@ -66,6 +66,7 @@ public abstract class SharedTree<
 
   // Sum of variable empirical improvement in squared-error.  The value is not scaled.
   private transient float[/*nfeatures*/] _improvPerVar;
+  private transient List<Long> _levelBuildTimes; // Build times of the levels of the currently built tree(s)
 
   protected Random _rand;
 
@@ -117,6 +118,8 @@ public abstract class SharedTree<
     super.init(expensive);
     if (H2O.ARGS.client && _parms._build_tree_one_node)
       error("_build_tree_one_node", "Cannot run on a single node in client mode.");
+    if (_parms._external_memory && _parms._build_tree_one_node)
+      error("_external_memory", "External memory mode cannot be used together with build_tree_one_node, the chunks need to be read from the local disks of the nodes.");
 
     if( _parms._min_rows < 0 )
       error("_min_rows", "Requested min_rows must be greater than 0");
@@ -359,6 +362,8 @@ public abstract class SharedTree<
 
         initializeModelSpecifics();
         resumeFromCheckpoint(SharedTree.this);
+        if (_parms._external_memory)
+          Log.info("Building trees in external memory mode, predictor chunks are streamed from disk in chunk order.");
         scoreAndBuildTrees(doOOBScoring());
 
       } finally {
@@ -394,6 +399,21 @@ public abstract class SharedTree<
 
     protected Frame makeValidWorkspace() { return null; }
 
+    /**
+     * Creates a workspace holding the raw tree predictions (per-row cumulative margins) for the validation frame,
+     * it allows to score only the newly built trees in each scoring event.
+     * @param ntreeCols number of trees built in each iteration (eg. one tree per class)
+     * @return frame with the workspace columns
+     */
+    protected final Frame makeValidWorkspace(int ntreeCols) {
+      // FIXME: this is not efficient, we need a sparse volatile chunks
+      Vec[] tmp = _valid.anyVec().makeVolatileDoubles(ntreeCols);
+      String[] tmpNames = new String[tmp.length];
+      for (int i = 0; i < tmpNames.length; i++)
+        tmpNames[i] = "__P_" + i;
+      return new Frame(tmpNames, tmp);
+    }
+
     // Helpers to store quantiles in DKV - keep a cache on each node (instead of sending around over and over)
     protected Key getGlobalQuantilesKey(int i) {
       if (_model==null || _model._key == null || _parms._histogram_type!= SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal
@@ -439,8 +459,12 @@ public abstract class SharedTree<
           return;
         }
         Timer kb_timer = new Timer();
+        final int ntreesBefore = _model._output._ntrees;
+        _levelBuildTimes = new ArrayList<>();
         boolean converged = buildNextKTrees();
-        Log.info((tid + 1) + ". tree was built in " + kb_timer.toString());
+        if (_model._output._ntrees > ntreesBefore)
+          _model._output.setLevelBuildTimes(_levelBuildTimes);
+        Log.info((tid + 1) + ". tree was built in " + kb_timer.toString() + ", level build times [ms]: " + _levelBuildTimes);
         _job.update(1);
         if (_model._output._treeStats._max_depth==0) {
           Log.warn("Nothing to split on: Check that response and distribution are meaningful (e.g., you are not using laplace/quantile regression with a binary response).");
@@ -464,6 +488,7 @@ public abstract class SharedTree<
   // --------------------------------------------------------------------------
   // Build an entire layer of all K trees
   protected DHistogram[][][] buildLayer(final Frame fr, final int nbins, int nbins_cats, final DTree ktrees[], final int leafs[], final DHistogram hcs[][][], boolean build_tree_one_node) {
+    final long start = System.currentTimeMillis();
     // Build K trees, one per class.
 
     // Build up the next-generation tree splits from the current histograms.
@@ -536,6 +561,8 @@ public abstract class SharedTree<
       }
     }
     // The layer is done.
+    if (_levelBuildTimes != null)
+      _levelBuildTimes.add(System.currentTimeMillis() - start);
     return did_split ? hcs : null;
   }
 
@@ -585,7 +612,8 @@ public abstract class SharedTree<
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
 //      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
-      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _respIdx, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _respIdx, _weightIdx, _workIdx, _nidIdx)
+              .setExternalMemory(_st._parms._external_memory).dfork2(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram) caller;
@@ -802,7 +830,7 @@ public abstract class SharedTree<
     O out = _model._output;
     return createScoringHistoryTable(out, out._scored_train, out._scored_valid, _job,
             out._training_time_ms, _parms._custom_metric_func != null, 
-            _parms._custom_distribution_func != null);
+            _parms._custom_distribution_func != null, out._level_build_time_ms);
   }
 
   public static TwoDimTable createScoringHistoryTable(Model.Output _output,
@@ -811,6 +839,21 @@ public abstract class SharedTree<
                                                       Job job, long[] _training_time_ms,
                                                       boolean hasCustomMetric, 
                                                       boolean hasCustomDistribution) {
+    return createScoringHistoryTable(_output, _scored_train, _scored_valid, job, _training_time_ms, 
+            hasCustomMetric, hasCustomDistribution, null);
+  }
+
+  /**
+   * Creates the scoring history table, optionally including the build times of the individual levels
+   * of the most recently built tree(s) for each scoring event.
+   */
+  public static TwoDimTable createScoringHistoryTable(Model.Output _output,
+                                                      ScoreKeeper[] _scored_train,
+                                                      ScoreKeeper[] _scored_valid,
+                                                      Job job, long[] _training_time_ms,
+                                                      boolean hasCustomMetric, 
+                                                      boolean hasCustomDistribution,
+                                                      long[][] _level_build_time_ms) {
     List<String> colHeaders = new ArrayList<>();
     List<String> colTypes = new ArrayList<>();
     List<String> colFormat = new ArrayList<>();
@@ -866,6 +909,9 @@ public abstract class SharedTree<
         colHeaders.add("Validation Custom"); colTypes.add("double"); colFormat.add("%.5f");
       }
     }
+    if (_level_build_time_ms != null) {
+      colHeaders.add("Level Build Times [ms]"); colTypes.add("string"); colFormat.add("%s");
+    }
 
     int rows = 0;
     for( int i = 0; i<_scored_train.length; i++ ) {
@@ -922,6 +968,10 @@ public abstract class SharedTree<
         if (_output.isClassifier()) table.set(row, col++, st._classError);
         if (hasCustomMetric) table.set(row, col++, st._custom_metric);
       }
+      if (_level_build_time_ms != null) {
+        long[] levelTimes = i < _level_build_time_ms.length ? _level_build_time_ms[i] : null;
+        table.set(row, col++, levelTimes != null ? Arrays.toString(levelTimes) : "");
+      }
       row++;
     }
     return table;
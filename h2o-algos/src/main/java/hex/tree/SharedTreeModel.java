@@ -23,6 +23,7 @@ import water.util.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 public abstract class SharedTreeModel<
         M extends SharedTreeModel<M, P, O>,
@@ -43,6 +44,9 @@ public abstract class SharedTreeModel<
 
   @Override public ToEigenVec getToEigenVec() { return LinearAlgebraUtils.toEigen; }
 
+  private static final boolean USE_BATCH_SCORING = H2O.getSysBoolProperty("sharedtree.batchScoring", true);
+  private static final int BATCH_SCORING_BLOCK_SIZE = Integer.parseInt(H2O.getSysProperty("sharedtree.batchScoring.blockSize", "256"));
+
   public abstract static class SharedTreeParameters extends Model.Parameters implements Model.GetNTrees, PlattScalingHelper.ParamsWithCalibration {
 
     public int _ntrees=50; // Number of trees in the final model. Grid Search, comma sep values:50,100,150,200
@@ -66,6 +70,8 @@ public abstract class SharedTreeModel<
 
     public boolean _build_tree_one_node = false;
 
+    public boolean _external_memory = false; // predictor chunks are streamed from disk when building histograms
+
     public int _score_tree_interval = 0; // score every so many trees (no matter what)
 
     public int _initial_score_interval = 4000; //Adding this parameter to take away the hard coded value of 4000 for scoring the first  4 secs
@@ -155,6 +161,8 @@ public abstract class SharedTreeModel<
     }
     /** Training time */
     public long[/*ntrees+1*/] _training_time_ms = {System.currentTimeMillis()};
+    /** Build times of the individual levels of each tree (of each set of K trees) */
+    public long[/*ntrees+1*/][] _level_build_time_ms = new long[1][];
 
     /**
      * Variable importances computed during training
@@ -200,9 +208,23 @@ public abstract class SharedTreeModel<
       _scored_train = ArrayUtils.copyAndFillOf(_scored_train, _ntrees+1, new ScoreKeeper());
       _scored_valid = _scored_valid != null ? ArrayUtils.copyAndFillOf(_scored_valid, _ntrees+1, new ScoreKeeper()) : null;
       _training_time_ms = ArrayUtils.copyAndFillOf(_training_time_ms, _ntrees+1, System.currentTimeMillis());
+      if (_level_build_time_ms != null)
+        _level_build_time_ms = Arrays.copyOf(_level_build_time_ms, _ntrees+1);
       fs.blockForPending();
     }
 
+    /**
+     * Records the build times of the levels of the most recently added set of K trees.
+     */
+    void setLevelBuildTimes(List<Long> levelBuildTimes) {
+      if (_level_build_time_ms == null || _level_build_time_ms.length != _ntrees+1)
+        return; // model restored from an older version
+      long[] times = new long[levelBuildTimes.size()];
+      for (int i = 0; i < times.length; i++)
+        times[i] = levelBuildTimes.get(i);
+      _level_build_time_ms[_ntrees] = times;
+    }
+
     @Override
     public int getNTrees() {
       return _ntrees;
@@ -500,8 +522,31 @@ public abstract class SharedTreeModel<
     return PlattScalingHelper.postProcessPredictions(predictFr, j, _output);
   }
 
+  /**
+   * Scores a row of a validation frame using only the trees built since the last scoring event. The raw tree
+   * predictions (sums of the outputs of the trees) of the previously scored trees are read from the workspace
+   * columns and the updated sums are stored back to the workspace.
+   */
   protected double[] score0Incremental(Score.ScoreIncInfo sii, Chunk chks[], double offset, int row_in_chunk, double[] tmp, double[] preds) {
-    return score0(chks, offset, row_in_chunk, tmp, preds); // by default delegate to non-incremental implementation
+    assert _output.nfeatures() == tmp.length;
+    for (int i = 0; i < tmp.length; i++)
+      tmp[i] = chks[i].atd(row_in_chunk);
+
+    Arrays.fill(preds,0);
+    if (sii._startTree > 0)
+      for (int i = 0; i < sii._workspaceColCnt; i++)
+        preds[sii._predsAryOffset + i] = chks[sii._workspaceColIdx + i].atd(row_in_chunk);
+
+    final int ntrees = _output._treeKeys.length;
+    score0(tmp, preds, offset, sii._startTree, ntrees);
+
+    for (int i = 0; i < sii._workspaceColCnt; i++)
+      chks[sii._workspaceColIdx + i].set(row_in_chunk, preds[sii._predsAryOffset + i]);
+
+    unifyPreds(tmp, preds, offset, ntrees);
+    if (needsPostProcess() && isSupervised())
+      score0PostProcessSupervised(preds, tmp);
+    return preds;
   }
 
   @Override protected double[] score0(double[] data, double[] preds, double offset) {
@@ -513,7 +558,21 @@ public abstract class SharedTreeModel<
 
   protected double[] score0(double[] data, double[] preds, double offset, int ntrees) {
     Arrays.fill(preds,0);
-    return score0(data, preds, offset, 0, ntrees);
+    score0(data, preds, offset, 0, ntrees);
+    return unifyPreds(data, preds, offset, ntrees);
+  }
+
+  /**
+   * Transforms raw tree predictions (sums of the tree outputs) into the final model predictions.
+   * Counterpart of `SharedTreeMojoModel#unifyPreds` in h2o-genmodel.
+   * @param data input row
+   * @param preds raw tree predictions, will be overwritten by the final predictions
+   * @param offset row offset
+   * @param ntrees number of trees used to produce the raw predictions
+   * @return preds array
+   */
+  protected double[] unifyPreds(double[] data, double[] preds, double offset, int ntrees) {
+    return preds;
   }
 
   protected double[] score0(double[] data, double[] preds, double offset, int startTree, int ntrees) {
@@ -536,6 +595,94 @@ public abstract class SharedTreeModel<
     }
   }
 
+  @Override
+  protected BigScorePredict setupBigScorePredict(BigScore bs) {
+    if (!USE_BATCH_SCORING)
+      return bs;
+    return new TreeBatchBigScorePredict(new CompressedForest(_output._treeKeys, _output._domains).fetch());
+  }
+
+  /**
+   * Scores the rows of a chunk in blocks, iterating over the trees in the outer loop. This way a single tree
+   * is used to score a whole block of rows before moving to the next tree (as opposed to scoring all trees
+   * for a single row) - trees stay in the CPU cache and the tree data are streamed from memory only once per block.
+   */
+  private class TreeBatchBigScorePredict implements BigScorePredict {
+    private final CompressedForest.LocalCompressedForest _forest;
+
+    private TreeBatchBigScorePredict(CompressedForest.LocalCompressedForest forest) {
+      _forest = forest;
+    }
+
+    @Override
+    public BigScoreChunkPredict initMap(Frame fr, Chunk[] chks) {
+      return new TreeBatchBigScoreChunkPredict(scoreTreesBatch(_forest, chks), _forest._trees.length);
+    }
+  }
+
+  private class TreeBatchBigScoreChunkPredict implements BigScoreChunkPredict {
+    private final double[/*nrows*/][] _treePreds;
+    private final int _ntrees;
+
+    private TreeBatchBigScoreChunkPredict(double[][] treePreds, int ntrees) {
+      _treePreds = treePreds;
+      _ntrees = ntrees;
+    }
+
+    @Override
+    public double[] score0(Chunk[] chks, double offset, int row_in_chunk, double[] tmp, double[] preds) {
+      assert _output.nfeatures() == tmp.length;
+      for (int i = 0; i < tmp.length; i++)
+        tmp[i] = chks[i].atd(row_in_chunk);
+      final double[] treePreds = _treePreds[row_in_chunk];
+      Arrays.fill(preds, 0);
+      System.arraycopy(treePreds, 0, preds, 0, Math.min(treePreds.length, preds.length));
+      unifyPreds(tmp, preds, offset, _ntrees);
+      if (needsPostProcess() && isSupervised())
+        score0PostProcessSupervised(preds, tmp);
+      return preds;
+    }
+
+    @Override
+    public void close() {
+      // nothing to do
+    }
+  }
+
+  /**
+   * Calculates raw tree predictions (same as {@link #score0(double[], double[], double, int, int)}) for all rows
+   * of given chunks.
+   * @param forest trees to score
+   * @param chks input chunks, compatible with the model
+   * @return raw tree predictions for each row of the chunk
+   */
+  final double[][] scoreTreesBatch(CompressedForest.LocalCompressedForest forest, Chunk[] chks) {
+    final int len = chks[0]._len;
+    final int nfeatures = _output.nfeatures();
+    final int npreds = _output.nclasses() + 1;
+    final double[][] preds = new double[len][npreds];
+    final double[][] rows = new double[Math.min(BATCH_SCORING_BLOCK_SIZE, len)][nfeatures];
+    for (int blockStart = 0; blockStart < len; blockStart += rows.length) {
+      final int blockLen = Math.min(rows.length, len - blockStart);
+      for (int c = 0; c < nfeatures; c++) {
+        final Chunk chk = chks[c];
+        for (int r = 0; r < blockLen; r++)
+          rows[r][c] = chk.atd(blockStart + r);
+      }
+      for (CompressedTree[] ts : forest._trees) {
+        for (int c = 0; c < ts.length; c++) {
+          final CompressedTree tree = ts[c];
+          if (tree == null)
+            continue;
+          final int k = ts.length == 1 ? 0 : c + 1;
+          for (int r = 0; r < blockLen; r++)
+            preds[blockStart + r][k] += tree.score(rows[r], forest._domains);
+        }
+      }
+    }
+    return preds;
+  }
+
   /** Performs deep clone of given model.  */
   protected M deepClone(Key<M> result) {
     M newModel = IcedUtils.deepCopy(self());
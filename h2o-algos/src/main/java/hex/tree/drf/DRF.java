@@ -77,6 +77,12 @@ public class DRF extends SharedTree<hex.tree.drf.DRFModel, hex.tree.drf.DRFModel
   private class DRFDriver extends Driver {
     @Override protected boolean doOOBScoring() { return true; }
 
+    @Override
+    protected Frame makeValidWorkspace() {
+      // one tree per class, except for binomial problems built with the Boolean Optimization
+      return makeValidWorkspace(_nclass == 2 && _model.binomialOpt() ? 1 : _nclass);
+    }
+
     // --- Private data handled only on master node
     // Classification or Regression:
     // Tree votes/SSE of individual trees on OOB rows
@@ -166,12 +166,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
 
     @Override
     protected Frame makeValidWorkspace() {
-      // FIXME: this is not efficient, we need a sparse volatile chunks
-      Vec[] tmp = _valid.anyVec().makeVolatileDoubles(numClassTrees());
-      String[] tmpNames = new String[tmp.length];
-      for (int i = 0; i < tmpNames.length; i++)
-        tmpNames[i] = "__P_" + i;
-      return new Frame(tmpNames, tmp);
+      return makeValidWorkspace(numClassTrees());
     }
 
     @Override protected boolean doOOBScoring() { return false; }
@@ -13,6 +13,7 @@ import water.Iced;
 import water.Job;
 import water.Key;
 import water.MRTask;
+import water.fvec.C4VolatileChunk;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.util.PrettyPrint;
@@ -68,6 +69,19 @@ public class IsolationForest extends SharedTree<IsolationForestModel, IsolationF
       throw new IllegalStateException("Isolation Forest doesn't expect the distribution to be specified by the user");
     }
     _parms._distribution = DistributionFamily.gaussian;
+    if (_parms._prebinned_nbins != 0) {
+      if (_parms._prebinned_nbins < 2 || _parms._prebinned_nbins >= 1<<16)
+        error("_prebinned_nbins", "prebinned_nbins must be 0 (disabled) or in interval [2," + ((1<<16) - 1) + "] but it is " + _parms._prebinned_nbins);
+      else if (_parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.Random && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal)
+        error("_prebinned_nbins", "prebinned_nbins cannot be combined with histogram_type " + _parms._histogram_type);
+      else {
+        // split candidates of every node are taken from the global quantiles computed once before the first tree,
+        // instead of drawing new random split points in each node
+        _parms._histogram_type = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+        _parms._nbins = _parms._prebinned_nbins;
+        _parms._nbins_top_level = _parms._prebinned_nbins;
+      }
+    }
   }
 
   @Override
@@ -81,17 +95,39 @@ public class IsolationForest extends SharedTree<IsolationForestModel, IsolationF
     }
   }
 
-  private void randomResp(final long seed, final int iteration) {
-    new MRTask() {
-      @Override public void map(Chunk chks[]) {
-        Chunk c = chk_work(chks, 0);
-        final long chunk_seed = seed + (c.start() * (1 + iteration));
-        for (int i = 0; i < c._len; i++) {
-          double rnd = getRNG(chunk_seed + i).nextDouble();
-          chk_work(chks, 0).set(i, rnd);
+  /**
+   * Samples the rows used to build the next tree and assigns a random response to the sampled rows, in a single pass.
+   * Rows that were not sampled never reach the histograms, their response is left unchanged - only ~sample_size rows
+   * need a new random number (instead of all rows of the training frame). In-bag rows and their responses are the same
+   * as if the random response was generated for all rows first and the rows were sampled afterwards.
+   */
+  private static class SampleWithRandomResp extends MRTask<SampleWithRandomResp> {
+    private final long _treeSeed;
+    private final double _rate;
+    private final long _respSeed;
+    private final int _iteration;
+
+    private SampleWithRandomResp(DTree tree, double rate, long respSeed, int iteration) {
+      _treeSeed = tree._seed;
+      _rate = rate;
+      _respSeed = respSeed;
+      _iteration = iteration;
+    }
+
+    @Override
+    public void map(Chunk nids, Chunk work) {
+      final int[] is = ((C4VolatileChunk) nids).getValues();
+      final Random rand = getRNG(_treeSeed);
+      final long chunk_seed = _respSeed + (nids.start() * (1 + _iteration));
+      for (int row = 0; row < nids._len; row++) {
+        rand.setSeed(_treeSeed + row + nids.start()); // same sampling as hex.tree.Sample
+        if (rand.nextFloat() >= _rate) {
+          is[row] = ScoreBuildHistogram.OUT_OF_BAG;
+        } else {
+          work.set(row, getRNG(chunk_seed + row).nextDouble());
         }
       }
-    }.doAll(_train);
+    }
   }
 
   @Override
@@ -138,6 +174,12 @@ public class IsolationForest extends SharedTree<IsolationForestModel, IsolationF
   private class IsolationForestDriver extends Driver {
     @Override protected boolean doOOBScoring() { return true; }
 
+    @Override
+    protected Frame makeValidWorkspace() {
+      // keeps the sum of path lengths of the already scored trees, only new trees are used in each scoring event
+      return makeValidWorkspace(1);
+    }
+
     @Override protected void initializeModelSpecifics() {
       _mtry_per_tree = Math.max(1, (int)(_parms._col_sample_rate_per_tree * _ncols));
       if (!(1 <= _mtry_per_tree && _mtry_per_tree <= _ncols)) throw new IllegalArgumentException("Computed mtry_per_tree should be in interval <1,"+_ncols+"> but it is " + _mtry_per_tree);
@@ -159,14 +201,12 @@ public class IsolationForest extends SharedTree<IsolationForestModel, IsolationF
     // --------------------------------------------------------------------------
     // Build the next random k-trees representing tid-th tree
     @Override protected boolean buildNextKTrees() {
-      // Create a Random response
-      randomResp(_parms._seed, _model._output._ntrees);
-
       final long rseed = _rand.nextLong();
       final DTree tree = new DTree(_train, _ncols, _mtry, _mtry_per_tree, rseed, _parms);
       final DTree[] ktrees = {tree};
 
-      new Sample(tree, _parms._sample_rate, null)
+      // Sample the rows and create a Random response for them
+      new SampleWithRandomResp(tree, _parms._sample_rate, _parms._seed, _model._output._ntrees)
               .dfork(null, new Frame(vec_nids(_train, 0), vec_work(_train, 0)), _parms._build_tree_one_node)
               .getResult();
 
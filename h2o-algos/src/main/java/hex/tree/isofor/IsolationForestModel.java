@@ -19,6 +19,7 @@ public class IsolationForestModel extends SharedTreeModel<IsolationForestModel,
     public String javaName() { return IsolationForestModel.class.getName(); }
     public int _mtries;
     public long _sample_size;
+    public int _prebinned_nbins; // 0 = disabled, otherwise numeric columns are binned once on this many global quantiles
 
     public IsolationForestParameters() {
       super();
@@ -72,12 +73,7 @@ public class IsolationForestModel extends SharedTreeModel<IsolationForestModel,
     return new String[2][];
   }
 
-  /** Bulk scoring API for one row.  Chunks are all compatible with the model,
-   *  and expect the last Chunks are for the final distribution and prediction.
-   *  Default method is to just load the data into the tmp array, then call
-   *  subclass scoring logic. */
-  @Override protected double[] score0(double[] data, double[] preds, double offset, int ntrees) {
-    super.score0(data, preds, offset, ntrees);
+  @Override protected double[] unifyPreds(double[] data, double[] preds, double offset, int ntrees) {
     if (ntrees >= 1) preds[1] = preds[0] / ntrees;
     preds[0] = normalizePathLength(preds[0]);
     return preds;
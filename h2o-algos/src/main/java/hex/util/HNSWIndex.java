@@ -0,0 +1,391 @@
+package hex.util;
+
+import water.H2O;
+import water.LocalMR;
+import water.MrFun;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory approximate nearest neighbour index over float vectors based on Hierarchical Navigable
+ * Small World graphs (Malkov &amp; Yashunin, "Efficient and robust approximate nearest neighbor search using
+ * Hierarchical Navigable Small World graphs", 2016).
+ *
+ * Vectors are stored in a single flat array (vector i occupies positions [i*dim, (i+1)*dim)), the same layout
+ * Word2Vec uses for its embeddings, so an index can be built over an existing model without copying the vectors.
+ * Every vector is a node of a layered proximity graph, a query descends the layers greedily and then runs
+ * a best-first search of width ef on the bottom layer; the number of distance evaluations grows roughly
+ * logarithmically with the number of indexed vectors.
+ *
+ * The index is a node-local, transient structure - it is not meant to be put into DKV. Concurrent searches are
+ * safe, vectors can be added either one-by-one ({@link #add(float[])}, single writer) or in bulk and in parallel
+ * ({@link #build(Metric, int, float[], int)}).
+ */
+public class HNSWIndex {
+
+  public enum Metric {
+    Cosine,          // 1 - cosine similarity
+    SquaredEuclidean // missing values (NaN) are skipped and the sum is rescaled to the full dimension
+  }
+
+  static final int DEFAULT_M = 16;
+  static final int DEFAULT_EF_CONSTRUCTION = 100;
+  static final int DEFAULT_EF_SEARCH = 64;
+
+  private final Metric _metric;
+  private final int _dim;
+  private final int _m;       // max number of links of a node on the upper layers
+  private final int _maxM0;   // max number of links of a node on the bottom layer
+  private final int _efConstruction;
+  private final double _levelMult;
+  private final Random _rand;
+  private final Object _entryLock = new Object();
+
+  private float[] _data;
+  private float[] _norms;     // vector norms, only used by the Cosine metric
+  private int _size;
+  // _links[node][level] = {count, neighbour_1, .., neighbour_count, <free capacity>}
+  private int[][][] _links;
+  private int _entryPoint = -1;
+  private int _maxLevel = -1;
+
+  public HNSWIndex(Metric metric, int dim) {
+    this(metric, dim, DEFAULT_M, DEFAULT_EF_CONSTRUCTION, 0xDECAFL);
+  }
+
+  public HNSWIndex(Metric metric, int dim, int m, int efConstruction, long seed) {
+    if (dim < 1) throw new IllegalArgumentException("Dimension of the indexed vectors must be positive, got " + dim);
+    if (m < 2) throw new IllegalArgumentException("Number of links per node has to be at least 2, got " + m);
+    _metric = metric;
+    _dim = dim;
+    _m = m;
+    _maxM0 = 2 * m;
+    _efConstruction = Math.max(efConstruction, m);
+    _levelMult = 1 / Math.log(m);
+    _rand = new Random(seed);
+    _data = new float[0];
+    _norms = new float[0];
+    _links = new int[0][][];
+  }
+
+  /**
+   * Builds an index over vectors already stored in a flat array. The array is used as-is (not copied)
+   * and must not be modified while the index is in use.
+   *
+   * @param metric distance to use
+   * @param dim dimension of the vectors
+   * @param data flat array of vectors
+   * @param nthreads number of threads used to insert the vectors
+   * @return index containing all data.length / dim vectors, ids of the vectors correspond to their position in data
+   */
+  public static HNSWIndex build(Metric metric, int dim, float[] data, int nthreads) {
+    final HNSWIndex index = new HNSWIndex(metric, dim);
+    final int n = data.length / dim;
+    index._data = data;
+    index._norms = new float[n];
+    index._links = new int[n][][];
+    for (int i = 0; i < n; i++) {
+      index._norms[i] = index.norm(data, i * dim);
+      index.allocateLinks(i, index.randomLevel());
+    }
+    index._size = n;
+    // the first nodes are inserted sequentially to give the graph a well connected core
+    final int sequential = Math.min(n, Math.max(nthreads, 1) * index._efConstruction);
+    for (int i = 0; i < sequential; i++)
+      index.insert(i);
+    if (sequential < n) {
+      final AtomicInteger next = new AtomicInteger(sequential);
+      H2O.submitTask(new LocalMR(new MrFun() {
+        @Override
+        protected void map(int id) {
+          for (int i = next.getAndIncrement(); i < n; i = next.getAndIncrement())
+            index.insert(i);
+        }
+      }, Math.max(nthreads, 1))).join();
+    }
+    return index;
+  }
+
+  /**
+   * Adds a new vector to the index (single writer only).
+   *
+   * @param vec vector of the index' dimension, values are copied
+   * @return id of the new vector (ids are assigned sequentially starting from 0)
+   */
+  public int add(float[] vec) {
+    assert vec.length == _dim;
+    final int id = _size;
+    if (id == _links.length) {
+      int capacity = Math.max(16, id << 1);
+      _data = Arrays.copyOf(_data, capacity * _dim);
+      _norms = Arrays.copyOf(_norms, capacity);
+      _links = Arrays.copyOf(_links, capacity);
+    }
+    System.arraycopy(vec, 0, _data, id * _dim, _dim);
+    _norms[id] = norm(_data, id * _dim);
+    allocateLinks(id, randomLevel());
+    _size = id + 1;
+    insert(id);
+    return id;
+  }
+
+  public int size() { return _size; }
+
+  public int dim() { return _dim; }
+
+  /**
+   * Finds (approximately) the k nearest indexed vectors.
+   *
+   * @param query query vector
+   * @param k number of neighbours to return
+   * @param ef width of the search, larger values trade speed for recall (values below k are raised to k)
+   * @return ids of the neighbours, nearest first; fewer than k ids are returned if the index is smaller than k
+   */
+  public int[] search(float[] query, int k, int ef) {
+    assert query.length == _dim;
+    int entryPoint, maxLevel;
+    synchronized (_entryLock) {
+      entryPoint = _entryPoint;
+      maxLevel = _maxLevel;
+    }
+    if (entryPoint < 0 || k <= 0)
+      return new int[0];
+    final float qNorm = norm(query, 0);
+    Candidate ep = new Candidate(entryPoint, distance(query, 0, qNorm, entryPoint));
+    for (int level = maxLevel; level > 0; level--)
+      ep = greedySearch(query, 0, qNorm, ep, level, -1);
+    Candidate[] nearest = searchLayer(query, 0, qNorm, ep, Math.max(ef, k), 0, -1);
+    int[] ids = new int[Math.min(k, nearest.length)];
+    for (int i = 0; i < ids.length; i++)
+      ids[i] = nearest[i]._id;
+    return ids;
+  }
+
+  public int[] search(float[] query, int k) {
+    return search(query, k, DEFAULT_EF_SEARCH);
+  }
+
+  /**
+   * @return distance between the query and an indexed vector, according to the metric of this index
+   */
+  public double distance(float[] query, int id) {
+    return distance(query, 0, norm(query, 0), id);
+  }
+
+  private void insert(final int id) {
+    final int level = _links[id].length - 1;
+    final int qOff = id * _dim;
+    final float qNorm = _norms[id];
+    int entryPoint, maxLevel;
+    synchronized (_entryLock) {
+      entryPoint = _entryPoint;
+      maxLevel = _maxLevel;
+      if (entryPoint < 0) { // first node
+        _entryPoint = id;
+        _maxLevel = level;
+        return;
+      }
+    }
+    Candidate ep = new Candidate(entryPoint, distance(_data, qOff, qNorm, entryPoint));
+    for (int l = maxLevel; l > level; l--)
+      ep = greedySearch(_data, qOff, qNorm, ep, l, id);
+    for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+      Candidate[] candidates = searchLayer(_data, qOff, qNorm, ep, _efConstruction, l, id);
+      int[] neighbours = selectNeighbours(candidates, _m);
+      // during a parallel build other nodes might have linked to this node already, connect() keeps those links
+      for (int nb : neighbours)
+        connect(id, nb, l);
+      for (int nb : neighbours)
+        connect(nb, id, l);
+      ep = candidates[0];
+    }
+    if (level > maxLevel) {
+      synchronized (_entryLock) {
+        if (level > _maxLevel) {
+          _maxLevel = level;
+          _entryPoint = id;
+        }
+      }
+    }
+  }
+
+  // adds a link node -> newNode, if node is already fully connected its links are re-selected by the heuristic
+  private void connect(int node, int newNode, int level) {
+    final int maxConn = level == 0 ? _maxM0 : _m;
+    final int[] links = _links[node][level];
+    synchronized (links) {
+      int cnt = links[0];
+      for (int i = 1; i <= cnt; i++)
+        if (links[i] == newNode) return;
+      if (cnt < maxConn) {
+        links[++links[0]] = newNode;
+        return;
+      }
+      final int off = node * _dim;
+      final float norm = _norms[node];
+      Candidate[] candidates = new Candidate[cnt + 1];
+      for (int i = 0; i < cnt; i++)
+        candidates[i] = new Candidate(links[i + 1], distance(_data, off, norm, links[i + 1]));
+      candidates[cnt] = new Candidate(newNode, distance(_data, off, norm, newNode));
+      Arrays.sort(candidates, NEAREST_FIRST);
+      int[] selected = selectNeighbours(candidates, maxConn);
+      links[0] = selected.length;
+      System.arraycopy(selected, 0, links, 1, selected.length);
+    }
+  }
+
+  /**
+   * Neighbour selection heuristic (algorithm 4 of the paper with kept pruned connections): a candidate is
+   * preferred if it is closer to the base element than to any already selected neighbour, this keeps links
+   * pointing in diverse directions and the graph connected also for clustered data.
+   *
+   * @param candidates candidates sorted by the distance to the base element
+   * @param m max number of neighbours to select
+   */
+  private int[] selectNeighbours(Candidate[] candidates, int m) {
+    if (candidates.length <= m) {
+      int[] ids = new int[candidates.length];
+      for (int i = 0; i < ids.length; i++) ids[i] = candidates[i]._id;
+      return ids;
+    }
+    int[] selected = new int[m];
+    int cnt = 0;
+    boolean[] taken = new boolean[candidates.length];
+    for (int i = 0; i < candidates.length && cnt < m; i++) {
+      Candidate c = candidates[i];
+      boolean good = true;
+      for (int j = 0; j < cnt && good; j++)
+        good = distance(_data, c._id * _dim, _norms[c._id], selected[j]) > c._dist;
+      if (good) {
+        selected[cnt++] = c._id;
+        taken[i] = true;
+      }
+    }
+    for (int i = 0; i < candidates.length && cnt < m; i++)
+      if (!taken[i]) selected[cnt++] = candidates[i]._id;
+    return selected;
+  }
+
+  private Candidate greedySearch(float[] q, int qOff, float qNorm, Candidate ep, int level, int exclude) {
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      final int[] links = _links[ep._id][level];
+      synchronized (links) {
+        for (int i = 1; i <= links[0]; i++) {
+          if (links[i] == exclude) continue;
+          double d = distance(q, qOff, qNorm, links[i]);
+          if (d < ep._dist) {
+            ep = new Candidate(links[i], d);
+            changed = true;
+          }
+        }
+      }
+    }
+    return ep;
+  }
+
+  /**
+   * Best-first search of width ef within a single layer of the graph.
+   *
+   * @param exclude node that should never be returned (the node being inserted), -1 if none
+   * @return the ef nearest nodes found, nearest first
+   */
+  private Candidate[] searchLayer(float[] q, int qOff, float qNorm, Candidate ep, int ef, int level, int exclude) {
+    BitSet visited = new BitSet(_size);
+    visited.set(ep._id);
+    if (exclude >= 0) visited.set(exclude);
+    PriorityQueue<Candidate> candidates = new PriorityQueue<>(ef, NEAREST_FIRST);
+    PriorityQueue<Candidate> found = new PriorityQueue<>(ef + 1, FURTHEST_FIRST);
+    candidates.add(ep);
+    found.add(ep);
+    while (!candidates.isEmpty()) {
+      Candidate c = candidates.poll();
+      if (c._dist > found.peek()._dist)
+        break; // all remaining candidates are further than the worst result
+      final int[] links = _links[c._id][level];
+      synchronized (links) {
+        for (int i = 1; i <= links[0]; i++) {
+          final int nb = links[i];
+          if (visited.get(nb)) continue;
+          visited.set(nb);
+          double d = distance(q, qOff, qNorm, nb);
+          if (found.size() < ef || d < found.peek()._dist) {
+            Candidate nc = new Candidate(nb, d);
+            candidates.add(nc);
+            found.add(nc);
+            if (found.size() > ef) found.poll();
+          }
+        }
+      }
+    }
+    Candidate[] result = found.toArray(new Candidate[0]);
+    Arrays.sort(result, NEAREST_FIRST);
+    return result;
+  }
+
+  private void allocateLinks(int id, int level) {
+    _links[id] = new int[level + 1][];
+    for (int l = 0; l <= level; l++)
+      _links[id][l] = new int[(l == 0 ? _maxM0 : _m) + 1];
+  }
+
+  private int randomLevel() {
+    return (int) (-Math.log(1 - _rand.nextDouble()) * _levelMult);
+  }
+
+  private float norm(float[] v, int off) {
+    if (_metric != Metric.Cosine)
+      return 0;
+    double sum = 0;
+    for (int j = 0; j < _dim; j++) sum += v[off + j] * v[off + j];
+    return (float) Math.sqrt(sum);
+  }
+
+  private double distance(float[] q, int qOff, float qNorm, int id) {
+    final float[] data = _data;
+    final int off = id * _dim;
+    if (_metric == Metric.Cosine) {
+      final float norm = _norms[id];
+      if (qNorm == 0 || norm == 0)
+        return 1;
+      double dot = 0;
+      for (int j = 0; j < _dim; j++) dot += q[qOff + j] * data[off + j];
+      return 1 - dot / (qNorm * norm);
+    }
+    double sum = 0;
+    int n = 0;
+    for (int j = 0; j < _dim; j++) {
+      final float d1 = q[qOff + j];
+      final float d2 = data[off + j];
+      if (!Float.isNaN(d1) && !Float.isNaN(d2)) {
+        final double d = d1 - d2;
+        sum += d * d;
+        n++;
+      }
+    }
+    return n == 0 ? Double.POSITIVE_INFINITY : sum * _dim / n;
+  }
+
+  private static final class Candidate {
+    final int _id;
+    final double _dist;
+    Candidate(int id, double dist) { _id = id; _dist = dist; }
+  }
+
+  private static final Comparator<Candidate> NEAREST_FIRST = new Comparator<Candidate>() {
+    @Override
+    public int compare(Candidate o1, Candidate o2) { return Double.compare(o1._dist, o2._dist); }
+  };
+
+  private static final Comparator<Candidate> FURTHEST_FIRST = new Comparator<Candidate>() {
+    @Override
+    public int compare(Candidate o1, Candidate o2) { return Double.compare(o2._dist, o1._dist); }
+  };
+
+}
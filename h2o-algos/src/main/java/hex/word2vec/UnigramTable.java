@@ -0,0 +1,75 @@
+package hex.word2vec;
+
+import water.Key;
+import water.Keyed;
+
+/**
+ * Noise distribution used by negative sampling: words are drawn with probability proportional
+ * to count^power (power = 0.75 in the original word2vec). Instead of the 100M-entry lookup table
+ * of the C implementation the distribution is stored as a Walker/Vose alias table - two arrays
+ * of vocabulary size, O(1) per draw independently of the size of the vocabulary.
+ */
+class UnigramTable extends Keyed<UnigramTable> {
+  static final double DEFAULT_POWER = 0.75;
+
+  float[] _prob;
+  int[] _alias;
+
+  public UnigramTable() {}
+
+  private UnigramTable(Key<UnigramTable> key, int size) {
+    super(key);
+    _prob = new float[size];
+    _alias = new int[size];
+  }
+
+  static UnigramTable buildUnigramTable(long[] wordCounts, double power) {
+    final int size = wordCounts.length;
+    UnigramTable t = new UnigramTable(Key.<UnigramTable>make(), size);
+    if (size == 0)
+      return t;
+
+    double[] scaled = new double[size];
+    double total = 0;
+    for (int i = 0; i < size; i++) {
+      scaled[i] = Math.pow(wordCounts[i], power);
+      total += scaled[i];
+    }
+    // Vose's algorithm: split buckets into under-full and over-full ones and pair them up
+    int[] small = new int[size];
+    int[] large = new int[size];
+    int nSmall = 0, nLarge = 0;
+    for (int i = 0; i < size; i++) {
+      scaled[i] = scaled[i] * size / total;
+      if (scaled[i] < 1) small[nSmall++] = i;
+      else large[nLarge++] = i;
+    }
+    while (nSmall > 0 && nLarge > 0) {
+      int s = small[--nSmall];
+      int l = large[--nLarge];
+      t._prob[s] = (float) scaled[s];
+      t._alias[s] = l;
+      scaled[l] = (scaled[l] + scaled[s]) - 1;
+      if (scaled[l] < 1) small[nSmall++] = l;
+      else large[nLarge++] = l;
+    }
+    // leftovers are (up to numerical error) exactly full
+    while (nLarge > 0) { int l = large[--nLarge]; t._prob[l] = 1; t._alias[l] = l; }
+    while (nSmall > 0) { int s = small[--nSmall]; t._prob[s] = 1; t._alias[s] = s; }
+    return t;
+  }
+
+  int size() { return _prob.length; }
+
+  /**
+   * Draws a word from the noise distribution.
+   *
+   * @param bucket uniformly distributed integer in [0, size)
+   * @param coin uniformly distributed number in [0, 1)
+   * @return index of the sampled word
+   */
+  int sample(int bucket, float coin) {
+    return coin < _prob[bucket] ? bucket : _alias[bucket];
+  }
+
+}
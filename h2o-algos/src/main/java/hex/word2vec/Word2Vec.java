@@ -3,18 +3,23 @@ package hex.word2vec;
 import hex.ModelBuilder;
 import hex.ModelCategory;
 import hex.word2vec.Word2VecModel.*;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
 import water.Job;
 import water.fvec.Frame;
 import water.fvec.Vec;
 import water.util.Log;
+import water.util.PrettyPrint;
 import water.util.StringUtils;
+import water.util.TwoDimTable;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecParameters,Word2VecModel.Word2VecOutput> {
   public enum WordModel { SkipGram, CBOW }
-  public enum NormModel { HSM }
+  public enum NormModel { HSM, NegSampling }
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[]{ ModelCategory.WordEmbedding, }; }
   @Override public BuilderVisibility builderVisibility() { return BuilderVisibility.Stable; }
@@ -36,7 +41,7 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
    *  and each subclass will start with "super.init();".
    *
    *  Verify that at the first column contains strings. Validate _vec_size, _window_size,
-   *  _sent_sample_rate, _init_learning_rate, and epochs for values within range.
+   *  _sent_sample_rate, _init_learning_rate, epochs and _negative_samples for values within range.
    */
   @Override public void init(boolean expensive) {
     super.init(expensive);
@@ -50,6 +55,8 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
     if (_parms._sent_sample_rate < 0.0) error("_sent_sample_rate", "Negative sentence sample rate not allowed for Word2Vec.  Expected a value > 0.0, received " + _parms._sent_sample_rate);
     if (_parms._init_learning_rate < 0.0) error("_init_learning_rate", "Negative learning rate not allowed for Word2Vec.  Expected a value > 0.0, received " + _parms._init_learning_rate);
     if (_parms._epochs < 1) error("_epochs", "Negative epoch count not allowed for Word2Vec.  Expected value > 0, received " + _parms._epochs);
+    if (_parms._norm_model == NormModel.NegSampling && _parms._negative_samples < 1)
+      error("_negative_samples", "Negative sampling requires at least one noise word.  Expected value > 0, received " + _parms._negative_samples);
   }
 
   @Override
@@ -85,6 +92,7 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
       // main loop
       Log.info("Word2Vec: Starting to train model, " + _parms._epochs + " epochs.");
       long tstart = System.currentTimeMillis();
+      List<long[]> history = new ArrayList<>(); // {timestamp, processed words, duration in ms} for each epoch
       for (int i = 0; i < _parms._epochs; i++) {
         long start = System.currentTimeMillis();
         WordVectorTrainer trainer = new WordVectorTrainer(_job, modelInfo).doAll(_parms.trainVec());
@@ -95,10 +103,12 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
           Log.warn("Estimated number processed words " + estProcessedWords +
                   " is significantly lower than actual number processed words " + actProcessedWords);
         trainer.updateModelInfo(modelInfo);
-        model.update(_job); // Early version of model is visible
         double duration = (stop - start) / 1000.0;
         Log.info("Epoch " + i + " took "  + duration + "s; Words trained/s: " + actProcessedWords / duration);
         model._output._epochs=i;
+        history.add(new long[]{stop, actProcessedWords, stop - start});
+        model._output._scoring_history = createScoringHistoryTable(history);
+        model.update(_job); // Early version of model is visible
 
         if (stop_requested()) { // do at least one iteration to avoid null model being returned and all hell will break loose
           break;
@@ -109,6 +119,26 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
       Log.info("Finished training the Word2Vec model.");
       model.buildModelOutput(modelInfo);
     }
+    private TwoDimTable createScoringHistoryTable(List<long[]> history) {
+      TwoDimTable table = new TwoDimTable(
+              "Scoring History", null,
+              new String[history.size()],
+              new String[]{"Timestamp", "Duration", "Epochs", "Words Processed", "Words/sec"},
+              new String[]{"string", "string", "long", "long", "double"},
+              new String[]{"%s", "%s", "%d", "%d", "%.1f"},
+              "");
+      DateTimeFormatter fmt = DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ss");
+      for (int i = 0; i < history.size(); i++) {
+        long[] h = history.get(i);
+        int col = 0;
+        table.set(i, col++, fmt.print(h[0]));
+        table.set(i, col++, PrettyPrint.msecs(h[0] - _job.start_time(), true));
+        table.set(i, col++, i + 1);
+        table.set(i, col++, h[1]);
+        table.set(i, col++, h[2] > 0 ? h[1] * 1000.0 / h[2] : Double.NaN);
+      }
+      return table;
+    }
     private void convertToModel(Frame preTrained, Word2VecModel model) {
       if (_parms._vec_size != preTrained.numCols() - 1) {
         throw new IllegalStateException("Frame with pre-trained model doesn't conform to the specified vector length.");
@@ -3,6 +3,7 @@ package hex.word2vec;
 import hex.ModelCategory;
 import hex.ModelMetrics;
 import hex.ModelMojoWriter;
+import hex.util.HNSWIndex;
 import water.*;
 import water.fvec.*;
 import water.parser.BufferedString;
@@ -15,6 +16,9 @@ import java.util.*;
 
 public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word2VecOutput> {
 
+  // node-local approximate nearest neighbour index over the word vectors, built lazily on the first approximate query
+  private transient volatile HNSWIndex _synonymIndex;
+
   public Word2VecModel(Key<Word2VecModel> selfKey, Word2VecParameters params, Word2VecOutput output) {
     super(selfKey, params, output);
     assert(Arrays.equals(_key._kb, selfKey._kb));
@@ -242,6 +246,52 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
     return result;
   }
 
+  /**
+   * Find synonyms, optionally using an approximate nearest neighbour index instead of a full scan
+   * of the vocabulary. The index is built on the first approximate query and reused afterwards.
+   *
+   * @param target String of desired word
+   * @param cnt Number of synonyms to find
+   * @param approximate if true, candidates are retrieved from the index (see {@link #synonymIndex()})
+   */
+  public Map<String, Float> findSynonyms(String target, int cnt, boolean approximate) {
+    if (!approximate)
+      return findSynonyms(target, cnt);
+    float[] vec = transform(target);
+
+    if ((vec == null) || (cnt == 0))
+      return Collections.emptyMap();
+
+    final int targetIdx = _output._vocab.get(new BufferedString(target));
+    int[] candidates = synonymIndex().search(vec, cnt + 1);
+    Map<String, Float> result = new HashMap<>(cnt);
+    for (int i = 0; i < candidates.length && result.size() < cnt; i++) {
+      if (candidates[i] == targetIdx)
+        continue;
+      float score = cosineSimilarity(vec, candidates[i] * vec.length, _output._vecs);
+      if (score >= 0.999999)
+        continue;
+      result.put(_output._words[candidates[i]].toString(), score);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the approximate nearest neighbour index (cosine distance) over the word vectors of this model,
+   * the index is built on the first call using all cores of this node.
+   */
+  public HNSWIndex synonymIndex() {
+    HNSWIndex index = _synonymIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = _synonymIndex;
+        if (index == null)
+          _synonymIndex = index = HNSWIndex.build(HNSWIndex.Metric.Cosine, _output._vecSize, _output._vecs, H2O.NUMCPUS);
+      }
+    }
+    return index;
+  }
+
   /**
    * Basic calculation of cosine similarity
    * @param target - a word vector
@@ -293,6 +343,7 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
 
     public Word2Vec.WordModel _word_model = Word2Vec.WordModel.SkipGram;
     public Word2Vec.NormModel _norm_model = Word2Vec.NormModel.HSM;
+    public int _negative_samples = 5; // number of noise words drawn per target when _norm_model == NegSampling
     public int _min_word_freq = 5;
     public int _vec_size = 100;
     public int _window_size = 5;
@@ -325,6 +376,7 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
 
     float[] _syn0, _syn1;
     Key<HBWTree> _treeKey;
+    Key<UnigramTable> _unigramTableKey;
     Key<Vocabulary> _vocabKey;
     Key<WordCounts> _wordCountsKey;
 
@@ -360,10 +412,12 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
         countAry[idx] = wc.getValue()._val;
         vocab._data.put(wc.getKey(), idx++);
       }
-      HBWTree t = HBWTree.buildHuffmanBinaryWordTree(countAry);
 
       _vocabWordCount = vocabWordCount;
-      _treeKey = publish(t);
+      if (_parameters._norm_model == Word2Vec.NormModel.NegSampling)
+        _unigramTableKey = publish(UnigramTable.buildUnigramTable(countAry, UnigramTable.DEFAULT_POWER));
+      else
+        _treeKey = publish(HBWTree.buildHuffmanBinaryWordTree(countAry));
       _vocabKey = publish(vocab);
       _wordCountsKey = publish(wordCounts);
 
@@ -26,7 +26,8 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
 
   // Params
   private final Word2Vec.WordModel _wordModel;
-  private final int _wordVecSize, _windowSize, _epochs;
+  private final Word2Vec.NormModel _normModel;
+  private final int _wordVecSize, _windowSize, _epochs, _negativeSamples;
   private final float _initLearningRate;
   private final float _sentSampleRate;
   private final long _vocabWordCount;
@@ -35,12 +36,16 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   private final Key<Vocabulary> _vocabKey;
   private final Key<WordCounts> _wordCountsKey;
   private final Key<HBWTree> _treeKey;
+  private final Key<UnigramTable> _unigramTableKey;
   private final long _prevTotalProcessedWords;
 
   // Model IN & OUT
   // _syn0 represents the matrix of synaptic weights connecting the input layer of the NN to the hidden layer,
   // similarly _syn1 corresponds to the weight matrix of the synapses connecting the hidden layer to the output layer
   // both matrices are represented in a 1D array, where M[i,j] == array[i * VEC_SIZE + j]
+  // With NegSampling _syn1 holds the output vectors of the words themselves (syn1neg in the C implementation).
+  // All map calls on the same node share these arrays and update them without any locking (Hogwild!-style),
+  // only the copies of different nodes are averaged in reduce.
   float[] _syn0, _syn1;
   long _processedWords = 0L;
 
@@ -50,6 +55,7 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   private transient IcedHashMap<BufferedString, IcedLong> _wordCounts;
   private transient int[][] _HBWTCode;
   private transient int[][] _HBWTPoint;
+  private transient UnigramTable _unigramTable;
 
   private float _curLearningRate;
   private long _seed = System.nanoTime();
@@ -59,11 +65,14 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     _job = job;
 
     _treeKey = input._treeKey;
+    _unigramTableKey = input._unigramTableKey;
     _vocabKey = input._vocabKey;
     _wordCountsKey = input._wordCountsKey;
 
     // Params
     _wordModel = input.getParams()._word_model;
+    _normModel = input.getParams()._norm_model;
+    _negativeSamples = input.getParams()._negative_samples;
     _wordVecSize = input.getParams()._vec_size;
     _windowSize = input.getParams()._window_size;
     _sentSampleRate = input.getParams()._sent_sample_rate;
@@ -82,9 +91,13 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
   protected void setupLocal() {
     _vocab = ((Vocabulary) DKV.getGet(_vocabKey))._data;
     _wordCounts = ((WordCounts) DKV.getGet(_wordCountsKey))._data;
-    HBWTree t = DKV.getGet(_treeKey);
-    _HBWTCode = t._code;
-    _HBWTPoint = t._point;
+    if (_normModel == Word2Vec.NormModel.NegSampling) {
+      _unigramTable = DKV.getGet(_unigramTableKey);
+    } else {
+      HBWTree t = DKV.getGet(_treeKey);
+      _HBWTCode = t._code;
+      _HBWTPoint = t._point;
+    }
     _nodeProcessedWords = new IcedLong(0L);
   }
 
@@ -103,6 +116,9 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     float[] neu1 = new float[vecSize];
     float[] neu1e = new float[vecSize];
     ChunkSentenceIterator sentIter = new ChunkSentenceIterator(chk);
+    // map calls on the same node are clones of one task, make sure they don't draw the same random sequence
+    _seed ^= (chk.start() + 1) * 0x9E3779B97F4A7C15L;
+    if (_seed == 0) _seed = 0xDECAFL;
 
     int wordCount = 0;
     while (sentIter.hasNext()) {
@@ -165,7 +181,10 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     final int l1 = winWord * vecSize;
     for (int i = 0; i < vecSize; i++) neu1e[i] = 0;
 
-    hierarchicalSoftmaxSG(curWord, l1, neu1e);
+    if (_normModel == Word2Vec.NormModel.NegSampling)
+      negativeSampling(curWord, _syn0, l1, neu1e);
+    else
+      hierarchicalSoftmaxSG(curWord, l1, neu1e);
 
     // Learned weights input -> hidden
     for (int i = 0; i < vecSize; i++) _syn0[i + l1] += neu1e[i];
@@ -209,7 +228,10 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     final int curWinSize = winSize * 2 + 1 - winSize;
 
     for (int i = 0; i < vecSize; i++) neu1[i] /= bagSize;
-    hierarchicalSoftmaxCBOW(curWord, neu1, neu1e);
+    if (_normModel == Word2Vec.NormModel.NegSampling)
+      negativeSampling(curWord, neu1, 0, neu1e);
+    else
+      hierarchicalSoftmaxCBOW(curWord, neu1, neu1e);
 
     // hidden -> in
     for (int winIdx = winSizeMod; winIdx < curWinSize; winIdx++) {
@@ -246,6 +268,48 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     }
   }
 
+  /**
+   * Negative sampling: instead of walking the Huffman tree the target word is contrasted
+   * with _negativeSamples noise words drawn from the unigram^0.75 distribution.
+   *
+   * @param targetWord word that is supposed to be predicted (label 1)
+   * @param hidden array holding the hidden layer (a row of _syn0 for SkipGram, the averaged context for CBOW)
+   * @param l1 offset of the hidden layer in the array
+   * @param neu1e accumulated error that will be propagated back to the input layer
+   */
+  private void negativeSampling(final int targetWord, final float[] hidden, final int l1, float[] neu1e) {
+    final int vecSize = _wordVecSize, vocabSize = _unigramTable.size();
+    final float alpha = _curLearningRate;
+
+    for (int d = 0; d <= _negativeSamples; d++) {
+      int target;
+      int label;
+      if (d == 0) {
+        target = targetWord;
+        label = 1;
+      } else {
+        target = _unigramTable.sample(cheapRandInt(vocabSize), cheapRandFloat());
+        if (target == targetWord) continue;
+        label = 0;
+      }
+      int l2 = target * vecSize;
+
+      float f = 0;
+      // Propagate hidden -> output (calc sigmoid)
+      for (int j = 0; j < vecSize; j++) f += hidden[j + l1] * _syn1[j + l2];
+
+      float gradient;
+      if (f > MAX_EXP) gradient = (label - 1) * alpha;
+      else if (f < -MAX_EXP) gradient = label * alpha;
+      else gradient = (label - _expTable[(int) ((f + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))]) * alpha;
+
+      // Propagate errors output -> hidden
+      for (int j = 0; j < vecSize; j++) neu1e[j] += gradient * _syn1[j + l2];
+      // Learn weights hidden -> output
+      for (int j = 0; j < vecSize; j++) _syn1[j + l2] += gradient * hidden[j + l1];
+    }
+  }
+
   /**
    * Calculates a new global learning rate for the next round
    * of map/reduce calls.
@@ -278,6 +342,16 @@ public class WordVectorTrainer extends MRTask<WordVectorTrainer> {
     return r > 0 ? r : -r;
   }
 
+  /**
+   * @return float between 0-1 (exclusive), uses the same generator as cheapRandInt.
+   */
+  private float cheapRandFloat() {
+    _seed ^= ( _seed << 21);
+    _seed ^= ( _seed >>> 35);
+    _seed ^= ( _seed << 4);
+    return (_seed >>> 40) / (float) (1 << 24);
+  }
+
   private class ChunkSentenceIterator implements Iterator<int[]> {
 
     private Chunk _chk;
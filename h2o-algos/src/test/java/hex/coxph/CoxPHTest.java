@@ -199,6 +199,204 @@ public class CoxPHTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testCoxPHEfron1VarNoStartSortedRiskSets() {
+    CoxPHModel model = null;
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/coxph_test/heart.csv");
+
+      CoxPHModel.CoxPHParameters parms = new CoxPHModel.CoxPHParameters();
+      parms._calc_cumhaz = true;
+      parms._train           = fr._key;
+      parms._start_column    = null;
+      parms._stop_column     = "stop";
+      parms._response_column = "event";
+      parms._ignored_columns = new String[]{"id", "year", "surgery", "transplant", "start"};
+      parms._ties = CoxPHModel.CoxPHParameters.CoxPHTies.efron;
+      parms._sort_risk_sets = true;
+
+      CoxPH builder = new CoxPH(parms);
+      model = builder.trainModel().get();
+
+      assertEquals(model._output._coef[0],        0.0289468187293998,   1e-8);
+      assertEquals(model._output._var_coef[0][0], 0.000210975113029285, 1e-8);
+      assertEquals(model._output._null_loglik,    -314.148170059513,    1e-8);
+      assertEquals(model._output._loglik,         -311.946958322919,    1e-8);
+      assertEquals(model._output._score_test,     3.97716015008595,     1e-8);
+      assertTrue(model._output._iter >= 1);
+      assertEquals(model._output._x_mean_num[0][0],  -2.48402655078554,    1e-8);
+      assertEquals(model._output._n,              172);
+      assertEquals(model._output._total_event,    75);
+      assertEquals(model._output._wald_test,      3.97164529276219,     1e-8);
+      assertEquals(model._output._var_cumhaz_2_matrix.rows(), 110);
+    } finally {
+      if (fr != null)
+        fr.delete();
+      if (model != null)
+        model.delete();
+    }
+  }
+
+  @Test
+  public void testCoxPHBreslow1VarNoStartSortedRiskSets() {
+    CoxPHModel model = null;
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/coxph_test/heart.csv");
+
+      CoxPHModel.CoxPHParameters parms = new CoxPHModel.CoxPHParameters();
+      parms._calc_cumhaz = true;
+      parms._train           = fr._key;
+      parms._start_column    = null;
+      parms._stop_column     = "stop";
+      parms._response_column = "event";
+      parms._ignored_columns = new String[]{"id", "year", "surgery", "transplant", "start"};
+      parms._ties = CoxPHModel.CoxPHParameters.CoxPHTies.breslow;
+      parms._sort_risk_sets = true;
+
+      CoxPH builder = new CoxPH(parms);
+      model = builder.trainModel().get();
+
+      assertEquals(model._output._coef[0],        0.0289484855901731,   1e-8);
+      assertEquals(model._output._var_coef[0][0], 0.000211028794751156, 1e-8);
+      assertEquals(model._output._null_loglik,    -314.296493366900,    1e-8);
+      assertEquals(model._output._loglik,         -312.095342077591,    1e-8);
+      assertEquals(model._output._score_test,     3.97665282498882,     1e-8);
+      assertTrue(model._output._iter >= 1);
+      assertEquals(model._output._x_mean_num[0][0],  -2.48402655078554,    1e-8);
+      assertEquals(model._output._n,              172);
+      assertEquals(model._output._total_event,    75);
+      assertEquals(model._output._wald_test,      3.97109228128153,     1e-8);
+      assertEquals(model._output._var_cumhaz_2_matrix.rows(), 110);
+    } finally {
+      if (fr != null)
+        fr.delete();
+      if (model != null)
+        model.delete();
+    }
+  }
+
+  @Test
+  public void testCoxPHSortedRiskSetsMatchStratified() {
+    try {
+      Scope.enter();
+      Frame fr = Scope.track(parse_test_file("smalldata/coxph_test/heart.csv"));
+      Scope.track(fr.replace(fr.find("surgery"), fr.vec("surgery").toCategoricalVec()));
+      DKV.put(fr);
+
+      for (CoxPHModel.CoxPHParameters.CoxPHTies ties : CoxPHModel.CoxPHParameters.CoxPHTies.values()) {
+        CoxPHModel[] models = new CoxPHModel[2];
+        for (int i = 0; i < models.length; i++) {
+          CoxPHModel.CoxPHParameters parms = new CoxPHModel.CoxPHParameters();
+          parms._calc_cumhaz = true;
+          parms._train           = fr._key;
+          parms._stop_column     = "stop";
+          parms._response_column = "event";
+          parms._ignored_columns = new String[]{"id", "start"};
+          parms._stratify_by     = new String[]{"surgery"};
+          parms._ties = ties;
+          parms._sort_risk_sets = i == 1;
+          models[i] = new CoxPH(parms).trainModel().get();
+          Scope.track_generic(models[i]);
+        }
+        CoxPHModel.CoxPHOutput dense = models[0]._output;
+        CoxPHModel.CoxPHOutput sorted = models[1]._output;
+        assertEquals(dense._coef.length, sorted._coef.length);
+        assertArrayEquals(dense._coef, sorted._coef, 1e-8);
+        for (int j = 0; j < dense._coef.length; j++)
+          assertArrayEquals(dense._var_coef[j], sorted._var_coef[j], 1e-8);
+        assertEquals(dense._null_loglik, sorted._null_loglik, 1e-8);
+        assertEquals(dense._loglik, sorted._loglik, 1e-8);
+        assertEquals(dense._total_event, sorted._total_event);
+        assertArrayEquals(dense._n_risk, sorted._n_risk, 1e-8);
+        assertArrayEquals(dense._cumhaz_0, sorted._cumhaz_0, 1e-8);
+        assertArrayEquals(dense._var_cumhaz_1, sorted._var_cumhaz_1, 1e-8);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testCoxPHSortedRiskSetsManyChunks() {
+    try {
+      Scope.enter();
+      Frame raw = Scope.track(parse_test_file("smalldata/coxph_test/heart.csv"));
+      Scope.track(raw.replace(raw.find("surgery"), raw.vec("surgery").toCategoricalVec()));
+      // ~4 rows per chunk: groups of tied times span several chunks, strata change inside of a chunk
+      Key<Frame> key = Key.make();
+      H2O.submitTask(new RebalanceDataSet(raw, key, 43)).join();
+      Frame fr = Scope.track(DKV.<Frame>getGet(key));
+
+      // the sorted frame keeps the chunk layout and tied times cross the chunk boundaries
+      Frame sortedFr = Scope.track(SortedRiskSets.sortByStopTime(fr, "stop"));
+      Vec stop = sortedFr.vec("stop");
+      assertTrue(stop.nChunks() >= 43);
+      int crossingTies = 0;
+      for (int c = 1; c < stop.nChunks(); c++) {
+        long first = stop.espc()[c];
+        if (first > 0 && first < stop.length() && stop.at(first - 1) == stop.at(first))
+          crossingTies++;
+      }
+      assertTrue(crossingTies > 0);
+
+      for (boolean stratified : new boolean[]{false, true}) {
+        for (CoxPHModel.CoxPHParameters.CoxPHTies ties : CoxPHModel.CoxPHParameters.CoxPHTies.values()) {
+          CoxPHModel[] models = new CoxPHModel[2];
+          for (int i = 0; i < models.length; i++) {
+            CoxPHModel.CoxPHParameters parms = new CoxPHModel.CoxPHParameters();
+            parms._calc_cumhaz = true;
+            parms._train           = fr._key;
+            parms._stop_column     = "stop";
+            parms._response_column = "event";
+            parms._ignored_columns = stratified ? new String[]{"id", "start"} : new String[]{"id", "start", "surgery"};
+            parms._stratify_by     = stratified ? new String[]{"surgery"} : null;
+            parms._ties = ties;
+            parms._sort_risk_sets = i == 1;
+            models[i] = new CoxPH(parms).trainModel().get();
+            Scope.track_generic(models[i]);
+          }
+          CoxPHModel.CoxPHOutput dense = models[0]._output;
+          CoxPHModel.CoxPHOutput sorted = models[1]._output;
+          assertArrayEquals(dense._coef, sorted._coef, 1e-8);
+          for (int j = 0; j < dense._coef.length; j++)
+            assertArrayEquals(dense._var_coef[j], sorted._var_coef[j], 1e-8);
+          assertEquals(dense._null_loglik, sorted._null_loglik, 1e-8);
+          assertEquals(dense._loglik, sorted._loglik, 1e-8);
+          assertEquals(dense._total_event, sorted._total_event);
+          assertArrayEquals(dense._n_risk, sorted._n_risk, 1e-8);
+          assertArrayEquals(dense._cumhaz_0, sorted._cumhaz_0, 1e-8);
+          assertArrayEquals(dense._var_cumhaz_1, sorted._var_cumhaz_1, 1e-8);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testCoxPHSortedRiskSetsRejectStartColumn() {
+    try {
+      Scope.enter();
+      Frame fr = Scope.track(parse_test_file("smalldata/coxph_test/heart.csv"));
+
+      CoxPHModel.CoxPHParameters parms = new CoxPHModel.CoxPHParameters();
+      parms._train           = fr._key;
+      parms._start_column    = "start";
+      parms._stop_column     = "stop";
+      parms._response_column = "event";
+      parms._ignored_columns = new String[]{"id"};
+      parms._sort_risk_sets  = true;
+
+      CoxPH builder = new CoxPH(parms);
+      assertTrue(builder.error_count() > 0);
+      assertTrue(builder.validationErrors().contains("sorted risk sets are not supported"));
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testCoxPHEfron1Interaction() {
     try {
@@ -84,7 +84,8 @@ public class DeepLearningGradientCheck extends TestUtil {
                     false
             }) {
               for (int miniBatchSize : new int[]{
-                      1
+                      1,
+                      4 // mini-batch kernels: gradients accumulated over the mini-batch
               }) {
                 if (response.equals("Class")) {
                   if (dist != DistributionFamily.multinomial && dist != DistributionFamily.AUTO)
@@ -12,6 +12,7 @@ import water.exceptions.H2OModelBuilderIllegalArgumentException;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NFSFileVec;
+import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
 import water.parser.ParseDataset;
 import water.util.*;
@@ -20,6 +21,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -570,6 +572,51 @@ public class DeepLearningTest extends TestUtil {
     }
   }
 
+  @Test public void parameterServer() {
+    DeepLearningModel[] models = new DeepLearningModel[2];
+    Scope.enter();
+    try {
+      Frame frTrain = parse_test_file("./smalldata/covtype/covtype.20k.data");
+      Vec resp = frTrain.lastVec().toCategoricalVec();
+      frTrain.remove(frTrain.vecs().length - 1).remove();
+      frTrain.add("Response", resp);
+      DKV.put(frTrain);
+      Scope.track(frTrain);
+      for (int i = 0; i < models.length; ++i) {
+        DeepLearningParameters dl = new DeepLearningParameters();
+        dl._train = frTrain._key;
+        dl._response_column = frTrain.lastVecName();
+        dl._hidden = new int[]{17, 11};
+        dl._seed = 1234;
+        dl._epochs = 2;
+        dl._train_samples_per_iteration = 5000; // several M/R iterations, each of them pushing to the parameter server
+        dl._parameter_server = i == 1;
+        models[i] = new DeepLearning(dl).trainModel().get();
+      }
+      // the parameter server shards are removed once training is done
+      Assert.assertNotNull(models[1].model_info().ps_versions);
+      Assert.assertNull(DKV.get(ParameterServer.shardKey(models[1].model_info(), 0)));
+      Log.info("MSE without parameter server: " + models[0]._output._training_metrics._MSE
+              + ", with parameter server: " + models[1]._output._training_metrics._MSE);
+      Assert.assertEquals(models[0]._output._training_metrics._MSE, models[1]._output._training_metrics._MSE, 0.1);
+    } finally {
+      for (DeepLearningModel m : models)
+        if (m != null) m.delete();
+      Scope.exit();
+    }
+  }
+
+  @Test public void parameterServerValidation() {
+    DeepLearningParameters dl = new DeepLearningParameters();
+    dl._parameter_server = true;
+    dl._elastic_averaging = true;
+    dl._parameter_server_staleness = -1;
+    DeepLearning job = new DeepLearning(dl);
+    Assert.assertTrue(job.error_count() > 0);
+    Assert.assertTrue(job.validationErrors().contains("Cannot use the parameter server together with elastic averaging."));
+    Assert.assertTrue(job.validationErrors().contains("Parameter server staleness must be >= 0."));
+  }
+
   @Ignore
   @Test public void elasticAveraging() {
     DeepLearningParameters dl;
@@ -1600,27 +1647,108 @@ public class DeepLearningTest extends TestUtil {
 
   @Test
   public void testMiniBatch50() {
-    Frame tfr = null;
-    DeepLearningModel dl = null;
+    Scope.enter();
+    try {
+      Frame tfr = Scope.track(parse_test_file("./smalldata/gbm_test/BostonHousing.csv"));
+      double[] mse = new double[2];
+      for (int i = 0; i < mse.length; i++) {
+        DeepLearningParameters parms = new DeepLearningParameters();
+        parms._train = tfr._key;
+        parms._response_column = tfr.lastVecName();
+        parms._reproducible = true;
+        parms._hidden = new int[]{20,20};
+        parms._seed = 0xdecaf;
+        parms._mini_batch_size = 50;
+        parms._epochs = 200; // one weight update per mini-batch
+
+        DeepLearningModel dl = new DeepLearning(parms).trainModel().get();
+        Scope.track_generic(dl);
+        mse[i] = dl._output._training_metrics._MSE;
+      }
+      // reproducible: the mini-batch kernels don't depend on the thread scheduling
+      Assert.assertEquals(mse[0], mse[1], 0);
+      // mini-batches are honoured (the model differs from the mini_batch_size = 1 model of testMiniBatch1)
+      Assert.assertNotEquals(12.938076268040659, mse[0], 1e-6);
+      Assert.assertTrue(mse[0] < 40); // variance of the response is 84.4
+    } finally {
+      Scope.exit();
+    }
+  }
 
+  @Test
+  public void testSparseInput() {
+    Scope.enter();
     try {
-      tfr = parse_test_file("./smalldata/gbm_test/BostonHousing.csv");
-      DeepLearningParameters parms = new DeepLearningParameters();
-      parms._train = tfr._key;
-      parms._response_column = tfr.lastVecName();
-      parms._reproducible = true;
-      parms._hidden = new int[]{20,20};
-      parms._seed = 0xdecaf;
-      parms._mini_batch_size = 50;
+      // wide and sparse: ~1% non-zeros, the first hidden layer uses the sparse input kernels
+      final int rows = 1000, cols = 300;
+      Random rng = new Random(0x5BA25E);
+      double[][] data = new double[cols + 1][rows];
+      for (int r = 0; r < rows; r++) {
+        for (int c = 0; c < cols; c++)
+          if (rng.nextDouble() < 0.01) data[c][r] = 1 + rng.nextDouble();
+        data[cols][r] = data[0][r] + data[1][r] - data[2][r] + 0.01 * rng.nextGaussian();
+      }
+      TestFrameBuilder builder = new TestFrameBuilder().withUniformVecTypes(cols + 1, Vec.T_NUM);
+      for (int c = 0; c <= cols; c++)
+        builder = builder.withDataForCol(c, data[c]);
+      Frame tfr = Scope.track(builder.build());
 
-      dl = new DeepLearning(parms).trainModel().get();
+      double[] mse = new double[2];
+      for (int i = 0; i < mse.length; i++) {
+        DeepLearningParameters parms = new DeepLearningParameters();
+        parms._train = tfr._key;
+        parms._response_column = tfr.lastVecName();
+        parms._reproducible = true;
+        parms._seed = 1234;
+        parms._sparse = true;
+        parms._hidden = new int[]{20};
+        parms._epochs = 20;
+        parms._adaptive_rate = false;
+        parms._rate = 0.01;
+        parms._momentum_start = 0;
+        parms._momentum_stable = 0;
+        // without fast_mode the dense kernel is used for back-propagation - it updates all weights, but the ones
+        // of zero inputs don't change as there is no momentum and no regularization
+        parms._fast_mode = i == 0;
+        DeepLearningModel dl = new DeepLearning(parms).trainModel().get();
+        Scope.track_generic(dl);
+        mse[i] = dl._output._training_metrics._MSE;
+      }
+      final double var = tfr.lastVec().sigma() * tfr.lastVec().sigma();
+      Log.info("Sparse input MSE: " + mse[0] + ", variance of the response: " + var);
+      Assert.assertTrue(mse[0] < 0.5 * var);
+      Assert.assertEquals(mse[1], mse[0], 1e-6 * mse[1]);
+    } finally {
+      Scope.exit();
+    }
+  }
 
-      Assert.assertEquals(12.938076268040659,dl._output._training_metrics._MSE,1e-6);
+  @Test
+  public void testMiniBatch50Float32() {
+    Scope.enter();
+    try {
+      Frame tfr = Scope.track(parse_test_file("./smalldata/gbm_test/BostonHousing.csv"));
+      double[] mse = new double[2];
+      for (int i = 0; i < mse.length; i++) {
+        DeepLearningParameters parms = new DeepLearningParameters();
+        parms._train = tfr._key;
+        parms._response_column = tfr.lastVecName();
+        parms._reproducible = true;
+        parms._hidden = new int[]{20,20};
+        parms._seed = 0xdecaf;
+        parms._mini_batch_size = 50;
+        parms._epochs = 200; // one weight update per mini-batch
+        parms._float32_activations = i == 1;
 
+        DeepLearningModel dl = new DeepLearning(parms).trainModel().get();
+        Scope.track_generic(dl);
+        mse[i] = dl._output._training_metrics._MSE;
+      }
+      // reference: the same model trained with double precision activations, only rounding errors differ
+      Assert.assertNotEquals(mse[0], mse[1], 0);
+      Assert.assertEquals(mse[0], mse[1], 1e-2 * mse[0]);
     } finally {
-      if (tfr != null) tfr.delete();
-      if (dl != null) dl.deleteCrossValidationModels();
-      if (dl != null) dl.delete();
+      Scope.exit();
     }
   }
 
@@ -6,11 +6,108 @@ import org.junit.*;
 import water.util.ArrayUtils;
 import water.util.Log;
 import water.util.PrettyPrint;
+import java.util.Arrays;
 import java.util.Random;
 
 public class NeuronsTest extends water.TestUtil {
   @BeforeClass public static void setup() { stall_till_cloudsize(1); }
 
+  @Test
+  public void matrixMatrixTest() {
+    Random rng = new Random(0xBA7C4);
+    for (int n : new int[]{1, 3, 4, 17}) {
+      final int rows = 1 + rng.nextInt(100);
+      final int cols = 1 + rng.nextInt(2 * GEMM_CACHE_DOUBLES / n); // more than one column block for larger n
+      float[] a = new float[rows * cols];
+      for (int i = 0; i < a.length; ++i)
+        a[i] = (float) rng.nextGaussian();
+      double[] y = new double[rows];
+      for (int row = 0; row < rows; ++row)
+        y[row] = rng.nextGaussian();
+      byte[] bits = new byte[(rows + 7) / 8];
+      rng.nextBytes(bits);
+      Storage.DenseVector[] x = new Storage.DenseVector[n];
+      Storage.DenseVector[] res = new Storage.DenseVector[n];
+      for (int mb = 0; mb < n; ++mb) {
+        x[mb] = new Storage.DenseVector(cols);
+        for (int col = 0; col < cols; ++col)
+          x[mb].set(col, rng.nextGaussian());
+        res[mb] = new Storage.DenseVector(rows);
+        Arrays.fill(res[mb].raw(), 42); // must be overwritten
+      }
+      Storage.DenseRowMatrix dra = new Storage.DenseRowMatrix(a, rows, cols);
+      gemm(res, dra, x, new Storage.DenseVector(y), bits, n);
+      for (int mb = 0; mb < n; ++mb) {
+        double[] expected = new double[rows];
+        gemv_naive(expected, a, x[mb].raw(), y, bits);
+        Assert.assertArrayEquals(expected, res[mb].raw(), 1e-8);
+      }
+    }
+  }
+
+  @Test
+  public void matrixMatrixFloat32Test() {
+    Random rng = new Random(0xF10A7);
+    final int n = 6;
+    final int rows = 50;
+    final int cols = 2 * GEMM_CACHE_DOUBLES / n + 123; // more than one column block
+    float[] a = new float[rows * cols];
+    for (int i = 0; i < a.length; ++i)
+      a[i] = (float) rng.nextGaussian();
+    double[] y = new double[rows];
+    float[][] x = new float[n][cols];
+    double[][] res = new double[n][rows];
+    for (float[] xi : x)
+      for (int col = 0; col < cols; ++col)
+        xi[col] = (float) rng.nextGaussian();
+    gemm_blocked(res, a, x, y, null, n);
+    for (int mb = 0; mb < n; ++mb) {
+      double[] xd = new double[cols];
+      for (int col = 0; col < cols; ++col)
+        xd[col] = x[mb][col];
+      double[] expected = new double[rows];
+      gemv_naive(expected, a, xd, y, null);
+      Assert.assertArrayEquals(expected, res[mb], 1e-5 * Math.sqrt(cols)); // single precision partial sums
+    }
+  }
+
+  @Test
+  public void sparseInputTest() {
+    Random rng = new Random(0x5BA25E);
+    final int n = 5;
+    final int rows = 37;
+    final int cols = 10000;
+    float[] a = new float[rows * cols];
+    for (int i = 0; i < a.length; ++i)
+      a[i] = (float) rng.nextGaussian();
+    double[] y = new double[rows];
+    for (int row = 0; row < rows; ++row)
+      y[row] = rng.nextGaussian();
+    byte[] bits = new byte[(rows + 7) / 8];
+    rng.nextBytes(bits);
+    double[][] x = new double[n][cols];
+    int[][] ids = new int[n][];
+    int[] nnz = new int[n];
+    double[][] res = new double[n][rows];
+    for (int mb = 0; mb < n; ++mb) {
+      nnz[mb] = mb * 7; // includes an empty row
+      ids[mb] = new int[nnz[mb] + 3]; // unused trailing entries
+      for (int k = 0; k < nnz[mb]; ++k) {
+        int col;
+        do col = rng.nextInt(cols); while (x[mb][col] != 0);
+        ids[mb][k] = col;
+        x[mb][col] = rng.nextGaussian();
+      }
+      Arrays.fill(res[mb], 42); // must be overwritten
+    }
+    gemm_sparse_input(res, a, x, ids, nnz, y, bits, n, new double[cols]);
+    for (int mb = 0; mb < n; ++mb) {
+      double[] expected = new double[rows];
+      gemv_naive(expected, a, x[mb], y, bits);
+      Assert.assertArrayEquals(expected, res[mb], 1e-8);
+    }
+  }
+
   @Ignore
   @Test
   public void matrixVecTest() {
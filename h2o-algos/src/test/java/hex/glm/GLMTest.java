@@ -9,6 +9,7 @@ import hex.glm.GLMModel.GLMParameters.Link;
 import hex.glm.GLMModel.GLMParameters.Solver;
 import hex.glm.GLMModel.GLMWeightsFun;
 import hex.glm.GLMTask.*;
+import hex.gram.Gram;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -1177,6 +1178,81 @@ public class GLMTest  extends TestUtil {
     f.delete();
   }
 
+  /**
+   * Trains GLM with more than {@link hex.gram.SparseGram#MIN_COLS} sparse predictors so that the sparse gram is used,
+   * and checks the coefficients against the dense solver. Level "unused" of c1 never occurs and makes a zero column.
+   */
+  @Test
+  public void testSparseGramMatchesDenseSolver() {
+    Scope.enter();
+    try {
+      final int nrows = 4000;
+      Random rnd = new Random(0xFACE);
+      String[] dom1 = new String[701];
+      String[] dom2 = new String[400];
+      for (int i = 0; i < dom1.length; i++)
+        dom1[i] = i == 350 ? "unused" : "a" + i;
+      for (int i = 0; i < dom2.length; i++)
+        dom2[i] = "b" + i;
+      double[] eff1 = new double[dom1.length];
+      double[] eff2 = new double[dom2.length];
+      for (int i = 0; i < eff1.length; i++)
+        eff1[i] = rnd.nextGaussian();
+      for (int i = 0; i < eff2.length; i++)
+        eff2[i] = rnd.nextGaussian();
+      long[] c1 = new long[nrows];
+      long[] c2 = new long[nrows];
+      double[] x = new double[nrows];
+      double[] y = new double[nrows];
+      for (int i = 0; i < nrows; i++) {
+        int l1 = rnd.nextInt(dom1.length - 1);
+        c1[i] = l1 < 350 ? l1 : l1 + 1;
+        c2[i] = rnd.nextInt(dom2.length);
+        x[i] = rnd.nextGaussian();
+        y[i] = 1 + eff1[(int) c1[i]] + eff2[(int) c2[i]] + 0.5 * x[i] + 0.1 * rnd.nextGaussian();
+      }
+      Vec.VectorGroup vg = Vec.VectorGroup.VG_LEN1;
+      Frame fr = new Frame(Key.<Frame>make("sparse_gram_glm"), new String[]{"c1", "c2", "x", "y"},
+              new Vec[]{Vec.makeVec(c1, dom1, vg.addVec()), Vec.makeVec(c2, dom2, vg.addVec()),
+                      Vec.makeVec(x, vg.addVec()), Vec.makeVec(y, vg.addVec())});
+      DKV.put(fr);
+      Scope.track(fr);
+
+      for (boolean intercept : new boolean[]{true, false}) {
+        GLMParameters params = new GLMParameters(Family.gaussian);
+        params._train = fr._key;
+        params._response_column = "y";
+        params._solver = Solver.IRLSM;
+        params._alpha = new double[]{0};
+        params._lambda = new double[]{1e-4};
+        params._intercept = intercept;
+        GLMModel sparse = new GLM(params).trainModel().get();
+        Scope.track_generic(sparse);
+        assertTrue(Gram.useSparse(sparse.dinfo()));
+        GLMModel dense;
+        ComputationState.SPARSE_GRAM = false;
+        try {
+          dense = new GLM(params).trainModel().get();
+        } finally {
+          ComputationState.SPARSE_GRAM = true;
+        }
+        Scope.track_generic(dense);
+
+        HashMap<String, Double> sparseCoefs = sparse.coefficients();
+        HashMap<String, Double> denseCoefs = dense.coefficients();
+        assertEquals(denseCoefs.keySet(), sparseCoefs.keySet());
+        for (String name : denseCoefs.keySet())
+          assertEquals(name, denseCoefs.get(name), sparseCoefs.get(name), 1e-6 * Math.max(1, Math.abs(denseCoefs.get(name))));
+        assertEquals(0, sparseCoefs.get("c1.unused"), 0);
+        if (!intercept)
+          assertEquals(0, sparseCoefs.get("Intercept"), 0);
+        assertEquals(dense._output._training_metrics.mse(), sparse._output._training_metrics.mse(), 1e-8);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
 
   @Test @Ignore public void testConstantColumns(){
     GLMModel model1 = null, model2 = null, model3 = null, model4 = null;
@@ -2065,6 +2141,184 @@ public class GLMTest  extends TestUtil {
     }
   }
 
+  @Test
+  public void testSGDSolver() {
+    Scope.enter();
+    try {
+      final int nrows = 20000;
+      final double[] coefs = new double[]{0.5, -1, 2, 0, 0.3, -0.7};
+      Random rnd = new Random(0xC0FFEE);
+      double[][] cols = new double[coefs.length][nrows];
+      for (int i = 0; i < nrows; i++) {
+        double eta = coefs[coefs.length - 1];
+        for (int j = 0; j < coefs.length - 1; j++) {
+          cols[j][i] = rnd.nextGaussian();
+          eta += coefs[j] * cols[j][i];
+        }
+        cols[coefs.length - 1][i] = rnd.nextDouble() < 1 / (1 + Math.exp(-eta)) ? 1 : 0;
+      }
+      TestFrameBuilder builder = new TestFrameBuilder()
+              .withColNames("x1", "x2", "x3", "x4", "x5", "y")
+              .withUniformVecTypes(coefs.length, Vec.T_NUM)
+              .withChunkLayout(5000, 5000, 5000, 5000);
+      for (int j = 0; j < coefs.length; j++)
+        builder.withDataForCol(j, cols[j]);
+      Frame fr = Scope.track(builder.build());
+
+      for (double lambda : new double[]{0, 1e-2}) {
+        GLMParameters params = new GLMParameters(Family.binomial);
+        params._train = fr._key;
+        params._response_column = "y";
+        params._alpha = new double[]{0.5};
+        params._lambda = new double[]{lambda};
+        params._solver = Solver.IRLSM;
+        GLMModel irlsm = new GLM(params).trainModel().get();
+        Scope.track_generic(irlsm);
+        params._solver = Solver.SGD;
+        params._max_iterations = 20;
+        GLMModel sgd = new GLM(params).trainModel().get();
+        Scope.track_generic(sgd);
+
+        assertArrayEquals(irlsm._output.getNormBeta(), sgd._output.getNormBeta(), 5e-2);
+        double devIrlsm = ((ModelMetricsBinomialGLM) irlsm._output._training_metrics)._resDev;
+        double devSgd = ((ModelMetricsBinomialGLM) sgd._output._training_metrics)._resDev;
+        assertEquals(devIrlsm, devSgd, 5e-3 * devIrlsm);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testGramXYSubset() {
+    final int[] cols = new int[]{0, 2, 3, 5, 7};
+    double[][] xx = new double[cols.length][cols.length];
+    double[] xy = new double[cols.length];
+    for (int i = 0; i < cols.length; i++) {
+      xy[i] = i;
+      for (int j = 0; j < cols.length; j++)
+        xx[i][j] = 10 * cols[i] + cols[j];
+    }
+    ComputationState.GramXY cached = new ComputationState.GramXY(new hex.gram.Gram(xx), xy, null, null, cols, null, 0, 0);
+    double[] beta = new double[]{1, 2, 3};
+    ComputationState.GramXY sub = cached.subset(new int[]{2, 5, 7}, beta);
+    double[][] subXX = sub.gram.getXX();
+    assertEquals(3, subXX.length);
+    int[] subCols = new int[]{2, 5, 7};
+    for (int i = 0; i < subCols.length; i++)
+      for (int j = 0; j < subCols.length; j++)
+        assertEquals(10 * subCols[i] + subCols[j], subXX[i][j], 0);
+    assertArrayEquals(new double[]{1, 3, 4}, sub.xy, 0);
+    assertTrue(sub.match(beta, subCols));
+  }
+
+  /**
+   * x3 is a noisy average of x1 and x2, it enters the lasso path first and is pushed out once x1 and x2 are in.
+   * The sequential strong rules then screen it out, while the first non-null lambda relies on the KKT check to
+   * bring the leading column back. The lambda path and the coefficients have to match a run which keeps all columns
+   * active.
+   */
+  @Test
+  public void testStrongRulesLambdaSearch() {
+    Scope.enter();
+    try {
+      final int nrows = 500;
+      Random rnd = new Random(0xC0DE);
+      double[][] x = new double[6][nrows];
+      double[] y = new double[nrows];
+      for (int i = 0; i < nrows; i++) {
+        x[0][i] = rnd.nextGaussian();
+        x[1][i] = rnd.nextGaussian();
+        x[2][i] = (x[0][i] + x[1][i]) / 2 + 0.3 * rnd.nextGaussian();
+        for (int j = 3; j < x.length; j++)
+          x[j][i] = rnd.nextGaussian();
+        y[i] = x[0][i] + x[1][i] + 0.5 * rnd.nextGaussian();
+      }
+      Vec.VectorGroup vg = Vec.VectorGroup.VG_LEN1;
+      String[] names = new String[]{"x1", "x2", "x3", "x4", "x5", "x6", "y"};
+      Vec[] vecs = new Vec[names.length];
+      for (int j = 0; j < x.length; j++)
+        vecs[j] = Vec.makeVec(x[j], vg.addVec());
+      vecs[x.length] = Vec.makeVec(y, vg.addVec());
+      Frame fr = new Frame(Key.<Frame>make("strong_rules_glm"), names, vecs);
+      DKV.put(fr);
+      Scope.track(fr);
+
+      GLMParameters params = new GLMParameters(Family.gaussian);
+      params._train = fr._key;
+      params._response_column = "y";
+      params._solver = Solver.COORDINATE_DESCENT;
+      params._alpha = new double[]{1};
+      params._lambda_search = true;
+      params._nlambdas = 100;
+      params._lambda_min_ratio = 1e-2;
+      params._early_stopping = false;
+      GLMParameters fullParams = (GLMParameters) params.clone();
+      GLMModel model = new GLM(params).trainModel().get();
+      Scope.track_generic(model);
+      boolean x3Entered = false;
+      for (GLMModel.Submodel sm : model._output._submodels)
+        x3Entered |= sm.getBeta(new double[names.length])[2] != 0;
+      assertTrue(x3Entered);
+      assertEquals(0, model.coefficients().get("x3"), 0);
+
+      GLM unscreened = new GLM(fullParams);
+      unscreened._strongRules = false;
+      GLMModel full = unscreened.trainModel().get();
+      Scope.track_generic(full);
+
+      assertEquals(full._output._submodels.length, model._output._submodels.length);
+      for (int i = 0; i < model._output._submodels.length; i++) {
+        assertEquals(full._output._submodels[i].lambda_value, model._output._submodels[i].lambda_value, 0);
+        assertArrayEquals("submodel " + i, full._output._submodels[i].getBeta(new double[names.length]),
+                model._output._submodels[i].getBeta(new double[names.length]), 1e-3);
+      }
+      HashMap<String, Double> fullCoefs = full.coefficients();
+      HashMap<String, Double> coefs = model.coefficients();
+      for (String name : fullCoefs.keySet())
+        assertEquals(name, fullCoefs.get(name), coefs.get(name), 1e-3 * Math.max(1, Math.abs(fullCoefs.get(name))));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testBlockedCODSweepMatchesSequential() {
+    final int n = 200;
+    Random rnd = new Random(0xC0D);
+    double[][] z = new double[20][n];
+    for (double[] zi : z)
+      for (int j = 0; j < n; j++)
+        zi[j] = rnd.nextGaussian();
+    double[][] xx = new double[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j <= i; j++) {
+        double v = 0;
+        for (double[] zi : z)
+          v += zi[i] * zi[j];
+        xx[i][j] = xx[j][i] = v / z.length;
+      }
+      xx[i][i] += 1;
+    }
+    double[] diagInv = new double[n];
+    double[] grads = new double[n];
+    for (int i = 0; i < n; i++) {
+      diagInv[i] = 1.0 / (xx[i][i] + 1e-2);
+      grads[i] = rnd.nextGaussian();
+    }
+    double[] ub = new double[n];
+    Arrays.fill(ub, 0.5);
+    double[] gradsSeq = grads.clone(), betaSeq = new double[n];
+    double[] gradsBlk = grads.clone(), betaBlk = new double[n];
+    for (int sweep = 0; sweep < 5; sweep++) {
+      double diffSeq = GLM.codNumericSweep(xx, gradsSeq, betaSeq, null, ub, diagInv, 0.1, 0, 3, n - 1);
+      double diffBlk = GLM.codNumericSweepBlocked(xx, gradsBlk, betaBlk, null, ub, diagInv, 0.1, 0, 3, n - 1, 16);
+      assertEquals(diffSeq, diffBlk, 1e-12);
+    }
+    assertArrayEquals(betaSeq, betaBlk, 1e-12);
+    assertArrayEquals(gradsSeq, gradsBlk, 1e-10);
+  }
+
   @Test
   public void testZeroedColumn(){
     Vec x = Vec.makeCon(Vec.newKey(),1,2,3,4,5);
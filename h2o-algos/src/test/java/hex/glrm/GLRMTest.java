@@ -264,6 +264,37 @@ public class GLRMTest extends TestUtil {
     }
   }
 
+  @Test public void testArrestsALS() throws InterruptedException, ExecutionException {
+    // Singular values of the standardized data: the best rank 2 approximation leaves the last two
+    double[] sval = new double[] {11.024148, 6.964086, 4.179904, 2.915146};
+    GLRMModel model = null;
+    Frame train = null;
+    try {
+      train = parse_test_file(Key.make("arrests.hex"), "smalldata/pca_test/USArrests.csv");
+      GLRMParameters parms = new GLRMParameters();
+      parms._train = train._key;
+      parms._k = 2;
+      parms._transform = DataInfo.TransformType.STANDARDIZE;
+      parms._init = GlrmInitialization.PlusPlus;
+      parms._solver = GLRMParameters.Solver.ALS;
+      parms._seed = 1234;
+
+      model = new GLRM(parms).trainModel().get();
+      Log.info("Iteration " + model._output._iterations + ": Objective value = " + model._output._objective);
+      assertEquals(sval[2] * sval[2] + sval[3] * sval[3], model._output._objective, 1e-3);
+      assertTrue(model._output._iterations < parms._max_iterations);
+      for (int i = 1; i < model._output._history_objective.size(); i++)
+        assertTrue(model._output._history_objective.get(i) <= model._output._history_objective.get(i - 1) + 1e-8);
+
+      // ALS is only available for quadratic losses and regularizers
+      parms._loss = GlrmLoss.Huber;
+      assertTrue(new GLRM(parms).error_count() > 0);
+    } finally {
+      if (train != null) train.delete();
+      if (model != null) model.delete();
+    }
+  }
+
   @Test public void testArrestsPlusPlus() throws InterruptedException, ExecutionException {
     GLRMModel model = null;
     Frame train = null;
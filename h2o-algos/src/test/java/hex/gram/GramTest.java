@@ -0,0 +1,180 @@
+package hex.gram;
+
+import hex.DataInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GramTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Test
+  public void testBlockAccumulatorMatchesRowByRow() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(ArrayUtils.frame(new String[]{"x", "y"}, new double[]{0, 1}, new double[]{1, 0}));
+      DataInfo dinfo = new DataInfo(fr, null, 1, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+              false, false, false, false, false, false);
+      Scope.track_generic(dinfo);
+
+      final int nCats = 3; // single categorical column with 3 levels, stored on the diagonal
+      final int nNums = 70;
+      Gram expected = new Gram(nCats + nNums, nCats, nNums, 1, true);
+      Gram actual = new Gram(nCats + nNums, nCats, nNums, 1, true);
+      Gram.BlockAccumulator blocks = new Gram.BlockAccumulator(actual, 16);
+
+      Random rnd = new Random(0xCAFE);
+      for (int i = 0; i < 1000; i++) {
+        double[] nums = new double[nNums];
+        for (int j = 0; j < nNums; j++)
+          nums[j] = rnd.nextInt(10) == 0 ? 0 : rnd.nextGaussian();
+        DataInfo.Row row = dinfo.new Row(false, nums, new int[]{rnd.nextInt(nCats)}, null, i, 0);
+        double w = rnd.nextDouble();
+        expected.addRow(row, w);
+        blocks.addRow(row, w);
+      }
+      blocks.flush();
+
+      assertArrayEquals(expected._diag, actual._diag, 1e-8);
+      assertEquals(expected._xx.length, actual._xx.length);
+      for (int i = 0; i < expected._xx.length; i++)
+        assertArrayEquals("Row " + i, expected._xx[i], actual._xx[i], 1e-8);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static double[][] randomSPD(Random rnd, int n) {
+    double[][] a = new double[n][n];
+    for (int r = 0; r < n + 10; r++) {
+      double[] x = new double[n];
+      for (int j = 0; j < n; j++)
+        x[j] = rnd.nextGaussian();
+      for (int i = 0; i < n; i++)
+        for (int j = 0; j <= i; j++)
+          a[i][j] += x[i] * x[j];
+    }
+    return a;
+  }
+
+  private static double[][] lowerCopy(double[][] a) {
+    double[][] l = new double[a.length][];
+    for (int i = 0; i < a.length; i++)
+      l[i] = Arrays.copyOf(a[i], i + 1);
+    return l;
+  }
+
+  @Test
+  public void testBlockedCholeskyMatchesDecompose2() {
+    Random rnd = new Random(0xFACE);
+    double[][] a = randomSPD(rnd, 300);
+    double[][] expected = Gram.InPlaceCholesky.decompose_2(ArrayUtils.deepClone(a), 10, 4).getL();
+    Gram.InPlaceCholesky actual = Gram.InPlaceCholesky.decomposeBlocked(ArrayUtils.deepClone(a), 64);
+    assertTrue(actual.isSPD());
+    for (int i = 0; i < a.length; i++)
+      assertArrayEquals(Arrays.copyOf(expected[i], i + 1), Arrays.copyOf(actual.getL()[i], i + 1), 1e-10);
+  }
+
+  @Test
+  public void testCholeskyRankOneUpdateAndDropCols() {
+    Random rnd = new Random(0xD00D);
+    final int n = 50;
+    double[][] a = randomSPD(rnd, n);
+    double[][] l = lowerCopy(Gram.InPlaceCholesky.decompose_2(ArrayUtils.deepClone(a), 10, 1).getL());
+    Gram.Cholesky chol = new Gram.Cholesky(lowerCopy(l), new double[0], false);
+
+    // update followed by downdate gives back the original factor
+    double[] x = new double[n];
+    for (int i = 0; i < n; i++)
+      x[i] = rnd.nextGaussian();
+    chol.update(x);
+    chol.downdate(x);
+    for (int i = 0; i < n; i++)
+      assertArrayEquals(l[i], chol._xx[i], 1e-10);
+
+    // dropping columns gives the factor of the reduced matrix
+    int[] cols = new int[]{0, 7, 8, n - 1};
+    double[][] reduced = new double[n - cols.length][n - cols.length];
+    for (int i = 0, ri = 0; i < n; i++) {
+      if (Arrays.binarySearch(cols, i) >= 0) continue;
+      for (int j = 0, rj = 0; j <= i; j++) {
+        if (Arrays.binarySearch(cols, j) >= 0) continue;
+        reduced[ri][rj++] = a[i][j];
+      }
+      ri++;
+    }
+    double[][] expected = Gram.InPlaceCholesky.decompose_2(reduced, 10, 1).getL();
+    Gram.Cholesky dropped = chol.dropCols(cols);
+    assertEquals(n - cols.length, dropped._xx.length);
+    for (int i = 0; i < expected.length; i++)
+      assertArrayEquals(Arrays.copyOf(expected[i], i + 1), dropped._xx[i], 1e-10);
+  }
+
+  @Test
+  public void testCholeskyWithDiagonalPartIsRefactorized() {
+    Random rnd = new Random(0xBEEF);
+    final int nCats = 4;
+    final int n = nCats + 30;
+    // one-hot categorical in front keeps the leading block diagonal
+    double[][] a = new double[n][n];
+    for (int r = 0; r < 200; r++) {
+      double[] x = new double[n];
+      x[rnd.nextInt(nCats)] = 1;
+      for (int j = nCats; j < n; j++)
+        x[j] = rnd.nextGaussian();
+      for (int i = 0; i < n; i++)
+        for (int j = 0; j <= i; j++)
+          a[i][j] += x[i] * x[j];
+    }
+    Gram gram = new Gram(n, nCats, n - nCats, 0, false);
+    for (int i = 0; i < nCats; i++)
+      gram._diag[i] = a[i][i];
+    for (int i = 0; i < n - nCats; i++)
+      gram._xx[i] = Arrays.copyOf(a[nCats + i], nCats + i + 1);
+
+    // dropping columns from both the diagonal and the dense part
+    int[] cols = new int[]{1, nCats + 2, n - 1};
+    double[][] reduced = new double[n - cols.length][n - cols.length];
+    for (int i = 0, ri = 0; i < n; i++) {
+      if (Arrays.binarySearch(cols, i) >= 0) continue;
+      for (int j = 0, rj = 0; j <= i; j++) {
+        if (Arrays.binarySearch(cols, j) >= 0) continue;
+        reduced[ri][rj++] = a[i][j];
+      }
+      ri++;
+    }
+    double[][] expected = Gram.InPlaceCholesky.decompose_2(reduced, 10, 1).getL();
+    double[][] actual = gram.cholesky(null).dropCols(cols).getL();
+    for (int i = 0; i < expected.length; i++)
+      assertArrayEquals(Arrays.copyOf(expected[i], i + 1), Arrays.copyOf(actual[i], i + 1), 1e-10);
+
+    // rank-one update of the full matrix
+    double[] x = new double[n];
+    for (int i = 0; i < n; i++)
+      x[i] = rnd.nextGaussian();
+    double[][] updated = ArrayUtils.deepClone(a);
+    for (int i = 0; i < n; i++)
+      for (int j = 0; j <= i; j++)
+        updated[i][j] += x[i] * x[j];
+    expected = Gram.InPlaceCholesky.decompose_2(updated, 10, 1).getL();
+    Gram.Cholesky chol = gram.cholesky(null);
+    chol.update(x);
+    assertTrue(chol.isSPD());
+    actual = chol.getL();
+    for (int i = 0; i < n; i++)
+      assertArrayEquals(Arrays.copyOf(expected[i], i + 1), Arrays.copyOf(actual[i], i + 1), 1e-10);
+  }
+
+}
@@ -0,0 +1,89 @@
+package hex.gram;
+
+import hex.DataInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.util.ArrayUtils;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SparseGramTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Test
+  public void testSparseGramMatchesDenseGram() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(ArrayUtils.frame(new String[]{"x", "y"}, new double[]{0, 1}, new double[]{1, 0}));
+      DataInfo dinfo = new DataInfo(fr, null, 1, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+              false, false, false, false, false, false);
+      Scope.track_generic(dinfo);
+
+      final int nA = 300, nB = 200, nC = 30; // 3 categoricals, the first one is on the diagonal of the dense gram
+      final int nNums = 5;
+      final int N = nA + nB + nC + nNums;
+      Gram dense = new Gram(N, nA, nNums, 3, true);
+      SparseGram sparse = new SparseGram(N, nNums, true);
+
+      Random rnd = new Random(0xBEAD);
+      for (int i = 0; i < 2000; i++) {
+        double[] nums = new double[nNums];
+        for (int j = 0; j < nNums; j++)
+          nums[j] = rnd.nextGaussian();
+        int[] cats = new int[]{rnd.nextInt(nA), nA + rnd.nextInt(nB), nA + nB + rnd.nextInt(nC)};
+        DataInfo.Row row = dinfo.new Row(false, nums, cats, null, i, 0);
+        double w = rnd.nextDouble();
+        dense.addRow(row, w);
+        sparse.addRow(row, w);
+      }
+      assertEquals(dense.fullN(), sparse.fullN());
+      for (int i = 0; i < dense.fullN(); i++)
+        for (int j = 0; j <= i; j++)
+          assertEquals("(" + i + "," + j + ")", dense.get(i, j), sparse.get(i, j), 1e-10);
+      assertTrue(sparse.sparseness() < 0.1);
+
+      dense.addDiag(1e-2);
+      sparse.addDiag(1e-2);
+      double[] xy = new double[dense.fullN()];
+      for (int i = 0; i < xy.length; i++)
+        xy[i] = rnd.nextGaussian();
+      double[] expected = xy.clone();
+      dense.cholesky(null).solve(expected);
+      SparseGram.SparseCholesky chol = sparse.cholesky();
+      assertTrue(chol.isSPD());
+      double[] actual = xy.clone();
+      chol.solve(actual);
+      assertArrayEquals(expected, actual, 1e-8);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testDropCols() {
+    SparseGram g = new SparseGram(4, 0, false);
+    g._diag = new double[]{4, 0, 5, 6};
+    g.addOffDiag(2, 0, 1);
+    g.addOffDiag(3, 2, 2);
+    g.addOffDiag(3, 0, 3);
+    assertArrayEquals(new int[]{1}, g.findZeroCols());
+    g.dropCols(new int[]{1});
+    assertEquals(3, g.fullN());
+    assertEquals(4, g.get(0, 0), 0);
+    assertEquals(5, g.get(1, 1), 0);
+    assertEquals(1, g.get(1, 0), 0);
+    assertEquals(2, g.get(2, 1), 0);
+    assertEquals(3, g.get(0, 2), 0);
+    assertEquals(3, g.nonZeros());
+  }
+
+}
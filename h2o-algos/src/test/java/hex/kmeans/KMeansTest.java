@@ -255,6 +255,163 @@ public class KMeansTest extends TestUtil {
     }
   }
 
+  @Test public void testHamerly() {
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+
+      for (int k : new int[]{3, 20}) {
+        for (long seed : new long[]{1234, 341534765239617L /*triggers an empty cluster on iris without class*/}) {
+          KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+          parms._train = fr._key;
+          parms._ignored_columns = seed == 1234 ? null : new String[] {"class"};
+          parms._k = k;
+          parms._standardize = true;
+          parms._max_iterations = 20;
+          parms._init = KMeans.Initialization.Random;
+          parms._seed = seed;
+          KMeansModel lloyd = new KMeans(parms).trainModel().get();
+          parms._kmeans_method = KMeans.Method.Hamerly;
+          KMeansModel hamerly = new KMeans(parms).trainModel().get();
+          try {
+            assertHamerlyMatchesLloyd(lloyd, hamerly);
+          } finally {
+            lloyd.delete();
+            hamerly.delete();
+          }
+        }
+      }
+    } finally {
+      if( fr  != null ) fr.delete();
+    }
+  }
+
+  @Test public void testHamerlyAutoK() {
+    KMeansModel lloyd = null, hamerly = null;
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/junit/weather.csv");
+
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._train = fr._key;
+      parms._ignored_columns = new String[]{"Date"};
+      parms._k = 100;  // large enough
+      parms._max_iterations = 20;
+      parms._standardize = true;
+      parms._estimate_k = true;
+      lloyd = doSeed(parms,0);
+      parms._kmeans_method = KMeans.Method.Hamerly;
+      hamerly = doSeed(parms,0);
+      assertHamerlyMatchesLloyd(lloyd, hamerly);
+    } finally {
+      if( fr  != null ) fr.remove();
+      if( lloyd != null ) lloyd.remove();
+      if( hamerly != null ) hamerly.remove();
+    }
+  }
+
+  // Hamerly's bounds only skip distance computations, the iterations must be the same
+  private static void assertHamerlyMatchesLloyd(KMeansModel lloyd, KMeansModel hamerly) {
+    assertArrayEquals(lloyd._output._k, hamerly._output._k);
+    assertEquals(lloyd._output._iterations, hamerly._output._iterations);
+    assertArrayEquals(lloyd._output._size, hamerly._output._size);
+    assertArrayEquals(lloyd._output._reassigned_count, hamerly._output._reassigned_count, 0);
+    assertArrayEquals(lloyd._output._history_withinss, hamerly._output._history_withinss, 1e-10);
+    for (int i = 0; i < lloyd._output._centers_raw.length; i++)
+      assertArrayEquals(lloyd._output._centers_raw[i], hamerly._output._centers_raw[i], 1e-10);
+  }
+
+  @Test public void testMiniBatch() {
+    KMeansModel lloyd = null, miniBatch = null;
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._train = fr._key;
+      parms._ignored_columns = new String[] {"class"};
+      parms._k = 3;
+      parms._standardize = true;
+      parms._max_iterations = 50;
+      parms._init = KMeans.Initialization.PlusPlus;
+      lloyd = doSeed(parms, 0xB1A5);
+      parms._kmeans_method = KMeans.Method.MiniBatch;
+      parms._mini_batch_size = 30;
+      miniBatch = doSeed(parms, 0xB1A5);
+
+      Log.info("Lloyd tot_withinss: " + lloyd._output._tot_withinss + ", MiniBatch tot_withinss: " + miniBatch._output._tot_withinss);
+      assertEquals(fr.numRows(), ArrayUtils.sum(miniBatch._output._size));
+      assertTrue(miniBatch._output._iterations <= parms._max_iterations);
+      assertTrue(miniBatch._output._tot_withinss < 1.2 * lloyd._output._tot_withinss);
+    } finally {
+      if( fr  != null ) fr.delete();
+      if( lloyd != null ) lloyd.delete();
+      if( miniBatch != null ) miniBatch.delete();
+    }
+  }
+
+  @Test public void testMethodValidation() {
+    Frame fr = null;
+    try {
+      fr = ArrayUtils.frame(ard(d(1,0),d(0,0),d(-1,0),d(4,0),d(1,0),d(2,0),d(0,0),d(0,0)));
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._train = fr._key;
+      parms._k = 2;
+      parms._kmeans_method = KMeans.Method.MiniBatch;
+      assertEquals(0, new KMeans(parms).error_count());
+      parms._estimate_k = true;
+      assertEquals(1, new KMeans(parms).error_count());
+      parms._estimate_k = false;
+      parms._mini_batch_size = 0;
+      assertEquals(1, new KMeans(parms).error_count());
+      parms._mini_batch_size = 10;
+      parms._kmeans_method = KMeans.Method.Hamerly;
+      parms._cluster_size_constraints = new int[]{2, 2};
+      assertEquals(1, new KMeans(parms).error_count());
+    } finally {
+      if( fr  != null ) fr.delete();
+    }
+  }
+
+  // k-means|| initialization finds all of many well separated blobs
+  @Test public void testScalableInit() {
+    final int k = 20, cols = 5, rows = 4000;
+    final double sigma = 0.1;
+    Random rng = new Random(0x5CA1E);
+    double[][] blobs = new double[k][cols];
+    for (double[] blob : blobs)
+      for (int j = 0; j < cols; j++)
+        blob[j] = rng.nextDouble() * 20 - 10;
+    double[][] data = new double[rows][cols];
+    for (int i = 0; i < rows; i++)
+      for (int j = 0; j < cols; j++)
+        data[i][j] = blobs[i % k][j] + sigma * rng.nextGaussian();
+    Frame fr = null;
+    try {
+      fr = ArrayUtils.frame(data);
+      for (KMeans.Initialization init : new KMeans.Initialization[]{KMeans.Initialization.PlusPlus, KMeans.Initialization.Furthest}) {
+        KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+        parms._train = fr._key;
+        parms._k = k;
+        parms._standardize = false;
+        parms._init = init;
+        parms._max_iterations = 10;
+        KMeansModel kmm = doSeed(parms, 0xC0FFEE);
+        try {
+          Log.info(init + " initialization took " + kmm._output._init_time_ms + " ms, tot_withinss: " + kmm._output._tot_withinss);
+          assertTrue(kmm._output._init_time_ms >= 0);
+          for (int i = 0; i < k; i++)
+            assertEquals(init.toString(), rows / k, kmm._output._size[i]);
+          assertEquals(rows * cols * sigma * sigma, kmm._output._tot_withinss, 0.2 * rows * cols * sigma * sigma);
+        } finally {
+          kmm.delete();
+        }
+      }
+    } finally {
+      if( fr  != null ) fr.delete();
+    }
+  }
+
   // "datasets directory not always available"
   @Test @Ignore public void testCovtype() {
     Frame fr = null;
@@ -157,6 +157,51 @@ public class PCATest extends TestUtil {
     }
   }
 
+  @Test public void testCheckpointUpdate() throws InterruptedException, ExecutionException {
+    Scope.enter();
+    try {
+      Frame fr = parse_test_file(Key.make("arrests.hex"), "smalldata/pca_test/USArrests.csv");
+      Scope.track(fr);
+      SplitFrame sf = new SplitFrame(fr, new double[] { 0.6, 0.4 }, new Key[] { Key.make("old.hex"), Key.make("new.hex")});
+      sf.exec().get();
+      Frame old = Scope.track((Frame) DKV.getGet(sf._destination_frames[0]));
+      Frame batch = Scope.track((Frame) DKV.getGet(sf._destination_frames[1]));
+
+      pcaParameters._k = 4;
+      pcaParameters._transform = DataInfo.TransformType.STANDARDIZE;
+      pcaParameters._pca_method = PCAParameters.Method.GramSVD;
+      pcaParameters._train = fr._key;
+      PCAModel full = new PCA(pcaParameters).trainModel().get();
+      Scope.track_generic(full);
+
+      pcaParameters._train = old._key;
+      PCAModel first = new PCA(pcaParameters).trainModel().get();
+      Scope.track_generic(first);
+
+      // k covers the rank of the data: the update has to match the model built on all rows
+      pcaParameters._train = batch._key;
+      pcaParameters._checkpoint = first._key;
+      PCAModel updated = new PCA(pcaParameters).trainModel().get();
+      Scope.track_generic(updated);
+
+      Assert.assertEquals(fr.numRows(), updated._output._nobs);
+      Assert.assertArrayEquals(full._output._normSub, updated._output._normSub, 1e-8);
+      Assert.assertArrayEquals(full._output._normMul, updated._output._normMul, 1e-8);
+      Assert.assertEquals(full._output._total_variance, updated._output._total_variance, 1e-8);
+      TestUtil.checkStddev(full._output._std_deviation, updated._output._std_deviation, 1e-6);
+      for (int i = 0; i < full._output._eigenvectors_raw.length; i++)
+        for (int j = 0; j < pcaParameters._k; j++)
+          Assert.assertEquals(Math.abs(full._output._eigenvectors_raw[i][j]),
+                  Math.abs(updated._output._eigenvectors_raw[i][j]), 1e-6);
+
+      // the checkpoint model has to use the same transformation
+      pcaParameters._transform = DataInfo.TransformType.DEMEAN;
+      Assert.assertTrue(new PCA(pcaParameters).error_count() > 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test public void testImputeMissing() throws InterruptedException, ExecutionException {
     Frame train = null;
     double missing_fraction = 0.75;
@@ -2,13 +2,20 @@ package hex.psvm.psvm;
 
 import Jama.CholeskyDecomposition;
 import Jama.Matrix;
+import org.junit.BeforeClass;
 import org.junit.Test;
+import water.TestUtil;
 
 import java.util.Random;
 
 import static org.junit.Assert.*;
 
-public class LLMatrixTest {
+public class LLMatrixTest extends TestUtil {
+
+  @BeforeClass
+  public static void stall() {
+    stall_till_cloudsize(1);
+  }
 
   @Test
   public void cholSolve_identity() {
@@ -84,6 +91,33 @@ public class LLMatrixTest {
     }
   }
 
+  @Test
+  public void cf_multithreaded() {
+    final int N = 300; // large enough for the trailing updates to be done in parallel
+    Random r = new Random(N);
+
+    Matrix spd = makeSPD(r, N);
+
+    LLMatrix matrix = new LLMatrix(N);
+    for (int i = 0; i < N; i++) {
+      for (int j = 0; j <= i; j++) {
+        matrix.set(i, j, spd.get(i, j));
+      }
+    }
+
+    Matrix expectedL = new CholeskyDecomposition(spd).getL();
+
+    LLMatrix L1 = matrix.cf(1);
+    LLMatrix L4 = matrix.cf(4);
+
+    for (int i = 0; i < N; i++) {
+      for (int j = 0; j <= i; j++) {
+        assertEquals(L1.get(i, j), L4.get(i, j), 0);
+        assertEquals(expectedL.get(i, j), L4.get(i, j), 1e-6);
+      }
+    }
+  }
+
   private Matrix makeSPD(Random r, int N) {
     double[][] A = new double[N][];
     double[][] At = new double[N][];
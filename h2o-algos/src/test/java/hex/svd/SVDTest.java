@@ -223,6 +223,54 @@ public class SVDTest extends TestUtil {
     }
   }
 
+  @Test public void testIrisRandomized() throws InterruptedException, ExecutionException {
+    // Top 3 right singular values and vectors, same as GramSVD
+    double[] d_expected = new double[] {96.2090445, 19.0425654, 7.2250378};
+    double[][] v_expected = ard(ard(-0.03169051, -0.32305860,  0.185100382),
+                                ard(-0.04289677,  0.04037565, -0.780961964),
+                                ard(-0.05019689,  0.16836717,  0.551432201),
+                                ard(-0.74915107, -0.26629420, -0.101102186),
+                                ard(-0.37877011, -0.50636060,  0.142219195),
+                                ard(-0.51177078,  0.65945159, -0.005079934),
+                                ard(-0.16742875,  0.32166036,  0.145893901));
+
+    SVDModel model = null;
+    Frame train = null, u = null;
+    try {
+      train = parse_test_file(Key.make("iris.hex"), "smalldata/iris/iris_wheader.csv");
+      SVDModel.SVDParameters parms = new SVDModel.SVDParameters();
+      parms._train = train._key;
+      parms._nv = 3;
+      parms._use_all_factor_levels = true;
+      parms._keep_u = true;
+      parms._transform = DataInfo.TransformType.NONE;
+      parms._svd_method = SVDParameters.Method.Randomized;
+      parms._max_iterations = 20;
+      parms._save_v_frame = false;
+
+      model = new SVD(parms).trainModel().get();
+      Assert.assertTrue(model._output._iterations <= parms._max_iterations);
+      TestUtil.checkEigvec(v_expected, model._output._v, TOLERANCE);
+      Assert.assertArrayEquals(d_expected, model._output._d, TOLERANCE);
+
+      // U = AVD^(-1) has orthonormal columns
+      u = DKV.getGet(model._output._u_key);
+      Assert.assertEquals(train.numRows(), u.numRows());
+      for (int i = 0; i < parms._nv; i++) {
+        for (int j = 0; j <= i; j++) {
+          double dot = 0;
+          for (long row = 0; row < u.numRows(); row++)
+            dot += u.vec(i).at(row) * u.vec(j).at(row);
+          Assert.assertEquals(i == j ? 1 : 0, dot, TOLERANCE);
+        }
+      }
+    } finally {
+      if (train != null) train.delete();
+      if (u != null) u.delete();
+      if (model != null) model.delete();
+    }
+  }
+
   @Test public void testIrisSVDScore() throws InterruptedException, ExecutionException {
     // Expected right singular values and vectors
     double[] d_expected = new double[] {96.2090445, 19.0425654, 7.2250378, 3.1636131, 1.8816739, 1.1451307, 0.5820806};
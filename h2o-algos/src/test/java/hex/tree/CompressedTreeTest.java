@@ -1,6 +1,7 @@
 package hex.tree;
 
 import hex.genmodel.algos.gbm.GbmMojoModel;
+import hex.genmodel.algos.tree.FlatTree;
 import hex.genmodel.algos.tree.SharedTreeGraph;
 import hex.genmodel.algos.tree.SharedTreeMojoModel;
 import hex.genmodel.algos.tree.SharedTreeNode;
@@ -12,6 +13,7 @@ import org.junit.Test;
 import water.DKV;
 import water.Scope;
 import water.TestUtil;
+import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
 
@@ -90,6 +92,71 @@ public class CompressedTreeTest extends TestUtil  {
     }
   }
 
+  @Test
+  public void testScoreWithFlatTree() {
+    try {
+      Scope.enter();
+      Frame f = Scope.track(parse_test_file("smalldata/logreg/prostate.csv"));
+      for (String cat : new String[]{"CAPSULE", "RACE", "DPROS", "GLEASON"}) {
+        f.replace(f.find(cat), f.vec(cat).toCategoricalVec()).remove();
+      }
+      DKV.put(f);
+
+      GBMModel.GBMParameters gbmParams = new GBMModel.GBMParameters();
+      gbmParams._seed = 123;
+      gbmParams._train = f._key;
+      gbmParams._ignored_columns = new String[]{"ID"};
+      gbmParams._response_column = "CAPSULE";
+      gbmParams._ntrees = 10;
+      gbmParams._max_depth = 8;
+      GBMModel model = (GBMModel) Scope.track_generic(new GBM(gbmParams).trainModel().get());
+
+      double[][] data = frameToMatrix(getAdaptedTrainFrame(model));
+      for (int i = 0; i < data.length; i += 3) { // include NAs and unseen levels
+        data[i][i % (data[i].length - 1)] = i % 2 == 0 ? Double.NaN : 42;
+      }
+      String[][] domains = model._output._domains;
+      for (int i = 0; i < model._output._ntrees; i++) {
+        CompressedTree tree = model._output._treeKeys[i][0].get();
+        FlatTree flat = FlatTree.flatten(tree._bits);
+        for (double[] row : data) {
+          assertEquals(SharedTreeMojoModel.scoreTree(tree._bits, row, false, domains), flat.score(row, domains), 0);
+          assertEquals(SharedTreeMojoModel.scoreTree(tree._bits, row, false, domains), tree.score(row, domains), 0);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testScoreTreesBatch() {
+    try {
+      Scope.enter();
+      GBMModel model = trainGbm(7);
+      Frame f = getAdaptedTrainFrame(model);
+      CompressedForest.LocalCompressedForest forest =
+              new CompressedForest(model._output._treeKeys, model._output._domains).fetch();
+      for (int cidx = 0; cidx < f.anyVec().nChunks(); cidx++) {
+        Chunk[] chks = new Chunk[f.numCols()];
+        for (int c = 0; c < chks.length; c++)
+          chks[c] = f.vec(c).chunkForChunkIdx(cidx);
+        double[][] batchPreds = model.scoreTreesBatch(forest, chks);
+        assertEquals(chks[0]._len, batchPreds.length);
+        double[] row = new double[model._output.nfeatures()];
+        for (int r = 0; r < chks[0]._len; r++) {
+          for (int c = 0; c < row.length; c++)
+            row[c] = chks[c].atd(r);
+          double[] preds = new double[3];
+          model.score0(row, preds, 0, 0, model._output._ntrees);
+          assertArrayEquals(preds, batchPreds[r], 0);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testMakeTreeKey() {
     try {
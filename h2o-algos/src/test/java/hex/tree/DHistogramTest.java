@@ -8,6 +8,7 @@ import water.Scope;
 import water.TestUtil;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -71,4 +72,64 @@ public class DHistogramTest extends TestUtil {
     }
   }
 
+  @Test
+  public void addAndReleaseAdoptsOrReturnsPooledBuffers() {
+    DHistogramBufferPool pool = new DHistogramBufferPool();
+    DHistogram root = new DHistogram("test", 20, 1024, (byte) 1, 0, 20, 0,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+    DHistogram copy1 = (DHistogram) root.clone();
+    copy1.init(pool);
+    copy1.incr(3, 1, 1);
+    DHistogram copy2 = (DHistogram) root.clone();
+    copy2.init(pool);
+    copy2.incr(3, 1, 1);
+
+    double[] copy1Vals = copy1._vals;
+    double[] copy2Vals = copy2._vals;
+    root.addAndRelease(copy1, pool); // root adopts the buffer
+    assertSame(copy1Vals, root._vals);
+    assertNull(copy1._vals);
+    root.addAndRelease(copy2, pool); // buffer is returned to the pool
+    assertNull(copy2._vals);
+    assertEquals(2, root.w(root.bin(3)), 0);
+
+    // the released buffer is re-used and it is cleared
+    DHistogram copy3 = (DHistogram) root.clone();
+    copy3._vals = null;
+    copy3.init(pool);
+    assertSame(copy2Vals, copy3._vals);
+    assertEquals(0, copy3.w(copy3.bin(3)), 0);
+  }
+
+  @Test
+  public void updateHistoByRowBlocksMatchesWholeChunk() {
+    final int len = 1000, split = 400;
+    Random rnd = new Random(0xB10C);
+    double[] cs = new double[len];
+    double[] ws = new double[len];
+    double[] ys = new double[len];
+    int[] rows = new int[len];
+    for (int i = 0; i < len; i++) {
+      cs[i] = rnd.nextDouble() * 20;
+      ws[i] = rnd.nextDouble();
+      ys[i] = rnd.nextGaussian();
+      rows[i] = i;
+    }
+    DHistogram root = new DHistogram("test", 20, 1024, (byte) 0, 0, 20, 0,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null);
+    DHistogram whole = root.emptyCopy();
+    whole.init();
+    whole.updateHisto(ws, null, cs, ys, rows, len, 0);
+
+    DHistogram blocks = root.emptyCopy();
+    blocks.init();
+    blocks.updateHisto(ws, null, Arrays.copyOfRange(cs, 0, split), ys, rows, split, 0, 0);
+    blocks.updateHisto(ws, null, Arrays.copyOfRange(cs, split, len), ys, rows, len, split, split);
+
+    assertArrayEquals(whole._vals, blocks._vals, 0);
+    assertEquals(whole.find_min(), blocks.find_min(), 0);
+    assertEquals(whole.find_maxIn(), blocks.find_maxIn(), 0);
+    assertNull(whole.emptyCopy()._vals);
+  }
+
 }
@@ -2,6 +2,7 @@ package hex.tree.drf;
 
 
 import hex.Model;
+import hex.ModelMetrics;
 import hex.ModelMetricsBinomial;
 import hex.ModelMetricsRegression;
 import hex.SplitFrame;
@@ -1759,4 +1760,38 @@ public class DRFTest extends TestUtil {
     }
   }
 
+  @Test public void testIncrementalValidationScoring() {
+    Scope.enter();
+    try {
+      Frame train = parse_test_file("./smalldata/logreg/prostate.csv");
+      train.toCategoricalCol("CAPSULE");
+      train.toCategoricalCol("RACE");
+      Scope.track(train);
+
+      // regression, binomial (with and without double trees) and multinomial models
+      String[] responses = new String[]{"AGE", "CAPSULE", "CAPSULE", "RACE"};
+      boolean[] doubleTrees = new boolean[]{false, false, true, false};
+      for (int i = 0; i < responses.length; i++) {
+        DRFModel.DRFParameters parms = new DRFModel.DRFParameters();
+        parms._train = train._key;
+        parms._valid = train._key;
+        parms._response_column = responses[i];
+        parms._binomial_double_trees = doubleTrees[i];
+        parms._ntrees = 10;
+        parms._score_tree_interval = 1; // validation frame is scored incrementally after each tree
+        parms._seed = 0xC0B0L;
+        parms._ignored_columns = new String[]{"ID"};
+
+        DRFModel model = new DRF(parms).trainModel().get();
+        Scope.track_generic(model);
+
+        Scope.track(model.score(train));
+        ModelMetrics mm = ModelMetrics.getFromDKV(model, train);
+        assertEquals(responses[i], mm.mse(), model._output._validation_metrics.mse(), 1e-8);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
@@ -14,6 +14,8 @@ import hex.genmodel.easy.prediction.MultinomialModelPrediction;
 import hex.genmodel.tools.PredictCsv;
 import hex.genmodel.utils.DistributionFamily;
 import hex.tree.Constraints;
+import hex.tree.DHistogram;
+import hex.tree.DTree;
 import hex.tree.SharedTreeModel;
 import org.junit.*;
 import org.junit.rules.ExpectedException;
@@ -3913,5 +3915,124 @@ public class GBMTest extends TestUtil {
       Scope.exit();
     }
   }
-  
+
+  @Test
+  public void testExternalMemoryBuildsIdenticalTrees() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(parse_test_file("smalldata/prostate/prostate.csv"));
+      fr.replace(1, fr.vec("CAPSULE").toCategoricalVec()).remove();
+      DKV.put(fr);
+      Key<Frame> key = Key.make("prostate_rebalanced");
+      H2O.submitTask(new RebalanceDataSet(fr, key, 8)).join();
+      Frame train = Scope.track((Frame) DKV.getGet(key));
+
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = train._key;
+      parms._response_column = "CAPSULE";
+      parms._ignored_columns = new String[]{"ID"};
+      parms._ntrees = 5;
+      parms._max_depth = 5;
+      parms._sample_rate = 0.8;
+      parms._col_sample_rate = 0.7;
+      parms._seed = 42;
+      GBMModel gbm = new GBM(parms).trainModel().get();
+      Scope.track_generic(gbm);
+
+      parms._external_memory = true;
+      GBMModel gbmExt = new GBM(parms).trainModel().get();
+      Scope.track_generic(gbmExt);
+
+      assertEquals(gbm._output._treeStats._num_trees, gbmExt._output._treeStats._num_trees);
+      assertEquals(gbm._output._treeStats._mean_leaves, gbmExt._output._treeStats._mean_leaves, 0);
+      assertEquals(gbm._output._treeStats._max_depth, gbmExt._output._treeStats._max_depth);
+      Frame preds = Scope.track(gbm.score(train));
+      Frame predsExt = Scope.track(gbmExt.score(train));
+      assertFrameEquals(preds, predsExt, 1e-10);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testExternalMemoryEvictsPredictorChunks() {
+    Scope.enter();
+    try {
+      Frame prostate = Scope.track(parse_test_file("smalldata/prostate/prostate.csv"));
+      Key<Frame> key = Key.make("prostate_rebalanced");
+      H2O.submitTask(new RebalanceDataSet(prostate, key, 8)).join();
+      Frame train = Scope.track((Frame) DKV.getGet(key));
+
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = train._key;
+      parms._response_column = "AGE";
+      parms._ignored_columns = new String[]{"ID"};
+      parms._ntrees = 2;
+      parms._max_depth = 3;
+      parms._external_memory = true;
+      final int[] levels = new int[1];
+      GBMModel gbm = new GBM(parms) {
+        @Override
+        protected DHistogram[][][] buildLayer(Frame fr, int nbins, int nbins_cats, DTree[] ktrees, int[] leafs,
+                                              DHistogram[][][] hcs, boolean build_tree_one_node) {
+          DHistogram[][][] res = super.buildLayer(fr, nbins, nbins_cats, ktrees, leafs, hcs, build_tree_one_node);
+          for (int c = 0; c < _ncols; c++) {
+            if (c == idx_resp() || c == idx_weight()) continue;
+            Vec v = fr.vec(c);
+            for (int cidx = 0; cidx < v.nChunks(); cidx++) {
+              Value val = DKV.get(v.chunkKey(cidx));
+              assertTrue(val.isPersisted());
+              assertFalse("Chunk " + cidx + " of " + fr.name(c) + " is in memory", val.isResident());
+            }
+          }
+          levels[0]++;
+          return res;
+        }
+      }.trainModel().get();
+      Scope.track_generic(gbm);
+      assertTrue(levels[0] > 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testExternalMemoryNotSupportedOnOneNode() {
+    GBMModel.GBMParameters parms = makeGBMParameters();
+    parms._external_memory = true;
+    parms._build_tree_one_node = true;
+    GBM gbm = new GBM(parms);
+    assertTrue(gbm.error_count() > 0);
+    assertTrue(gbm.validationErrors().contains("External memory mode cannot be used together with build_tree_one_node"));
+  }
+
+  @Test
+  public void testScoringHistoryHasLevelBuildTimes() {
+    Scope.enter();
+    try {
+      Frame train = Scope.track(parse_test_file("./smalldata/logreg/prostate.csv"));
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = train._key;
+      parms._response_column = "AGE";
+      parms._ignored_columns = new String[]{"ID"};
+      parms._ntrees = 3;
+      parms._max_depth = 3;
+      parms._score_each_iteration = true;
+      GBMModel gbm = new GBM(parms).trainModel().get();
+      Scope.track_generic(gbm);
+
+      TwoDimTable history = gbm._output._scoring_history;
+      int col = Arrays.asList(history.getColHeaders()).indexOf("Level Build Times [ms]");
+      assertTrue(col >= 0);
+      assertEquals(parms._ntrees + 1, history.getRowDim());
+      for (int row = 1; row < history.getRowDim(); row++) { // the first row is scored before any tree was built
+        String levelTimes = (String) history.get(row, col);
+        assertTrue(levelTimes, levelTimes.startsWith("[") && levelTimes.endsWith("]"));
+        assertEquals(levelTimes, parms._max_depth, levelTimes.split(",").length);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
@@ -1,15 +1,22 @@
 package hex.tree.isofor;
 
+import hex.ModelMetrics;
 import hex.genmodel.algos.tree.SharedTreeNode;
 import hex.genmodel.algos.tree.SharedTreeSubgraph;
+import hex.tree.SharedTreeModel;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import water.DKV;
+import water.Key;
 import water.Scope;
 import water.TestUtil;
 import water.exceptions.H2OIllegalArgumentException;
 import water.fvec.Frame;
+import water.fvec.Vec;
 import water.util.ArrayUtils;
 
+import java.util.*;
+
 import static org.junit.Assert.*;
 
 public class IsolationForestTest extends TestUtil {
@@ -101,6 +108,38 @@ public class IsolationForestTest extends TestUtil {
     }
   }
   
+  @Test
+  public void testValidationScoredIncrementally() {
+    try {
+      Scope.enter();
+      Frame train = Scope.track(parse_test_file("smalldata/anomaly/ecg_discord_train.csv"));
+      Frame valid = Scope.track(parse_test_file("smalldata/anomaly/ecg_discord_test.csv"));
+
+      IsolationForestModel.IsolationForestParameters p = new IsolationForestModel.IsolationForestParameters();
+      p._train = train._key;
+      p._valid = valid._key;
+      p._seed = 0xDECAF;
+      p._ntrees = 7;
+      p._min_rows = 1;
+      p._sample_size = 5;
+      p._score_each_iteration = true; // validation frame is scored after each tree using the cached path lengths
+
+      IsolationForestModel model = new IsolationForest(p).trainModel().get();
+      assertNotNull(model);
+      Scope.track_generic(model);
+
+      ModelMetricsAnomaly mmIncremental = (ModelMetricsAnomaly) model._output._validation_metrics;
+      Scope.track(model.score(valid));
+      ModelMetricsAnomaly mmFull = (ModelMetricsAnomaly) ModelMetrics.getFromDKV(model, valid);
+      assertNotNull(mmFull);
+
+      assertEquals(mmFull._mean_score, mmIncremental._mean_score, 1e-8);
+      assertEquals(mmFull._mean_normalized_score, mmIncremental._mean_normalized_score, 1e-8);
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test // check that mtries can be set to full number of features (same as mtries = 2)
   public void testPubDev6483() {
     try {
@@ -177,4 +216,74 @@ public class IsolationForestTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testPrebinnedSplitsOnGlobalBins() {
+    try {
+      Scope.enter();
+      final int nrows = 2000;
+      final int nanomalies = 10;
+      Random rnd = new Random(0xBEEF);
+      Vec.VectorGroup vg = Vec.VectorGroup.VG_LEN1;
+      String[] names = new String[]{"x1", "x2", "x3"};
+      Vec[] vecs = new Vec[names.length];
+      for (int j = 0; j < names.length; j++) {
+        double[] x = new double[nrows];
+        for (int i = 0; i < nrows; i++)
+          x[i] = i < nanomalies ? 8 + i : rnd.nextGaussian();
+        vecs[j] = Vec.makeVec(x, vg.addVec());
+      }
+      Frame train = new Frame(Key.<Frame>make("prebinned_if"), names, vecs);
+      DKV.put(train);
+      Scope.track(train);
+
+      IsolationForestModel.IsolationForestParameters p = new IsolationForestModel.IsolationForestParameters();
+      p._train = train._key;
+      p._seed = 0xDECAF;
+      p._ntrees = 50;
+      p._col_sample_rate_per_tree = 0.7;
+      p._prebinned_nbins = 8;
+
+      IsolationForestModel model = new IsolationForest(p).trainModel().get();
+      assertNotNull(model);
+      Scope.track_generic(model);
+      assertEquals(SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal, model._parms._histogram_type);
+
+      // the root of every tree can only split on one of the global bins
+      List<Set<Float>> rootSplits = new ArrayList<>();
+      for (String ignored : names)
+        rootSplits.add(new HashSet<Float>());
+      for (int t = 0; t < model._output._ntrees; t++) {
+        SharedTreeNode root = model.getSharedTreeSubgraph(t, 0).rootNode;
+        if (!root.isLeaf())
+          rootSplits.get(root.getColId()).add(root.getSplitValue());
+      }
+      int nRootSplits = 0;
+      for (Set<Float> splits : rootSplits) {
+        assertTrue(splits.size() <= p._prebinned_nbins);
+        nRootSplits += splits.size();
+      }
+      assertTrue(nRootSplits > 0);
+
+      Frame preds = Scope.track(model.score(train));
+      Vec meanLength = preds.vec("mean_length");
+      double inlierMeanLength = 0;
+      for (int i = nanomalies; i < nrows; i++)
+        inlierMeanLength += meanLength.at(i) / (nrows - nanomalies);
+      for (int i = 0; i < nanomalies; i++)
+        assertTrue(meanLength.at(i) < inlierMeanLength);
+
+      IsolationForestModel.IsolationForestParameters p_invalid = new IsolationForestModel.IsolationForestParameters();
+      p_invalid._train = train._key;
+      p_invalid._prebinned_nbins = 1;
+      try {
+        Scope.track_generic(new IsolationForest(p_invalid).trainModel().get());
+        fail();
+      } catch (H2OIllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("ERRR on field: _prebinned_nbins"));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
@@ -51,6 +51,37 @@ public class AggregatorTest extends TestUtil {
     agg.remove();
   }
 
+  @Test public void testAggregatorApproximate() {
+    CreateFrame cf = new CreateFrame();
+    cf.rows = 100000;
+    cf.cols = 4;
+    cf.categorical_fraction = 0.25;
+    cf.integer_fraction = 0.25;
+    cf.real_range = 100;
+    cf.integer_range = 100;
+    cf.missing_fraction = 0.01;
+    cf.seed = 1234;
+    Frame frame = cf.execImpl().get();
+
+    AggregatorModel.AggregatorParameters parms = new AggregatorModel.AggregatorParameters();
+    parms._train = frame._key;
+    parms._target_num_exemplars = 2000;
+    parms._approximate_exemplar_search = true;
+    long start = System.currentTimeMillis();
+    AggregatorModel agg = new Aggregator(parms).trainModel().get();
+    System.out.println("AggregatorModel finished in: " + (System.currentTimeMillis() - start)/1000. + " seconds");
+    agg.checkConsistency();
+    Frame output = agg._output._output_frame.get();
+    System.out.println(output.toTwoDimTable(0,10));
+    long total = 0;
+    for (long c : agg._counts) total += c;
+    Assert.assertEquals(frame.numRows(), total);
+    frame.delete();
+    checkNumExemplars(agg);
+    output.remove();
+    agg.remove();
+  }
+
   @Test public void testAggregatorEigen() {
     CreateFrame cf = new CreateFrame();
     cf.rows = 1000;
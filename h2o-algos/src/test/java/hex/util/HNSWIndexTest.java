@@ -0,0 +1,85 @@
+package hex.util;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class HNSWIndexTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testRecallCosine() {
+    checkRecall(HNSWIndex.Metric.Cosine, 4);
+  }
+
+  @Test
+  public void testRecallSquaredEuclidean() {
+    checkRecall(HNSWIndex.Metric.SquaredEuclidean, 1);
+  }
+
+  private static void checkRecall(HNSWIndex.Metric metric, int nthreads) {
+    final int n = 5000, dim = 16, k = 10, queries = 50;
+    Random r = new Random(0xCAFE);
+    float[][] centers = new float[20][dim];
+    for (float[] c : centers)
+      for (int j = 0; j < dim; j++) c[j] = (float) r.nextGaussian() * 3;
+    float[] data = new float[n * dim];
+    for (int i = 0; i < n; i++) {
+      float[] c = centers[r.nextInt(centers.length)];
+      for (int j = 0; j < dim; j++) data[i * dim + j] = c[j] + (float) r.nextGaussian();
+    }
+
+    HNSWIndex built = HNSWIndex.build(metric, dim, data, nthreads);
+    HNSWIndex added = new HNSWIndex(metric, dim);
+    for (int i = 0; i < n; i++)
+      assertEquals(i, added.add(Arrays.copyOfRange(data, i * dim, (i + 1) * dim)));
+    assertEquals(n, built.size());
+    assertEquals(n, added.size());
+
+    int hitsBuilt = 0, hitsAdded = 0;
+    for (int q = 0; q < queries; q++) {
+      float[] query = Arrays.copyOfRange(data, q * dim, (q + 1) * dim);
+      for (int j = 0; j < dim; j++) query[j] += (float) r.nextGaussian() * 0.1f;
+      Set<Integer> expected = bruteForce(built, query, n, k);
+      for (int id : built.search(query, k)) if (expected.contains(id)) hitsBuilt++;
+      for (int id : added.search(query, k)) if (expected.contains(id)) hitsAdded++;
+    }
+    assertTrue("recall " + hitsBuilt, hitsBuilt >= 0.95 * queries * k);
+    assertTrue("recall " + hitsAdded, hitsAdded >= 0.95 * queries * k);
+  }
+
+  private static Set<Integer> bruteForce(HNSWIndex index, float[] query, int n, int k) {
+    Integer[] ids = new Integer[n];
+    final double[] dist = new double[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+      dist[i] = index.distance(query, i);
+    }
+    Arrays.sort(ids, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) { return Double.compare(dist[o1], dist[o2]); }
+    });
+    return new HashSet<>(Arrays.asList(ids).subList(0, k));
+  }
+
+  @Test
+  public void testMissingValues() {
+    HNSWIndex index = new HNSWIndex(HNSWIndex.Metric.SquaredEuclidean, 3);
+    assertEquals(0, index.search(new float[]{0, 0, 0}, 1).length);
+    index.add(new float[]{0, 0, 0});
+    index.add(new float[]{Float.NaN, 5, 5});
+    index.add(new float[]{1, 1, Float.NaN});
+    // NaNs are skipped and the distance is scaled to the full dimension
+    assertEquals(0, index.distance(new float[]{1, 1, 1}, 2), 0);
+    assertEquals(3 * 32 / 2.0, index.distance(new float[]{1, 1, 1}, 1), 1e-6);
+    assertEquals(Double.POSITIVE_INFINITY, index.distance(new float[]{Float.NaN, Float.NaN, 1}, 2), 0);
+    assertArrayEquals(new int[]{2, 0, 1}, index.search(new float[]{1, 1, 1}, 3));
+  }
+
+}
@@ -0,0 +1,31 @@
+package hex.word2vec;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UnigramTableTest {
+
+  @Test
+  public void buildUnigramTable() {
+    long[] counts = new long[] {1, 2, 3, 10, 100, 1000};
+    UnigramTable t = UnigramTable.buildUnigramTable(counts, UnigramTable.DEFAULT_POWER);
+    assertEquals(counts.length, t.size());
+
+    // probability of each word implied by the alias table: own share of a bucket + overflow from other buckets
+    final int n = counts.length;
+    double[] implied = new double[n];
+    for (int i = 0; i < n; i++) {
+      implied[i] += t._prob[i] / n;
+      implied[t._alias[i]] += (1 - t._prob[i]) / n;
+    }
+    double total = 0;
+    for (long c : counts) total += Math.pow(c, 0.75);
+    for (int i = 0; i < n; i++)
+      assertEquals("word " + i, Math.pow(counts[i], 0.75) / total, implied[i], 1e-6);
+
+    assertEquals(5, t.sample(5, 0.999f));
+    assertEquals(t._alias[0], t.sample(0, 0.999f));
+  }
+
+}
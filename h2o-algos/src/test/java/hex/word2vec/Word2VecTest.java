@@ -74,6 +74,66 @@ public class Word2VecTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testW2V_SG_NegSampling_small() {
+    String[] words = new String[220];
+    for (int i = 0; i < 200; i += 2) { words[i] = "a"; words[i + 1] = "b"; }
+    for (int i = 200; i < 220; i += 2) { words[i] = "a"; words[i + 1] = "c"; }
+    Scope.enter();
+    try {
+      Vec v = Scope.track(svec(words));
+      Frame fr = Scope.track(new Frame(Key.<Frame>make(), new String[]{"Words"}, new Vec[]{v}));
+      DKV.put(fr);
+
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._min_word_freq = 5;
+      p._word_model = Word2Vec.WordModel.SkipGram;
+      p._norm_model = Word2Vec.NormModel.NegSampling;
+      p._negative_samples = 3;
+      p._vec_size = 10;
+      p._window_size = 5;
+      p._sent_sample_rate = 0.001f;
+      p._init_learning_rate = 0.025f;
+      p._epochs = 2;
+
+      Word2VecModel w2vm = (Word2VecModel) Scope.track_generic(new Word2Vec(p).trainModel().get());
+
+      Map<String, Float> hm = w2vm.findSynonyms("a", 2);
+      logResults(hm);
+      assertEquals(new HashSet<>(Arrays.asList("b", "c")), hm.keySet());
+      for (String w : new String[]{"a", "b", "c"})
+        for (float f : w2vm.transform(w))
+          assertFalse(Float.isNaN(f));
+
+      // words/sec is reported for each epoch
+      assertNotNull(w2vm._output._scoring_history);
+      assertEquals(2, w2vm._output._scoring_history.getRowDim());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testW2V_NegSampling_invalidSamples() {
+    Scope.enter();
+    try {
+      Vec v = Scope.track(svec("a", "b"));
+      Frame fr = Scope.track(new Frame(Key.<Frame>make(), new String[]{"Words"}, new Vec[]{v}));
+      DKV.put(fr);
+
+      Word2VecModel.Word2VecParameters p = new Word2VecModel.Word2VecParameters();
+      p._train = fr._key;
+      p._norm_model = Word2Vec.NormModel.NegSampling;
+      p._negative_samples = 0;
+      Word2Vec w2v = new Word2Vec(p);
+      assertEquals(1, w2v.error_count());
+      assertTrue(w2v.validationErrors().contains("_negative_samples"));
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testW2V_pretrained() {
     String[] words = new String[1000];
@@ -108,6 +168,52 @@ public class Word2VecTest extends TestUtil {
     }
   }
 
+  @Test
+  public void testW2V_approximateSynonyms() {
+    Random r = new Random(42);
+    String[] words = new String[2000];
+    double[][] vs = new double[10][words.length];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = "word" + i;
+      for (double[] v : vs) v[i] = r.nextGaussian();
+    }
+    Scope.enter();
+    try {
+      byte[] types = ArrayUtils.constAry(vs.length + 1, Vec.T_NUM);
+      types[0] = Vec.T_STR;
+      TestFrameBuilder builder = new TestFrameBuilder()
+              .withName("w2v-pretrained")
+              .withVecTypes(types)
+              .withDataForCol(0, words);
+      String[] names = new String[vs.length + 1];
+      names[0] = "Word";
+      for (int j = 0; j < vs.length; j++) {
+        names[j + 1] = "V" + (j + 1);
+        builder = builder.withDataForCol(j + 1, vs[j]);
+      }
+      Frame pretrained = Scope.track(builder.withColNames(names).build());
+      Word2VecModel w2vm = (Word2VecModel) Scope.track_generic(Word2Vec.fromPretrainedModel(pretrained).get());
+
+      int hits = 0;
+      for (int i = 100; i < 120; i++) {
+        Map<String, Float> exact = w2vm.findSynonyms(words[i], 5);
+        Map<String, Float> approx = w2vm.findSynonyms(words[i], 5, true);
+        assertEquals(5, approx.size());
+        assertFalse(approx.containsKey(words[i]));
+        for (Map.Entry<String, Float> e : approx.entrySet()) {
+          if (exact.containsKey(e.getKey())) {
+            assertEquals(exact.get(e.getKey()), e.getValue(), 1e-6);
+            hits++;
+          }
+        }
+      }
+      assertTrue("recall " + hits, hits >= 95);
+      assertSame(w2vm.synonymIndex(), w2vm.synonymIndex()); // the index is built only once
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testImportPretrained_invalid() {
     try {
@@ -98,6 +98,26 @@ examples = dict(
 >>> agg.train(training_frame=df)
 >>> new_df = agg.aggregated_frame
 >>> new_df
+""",
+    approximate_exemplar_search="""
+>>> df = h2o.create_frame(rows=10000,
+...                       cols=10,
+...                       categorical_fraction=0.6,
+...                       integer_fraction=0,
+...                       binary_fraction=0,
+...                       real_range=100,
+...                       integer_range=100,
+...                       missing_fraction=0,
+...                       factors=100,
+...                       seed=1234)
+>>> params = {"target_num_exemplars": 1000,
+...           "rel_tol_num_exemplars": 0.5,
+...           "categorical_encoding": "eigen",
+...           "approximate_exemplar_search": True}
+>>> agg = H2OAggregatorEstimator(**params)
+>>> agg.train(training_frame=df)
+>>> new_df = agg.aggregated_frame
+>>> new_df
 """,
     save_mapping_frame="""
 >>> df = h2o.create_frame(rows=10000,
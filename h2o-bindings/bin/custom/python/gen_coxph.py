@@ -187,5 +187,14 @@ examples = dict(
 ...             y=response,
 ...             training_frame=heart)
 >>> len(listdir(checkpoints_dir))
+""",
+    sort_risk_sets="""
+>>> heart = h2o.import_file("http://s3.amazonaws.com/h2o-public-test-data/smalldata/coxph_test/heart.csv")
+>>> heart_coxph = H2OCoxProportionalHazardsEstimator(stop_column="stop",
+...                                                  sort_risk_sets=True)
+>>> heart_coxph.train(x="age",
+...                   y="event",
+...                   training_frame=heart)
+>>> heart_coxph.scoring_history()
 """
 )
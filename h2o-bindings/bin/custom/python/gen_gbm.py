@@ -904,5 +904,16 @@ examples = dict(
 >>> my_gbm.train(x=list(range(1,5)),
 ...              y="constantCol",
 ...              training_frame=train)
+""",
+    external_memory="""
+>>> cars = h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/junit/cars_20mpg.csv")
+>>> predictors = ["displacement","power","weight","acceleration","year"]
+>>> response = "economy_20mpg"
+>>> cars_gbm = H2OGradientBoostingEstimator(external_memory=True,
+...                                         seed=1234)
+>>> cars_gbm.train(x=predictors,
+...                y=response,
+...                training_frame=cars)
+>>> cars_gbm.mse()
 """
 )
@@ -130,6 +130,16 @@ examples = dict(
 ...     titanic_if.train(x=predictors,
 ...                      training_frame=titanic) 
 ...     print(label[key], 'training score', titanic_if.mse(train=True))
+""",
+    prebinned_nbins="""
+>>> cars = h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/junit/cars_20mpg.csv")
+>>> predictors = ["displacement","power","weight","acceleration","year"]
+>>> cars_if = H2OIsolationForestEstimator(prebinned_nbins=32,
+...                                       col_sample_rate_per_tree=.8,
+...                                       seed=1234)
+>>> cars_if.train(x=predictors,
+...               training_frame=cars)
+>>> cars_if.model_performance()
 """,
     sample_rate="""
 >>> airlines= h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/airlines/allyears2k_headers.zip")
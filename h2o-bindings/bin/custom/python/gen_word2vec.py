@@ -131,6 +131,17 @@ examples = dict(
 >>> w2v_model.train(training_frame=words)
 >>> synonyms = w2v_model.find_synonyms("teacher", 3)
 >>> print(synonyms)
+""",
+    negative_samples="""
+>>> job_titles = h2o.import_file(("https://s3.amazonaws.com/h2o-public-test-data/smalldata/craigslistJobTitles.csv"), 
+...                               col_names = ["category", "jobtitle"], 
+...                               col_types = ["string", "string"], 
+...                               header = 1)
+>>> words = job_titles.tokenize(" ")
+>>> w2v_model = H2OWord2vecEstimator(epochs=1, norm_model="neg_sampling", negative_samples=10)
+>>> w2v_model.train(training_frame=words)
+>>> synonyms = w2v_model.find_synonyms("teacher", 3)
+>>> print(synonyms)
 """,
     pre_trained="""
 >>> words = h2o.create_frame(rows=1000,cols=1,
@@ -190,30 +190,67 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   private final static byte ON_dsk = 1<<3;
   /** Check if the backing byte[] has been saved-to-disk */
   public final boolean isPersisted() { return (_persist&ON_dsk)!=0; }
+  /** @return true if the value is held in memory (serialized or as a POJO) */
+  public final boolean isResident() { return _mem != null || _pojo != null; }
   public final void setDsk() { _persist |=  ON_dsk; } // note: not atomic, but only monotonically set bit
   private volatile byte _deleted; // 1 bit of deleted
   public final boolean isDeleted() { return _deleted != 0; }
   public final void setDel() { _deleted=1; } // note: not atomic, but only monotonically set bit
 
 
+  // Writers of a Value (the Cleaner and spillToDisk) are serialized on a lock
+  // striped by Key, not on the Value itself: readers wait on the Value monitor
+  // (block/notifyAll) and must not stall behind a disk write.
+  private static final Object[] PERSIST_LOCKS = new Object[64];
+  static {
+    for( int i=0; i<PERSIST_LOCKS.length; i++ )
+      PERSIST_LOCKS[i] = new Object();
+  }
+  private Object persistLock() { return PERSIST_LOCKS[(_key.hashCode()&0x7FFFFFFF) % PERSIST_LOCKS.length]; }
+
   /** Best-effort store complete Values to disk.  */
   void storePersist() throws java.io.IOException {
-    // 00       then start writing
-    // 01       delete requested; do not write
-    // 10       already written; do nothing
-    // 11       already written & deleted; do nothing
-    if( isDeleted() ) return;   // 01 and 11 cases
-    if( isPersisted() ) return; // 10 case
-    H2O.getPM().store(backend(), this); // Write to disk
-
-    // 00 -> 10 expected, set write bit
-    // 10       assert; only Cleaner writes
-    // 01       delete-during-write; delete again
-    // 11       assert; only Cleaner writes
-    assert !isPersisted();      // Only Cleaner writes
-    setDsk(); // Not locked, not atomic, so can only called by one thread: Cleaner
-    if( isDeleted() ) // Check del bit AFTER setting persist bit; close race with deleting user thread
-      H2O.getPM().delete(backend(), this); // Possibly nothing to delete (race with writer)
+    synchronized( persistLock() ) {
+      // 00       then start writing
+      // 01       delete requested; do not write
+      // 10       already written; do nothing
+      // 11       already written & deleted; do nothing
+      if( isDeleted() ) return;   // 01 and 11 cases
+      if( isPersisted() ) return; // 10 case
+      H2O.getPM().store(backend(), this); // Write to disk
+
+      // 00 -> 10 expected, set write bit
+      // 10       assert; writers are serialized
+      // 01       delete-during-write; delete again
+      // 11       assert; writers are serialized
+      assert !isPersisted();      // Writers are serialized
+      setDsk(); // Not atomic, only called by one writer at a time
+      if( isDeleted() ) // Check del bit AFTER setting persist bit; close race with deleting user thread
+        H2O.getPM().delete(backend(), this); // Possibly nothing to delete (race with writer)
+    }
+  }
+
+  /** Write a Chunk to disk (unless already there) and drop it from memory,
+   *  it is re-loaded from disk on the next access.  Used for streaming data
+   *  that does not fit in memory; only for Chunks that are not written to.
+   *  Replicas of remote Chunks are just dropped, same as in the Cleaner.
+   *  @return true if the Chunk was dropped from memory */
+  public final boolean spillToDisk() {
+    assert _key.isChunkKey();
+    if( _key.home() ) {
+      try { storePersist(); }
+      catch( java.io.FileNotFoundException fnfe ) { return false; } // Racing key delete/remove
+      catch( IOException e ) {
+        Log.warn("Cannot write " + _key + " to disk: " + e.getMessage());
+        return false;
+      }
+      if( !isPersisted() ) return false; // Deleted in the meantime
+    }
+    // Persisted bit is set (or a replica), memOrLoad can always rebuild the Chunk;
+    // POJO first, freeMem does not need either form for Chunks
+    freePOJO();
+    freeMem();
+    return true;
   }
 
   /** Remove dead Values from disk */
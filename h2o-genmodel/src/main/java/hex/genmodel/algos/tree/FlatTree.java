@@ -0,0 +1,267 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.utils.ByteBufferWrapper;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Flattened (array-of-structs) representation of a compressed tree, optimized for scoring.
+ *
+ * The compressed tree byte stream (see `hex.tree.CompressedTree`) is compact but it needs to be decoded
+ * on every row: each node visit parses a variable-length header, skip-sizes and bitset headers.
+ * FlatTree decodes the stream once and stores every split node as a fixed-size struct of 4 ints
+ * in a single contiguous array (nodes are laid out in pre-order, left child follows its parent):
+ *
+ * <pre>
+ *   [0] column index (lower 16 bits) | flags (upper bits)
+ *   [1] split value (raw float bits) or offset of the bitset descriptor in {@code _bitsets}
+ *   [2] left child: offset of the child node in {@code _nodes}, or ~leafIndex for a leaf
+ *   [3] right child: offset of the child node in {@code _nodes}, or ~leafIndex for a leaf
+ * </pre>
+ *
+ * Bitsets are not copied, they are referenced in the original byte array using (byte offset, nbits, bit offset)
+ * descriptors.
+ *
+ * Scoring semantics are identical to {@link SharedTreeMojoModel#scoreTree(byte[], double[], boolean, String[][])}
+ * (current MOJO version) - including the handling of NAs, values outside of the bitset range and unseen levels.
+ * Only prediction is supported, decision paths/leaf assignments still need to be computed on the compressed tree.
+ */
+public final class FlatTree implements Serializable {
+
+  /**
+   * System property that can be used to disable the flattened representation (the compressed representation
+   * will be used for scoring in that case).
+   */
+  public static final String FLAT_TREES_PROPERTY = "sys.ai.h2o.tree.flatScoring";
+
+  private static final int COL_MASK = 0xFFFF;
+  private static final int F_LEFTWARD = 1 << 16;
+  private static final int F_NA_VS_REST = 1 << 17;
+  private static final int F_BITSET = 1 << 18;
+
+  private static final int NsdNaVsRest = NaSplitDir.NAvsREST.value();
+  private static final int NsdNaLeft = NaSplitDir.NALeft.value();
+  private static final int NsdLeft = NaSplitDir.Left.value();
+
+  private final byte[] _bits;     // compressed tree, holds the bitsets
+  private final int[] _nodes;     // split nodes, 4 ints per node
+  private final int[] _bitsets;   // bitset descriptors, 3 ints per bitset: byte offset, nbits, bit offset
+  private final float[] _leaves;  // leaf predictions
+  private final int _root;        // offset of the root node, or ~0 if the tree is just a single leaf
+
+  private FlatTree(byte[] bits, int[] nodes, int[] bitsets, float[] leaves, int root) {
+    _bits = bits;
+    _nodes = nodes;
+    _bitsets = bitsets;
+    _leaves = leaves;
+    _root = root;
+  }
+
+  public static boolean isEnabled() {
+    return Boolean.parseBoolean(System.getProperty(FLAT_TREES_PROPERTY, "true"));
+  }
+
+  public int numNodes() {
+    return _nodes.length / 4;
+  }
+
+  public int numLeaves() {
+    return _leaves.length;
+  }
+
+  /**
+   * Scores a single row of data.
+   *
+   * @param row input row
+   * @param domains domains of the input columns, used to detect unseen categorical levels (can be null)
+   * @return prediction of this tree
+   */
+  public double score(final double[] row, final String[][] domains) {
+    final int[] nodes = _nodes;
+    int n = _root;
+    while (n >= 0) {
+      final int w = nodes[n];
+      final int colId = w & COL_MASK;
+      final double d = row[colId];
+      final boolean right;
+      if (Double.isNaN(d) || ((w & F_BITSET) != 0 && !isInRange(nodes[n + 1], (int) d)) ||
+              (domains != null && domains[colId] != null && domains[colId].length <= (int) d)) {
+        right = (w & F_LEFTWARD) == 0;
+      } else {
+        right = (w & F_NA_VS_REST) == 0 &&
+                ((w & F_BITSET) == 0 ? d >= Float.intBitsToFloat(nodes[n + 1]) : contains(nodes[n + 1], (int) d));
+      }
+      n = nodes[right ? n + 3 : n + 2];
+    }
+    return _leaves[~n];
+  }
+
+  private boolean isInRange(int bs, int idx) {
+    idx -= _bitsets[bs + 2];
+    return idx >= 0 && idx < _bitsets[bs + 1];
+  }
+
+  private boolean contains(int bs, int idx) {
+    idx -= _bitsets[bs + 2];
+    return (_bits[_bitsets[bs] + (idx >> 3)] & (1 << (idx & 7))) != 0;
+  }
+
+  /**
+   * Flattens all given compressed trees, empty (null) trees are kept null.
+   */
+  public static FlatTree[] flatten(byte[][] trees) {
+    FlatTree[] flatTrees = new FlatTree[trees.length];
+    for (int i = 0; i < trees.length; i++) {
+      if (trees[i] != null)
+        flatTrees[i] = flatten(trees[i]);
+    }
+    return flatTrees;
+  }
+
+  /**
+   * Converts a tree in the compressed format (current MOJO version) to the flat representation.
+   *
+   * @param tree compressed tree
+   * @return flat representation of the tree
+   */
+  public static FlatTree flatten(byte[] tree) {
+    Builder b = new Builder(tree);
+    ByteBufferWrapper ab = new ByteBufferWrapper(tree);
+    ab.skip(1); // nodeType
+    if (ab.get2() == 65535) { // the tree is just a single leaf
+      return new FlatTree(tree, new int[0], new int[0], new float[]{ab.get4f()}, ~0);
+    }
+    Deque<Pending> pending = new ArrayDeque<>();
+    pending.push(new Pending(0, -1, -1));
+    while (!pending.isEmpty()) {
+      Pending p = pending.pop();
+      ab.skip(p._pos - ab.position());
+      int nodeType = ab.get1U();
+      int colId = ab.get2();
+      int naSplitDir = ab.get1U();
+      boolean naVsRest = naSplitDir == NsdNaVsRest;
+      boolean leftward = naSplitDir == NsdNaLeft || naSplitDir == NsdLeft;
+      int lmask = (nodeType & 51);
+      int equal = (nodeType & 12);  // Can be one of 0, 8, 12
+      assert equal != 4;  // no longer supported
+
+      int splitVal = 0;
+      int bitset = -1;
+      if (!naVsRest) {
+        if (equal == 0) {
+          splitVal = Float.floatToRawIntBits(ab.get4f());
+        } else if (equal == 8) {
+          bitset = b.addBitset(ab.position(), 32, 0);
+          ab.skip(4);
+        } else {
+          int bitoff = ab.get2();
+          int nbits = ab.get4();
+          bitset = b.addBitset(ab.position(), nbits, bitoff);
+          ab.skip(((nbits - 1) >> 3) + 1);
+        }
+      }
+      // the byte-stream scorer re-uses the most recently decoded bitset for the range check of NA-vs-REST splits,
+      // this is always the bitset of the nearest bitset-split ancestor
+      int effectiveBitset = bitset >= 0 ? bitset : p._bitset;
+      int flags = (leftward ? F_LEFTWARD : 0) | (naVsRest ? F_NA_VS_REST : 0);
+      if (equal != 0 && effectiveBitset >= 0) {
+        flags |= F_BITSET;
+        splitVal = effectiveBitset;
+      }
+      int node = b.addNode(colId | flags, splitVal);
+      if (p._parent >= 0)
+        b._nodes[p._parent] = node;
+
+      int rightPos;
+      Pending left = null;
+      if ((lmask & 16) != 0) {
+        b._nodes[node + 2] = ~b.addLeaf(ab.get4f());
+        rightPos = ab.position();
+      } else {
+        int leftSize;
+        switch (lmask) {
+          case 0: leftSize = ab.get1U(); break;
+          case 1: leftSize = ab.get2(); break;
+          case 2: leftSize = ab.get3(); break;
+          case 3: leftSize = ab.get4(); break;
+          default:
+            throw new IllegalStateException("Illegal lmask value " + lmask + " in tree " + Arrays.toString(tree));
+        }
+        rightPos = ab.position() + leftSize;
+        left = new Pending(ab.position(), node + 2, effectiveBitset);
+      }
+      int rmask = (nodeType & 0xC0) >> 2;
+      if ((rmask & 16) != 0) {
+        ab.skip(rightPos - ab.position());
+        b._nodes[node + 3] = ~b.addLeaf(ab.get4f());
+      } else {
+        pending.push(new Pending(rightPos, node + 3, effectiveBitset));
+      }
+      if (left != null) // left subtree is processed first => it is laid out right after its parent
+        pending.push(left);
+    }
+    return b.build(0);
+  }
+
+  private static final class Pending {
+    final int _pos;     // position of the node in the byte stream
+    final int _parent;  // where to store the reference to this node
+    final int _bitset;  // most recently decoded bitset on the path from root
+    Pending(int pos, int parent, int bitset) {
+      _pos = pos;
+      _parent = parent;
+      _bitset = bitset;
+    }
+  }
+
+  private static final class Builder {
+    private final byte[] _tree;
+    private int[] _nodes = new int[64];
+    private int _nodeCnt;
+    private int[] _bitsets = new int[0];
+    private int _bitsetCnt;
+    private float[] _leaves = new float[16];
+    private int _leafCnt;
+
+    Builder(byte[] tree) {
+      _tree = tree;
+    }
+
+    int addNode(int colAndFlags, int splitVal) {
+      if (_nodeCnt + 4 > _nodes.length)
+        _nodes = Arrays.copyOf(_nodes, _nodes.length * 2);
+      int node = _nodeCnt;
+      _nodes[node] = colAndFlags;
+      _nodes[node + 1] = splitVal;
+      _nodeCnt += 4;
+      return node;
+    }
+
+    int addBitset(int byteoff, int nbits, int bitoff) {
+      if (_bitsetCnt + 3 > _bitsets.length)
+        _bitsets = Arrays.copyOf(_bitsets, Math.max(12, _bitsets.length * 2));
+      int bs = _bitsetCnt;
+      _bitsets[bs] = byteoff;
+      _bitsets[bs + 1] = nbits;
+      _bitsets[bs + 2] = bitoff;
+      _bitsetCnt += 3;
+      return bs;
+    }
+
+    int addLeaf(float pred) {
+      if (_leafCnt == _leaves.length)
+        _leaves = Arrays.copyOf(_leaves, _leaves.length * 2);
+      _leaves[_leafCnt] = pred;
+      return _leafCnt++;
+    }
+
+    FlatTree build(int root) {
+      return new FlatTree(_tree, Arrays.copyOf(_nodes, _nodeCnt), Arrays.copyOf(_bitsets, _bitsetCnt),
+              Arrays.copyOf(_leaves, _leafCnt), root);
+    }
+  }
+
+}
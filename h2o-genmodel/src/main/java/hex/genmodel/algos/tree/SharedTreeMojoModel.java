@@ -27,6 +27,9 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
     
     private static Logger logger = LoggerFactory.getLogger(SharedTreeMojoModel.class);
 
+    /** Number of rows scored by a single tree at once in batch scoring */
+    private static final int BATCH_BLOCK_SIZE = 256;
+
     /**
      * {@code _ntree_groups} is the number of trees requested by the user. For
      * binomial case or regression this is also the total number of trees
@@ -53,6 +56,12 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
      */
     protected byte[][] _compressed_trees_aux;
 
+    /**
+     * Flattened representation of {@link #_compressed_trees} used for scoring, null if not available
+     * (old MOJO versions or disabled by {@link FlatTree#FLAT_TREES_PROPERTY}).
+     */
+    protected FlatTree[] _flat_trees;
+
     /**
      * GLM's beta used for calibrating output probabilities using Platt Scaling.
      */
@@ -64,8 +73,11 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
         _scoreTree = new ScoreTree0(); // First version
       } else if (_mojo_version == 1.1) {
         _scoreTree = new ScoreTree1(); // Second version
-      } else
+      } else {
         _scoreTree = new ScoreTree2(); // Current version
+        if (FlatTree.isEnabled())
+          _flat_trees = FlatTree.flatten(_compressed_trees);
+      }
     }
 
     @Override
@@ -692,6 +704,31 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
         scoreTreeRange(row, 0, _ntree_groups, preds);
     }
 
+    /**
+     * Batch version of {@link #scoreAllTrees(double[], double[])}.
+     */
+    protected void scoreAllTrees(double[][] rows, double[][] preds) {
+        for (double[] p : preds)
+            java.util.Arrays.fill(p, 0);
+        scoreTreeRange(rows, 0, _ntree_groups, preds);
+    }
+
+    /**
+     * Scores a batch of rows. Produces the same predictions as calling {@code score0(rows[i], offsets[i], preds[i])}
+     * for each row but the rows are scored in blocks, each tree is used to score a whole block of rows before
+     * moving to the next tree. This keeps the trees in the CPU cache when scoring large ensembles.
+     * @param rows input rows
+     * @param offsets row offsets (can be null)
+     * @param preds output predictions, one array per row
+     * @return preds array
+     */
+    public final double[][] score0(double[][] rows, double[] offsets, double[][] preds) {
+        scoreAllTrees(rows, preds);
+        for (int i = 0; i < rows.length; i++)
+            unifyPreds(rows[i], offsets != null ? offsets[i] : 0, preds[i]);
+        return preds;
+    }
+
     /**
      * Transforms tree predictions into the final model predictions.
      * For classification: converts tree preds into probability distribution and picks predicted class.
@@ -723,18 +760,55 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
      */
     public final void scoreTreeRange(double[] row, int fromIndex, int toIndex, double[] preds) {
         final int clOffset = _nclasses == 1 ? 0 : 1;
+        final FlatTree[] flatTrees = _flat_trees;
         for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
             int k = clOffset + classIndex;
             int itree = treeIndex(fromIndex, classIndex);
             for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
                 if (_compressed_trees[itree] != null) { // Skip all empty trees
-                  preds[k] += _scoreTree.scoreTree(_compressed_trees[itree], row, false, _domains);
+                  preds[k] += flatTrees != null ?
+                          flatTrees[itree].score(row, _domains) :
+                          _scoreTree.scoreTree(_compressed_trees[itree], row, false, _domains);
                 }
                 itree++;
             }
         }
     }
 
+    /**
+     * Batch version of {@link #scoreTreeRange(double[], int, int, double[])}. Trees are iterated in the outer loop
+     * over blocks of rows.
+     * @param rows input rows
+     * @param fromIndex low endpoint (inclusive) of the tree range
+     * @param toIndex high endpoint (exclusive) of the tree range
+     * @param preds arrays of partial predictions, one for each row
+     */
+    public final void scoreTreeRange(double[][] rows, int fromIndex, int toIndex, double[][] preds) {
+        final int clOffset = _nclasses == 1 ? 0 : 1;
+        final FlatTree[] flatTrees = _flat_trees;
+        for (int blockStart = 0; blockStart < rows.length; blockStart += BATCH_BLOCK_SIZE) {
+            final int blockEnd = Math.min(rows.length, blockStart + BATCH_BLOCK_SIZE);
+            for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
+                int k = clOffset + classIndex;
+                int itree = treeIndex(fromIndex, classIndex);
+                for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
+                    if (_compressed_trees[itree] != null) { // Skip all empty trees
+                        if (flatTrees != null) {
+                            final FlatTree tree = flatTrees[itree];
+                            for (int r = blockStart; r < blockEnd; r++)
+                                preds[r][k] += tree.score(rows[r], _domains);
+                        } else {
+                            final byte[] tree = _compressed_trees[itree];
+                            for (int r = blockStart; r < blockEnd; r++)
+                                preds[r][k] += _scoreTree.scoreTree(tree, rows[r], false, _domains);
+                        }
+                    }
+                    itree++;
+                }
+            }
+        }
+    }
+
     // note that _ntree_group = _treekeys.length
     // ntrees_per_group = _treeKeys[0].length
     public String[] getDecisionPathNames() {
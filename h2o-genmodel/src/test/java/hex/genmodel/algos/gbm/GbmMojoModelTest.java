@@ -67,6 +67,20 @@ public class GbmMojoModelTest {
     assertArrayEquals(expectedPreds, preds, 1e-8);
   }
 
+  @Test
+  public void testScore0Batch() throws Exception {
+    double[][] rows = new double[300][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new double[]{18.7 + i % 7, 1.51, 1.003 * (i % 3), 132.53, 1.15, 0.2 + i % 2, 1.153, 8.3, 0.34, 0.0, i % 2};
+    }
+    rows[42][0] = Double.NaN;
+    double[][] batchPreds = mojo12.score0(rows, null, new double[rows.length][3]);
+    for (int i = 0; i < rows.length; i++) {
+      double[] expectedPreds = mojo12.score0(rows[i], new double[3]);
+      assertArrayEquals(expectedPreds, batchPreds[i], 0);
+    }
+  }
+
   @Test
   public void testPredict() throws Exception {
     EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(mojo12);
@@ -21,7 +21,8 @@ class H2OAggregatorEstimator(H2OEstimator):
     algo = "aggregator"
     param_names = {"model_id", "training_frame", "response_column", "ignored_columns", "ignore_const_cols",
                    "target_num_exemplars", "rel_tol_num_exemplars", "transform", "categorical_encoding",
-                   "save_mapping_frame", "num_iteration_without_new_exemplar", "export_checkpoints_dir"}
+                   "save_mapping_frame", "num_iteration_without_new_exemplar", "approximate_exemplar_search",
+                   "export_checkpoints_dir"}
 
     def __init__(self, **kwargs):
         super(H2OAggregatorEstimator, self).__init__()
@@ -337,6 +338,43 @@ class H2OAggregatorEstimator(H2OEstimator):
         self._parms["num_iteration_without_new_exemplar"] = num_iteration_without_new_exemplar
 
 
+    @property
+    def approximate_exemplar_search(self):
+        """
+        Whether to find the nearest exemplar using an approximate nearest neighbour index (HNSW) instead of scanning all
+        exemplars
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> df = h2o.create_frame(rows=10000,
+        ...                       cols=10,
+        ...                       categorical_fraction=0.6,
+        ...                       integer_fraction=0,
+        ...                       binary_fraction=0,
+        ...                       real_range=100,
+        ...                       integer_range=100,
+        ...                       missing_fraction=0,
+        ...                       factors=100,
+        ...                       seed=1234)
+        >>> params = {"target_num_exemplars": 1000,
+        ...           "rel_tol_num_exemplars": 0.5,
+        ...           "categorical_encoding": "eigen",
+        ...           "approximate_exemplar_search": True}
+        >>> agg = H2OAggregatorEstimator(**params)
+        >>> agg.train(training_frame=df)
+        >>> new_df = agg.aggregated_frame
+        >>> new_df
+        """
+        return self._parms.get("approximate_exemplar_search")
+
+    @approximate_exemplar_search.setter
+    def approximate_exemplar_search(self, approximate_exemplar_search):
+        assert_is_type(approximate_exemplar_search, None, bool)
+        self._parms["approximate_exemplar_search"] = approximate_exemplar_search
+
+
     @property
     def export_checkpoints_dir(self):
         """
@@ -23,7 +23,7 @@ class H2OCoxProportionalHazardsEstimator(H2OEstimator):
     param_names = {"model_id", "training_frame", "start_column", "stop_column", "response_column", "ignored_columns",
                    "weights_column", "offset_column", "stratify_by", "ties", "init", "lre_min", "max_iterations",
                    "interactions", "interaction_pairs", "interactions_only", "use_all_factor_levels",
-                   "export_checkpoints_dir", "single_node_mode"}
+                   "export_checkpoints_dir", "single_node_mode", "sort_risk_sets"}
 
     def __init__(self, **kwargs):
         super(H2OCoxProportionalHazardsEstimator, self).__init__()
@@ -492,6 +492,33 @@ class H2OCoxProportionalHazardsEstimator(H2OEstimator):
         self._parms["single_node_mode"] = single_node_mode
 
 
+    @property
+    def sort_risk_sets(self):
+        """
+        Compute the risk sets from the training frame sorted by stop time instead of per-time aggregates; memory scales
+        with the number of rows instead of distinct times x predictors (for data with many distinct event times). Not
+        supported with a start column.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> heart = h2o.import_file("http://s3.amazonaws.com/h2o-public-test-data/smalldata/coxph_test/heart.csv")
+        >>> heart_coxph = H2OCoxProportionalHazardsEstimator(stop_column="stop",
+        ...                                                  sort_risk_sets=True)
+        >>> heart_coxph.train(x="age",
+        ...                   y="event",
+        ...                   training_frame=heart)
+        >>> heart_coxph.scoring_history()
+        """
+        return self._parms.get("sort_risk_sets")
+
+    @sort_risk_sets.setter
+    def sort_risk_sets(self, sort_risk_sets):
+        assert_is_type(sort_risk_sets, None, bool)
+        self._parms["sort_risk_sets"] = sort_risk_sets
+
+
     def _additional_used_columns(self, parms):
         """
         :return: Start and stop column if specified.
@@ -49,8 +49,9 @@ class H2ODeepLearningEstimator(H2OEstimator):
                    "force_load_balance", "variable_importances", "replicate_training_data", "single_node_mode",
                    "shuffle_training_data", "missing_values_handling", "quiet_mode", "autoencoder", "sparse",
                    "col_major", "average_activation", "sparsity_beta", "max_categorical_features", "reproducible",
-                   "export_weights_and_biases", "mini_batch_size", "categorical_encoding", "elastic_averaging",
-                   "elastic_averaging_moving_rate", "elastic_averaging_regularization", "export_checkpoints_dir"}
+                   "export_weights_and_biases", "mini_batch_size", "float32_activations", "categorical_encoding", "elastic_averaging",
+                   "elastic_averaging_moving_rate", "elastic_averaging_regularization", "parameter_server",
+                   "parameter_server_staleness", "export_checkpoints_dir"}
 
     def __init__(self, **kwargs):
         super(H2ODeepLearningEstimator, self).__init__()
@@ -2701,6 +2702,22 @@ class H2ODeepLearningEstimator(H2OEstimator):
         self._parms["mini_batch_size"] = mini_batch_size
 
 
+    @property
+    def float32_activations(self):
+        """
+        Use single precision (float32) activations for mini-batch training (only if mini_batch_size > 1), which reduces
+        the memory traffic at a small loss of precision.
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("float32_activations")
+
+    @float32_activations.setter
+    def float32_activations(self, float32_activations):
+        assert_is_type(float32_activations, None, bool)
+        self._parms["float32_activations"] = float32_activations
+
+
     @property
     def categorical_encoding(self):
         """
@@ -2828,6 +2845,38 @@ class H2ODeepLearningEstimator(H2OEstimator):
         self._parms["elastic_averaging_regularization"] = elastic_averaging_regularization
 
 
+    @property
+    def parameter_server(self):
+        """
+        Asynchronous parameter server: compute nodes push weight updates to and pull weights from sharded keys on their
+        own cadence instead of averaging the models after every iteration. #Experimental
+
+        Type: ``bool``  (default: ``False``).
+        """
+        return self._parms.get("parameter_server")
+
+    @parameter_server.setter
+    def parameter_server(self, parameter_server):
+        assert_is_type(parameter_server, None, bool)
+        self._parms["parameter_server"] = parameter_server
+
+
+    @property
+    def parameter_server_staleness(self):
+        """
+        Max. number of updates from other nodes a node may miss before it refreshes its weights (only if parameter
+        server is enabled).
+
+        Type: ``int``  (default: ``4``).
+        """
+        return self._parms.get("parameter_server_staleness")
+
+    @parameter_server_staleness.setter
+    def parameter_server_staleness(self, parameter_server_staleness):
+        assert_is_type(parameter_server_staleness, None, int)
+        self._parms["parameter_server_staleness"] = parameter_server_staleness
+
+
     @property
     def export_checkpoints_dir(self):
         """
@@ -35,7 +35,7 @@ class H2OGradientBoostingEstimator(H2OEstimator):
                    "col_sample_rate_change_per_level", "col_sample_rate_per_tree", "min_split_improvement",
                    "histogram_type", "max_abs_leafnode_pred", "pred_noise_bandwidth", "categorical_encoding",
                    "calibrate_model", "calibration_frame", "custom_metric_func", "custom_distribution_func",
-                   "export_checkpoints_dir", "monotone_constraints", "check_constant_response"}
+                   "export_checkpoints_dir", "monotone_constraints", "check_constant_response", "external_memory"}
 
     def __init__(self, **kwargs):
         super(H2OGradientBoostingEstimator, self).__init__()
@@ -1866,4 +1866,31 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         assert_is_type(check_constant_response, None, bool)
         self._parms["check_constant_response"] = check_constant_response
 
+    @property
+    def external_memory(self):
+        """
+        Build the histograms in external memory mode: the predictors are streamed from the local disks in chunk order,
+        only the working columns are kept in memory. Suitable for training frames larger than the memory of the cluster.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> cars = h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/junit/cars_20mpg.csv")
+        >>> predictors = ["displacement","power","weight","acceleration","year"]
+        >>> response = "economy_20mpg"
+        >>> cars_gbm = H2OGradientBoostingEstimator(external_memory=True,
+        ...                                         seed=1234)
+        >>> cars_gbm.train(x=predictors,
+        ...                y=response,
+        ...                training_frame=cars)
+        >>> cars_gbm.mse()
+        """
+        return self._parms.get("external_memory")
+
+    @external_memory.setter
+    def external_memory(self, external_memory):
+        assert_is_type(external_memory, None, bool)
+        self._parms["external_memory"] = external_memory
+
 
@@ -23,9 +23,9 @@ class H2OGeneralizedLowRankEstimator(H2OEstimator):
     param_names = {"model_id", "training_frame", "validation_frame", "ignored_columns", "ignore_const_cols",
                    "score_each_iteration", "loading_name", "transform", "k", "loss", "loss_by_col", "loss_by_col_idx",
                    "multi_loss", "period", "regularization_x", "regularization_y", "gamma_x", "gamma_y",
-                   "max_iterations", "max_updates", "init_step_size", "min_step_size", "seed", "init", "svd_method",
-                   "user_y", "user_x", "expand_user_y", "impute_original", "recover_svd", "max_runtime_secs",
-                   "export_checkpoints_dir"}
+                   "max_iterations", "max_updates", "init_step_size", "min_step_size", "solver", "seed", "init",
+                   "svd_method", "user_y", "user_x", "expand_user_y", "impute_original", "recover_svd",
+                   "max_runtime_secs", "export_checkpoints_dir"}
 
     def __init__(self, **kwargs):
         super(H2OGeneralizedLowRankEstimator, self).__init__()
@@ -604,6 +604,35 @@ class H2OGeneralizedLowRankEstimator(H2OEstimator):
         self._parms["min_step_size"] = min_step_size
 
 
+    @property
+    def solver(self):
+        """
+        Method for the alternating minimization of X and Y: ProximalGradient - one proximal gradient step on X and on Y
+        per iteration, any loss and regularizer; ALS - alternating least squares, X and Y are solved in closed form with
+        one pass over the data per iteration, requires the Quadratic loss (numeric columns only) and None or Quadratic
+        regularizers
+
+        One of: ``"proximal_gradient"``, ``"als"``  (default: ``"proximal_gradient"``).
+
+        :examples:
+
+        >>> arrestsH2O = h2o.import_file("http://h2o-public-test-data.s3.amazonaws.com/smalldata/pca_test/USArrests.csv")
+        >>> arrests_glrm = H2OGeneralizedLowRankEstimator(k=3,
+        ...                                               transform="standardize",
+        ...                                               regularization_x="quadratic",
+        ...                                               gamma_x=0.1,
+        ...                                               solver="als")
+        >>> arrests_glrm.train(x=arrestsH2O.names, training_frame=arrestsH2O)
+        >>> arrests_glrm.show()
+        """
+        return self._parms.get("solver")
+
+    @solver.setter
+    def solver(self, solver):
+        assert_is_type(solver, None, Enum("proximal_gradient", "als"))
+        self._parms["solver"] = solver
+
+
     @property
     def seed(self):
         """
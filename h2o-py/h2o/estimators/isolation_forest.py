@@ -28,7 +28,7 @@ class H2OIsolationForestEstimator(H2OEstimator):
                    "ignore_const_cols", "ntrees", "max_depth", "min_rows", "max_runtime_secs", "seed",
                    "build_tree_one_node", "mtries", "sample_size", "sample_rate", "col_sample_rate_change_per_level",
                    "col_sample_rate_per_tree", "categorical_encoding", "stopping_rounds", "stopping_metric",
-                   "stopping_tolerance", "export_checkpoints_dir"}
+                   "stopping_tolerance", "export_checkpoints_dir", "prebinned_nbins"}
 
     def __init__(self, **kwargs):
         super(H2OIsolationForestEstimator, self).__init__()
@@ -593,3 +593,31 @@ class H2OIsolationForestEstimator(H2OEstimator):
         self._parms["export_checkpoints_dir"] = export_checkpoints_dir
 
 
+    @property
+    def prebinned_nbins(self):
+        """
+        Bin numeric columns once on this many global quantiles before the first tree and only split on these bins,
+        instead of drawing new random split points in each node. Trees keep sampling columns as set by mtries and
+        col_sample_rate_per_tree. Disabled if set to 0.
+
+        Type: ``int``  (default: ``0``).
+
+        :examples:
+
+        >>> cars = h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/junit/cars_20mpg.csv")
+        >>> predictors = ["displacement","power","weight","acceleration","year"]
+        >>> cars_if = H2OIsolationForestEstimator(prebinned_nbins=32,
+        ...                                       col_sample_rate_per_tree=.8,
+        ...                                       seed=1234)
+        >>> cars_if.train(x=predictors,
+        ...               training_frame=cars)
+        >>> cars_if.model_performance()
+        """
+        return self._parms.get("prebinned_nbins")
+
+    @prebinned_nbins.setter
+    def prebinned_nbins(self, prebinned_nbins):
+        assert_is_type(prebinned_nbins, None, int)
+        self._parms["prebinned_nbins"] = prebinned_nbins
+
+
@@ -24,7 +24,8 @@ class H2OKMeansEstimator(H2OEstimator):
                    "keep_cross_validation_predictions", "keep_cross_validation_fold_assignment", "fold_assignment",
                    "fold_column", "ignored_columns", "ignore_const_cols", "score_each_iteration", "k", "estimate_k",
                    "user_points", "max_iterations", "standardize", "seed", "init", "max_runtime_secs",
-                   "categorical_encoding", "export_checkpoints_dir", "cluster_size_constraints"}
+                   "categorical_encoding", "export_checkpoints_dir", "cluster_size_constraints", "kmeans_method",
+                   "mini_batch_size"}
 
     def __init__(self, **kwargs):
         super(H2OKMeansEstimator, self).__init__()
@@ -652,3 +653,56 @@ class H2OKMeansEstimator(H2OEstimator):
         self._parms["cluster_size_constraints"] = cluster_size_constraints
 
 
+    @property
+    def kmeans_method(self):
+        """
+        Method for the Lloyds iterations: Lloyd computes the distances from every row to every cluster center, Hamerly
+        gives the same result but uses bounds (triangle inequality) to skip most distance computations, MiniBatch
+        updates the cluster centers from random samples of mini_batch_size rows.
+
+        One of: ``"lloyd"``, ``"hamerly"``, ``"mini_batch"``  (default: ``"lloyd"``).
+
+        :examples:
+
+        >>> prostate = h2o.import_file("http://s3.amazonaws.com/h2o-public-test-data/smalldata/prostate/prostate.csv.zip")
+        >>> predictors = ["AGE", "RACE", "DPROS", "DCAPS", "PSA", "VOL", "GLEASON"]
+        >>> pros_km = H2OKMeansEstimator(k=50,
+        ...                              kmeans_method="hamerly",
+        ...                              seed=1234)
+        >>> pros_km.train(x=predictors, training_frame=prostate)
+        >>> pros_km.scoring_history()
+        """
+        return self._parms.get("kmeans_method")
+
+    @kmeans_method.setter
+    def kmeans_method(self, kmeans_method):
+        assert_is_type(kmeans_method, None, Enum("lloyd", "hamerly", "mini_batch"))
+        self._parms["kmeans_method"] = kmeans_method
+
+
+    @property
+    def mini_batch_size(self):
+        """
+        Number of rows sampled per iteration (MiniBatch method only).
+
+        Type: ``int``  (default: ``10000``).
+
+        :examples:
+
+        >>> prostate = h2o.import_file("http://s3.amazonaws.com/h2o-public-test-data/smalldata/prostate/prostate.csv.zip")
+        >>> predictors = ["AGE", "RACE", "DPROS", "DCAPS", "PSA", "VOL", "GLEASON"]
+        >>> pros_km = H2OKMeansEstimator(k=5,
+        ...                              kmeans_method="mini_batch",
+        ...                              mini_batch_size=100,
+        ...                              seed=1234)
+        >>> pros_km.train(x=predictors, training_frame=prostate)
+        >>> pros_km.scoring_history()
+        """
+        return self._parms.get("mini_batch_size")
+
+    @mini_batch_size.setter
+    def mini_batch_size(self, mini_batch_size):
+        assert_is_type(mini_batch_size, None, int)
+        self._parms["mini_batch_size"] = mini_batch_size
+
+
@@ -22,7 +22,7 @@ class H2OPrincipalComponentAnalysisEstimator(H2OEstimator):
     param_names = {"model_id", "training_frame", "validation_frame", "ignored_columns", "ignore_const_cols",
                    "score_each_iteration", "transform", "pca_method", "pca_impl", "k", "max_iterations",
                    "use_all_factor_levels", "compute_metrics", "impute_missing", "seed", "max_runtime_secs",
-                   "export_checkpoints_dir"}
+                   "export_checkpoints_dir", "checkpoint"}
 
     def __init__(self, **kwargs):
         super(H2OPrincipalComponentAnalysisEstimator, self).__init__()
@@ -441,6 +441,33 @@ class H2OPrincipalComponentAnalysisEstimator(H2OEstimator):
         self._parms["export_checkpoints_dir"] = export_checkpoints_dir
 
 
+    @property
+    def checkpoint(self):
+        """
+        Model checkpoint to resume training with.
+
+        Type: ``str``.
+
+        :examples:
+
+        >>> iris = h2o.import_file("http://h2o-public-test-data.s3.amazonaws.com/smalldata/iris/iris_wheader.csv")
+        >>> old, new = iris.split_frame(ratios=[.8], seed=1234)
+        >>> iris_pca = H2OPrincipalComponentAnalysisEstimator(k=2, transform="standardize")
+        >>> iris_pca.train(x=iris.names[:4], training_frame=old)
+        >>> iris_pca_updated = H2OPrincipalComponentAnalysisEstimator(k=2,
+        ...                                                           transform="standardize",
+        ...                                                           checkpoint=iris_pca.model_id)
+        >>> iris_pca_updated.train(x=iris.names[:4], training_frame=new)
+        >>> iris_pca_updated.show()
+        """
+        return self._parms.get("checkpoint")
+
+    @checkpoint.setter
+    def checkpoint(self, checkpoint):
+        assert_is_type(checkpoint, None, str, H2OEstimator)
+        self._parms["checkpoint"] = checkpoint
+
+
     def init_for_pipeline(self):
         """
         Returns H2OPCA object which implements fit and transform method to be used in sklearn.Pipeline properly.
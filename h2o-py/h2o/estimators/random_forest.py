@@ -31,7 +31,8 @@ class H2ORandomForestEstimator(H2OEstimator):
                    "sample_rate", "sample_rate_per_class", "binomial_double_trees", "checkpoint",
                    "col_sample_rate_change_per_level", "col_sample_rate_per_tree", "min_split_improvement",
                    "histogram_type", "categorical_encoding", "calibrate_model", "calibration_frame", "distribution",
-                   "custom_metric_func", "export_checkpoints_dir", "check_constant_response"}
+                   "custom_metric_func", "export_checkpoints_dir", "check_constant_response",
+                   "external_memory"}
 
     def __init__(self, **kwargs):
         super(H2ORandomForestEstimator, self).__init__()
@@ -1596,4 +1597,31 @@ class H2ORandomForestEstimator(H2OEstimator):
         assert_is_type(check_constant_response, None, bool)
         self._parms["check_constant_response"] = check_constant_response
 
+    @property
+    def external_memory(self):
+        """
+        Build the histograms in external memory mode: the predictors are streamed from the local disks in chunk order,
+        only the working columns are kept in memory. Suitable for training frames larger than the memory of the cluster.
+
+        Type: ``bool``  (default: ``False``).
+
+        :examples:
+
+        >>> cars = h2o.import_file("https://s3.amazonaws.com/h2o-public-test-data/smalldata/junit/cars_20mpg.csv")
+        >>> predictors = ["displacement","power","weight","acceleration","year"]
+        >>> response = "economy_20mpg"
+        >>> cars_drf = H2ORandomForestEstimator(external_memory=True,
+        ...                                     seed=1234)
+        >>> cars_drf.train(x=predictors,
+        ...                y=response,
+        ...                training_frame=cars)
+        >>> cars_drf.mse()
+        """
+        return self._parms.get("external_memory")
+
+    @external_memory.setter
+    def external_memory(self, external_memory):
+        assert_is_type(external_memory, None, bool)
+        self._parms["external_memory"] = external_memory
+
 
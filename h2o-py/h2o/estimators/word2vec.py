@@ -19,9 +19,9 @@ class H2OWord2vecEstimator(H2OEstimator):
     """
 
     algo = "word2vec"
-    param_names = {"model_id", "training_frame", "min_word_freq", "word_model", "norm_model", "vec_size", "window_size",
-                   "sent_sample_rate", "init_learning_rate", "epochs", "pre_trained", "max_runtime_secs",
-                   "export_checkpoints_dir"}
+    param_names = {"model_id", "training_frame", "min_word_freq", "word_model", "norm_model", "negative_samples",
+                   "vec_size", "window_size", "sent_sample_rate", "init_learning_rate", "epochs", "pre_trained",
+                   "max_runtime_secs", "export_checkpoints_dir"}
 
     def __init__(self, **kwargs):
         super(H2OWord2vecEstimator, self).__init__()
@@ -123,9 +123,9 @@ class H2OWord2vecEstimator(H2OEstimator):
     @property
     def norm_model(self):
         """
-        Use Hierarchical Softmax
+        Use Hierarchical Softmax (HSM) or Negative Sampling (NegSampling)
 
-        One of: ``"hsm"``  (default: ``"hsm"``).
+        One of: ``"hsm"``, ``"neg_sampling"``  (default: ``"hsm"``).
 
         :examples:
 
@@ -143,10 +143,37 @@ class H2OWord2vecEstimator(H2OEstimator):
 
     @norm_model.setter
     def norm_model(self, norm_model):
-        assert_is_type(norm_model, None, Enum("hsm"))
+        assert_is_type(norm_model, None, Enum("hsm", "neg_sampling"))
         self._parms["norm_model"] = norm_model
 
 
+    @property
+    def negative_samples(self):
+        """
+        Number of noise words drawn for each target word when norm_model is NegSampling
+
+        Type: ``int``  (default: ``5``).
+
+        :examples:
+
+        >>> job_titles = h2o.import_file(("https://s3.amazonaws.com/h2o-public-test-data/smalldata/craigslistJobTitles.csv"), 
+        ...                               col_names = ["category", "jobtitle"], 
+        ...                               col_types = ["string", "string"], 
+        ...                               header = 1)
+        >>> words = job_titles.tokenize(" ")
+        >>> w2v_model = H2OWord2vecEstimator(epochs=1, norm_model="neg_sampling", negative_samples=10)
+        >>> w2v_model.train(training_frame=words)
+        >>> synonyms = w2v_model.find_synonyms("teacher", 3)
+        >>> print(synonyms)
+        """
+        return self._parms.get("negative_samples")
+
+    @negative_samples.setter
+    def negative_samples(self, negative_samples):
+        assert_is_type(negative_samples, None, int)
+        self._parms["negative_samples"] = negative_samples
+
+
     @property
     def vec_size(self):
         """
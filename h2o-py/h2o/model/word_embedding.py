@@ -14,12 +14,14 @@ class H2OWordEmbeddingModel(ModelBase):
     Word embedding model.
     """
 
-    def find_synonyms(self, word, count=20):
+    def find_synonyms(self, word, count=20, approximate=False):
         """
         Find synonyms using a word2vec model.
 
         :param str word: A single word to find synonyms for.
         :param int count: The first "count" synonyms will be returned.
+        :param bool approximate: Use an approximate nearest neighbour index instead of scanning the whole vocabulary.
+            The index is built on the first approximate query.
 
         :returns: the approximate reconstruction of the training data.
 
@@ -35,7 +37,8 @@ class H2OWordEmbeddingModel(ModelBase):
         >>> synonyms = w2v_model.find_synonyms("teacher", count = 5)
         >>> print(synonyms)
         """
-        j = h2o.api("GET /3/Word2VecSynonyms", data={'model': self.model_id, 'word': word, 'count': count})
+        j = h2o.api("GET /3/Word2VecSynonyms", data={'model': self.model_id, 'word': word, 'count': count,
+                                                      'approximate': approximate})
         return OrderedDict(sorted(zip(j['synonyms'], j['scores']), key=lambda t: t[1], reverse=True))
 
     def transform(self, words, aggregate_method):